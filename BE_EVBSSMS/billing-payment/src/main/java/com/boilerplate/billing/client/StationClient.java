@@ -5,6 +5,7 @@ import com.boilerplate.billing.client.url.AuthUserApiUrls;
 import com.boilerplate.billing.client.url.StationUrls;
 import com.boilerplate.billing.model.event.consumer.DTO.DriverDTO;
 import com.boilerplate.billing.model.event.consumer.DTO.StationDTO;
+import com.boilerplate.billing.model.event.consumer.DTO.StationSwapForecastDTO;
 import com.boilerplate.billing.model.event.consumer.DTO.StationSwapSummaryDTO;
 import com.boilerplate.billing.model.response.ResponseData;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -76,6 +77,23 @@ public class StationClient {
         return response.getBody().getData();
     }
 
+    /**
+     * Dự báo lượt swap ngày mai và 7 ngày tới của các trạm (tính ở station-service)
+     */
+    public List<StationSwapForecastDTO> getAllSwapForecasts() {
+        ResponseEntity<ResponseData<List<StationSwapForecastDTO>>> response = restTemplate.exchange(
+                StationUrls.GET_SWAP_FORECAST,
+                HttpMethod.GET,
+                createHttpEntity(),
+                new ParameterizedTypeReference<ResponseData<List<StationSwapForecastDTO>>>() {}
+        );
+
+        if (response.getBody() == null || response.getBody().getData() == null) {
+            throw new RuntimeException("Không lấy được dữ liệu từ: " + StationUrls.GET_SWAP_FORECAST);
+        }
+
+        return response.getBody().getData();
+    }
 
     /**
      * Tạo HttpEntity với Authorization header
@@ -4,4 +4,5 @@ public class StationUrls {
     public static final String BASE_URL = "http://STATION-SERVICE/api";
     public static final String GET_STATION_BY_CODE = BASE_URL + "/stations/getbycode/%s";
     public static final String GET_SWAP_REPORT = BASE_URL + "/swaplog/getallsumary";
+    public static final String GET_SWAP_FORECAST = BASE_URL + "/swaplog/forecast";
 }
@@ -0,0 +1,23 @@
+package com.boilerplate.billing.model.event.consumer.DTO;
+
+
+import com.boilerplate.billing.enums.TimeSlot;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class StationSwapForecastDTO {
+    private Long stationId;
+    private boolean trained;        // false = trạm chưa có lịch sử swap
+    private DayForecast nextDay;
+    private List<DayForecast> nextWeek;
+
+    @Data
+    public static class DayForecast {
+        private String date; // yyyy-MM-dd
+        private Map<TimeSlot, Double> slots;
+        private double total;
+    }
+}
@@ -1,6 +1,7 @@
 package com.boilerplate.billing.service;
 
 import com.boilerplate.billing.client.StationClient;
+import com.boilerplate.billing.model.event.consumer.DTO.StationSwapForecastDTO;
 import com.boilerplate.billing.model.event.consumer.DTO.StationSwapSummaryDTO;
 import com.boilerplate.billing.model.response.ResponseData;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -35,19 +36,25 @@ public class GeminiAnalysisService {
             // Lấy dữ liệu từ StationClient
             List<StationSwapSummaryDTO> swapSummaries = stationClient.getAllSwapSummary();
 
+            // Số liệu dự báo do station-service tính, AI chỉ diễn giải chứ không tự dự đoán
+            List<StationSwapForecastDTO> forecasts = stationClient.getAllSwapForecasts();
+
             // Chuyển sang JSON
             String requestJson = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(swapSummaries);
+            String forecastJson = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(forecasts);
 
             String prompt =
-                    "Dựa trên danh sách tổng hợp swap pin trạm dưới đây, hãy phân tích cho từng trạm:\n" +
+                    "Dựa trên danh sách tổng hợp swap pin trạm và dự báo lượt swap dưới đây, hãy phân tích cho từng trạm:\n" +
                             "- Báo cáo tần suất đổi pin, xác định giờ cao điểm\n" +
-                            "- Dự đoán nhu cầu sử dụng trạm cho ngày hôm sau hoặc tuần tới\n" +
+                            "- Nhu cầu sử dụng trạm ngày hôm sau và tuần tới: dùng đúng số liệu trong phần dự báo, không tự ước lượng\n" +
                             "- Đề xuất nâng cấp hạ tầng hoặc dịch vụ\n\n" +
                             "Yêu cầu:\n" +
                             "1. Trả lời dạng danh sách liệt kê, mỗi ý một dòng, bắt đầu bằng '- '\n" +
                             "2. Mỗi trạm bắt đầu bằng tên trạm và ngày\n" +
-                            "3. Không dùng Markdown, không dùng dấu `*` hay `_`\n\n" +
-                            "Dữ liệu JSON:\n" + requestJson;
+                            "3. Không dùng Markdown, không dùng dấu `*` hay `_`\n" +
+                            "4. Trạm có trained = false chưa đủ lịch sử, ghi rõ là chưa có dự báo\n\n" +
+                            "Dữ liệu JSON:\n" + requestJson + "\n\n" +
+                            "Dự báo JSON (theo stationId, số lượt swap dự kiến theo khung giờ):\n" + forecastJson;
 
             Map<String, Object> payload = Map.of(
                     "contents", List.of(
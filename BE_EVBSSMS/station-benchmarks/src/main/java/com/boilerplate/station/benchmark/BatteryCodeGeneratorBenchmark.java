@@ -0,0 +1,58 @@
+package com.boilerplate.station.benchmark;
+
+import com.boilerplate.station.repository.CodeBlockRepository;
+import com.boilerplate.station.service.BatteryCodeGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sinh mã pin: đường nóng trong một khối và chi phí thuê khối mới (bảng code_blocks giả lập trong bộ nhớ),
+ * một luồng và nhiều luồng tranh nhau cùng một bộ đếm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatteryCodeGeneratorBenchmark {
+
+    @Param({"100", "10000"})
+    long blockSize;
+
+    private BatteryCodeGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Long> table = new ConcurrentHashMap<>();
+        CodeBlockRepository repository = Fixtures.stub(CodeBlockRepository.class, Map.of("lease", args ->
+                table.merge((String) args[0], (long) args[1] + (long) args[2], (current, start) -> current + (long) args[2])));
+        generator = new BatteryCodeGenerator(repository, Fixtures.noTransactions(), blockSize);
+    }
+
+    @Benchmark
+    public String generateBatteryCode() {
+        return generator.generateBatteryCode();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateBatteryCodeContended() {
+        return generator.generateBatteryCode();
+    }
+}
@@ -0,0 +1,80 @@
+package com.boilerplate.station.benchmark;
+
+import com.boilerplate.station.model.DTO.BatteryHealthBulkResultDTO;
+import com.boilerplate.station.model.createRequest.BatteryHealthUpdate;
+import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.repository.BatteryRepository;
+import com.boilerplate.station.service.BatteryService;
+import com.boilerplate.station.service.ChargingEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phần CPU của PATCH /api/batteries/update-health: kiểm tra, loại trùng và chia lô trước khi gửi UPDATE.
+ * Repository trả ngay mọi mã (bỏ qua DB), nên kết quả là trần trên của số cập nhật/giây phía service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatteryHealthBulkBenchmark {
+
+    @Param({"1000", "10000"})
+    int updates;
+
+    private BatteryService service;
+    private List<BatteryHealthUpdate> request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Mỗi mã trả về một dòng dựng sẵn (pin FULL, không đi vào ChargingEngine)
+        Map<String, BatteryRepository.UpdatedHealth> rows = new HashMap<>();
+        BatteryRepository repository = Fixtures.stub(BatteryRepository.class,
+                Map.of("updateHealth", args -> Arrays.stream((String[]) args[0]).map(rows::get).toList()));
+        service = new BatteryService(repository, null);
+        Fixtures.inject(service, "maxHealthBatch", 10_000);
+        Fixtures.inject(service, "healthChunkSize", 1000);
+        Fixtures.inject(service, "chargingEngine", new ChargingEngine(null, null, null, null, null,
+                Fixtures.noTransactions(), new SimpleMeterRegistry(), false, 7000, 0, 5000, 1, 60_000));
+
+        // ~1% phần tử không hợp lệ và ~1% mã trùng, như một lô đo từ trạm
+        SplittableRandom random = new SplittableRandom(Fixtures.SEED);
+        request = new ArrayList<>(updates);
+        for (int i = 0; i < updates; i++) {
+            int roll = random.nextInt(100);
+            String code = "BTR" + (1_000_000 + (roll == 1 ? random.nextInt(i + 1) : i));
+            double soh = roll == 0 ? 120 : 70 + random.nextDouble() * 30;
+            request.add(new BatteryHealthUpdate(code, soh, random.nextDouble() * 100));
+            long id = i;
+            rows.computeIfAbsent(code, c -> Fixtures.stub(BatteryRepository.UpdatedHealth.class, Map.of(
+                    "getId", a -> id, "getBatteryCode", a -> c, "getStatus", a -> "FULL")));
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ResponseData<BatteryHealthBulkResultDTO>> updateBatteryHealthBulk() {
+        return service.updateBatteryHealthBulk(request);
+    }
+}
@@ -0,0 +1,61 @@
+package com.boilerplate.station.benchmark;
+
+import com.boilerplate.station.model.entity.ChargeLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChargeLog.calculateEnergyConsumed cho một lô phiên sạc (như lúc ChargingEngine chốt nhiều phiên một lúc).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChargeEnergyBenchmark {
+
+    @Param({"1000", "100000"})
+    int sessions;
+
+    private double[] capacity;
+    private double[] soh;
+    private double[] socBefore;
+    private double[] socAfter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(Fixtures.SEED);
+        capacity = new double[sessions];
+        soh = new double[sessions];
+        socBefore = new double[sessions];
+        socAfter = new double[sessions];
+        for (int i = 0; i < sessions; i++) {
+            capacity[i] = 3000 + random.nextInt(4) * 1000;
+            soh[i] = 75 + random.nextDouble() * 25;
+            socBefore[i] = random.nextDouble() * 50;
+            socAfter[i] = socBefore[i] + random.nextDouble() * (100 - socBefore[i]);
+        }
+    }
+
+    @Benchmark
+    public void calculateEnergyConsumed(Blackhole blackhole) {
+        for (int i = 0; i < sessions; i++) {
+            blackhole.consume(ChargeLog.calculateEnergyConsumed(capacity[i], soh[i], socBefore[i], socAfter[i]));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.boilerplate.station.benchmark;
+
+import com.boilerplate.station.enums.BatteryStatus;
+import com.boilerplate.station.enums.OwnerType;
+import com.boilerplate.station.enums.StationStatus;
+import com.boilerplate.station.model.entity.Battery;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.repository.BatterySwapLogRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Dữ liệu giả lập cho benchmark, sinh tất định theo seed để các lần chạy so sánh được với nhau.
+ * Trạm rải trong khung tọa độ Việt Nam, dày hơn quanh Hà Nội và TP.HCM như dữ liệu thật.
+ */
+public final class Fixtures {
+
+    public static final long SEED = 42L;
+
+    private static final double[][] CITIES = {{21.03, 105.85}, {10.78, 106.70}, {16.05, 108.20}};
+
+    private Fixtures() {
+    }
+
+    public record SlotCount(Long stationId, LocalDate swapDate, Integer slotHour, Long swapCount)
+            implements BatterySwapLogRepository.SlotSwapCount {
+        public Long getStationId() { return stationId; }
+        public LocalDate getSwapDate() { return swapDate; }
+        public Integer getSlotHour() { return slotHour; }
+        public Long getSwapCount() { return swapCount; }
+    }
+
+    /**
+     * {@code n} trạm: 70% quanh ba thành phố lớn (bán kính ~30 km), còn lại rải đều cả nước.
+     */
+    public static List<Station> stations(int n) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Station> stations = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double lat;
+            double lon;
+            if (random.nextDouble() < 0.7) {
+                double[] city = CITIES[random.nextInt(CITIES.length)];
+                lat = city[0] + (random.nextDouble() - 0.5) * 0.55;
+                lon = city[1] + (random.nextDouble() - 0.5) * 0.55;
+            } else {
+                lat = 8.6 + random.nextDouble() * 14.4;
+                lon = 102.2 + random.nextDouble() * 7.2;
+            }
+            stations.add(station(i + 1L, lat, lon));
+        }
+        return stations;
+    }
+
+    public static Station station(long id, double lat, double lon) {
+        Station station = new Station();
+        station.setId(id);
+        station.setStationCode("STT" + (1_000_000 + id));
+        station.setStationName("Trạm " + id);
+        station.setAddress(id + " Nguyễn Văn Linh");
+        station.setPhoneNumber("0900000000");
+        station.setLatitude(lat);
+        station.setLongitude(lon);
+        station.setTotalSlots(20);
+        station.setAvailableSlots(5);
+        station.setStatus(StationStatus.ACTIVE);
+        return station;
+    }
+
+    /**
+     * Trạm kèm {@code batteries} pin và {@code staffs} nhân viên, như bản ghi nạp bằng fetch join.
+     */
+    public static Station largeStation(int batteries, int staffs) {
+        Station station = station(1, 10.78, 106.70);
+        SplittableRandom random = new SplittableRandom(SEED);
+        BatteryStatus[] statuses = BatteryStatus.values();
+        List<Battery> list = new ArrayList<>(batteries);
+        for (int i = 0; i < batteries; i++) {
+            Battery battery = new Battery();
+            battery.setId(i + 1L);
+            battery.setBatteryCode("BTR" + (1_000_000 + i));
+            battery.setModel("LFP-72V");
+            battery.setCapacity(5000.0);
+            battery.setSoh(80 + random.nextDouble() * 20);
+            battery.setSoc(random.nextDouble() * 100);
+            battery.setStatus(statuses[random.nextInt(statuses.length)]);
+            battery.setOwnerType(OwnerType.STATION);
+            battery.setReferenceId(station.getStationCode());
+            battery.setStation(station);
+            list.add(battery);
+        }
+        station.setBatteries(list);
+        List<String> staffList = new ArrayList<>(staffs);
+        for (int i = 0; i < staffs; i++) staffList.add("STF" + i);
+        station.setStaffs(staffList);
+        return station;
+    }
+
+    /**
+     * Kết quả GROUP BY (trạm, ngày, khung giờ) của {@code stations} trạm trong {@code days} ngày,
+     * mỗi trạm có swap ở khoảng 2/3 số giờ, đã sắp theo (trạm, ngày, khung giờ) như DB trả về.
+     */
+    public static List<BatterySwapLogRepository.SlotSwapCount> slotSwapCounts(int stations, int days) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        LocalDate first = LocalDate.of(2025, 1, 1);
+        List<BatterySwapLogRepository.SlotSwapCount> rows = new ArrayList<>(stations * days * 4);
+        for (long s = 1; s <= stations; s++) {
+            for (int d = 0; d < days; d++) {
+                LocalDate date = first.plusDays(d);
+                for (int slot = 0; slot < 24; slot += 6) {
+                    long count = 0;
+                    for (int h = slot; h < slot + 6; h++) {
+                        if (random.nextInt(3) != 0) count += 1 + random.nextInt(12);
+                    }
+                    if (count > 0) rows.add(new SlotCount(s, date, slot, count));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Repository giả bằng dynamic proxy: chỉ các method có trong {@code answers} được trả lời,
+     * method khác ném lỗi để benchmark không vô tình đo một đường đi khác.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) return answer.apply(args);
+            if (method.getName().equals("toString")) return type.getSimpleName() + " stub";
+            if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+            if (method.getName().equals("equals")) return proxy == args[0];
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+        });
+    }
+
+    /**
+     * Transaction manager không làm gì: TransactionTemplate chỉ chạy callback.
+     */
+    public static PlatformTransactionManager noTransactions() {
+        return stub(PlatformTransactionManager.class, Map.of(
+                "getTransaction", args -> new SimpleTransactionStatus(),
+                "commit", args -> null,
+                "rollback", args -> null));
+    }
+
+    /**
+     * Gán field được inject bằng {@code @Autowired}/{@code @Value} khi dựng service ngoài Spring.
+     */
+    public static void inject(Object target, String field, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(field);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
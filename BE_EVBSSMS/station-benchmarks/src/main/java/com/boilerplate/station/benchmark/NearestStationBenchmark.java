@@ -0,0 +1,111 @@
+package com.boilerplate.station.benchmark;
+
+import com.boilerplate.station.model.DTO.NearestStationDTO;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.service.OpenStreetMapService;
+import com.boilerplate.station.service.StationGeoIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tìm K trạm gần nhất qua chỉ mục lưới (OpenStreetMapService.findNearestStations, không gọi OSRM)
+ * so với quét toàn bộ danh sách trạm, và chi phí một lần tính haversine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearestStationBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    int stations;
+
+    @Param({"5", "20"})
+    int k;
+
+    private OpenStreetMapService service;
+    private double[] stationLat;
+    private double[] stationLon;
+    private double[] queryLat;
+    private double[] queryLon;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Station> fixture = Fixtures.stations(stations);
+        StationGeoIndex index = new StationGeoIndex(null, 0.05);
+        stationLat = new double[fixture.size()];
+        stationLon = new double[fixture.size()];
+        for (int i = 0; i < fixture.size(); i++) {
+            index.upsert(fixture.get(i));
+            stationLat[i] = fixture.get(i).getLatitude();
+            stationLon[i] = fixture.get(i).getLongitude();
+        }
+
+        service = new OpenStreetMapService();
+        Fixtures.inject(service, "stationGeoIndex", index);
+        Fixtures.inject(service, "defaultK", 5);
+        Fixtures.inject(service, "maxK", 50);
+        Fixtures.inject(service, "defaultRadiusKm", 0.0);
+        Fixtures.inject(service, "drivingCandidates", 20);
+
+        // Điểm truy vấn lấy quanh các trạm có thật, như người dùng đang ở gần trạm
+        SplittableRandom random = new SplittableRandom(Fixtures.SEED + 1);
+        queryLat = new double[QUERIES];
+        queryLon = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int s = random.nextInt(stationLat.length);
+            queryLat[i] = stationLat[s] + (random.nextDouble() - 0.5) * 0.1;
+            queryLon[i] = stationLon[s] + (random.nextDouble() - 0.5) * 0.1;
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ResponseData<List<NearestStationDTO>>> findNearestStations() {
+        int q = next++ & (QUERIES - 1);
+        return service.findNearestStations(queryLat[q], queryLon[q], k, null, false);
+    }
+
+    /**
+     * Mốc so sánh: cách cũ tính khoảng cách tới mọi trạm rồi sắp xếp.
+     */
+    @Benchmark
+    public double[] fullScanBaseline() {
+        int q = next++ & (QUERIES - 1);
+        double[] distances = new double[stationLat.length];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = service.distance(queryLat[q], queryLon[q], stationLat[i], stationLon[i]);
+        }
+        Arrays.sort(distances);
+        return Arrays.copyOf(distances, k);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double distance() {
+        int q = next++ & (QUERIES - 1);
+        int s = q % stationLat.length;
+        return service.distance(queryLat[q], queryLon[q], stationLat[s], stationLon[s]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.boilerplate.station.benchmark;
+
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.service.RebalancingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lập kế hoạch cân bằng pin (RebalancingService.plan, luồng chi phí nhỏ nhất) trên các trạm giả lập.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RebalancingBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    int stations;
+
+    private RebalancingService service;
+    private List<RebalancingService.StationState> states;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new RebalancingService(null, null, null, null, null, Fixtures.noTransactions(),
+                new SimpleMeterRegistry(), false, 1.2, 2, 30, 10, "ANY");
+
+        // Khoảng 1/3 trạm thiếu, 1/3 dư, còn lại cân bằng
+        SplittableRandom random = new SplittableRandom(Fixtures.SEED);
+        states = new ArrayList<>(stations);
+        for (Station station : Fixtures.stations(stations)) {
+            int target = 5 + random.nextInt(15);
+            int available = switch (random.nextInt(3)) {
+                case 0 -> random.nextInt(target);
+                case 1 -> target + 3 + random.nextInt(15);
+                default -> target;
+            };
+            states.add(new RebalancingService.StationState(station.getId(), station.getLatitude(),
+                    station.getLongitude(), available, target));
+        }
+    }
+
+    @Benchmark
+    public List<RebalancingService.Transfer> plan() {
+        return service.plan(states);
+    }
+}
@@ -0,0 +1,45 @@
+package com.boilerplate.station.benchmark;
+
+import com.boilerplate.station.model.DTO.StationDTO;
+import com.boilerplate.station.model.entity.Station;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StationDTO.fromEntity với trạm có nhiều pin (bản chi tiết /api/stations kèm danh sách pin).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StationMappingBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    int batteries;
+
+    private Station station;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        station = Fixtures.largeStation(batteries, 10);
+    }
+
+    @Benchmark
+    public StationDTO fromEntity() {
+        return StationDTO.fromEntity(station);
+    }
+}
@@ -0,0 +1,96 @@
+package com.boilerplate.station.benchmark;
+
+import com.boilerplate.station.enums.TimeSlot;
+import com.boilerplate.station.model.event.Producer.BatterySwapSummary;
+import com.boilerplate.station.service.SwapForecastService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dự báo swap: dựng mô hình Holt-Winters từ lịch sử lúc khởi động (train) và dự báo 7 ngày cho một trạm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwapForecastBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 1);
+
+    @Param({"100", "1000"})
+    int stations;
+
+    @Param({"56"})
+    int historyDays;
+
+    private List<BatterySwapSummary> history;
+    private SwapForecastService trained;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(Fixtures.SEED);
+        history = new ArrayList<>(stations * historyDays * TimeSlot.values().length);
+        for (long s = 1; s <= stations; s++) {
+            for (int d = historyDays; d >= 1; d--) {
+                LocalDate date = TODAY.minusDays(d);
+                int weekend = date.getDayOfWeek().getValue() >= 6 ? 5 : 0;
+                for (TimeSlot slot : TimeSlot.values()) {
+                    BatterySwapSummary row = new BatterySwapSummary();
+                    row.setStationId(s);
+                    row.setDate(date);
+                    row.setTimeSlot(slot);
+                    row.setSwapCount(weekend + random.nextInt(10));
+                    history.add(row);
+                }
+            }
+        }
+        trained = newService();
+        trained.train(history, TODAY.minusDays(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        trained.shutdown();
+    }
+
+    private static SwapForecastService newService() {
+        return new SwapForecastService(null, new SimpleMeterRegistry(), 0.3, 0.05, 0.2, 56, 0);
+    }
+
+    @Benchmark
+    public SwapForecastService train() {
+        SwapForecastService service = newService();
+        try {
+            service.train(history, TODAY.minusDays(1));
+            return service;
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object forecastOneStation() {
+        return trained.forecast(1L, TODAY);
+    }
+}
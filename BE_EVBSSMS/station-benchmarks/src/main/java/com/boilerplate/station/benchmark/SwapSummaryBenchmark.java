@@ -0,0 +1,75 @@
+package com.boilerplate.station.benchmark;
+
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.model.event.Producer.StationSwapSummaryDTO;
+import com.boilerplate.station.repository.ArchivedLogFileRepository;
+import com.boilerplate.station.repository.BatterySwapLogRepository;
+import com.boilerplate.station.repository.ChargeLogRepository;
+import com.boilerplate.station.repository.StationRepository;
+import com.boilerplate.station.service.LogArchiveService;
+import com.boilerplate.station.service.StationSwapSummaryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phần gom nhóm trong bộ nhớ của StationSwapSummaryService.getAllSwapSummary: từ các dòng (trạm, ngày, khung giờ)
+ * DB trả về tới danh sách DTO theo khung giờ. Repository trả dữ liệu dựng sẵn nên không tính thời gian query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwapSummaryBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int stations;
+
+    @Param({"30"})
+    int days;
+
+    private StationSwapSummaryService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<BatterySwapLogRepository.SlotSwapCount> rows = Fixtures.slotSwapCounts(stations, days);
+        List<Station> stationList = Fixtures.stations(stations);
+
+        BatterySwapLogRepository swapLogRepository = Fixtures.stub(BatterySwapLogRepository.class,
+                Map.of("countSwapsByStationDateSlot", args -> rows));
+        StationRepository stationRepository = Fixtures.stub(StationRepository.class,
+                Map.of("findAllById", args -> stationList));
+        // Không có tháng nào đã lưu trữ: đi đường phân trang trong DB như phần lớn truy vấn
+        ArchivedLogFileRepository archivedFileRepository = Fixtures.stub(ArchivedLogFileRepository.class,
+                Map.of("findOverlapping", args -> List.of()));
+        LogArchiveService logArchiveService = new LogArchiveService(
+                Fixtures.stub(BatterySwapLogRepository.class, Map.of()),
+                Fixtures.stub(ChargeLogRepository.class, Map.of()),
+                archivedFileRepository, new ObjectMapper(), Fixtures.noTransactions(),
+                new SimpleMeterRegistry(), "archive", 3, 5000, false);
+
+        service = new StationSwapSummaryService(swapLogRepository, stationRepository, logArchiveService);
+    }
+
+    @Benchmark
+    public List<StationSwapSummaryDTO> getAllSwapSummary() {
+        return service.getAllSwapSummary();
+    }
+}
@@ -0,0 +1,78 @@
+package com.boilerplate.station.benchmark.db;
+
+import com.boilerplate.station.benchmark.Fixtures;
+import com.boilerplate.station.model.DTO.BatteryHealthBulkResultDTO;
+import com.boilerplate.station.model.createRequest.BatteryHealthUpdate;
+import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.service.BatteryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PATCH /api/batteries/update-health đầy đủ: {@code updates} pin có thật trong DB, UPDATE theo khối
+ * {@code chunk-size} trong một transaction. Hai yêu cầu luân phiên mang giá trị khác nhau để mỗi lần gọi
+ * đều thật sự đổi dòng. Số cập nhật/giây = updates / thời gian mỗi lần gọi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatteryHealthDbBenchmark {
+
+    @Param({"10000"})
+    int updates;
+
+    private StationDatabase db;
+    private BatteryService service;
+    private List<List<BatteryHealthUpdate>> requests;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = StationDatabase.start("station.battery-health.max-batch=" + updates);
+        service = db.bean(BatteryService.class);
+        long stationId = db.station("BMK-HEALTH");
+        List<String> codes = db.stationBatteries(stationId, "BMK-HEALTH-B", updates);
+
+        SplittableRandom random = new SplittableRandom(Fixtures.SEED);
+        requests = new ArrayList<>(2);
+        for (int r = 0; r < 2; r++) {
+            List<BatteryHealthUpdate> request = new ArrayList<>(updates);
+            for (String code : codes) {
+                request.add(new BatteryHealthUpdate(code, 70 + random.nextDouble() * 30, random.nextDouble() * 100));
+            }
+            requests.add(request);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<ResponseData<BatteryHealthBulkResultDTO>> updateBatteryHealthBulk() {
+        List<BatteryHealthUpdate> request = requests.get(next);
+        next ^= 1;
+        return service.updateBatteryHealthBulk(request);
+    }
+}
@@ -0,0 +1,87 @@
+package com.boilerplate.station.benchmark.db;
+
+import com.boilerplate.station.model.event.Consumer.BatterySwapEvent;
+import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.service.BatteryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Số lượt đổi pin/giây qua {@code BatteryService.handleBatterySwap} (transaction thật, khóa hai dòng pin,
+ * ghi log qua LogAppendWriter) tại một trạm có {@code batteries} pin.
+ * Xe trả pin đang lắp và nhận lần lượt từng pin của trạm, nên trạm luôn giữ đủ số pin giữa các lượt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatterySwapDbBenchmark {
+
+    private static final String VEHICLE_ID = "BMK-VEHICLE-1";
+
+    @Param({"500"})
+    int batteries;
+
+    @Param({"sync", "async"})
+    String durability;
+
+    private StationDatabase db;
+    private BatteryService service;
+    private String stationCode;
+    private String[] stationBatteries;
+    private String vehicleBattery;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = StationDatabase.start("station.log-writer.durability=" + durability);
+        service = db.bean(BatteryService.class);
+        stationCode = "BMK-SWAP-" + batteries;
+        long stationId = db.station(stationCode);
+        List<String> codes = db.stationBatteries(stationId, stationCode + "-B", batteries);
+        stationBatteries = codes.toArray(String[]::new);
+        vehicleBattery = db.vehicleBattery(stationCode + "-V", VEHICLE_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<ResponseData<Void>> swap() {
+        int i = next;
+        next = (next + 1) % stationBatteries.length;
+        String handed = stationBatteries[i];
+
+        BatterySwapEvent event = new BatterySwapEvent();
+        event.setOldBatteryId(vehicleBattery);
+        event.setNewBatteryId(handed);
+        event.setVehicleId(VEHICLE_ID);
+        event.setStationId(stationCode);
+        event.setSwapStatus("SUCCESS");
+        ResponseEntity<ResponseData<Void>> response = service.handleBatterySwap(event);
+
+        // Pin xe vừa trả nằm ở vị trí của pin vừa giao
+        stationBatteries[i] = vehicleBattery;
+        vehicleBattery = handed;
+        return response;
+    }
+}
@@ -0,0 +1,88 @@
+package com.boilerplate.station.benchmark.db;
+
+import com.boilerplate.station.service.LogAppendWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Số log đổi pin ghi được mỗi giây qua {@link LogAppendWriter}: {@code sync} (ghi trong transaction của người gọi,
+ * như trước khi có hàng đợi) so với {@code async} (hàng đợi + JDBC batch).
+ * Mỗi lần gọi append {@value #BATCH} entry, mỗi entry trong một transaction riêng như một lượt đổi pin,
+ * rồi chờ đến khi chúng đã thật sự vào DB, nên kết quả async gồm cả thời gian thread nền ghi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LogAppendDbBenchmark {
+
+    static final int BATCH = 1000;
+
+    @Param({"sync", "async"})
+    String durability;
+
+    private StationDatabase db;
+    private LogAppendWriter writer;
+    private TransactionTemplate transactions;
+    private MeterRegistry meterRegistry;
+    private long stationId;
+    private long vehicleBatteryId;
+    private long stationBatteryId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = StationDatabase.start("station.log-writer.durability=" + durability);
+        writer = db.bean(LogAppendWriter.class);
+        transactions = new TransactionTemplate(db.bean(PlatformTransactionManager.class));
+        meterRegistry = db.bean(MeterRegistry.class);
+        stationId = db.station("BMK-LOG");
+        vehicleBatteryId = db.batteryId(db.vehicleBattery("BMK-LOG-V", "BMK-VEHICLE-LOG"));
+        stationBatteryId = db.batteryId(db.stationBatteries(stationId, "BMK-LOG-B", 1).get(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void append() throws InterruptedException {
+        double target = done() + BATCH;
+        for (int i = 0; i < BATCH; i++) {
+            LogAppendWriter.SwapLogEntry entry = new LogAppendWriter.SwapLogEntry(
+                    vehicleBatteryId, stationBatteryId, stationId, "BMK-VEHICLE-LOG", LocalDateTime.now());
+            transactions.executeWithoutResult(status -> writer.append(entry));
+        }
+        // sync đã ghi xong khi commit; async chờ thread nền ghi hết
+        while (done() < target) {
+            Thread.sleep(1);
+        }
+    }
+
+    // Số entry đã xử lý xong (ghi được hoặc thất bại), tính từ lúc khởi động
+    private double done() {
+        return meterRegistry.counter("station.log_writer.entries", "result", "written").count()
+                + meterRegistry.counter("station.log_writer.entries", "result", "failed").count();
+    }
+}
@@ -0,0 +1,136 @@
+package com.boilerplate.station.benchmark.db;
+
+import com.boilerplate.station.StationInventoryApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Context Spring đầy đủ của station-inventory trên một Postgres thật, dùng chung cho các benchmark DB.
+ * Kết nối lấy từ cùng biến môi trường với service (STATION_INVENTORY_DB_HOST/PORT/NAME/USER/PASSWORD),
+ * schema do Hibernate tạo (ddl-auto: update). Eureka, backfill lúc khởi động và log SQL bị tắt; Kafka listener
+ * không khởi động (service dùng factory riêng, không theo spring.kafka.listener.auto-startup, nên tắt trực tiếp
+ * trên factory) để vòng kết nối lại broker không chiếm CPU trong lúc đo. Web server chạy trên cổng ngẫu nhiên.
+ * Dữ liệu mẫu mang tiền tố BMK- và chỉ được sinh khi chưa có; nên dùng một DB riêng cho benchmark.
+ */
+public final class StationDatabase implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final JdbcTemplate jdbc;
+
+    private StationDatabase(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.jdbc = context.getBean(JdbcTemplate.class);
+    }
+
+    /**
+     * @param overrides thuộc tính dạng {@code key=value}, ưu tiên hơn application.yml
+     */
+    public static StationDatabase start(String... overrides) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--eureka.client.enabled=false",
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--station.battery-events.backfill-on-start=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework=WARN"));
+        for (String override : overrides) args.add("--" + override);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(StationInventoryApplication.class)
+                // Chỉ dùng khi môi trường không có, để application.properties resolve được placeholder;
+                // khóa HMAC của SimpleJwtTokenGenerator cần ít nhất 32 byte
+                .properties(Map.of("JWT_SECRET", "benchmark-only-jwt-secret-not-for-production",
+                        "ADMIN_EMAIL", "benchmark@localhost"))
+                .logStartupInfo(false)
+                .initializers(starting -> starting.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        if (bean instanceof AbstractKafkaListenerContainerFactory<?, ?, ?> factory) {
+                            factory.setAutoStartup(false);
+                        }
+                        return bean;
+                    }
+                }))
+                .run(args.toArray(String[]::new));
+        return new StationDatabase(context);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public JdbcTemplate jdbc() {
+        return jdbc;
+    }
+
+    /**
+     * Id trạm theo mã, tạo mới nếu chưa có.
+     */
+    public long station(String stationCode) {
+        List<Long> ids = jdbc.queryForList("SELECT id FROM stations WHERE station_code = ?", Long.class, stationCode);
+        if (!ids.isEmpty()) return ids.get(0);
+        return jdbc.queryForObject("""
+                INSERT INTO stations (station_code, station_name, address, phone_number, latitude, longitude,
+                                      total_slots, available_slots, status)
+                VALUES (?, ?, 'Benchmark', '0900000000', 10.78, 106.70, 20, 5, 'ACTIVE')
+                RETURNING id
+                """, Long.class, stationCode, "Trạm " + stationCode);
+    }
+
+    /**
+     * Đảm bảo trạm có đúng các pin {@code prefix + 0..count-1} ở trạng thái FULL; trả về mã pin theo thứ tự.
+     * Pin đã có (từ lần chạy trước) được đưa về trạm và trạng thái ban đầu thay vì tạo lại.
+     */
+    public List<String> stationBatteries(long stationId, String prefix, int count) {
+        String stationCode = jdbc.queryForObject("SELECT station_code FROM stations WHERE id = ?", String.class, stationId);
+        jdbc.update("""
+                INSERT INTO batteries (battery_code, model, capacity, soh, soc, status, owner_type, reference_id,
+                                       is_hold, station_id)
+                SELECT ? || g, 'LFP-72V', 5000, 95, 80, 'FULL', 'STATION', ?, false, ?
+                FROM generate_series(0, ? - 1) g
+                WHERE NOT EXISTS (SELECT 1 FROM batteries b WHERE b.battery_code = ? || g)
+                """, prefix, stationCode, stationId, count, prefix);
+        jdbc.update("""
+                UPDATE batteries SET station_id = ?, owner_type = 'STATION', reference_id = ?, status = 'FULL',
+                                     is_hold = false, hold_by = NULL, hold_until = NULL
+                WHERE battery_code LIKE ? || '%'
+                """, stationId, stationCode, prefix);
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) codes.add(prefix + i);
+        return codes;
+    }
+
+    /**
+     * Pin đang lắp trên xe {@code vehicleId} (không thuộc trạm nào); tạo mới nếu chưa có.
+     */
+    public String vehicleBattery(String batteryCode, String vehicleId) {
+        jdbc.update("""
+                INSERT INTO batteries (battery_code, model, capacity, soh, soc, status, owner_type, reference_id, is_hold)
+                SELECT ?, 'LFP-72V', 5000, 90, 20, 'IN_USE', 'VEHICLE', ?, false
+                WHERE NOT EXISTS (SELECT 1 FROM batteries WHERE battery_code = ?)
+                """, batteryCode, vehicleId, batteryCode);
+        jdbc.update("""
+                UPDATE batteries SET station_id = NULL, owner_type = 'VEHICLE', reference_id = ?, status = 'IN_USE',
+                                     is_hold = false, hold_by = NULL, hold_until = NULL
+                WHERE battery_code = ?
+                """, vehicleId, batteryCode);
+        return batteryCode;
+    }
+
+    public long batteryId(String batteryCode) {
+        return jdbc.queryForObject("SELECT id FROM batteries WHERE battery_code = ?", Long.class, batteryCode);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
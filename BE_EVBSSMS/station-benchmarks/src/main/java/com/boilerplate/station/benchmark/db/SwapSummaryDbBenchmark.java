@@ -0,0 +1,106 @@
+package com.boilerplate.station.benchmark.db;
+
+import com.boilerplate.station.model.event.Producer.StationSwapSummaryDTO;
+import com.boilerplate.station.service.StationSwapSummaryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code StationSwapSummaryService.getSwapSummary} trên bảng battery_swap_logs có {@code rows} dòng
+ * (mặc định 10 triệu) rải đều cho {@code stations} trạm trong {@code days} ngày từ 2025-01-01.
+ * Lần chạy đầu sinh dữ liệu bằng generate_series (vài phút với 10 triệu dòng), các lần sau dùng lại.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class SwapSummaryDbBenchmark {
+
+    private static final String STATION_PREFIX = "BMK-SUM-";
+    private static final String VEHICLE_PREFIX = "BMK-SUM-V";
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+
+    @Param({"10000000"})
+    long rows;
+
+    @Param({"500"})
+    int stations;
+
+    @Param({"90"})
+    int days;
+
+    private StationDatabase db;
+    private StationSwapSummaryService service;
+    private long stationId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = StationDatabase.start();
+        service = db.bean(StationSwapSummaryService.class);
+        for (int i = 0; i < stations; i++) db.station(STATION_PREFIX + i);
+        stationId = db.station(STATION_PREFIX + 0);
+
+        Long seeded = db.jdbc().queryForObject(
+                "SELECT COUNT(*) FROM battery_swap_logs WHERE vehice_id LIKE ?", Long.class, VEHICLE_PREFIX + "%");
+        if (seeded == null || seeded != rows) {
+            db.jdbc().update("DELETE FROM battery_swap_logs WHERE vehice_id LIKE ?", VEHICLE_PREFIX + "%");
+            // Thời điểm rải tất định theo g để các lần sinh lại cho cùng dữ liệu
+            db.jdbc().update("""
+                    INSERT INTO battery_swap_logs (id, statiom_id, vehice_id, swap_time)
+                    SELECT nextval('battery_swap_logs_seq'),
+                           s.ids[1 + g % cardinality(s.ids)],
+                           ? || (g % 5000),
+                           CAST(? AS timestamp) + ((g * 7919) % (? * 86400)) * INTERVAL '1 second'
+                    FROM generate_series(1, ?) g,
+                         (SELECT array_agg(id ORDER BY id) AS ids FROM stations WHERE station_code LIKE ?) s
+                    """, VEHICLE_PREFIX, FIRST_DAY.atStartOfDay(), days, rows, STATION_PREFIX + "%");
+            db.jdbc().execute("ANALYZE battery_swap_logs");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    /**
+     * Một trạm trong 30 ngày: màn hình thống kê của trạm.
+     */
+    @Benchmark
+    public List<StationSwapSummaryDTO> stationMonth() {
+        return service.getSwapSummary(stationId, FIRST_DAY, FIRST_DAY.plusDays(29), null, null);
+    }
+
+    /**
+     * Trang đầu (50 cặp trạm-ngày) của toàn bộ bảng, không lọc.
+     */
+    @Benchmark
+    public List<StationSwapSummaryDTO> firstPage() {
+        return service.getSwapSummary(null, null, null, 0, 50);
+    }
+
+    /**
+     * Tổng hợp toàn bộ bảng như GET /api/swaplog/getallsumary không tham số.
+     */
+    @Benchmark
+    public List<StationSwapSummaryDTO> all() {
+        return service.getAllSwapSummary();
+    }
+}
@@ -1,13 +1,23 @@
 package com.boilerplate.station.configuration;
 
+import com.boilerplate.station.exception.InvalidEventException;
+import com.boilerplate.station.model.event.Consumer.BatteryHoldEvent;
+import com.boilerplate.station.model.event.Consumer.BatterySwapEvent;
+import com.boilerplate.station.model.event.Consumer.BatterySwapStation;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -16,14 +26,34 @@ import java.util.Map;
 @Configuration
 public class KafkaConsumer {
 
+    public static final String DLT_SUFFIX = ".DLT";
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${spring.kafka.consumer.group-id:battery-station-group}")
+    private String groupId;
+
+    @Value("${station.kafka.concurrency:3}")
+    private int concurrency;
+
+    @Value("${station.kafka.max-poll-records:200}")
+    private int maxPollRecords;
+
+    @Value("${station.kafka.retry.backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${station.kafka.retry.max-retries:2}")
+    private long maxRetries;
+
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
         JsonDeserializer<Object> deserializer = new JsonDeserializer<>();
         deserializer.addTrustedPackages("*");
 
         Map<String, Object> config = new HashMap<>();
-        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
-        config.put(ConsumerConfig.GROUP_ID_CONFIG, "battery-station-group");
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
 
@@ -37,4 +67,63 @@ public class KafkaConsumer {
         factory.setConsumerFactory(consumerFactory());
         return factory;
     }
+
+    // ========================= Batch listener cho sự kiện pin =========================
+
+    /**
+     * Lỗi xử lý: retry {@code maxRetries} lần cách nhau {@code retryBackoffMs}, rồi chuyển message sang
+     * {@code <topic>.DLT}. Message không đọc được / thiếu dữ liệu chuyển thẳng, không retry.
+     * Partition do producer chọn theo key (mã trạm) nên DLT không cần cùng số partition với topic gốc.
+     */
+    @Bean
+    public DefaultErrorHandler batteryEventErrorHandler(KafkaTemplate<Object, Object> deadLetterKafkaTemplate) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(deadLetterKafkaTemplate,
+                (record, ex) -> new TopicPartition(record.topic() + DLT_SUFFIX, -1));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(retryBackoffMs, maxRetries));
+        errorHandler.addNotRetryableExceptions(InvalidEventException.class);
+        return errorHandler;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BatterySwapEvent> batterySwapListenerFactory(
+            DefaultErrorHandler batteryEventErrorHandler) {
+        return batchFactory(BatterySwapEvent.class, batteryEventErrorHandler);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BatteryHoldEvent> batteryHoldListenerFactory(
+            DefaultErrorHandler batteryEventErrorHandler) {
+        return batchFactory(BatteryHoldEvent.class, batteryEventErrorHandler);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BatterySwapStation> batteryTransferListenerFactory(
+            DefaultErrorHandler batteryEventErrorHandler) {
+        return batchFactory(BatterySwapStation.class, batteryEventErrorHandler);
+    }
+
+    /**
+     * Factory batch cho một loại sự kiện. Payload đọc thẳng thành {@code type} (không dựa vào type header
+     * để producer ngoài Spring gửi được); lỗi đọc được bọc bởi ErrorHandlingDeserializer thành value null.
+     */
+    private <T> ConcurrentKafkaListenerContainerFactory<String, T> batchFactory(Class<T> type,
+                                                                                DefaultErrorHandler errorHandler) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        ConsumerFactory<String, T> consumerFactory = new DefaultKafkaConsumerFactory<>(config,
+                new ErrorHandlingDeserializer<>(new StringDeserializer()),
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(type, false)));
+
+        ConcurrentKafkaListenerContainerFactory<String, T> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
 }
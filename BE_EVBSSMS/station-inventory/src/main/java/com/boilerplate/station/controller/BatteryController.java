@@ -1,21 +1,31 @@
 package com.boilerplate.station.controller;
 
 import com.boilerplate.station.model.DTO.BatteryDTO;
+import com.boilerplate.station.model.DTO.BatteryHealthBulkResultDTO;
+import com.boilerplate.station.model.DTO.BatteryHoldDTO;
+import com.boilerplate.station.model.DTO.BatteryTimelineDTO;
 import com.boilerplate.station.model.createRequest.AddBatteryRequest;
 import com.boilerplate.station.model.createRequest.BatteryCodeRequest;
+import com.boilerplate.station.model.createRequest.BatteryHealthUpdate;
 import com.boilerplate.station.model.createRequest.BatteryRequest;
+import com.boilerplate.station.model.createRequest.HoldBestBatteryRequest;
+import com.boilerplate.station.model.createRequest.ReleaseHoldRequest;
 import com.boilerplate.station.model.createRequest.UpdateBatteryHealthRequest;
 import com.boilerplate.station.model.event.Consumer.BatteryHoldEvent;
 import com.boilerplate.station.model.event.Consumer.BatterySwapEvent;
 import com.boilerplate.station.model.event.Consumer.BatterySwapStation;
 import com.boilerplate.station.model.response.ResponseData;
 import com.boilerplate.station.service.BatteryService;
+import com.boilerplate.station.service.BatteryTimelineService;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -24,14 +34,26 @@ import java.util.List;
 public class BatteryController {
 
     private final BatteryService batteryService;
+    private final BatteryTimelineService batteryTimelineService;
 
     @Operation(
             summary = "Lấy danh sách tất cả pin",
-            description = "API trả về danh sách đầy đủ thông tin của tất cả các pin trong hệ thống trạm hoán đổi pin."
+            description = "API trả về danh sách pin theo trang (id giảm dần). Trang sau: beforeId = id cuối của trang trước."
     )
     @GetMapping("/getall")
-    public ResponseEntity<ResponseData<List<BatteryDTO>>> getAllBatteries() {
-        return batteryService.getAllBatteries();
+    public ResponseEntity<ResponseData<List<BatteryDTO>>> getAllBatteries(
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size) {
+        return batteryService.getAllBatteries(beforeId, size);
+    }
+
+    @Operation(
+            summary = "Xuất toàn bộ pin (NDJSON)",
+            description = "Stream toàn bộ pin trong hệ thống, mỗi dòng một object JSON."
+    )
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBatteries() {
+        return batteryService.exportBatteries();
     }
 
     @Operation(
@@ -43,6 +65,22 @@ public class BatteryController {
         return batteryService.getBatteryById(id);
     }
 
+    @Operation(
+            summary = "Lịch sử vòng đời của pin",
+            description = "Các sự kiện đổi pin, sạc, chuyển trạm và trả pin của một pin, mới nhất trước. "
+                    + "Trang sau: beforeTime/beforeId = time/id của phần tử cuối trang trước. "
+                    + "incompleteBefore khác null: sự kiện trước mốc đó có thể thiếu (lịch sử cũ chưa dựng lại xong, "
+                    + "hoặc tháng đã lưu trữ ra file trước khi dựng lại)."
+    )
+    @GetMapping("/{code}/timeline")
+    public ResponseEntity<ResponseData<BatteryTimelineDTO>> getTimeline(
+            @PathVariable String code,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size) {
+        return batteryTimelineService.getTimeline(code, beforeTime, beforeId, size);
+    }
+
     @Operation(
             summary = "Tạo pin mới",
             description = "API cho phép tạo mới một pin với các thông tin như mã pin, dung lượng, trạng thái và vị trí hiện tại."
@@ -95,10 +133,28 @@ public class BatteryController {
             description = "API tiếp nhận sự kiện BatteryHoldEvent khi một pin được giữ tại trạm (ví dụ: bảo trì, sạc hoặc kiểm tra)."
     )
     @PostMapping("/event/hold")
-    public ResponseEntity<ResponseData<Void>> handleBatteryHoldEvent(@RequestBody BatteryHoldEvent event) {
+    public ResponseEntity<ResponseData<BatteryHoldDTO>> handleBatteryHoldEvent(@RequestBody BatteryHoldEvent event) {
         return batteryService.holdBattery(event);
     }
 
+    @Operation(
+            summary = "Giữ pin tốt nhất tại trạm",
+            description = "Giữ pin FULL có SOC/SOH cao nhất chưa bị giữ tại trạm. Lượt giữ tự hết hạn sau ttlSeconds (mặc định 15 phút)."
+    )
+    @PostMapping("/hold/best")
+    public ResponseEntity<ResponseData<BatteryHoldDTO>> holdBestBattery(@RequestBody HoldBestBatteryRequest request) {
+        return batteryService.holdBestBattery(request);
+    }
+
+    @Operation(
+            summary = "Nhả pin đang giữ",
+            description = "Nhả pin đang được giữ. Nếu truyền holdBy thì chỉ nhả khi đúng người đang giữ."
+    )
+    @PostMapping("/hold/release")
+    public ResponseEntity<ResponseData<Void>> releaseBattery(@RequestBody ReleaseHoldRequest request) {
+        return batteryService.releaseBattery(request);
+    }
+
     @Operation(
             summary = "Tìm pin theo mã pin",
             description = "API tìm kiếm pin theo mã pin (battery code). Trả về thông tin pin tương ứng nếu tồn tại."
@@ -124,4 +180,16 @@ public class BatteryController {
     ) {
         return batteryService.updateBatteryHealth(batteryCode, request);
     }
+
+    @Operation(
+            summary = "Cập nhật soh/soc cho nhiều pin",
+            description = "Body là mảng gọn [[\"BAT-001\", 97.5, 80.2], ...] theo thứ tự (batteryCode, soh, soc); "
+                    + "soh hoặc soc để null nếu không đổi. Trả về số pin đã cập nhật và lỗi của từng phần tử."
+    )
+    @PatchMapping("/update-health")
+    public ResponseEntity<ResponseData<BatteryHealthBulkResultDTO>> updateBatteryHealthBulk(
+            @RequestBody List<BatteryHealthUpdate> updates
+    ) {
+        return batteryService.updateBatteryHealthBulk(updates);
+    }
 }
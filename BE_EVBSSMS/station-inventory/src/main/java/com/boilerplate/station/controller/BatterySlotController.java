@@ -2,13 +2,16 @@ package com.boilerplate.station.controller;
 
 import com.boilerplate.station.model.DTO.BatterySlotDTO;
 import com.boilerplate.station.model.DTO.ChargeLogDTO;
+import com.boilerplate.station.model.DTO.ChargingSlotDTO;
 import com.boilerplate.station.model.createRequest.BatterySlotRequest;
 import com.boilerplate.station.model.response.ResponseData;
 import com.boilerplate.station.service.BatterySlotService;
+import com.boilerplate.station.service.ChargingEngine;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -18,15 +21,27 @@ import java.util.List;
 public class BatterySlotController {
 
     private final BatterySlotService batterySlotService;
+    private final ChargingEngine chargingEngine;
 
     // ========================= GET ALL =========================
     @Operation(
             summary = "Lấy danh sách tất cả ô chứa pin",
-            description = "API trả về danh sách tất cả Battery Slot trong hệ thống, bao gồm trạng thái và pin được gán vào (nếu có)."
+            description = "API trả về Battery Slot theo trang (id giảm dần), bao gồm trạng thái và pin được gán vào (nếu có)."
     )
     @GetMapping("/getall")
-    public ResponseEntity<ResponseData<List<BatterySlotDTO>>> getAllSlots() {
-        return batterySlotService.getAllSlots();
+    public ResponseEntity<ResponseData<List<BatterySlotDTO>>> getAllSlots(
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size) {
+        return batterySlotService.getAllSlots(beforeId, size);
+    }
+
+    @Operation(
+            summary = "Xuất toàn bộ ô chứa pin (NDJSON)",
+            description = "Stream toàn bộ Battery Slot, mỗi dòng một object JSON."
+    )
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSlots() {
+        return batterySlotService.exportSlots();
     }
 
     // ========================= GET BY ID =========================
@@ -93,13 +108,35 @@ public class BatterySlotController {
         return batterySlotService.setSlotEmpty(slotId);
     }
 
+    // ========================= CHARGING STATUS =========================
+    @Operation(
+            summary = "Trạng thái sạc của các ô chứa",
+            description = "API trả về SoC hiện tại, công suất được cấp và thời gian ước tính tới khi đầy của các slot đang sạc. Lọc theo trạm nếu truyền stationId."
+    )
+    @GetMapping("/charging")
+    public ResponseEntity<ResponseData<List<ChargingSlotDTO>>> getChargingStatus(
+            @RequestParam(required = false) Long stationId) {
+        return chargingEngine.getChargingStatus(stationId);
+    }
+
     // ========================= GET ALL CHARGE LOGS =========================
     @Operation(
             summary = "Lấy danh sách lịch sử sạc pin",
-            description = "API trả về toàn bộ danh sách Charge Logs — ghi lại quá trình sạc pin tại các Battery Slot."
+            description = "API trả về Charge Logs theo trang, mới nhất trước — ghi lại quá trình sạc pin tại các Battery Slot."
     )
     @GetMapping("/charge-logs/getall")
-    public ResponseEntity<ResponseData<List<ChargeLogDTO>>> getAllChargeLogs() {
-        return batterySlotService.getAllChargeLogs();
+    public ResponseEntity<ResponseData<List<ChargeLogDTO>>> getAllChargeLogs(
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size) {
+        return batterySlotService.getAllChargeLogs(beforeId, size);
+    }
+
+    @Operation(
+            summary = "Xuất toàn bộ lịch sử sạc pin (NDJSON)",
+            description = "Stream toàn bộ Charge Logs, mỗi dòng một object JSON."
+    )
+    @GetMapping("/charge-logs/export")
+    public ResponseEntity<StreamingResponseBody> exportChargeLogs() {
+        return batterySlotService.exportChargeLogs();
     }
 }
@@ -2,16 +2,20 @@ package com.boilerplate.station.controller;
 
 import com.boilerplate.station.enums.SupplyRequestStatus;
 import com.boilerplate.station.model.DTO.BatterySupplyRequestDTO;
+import com.boilerplate.station.model.DTO.BatteryTransferResultDTO;
 import com.boilerplate.station.model.createRequest.BatteryTransferRequest;
 import com.boilerplate.station.model.createRequest.CreateSupplyRequest;
 import com.boilerplate.station.model.response.ResponseData;
 import com.boilerplate.station.model.entity.Battery;
 
+import com.boilerplate.station.service.RebalancingService;
 import com.boilerplate.station.service.SupplyRequestService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -20,6 +24,7 @@ import java.util.List;
 public class BatteryTransferController {
 
     private final SupplyRequestService supplyRequestService;
+    private final RebalancingService rebalancingService;
 
     /**
      * API chuyển nhiều pin sang trạm khác
@@ -30,9 +35,11 @@ public class BatteryTransferController {
      *   "batteryCodes": ["BAT001", "BAT002"],
      *   "destinationStationCode": "ST002"
      * }
+     *
+     * Trả về kết quả từng mã pin: TRANSFERRED, NOT_FOUND, HELD, ALREADY_AT_STATION, DUPLICATE.
      */
     @PostMapping("/transfer")
-    public ResponseEntity<ResponseData<Void>> transferBatteries(
+    public ResponseEntity<ResponseData<BatteryTransferResultDTO>> transferBatteries(
             @RequestBody BatteryTransferRequest request) {
 
         return supplyRequestService.transferBatteries(
@@ -41,6 +48,15 @@ public class BatteryTransferController {
         );
     }
 
+    /**
+     * Chạy planner cân bằng pin ngay (bình thường chạy theo lịch), thay các đề xuất DRAFT cũ bằng kế hoạch mới.
+     * Đề xuất được duyệt qua /request/status/{id} như yêu cầu tạo tay.
+     */
+    @PostMapping("/rebalance")
+    public ResponseEntity<ResponseData<List<BatterySupplyRequestDTO>>> rebalance() {
+        return rebalancingService.runNow();
+    }
+
     @PostMapping("/request")
     public ResponseEntity<ResponseData<BatterySupplyRequestDTO>> createRequest(
             @RequestBody CreateSupplyRequest request) {
@@ -55,15 +71,30 @@ public class BatteryTransferController {
         return supplyRequestService.updateStatus(requestId, newStatus, adminNote);
     }
 
+    /**
+     * Danh sách yêu cầu của trạm, mới nhất trước.
+     * Lọc tùy chọn: status, from/to (yyyy-MM-dd, theo ngày tạo). Không truyền status thì không gồm đề xuất DRAFT.
+     * Phân trang keyset: trang sau truyền beforeId = id cuối của trang trước.
+     */
     @GetMapping("/request/station/{stationCode}")
     public ResponseEntity<ResponseData<List<BatterySupplyRequestDTO>>> getByStationCode(
-            @PathVariable("stationCode") String stationCode) {
-        return supplyRequestService.getByStationCode(stationCode);
+            @PathVariable("stationCode") String stationCode,
+            @RequestParam(value = "status", required = false) SupplyRequestStatus status,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "beforeId", required = false) Long beforeId,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return supplyRequestService.getByStationCode(stationCode, status, from, to, beforeId, size);
     }
 
     @GetMapping("/request/all")
-    public ResponseEntity<ResponseData<List<BatterySupplyRequestDTO>>> getAllRequests() {
-        return supplyRequestService.getAllRequests();
+    public ResponseEntity<ResponseData<List<BatterySupplyRequestDTO>>> getAllRequests(
+            @RequestParam(value = "status", required = false) SupplyRequestStatus status,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "beforeId", required = false) Long beforeId,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return supplyRequestService.getAllRequests(status, from, to, beforeId, size);
     }
 
     // Lấy chi tiết một yêu cầu theo ID (tùy chọn)
@@ -3,17 +3,22 @@ package com.boilerplate.station.controller;
 import com.boilerplate.station.model.DTO.BatteryDTO;
 import com.boilerplate.station.model.DTO.NearestStationDTO;
 import com.boilerplate.station.model.DTO.StationDTO;
+import com.boilerplate.station.model.DTO.StationInventoryDTO;
 import com.boilerplate.station.model.createRequest.AddStaffRequest;
 import com.boilerplate.station.model.createRequest.NearestStationRequest;
 import com.boilerplate.station.model.createRequest.StationRequest;
 import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.service.AvailabilityStream;
 import com.boilerplate.station.service.OpenStreetMapService;
+import com.boilerplate.station.service.StationInventoryService;
 import com.boilerplate.station.service.StationService;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -27,14 +32,42 @@ public class StationController {
     @Autowired
     private OpenStreetMapService openStreetMapService;
 
+    @Autowired
+    private StationInventoryService stationInventoryService;
+
+    @Autowired
+    private AvailabilityStream availabilityStream;
+
     // ========================= GET ALL =========================
     @Operation(
             summary = "Lấy danh sách trạm",
-            description = "API lấy toàn bộ danh sách các trạm đổi pin trong hệ thống."
+            description = "API lấy danh sách trạm dạng tóm tắt (tọa độ, trạng thái, số slot, số pin FULL). "
+                    + "Truyền include=batteries để lấy kèm danh sách pin của từng trạm."
     )
     @GetMapping("/getAll")
-    public ResponseEntity<ResponseData<List<StationDTO>>> getAllStations() {
-        return stationService.getAllStations();
+    public ResponseEntity<ResponseData<List<StationDTO>>> getAllStations(
+            @RequestParam(required = false) String include) {
+        return stationService.getAllStations(include);
+    }
+
+    // ========================= AVAILABILITY STREAM =========================
+    @Operation(
+            summary = "Theo dõi tình trạng trạm theo thời gian thực (SSE)",
+            description = "Server-Sent Events: event 'snapshot' khi kết nối, sau đó event 'delta' gồm số pin FULL / đang sạc / "
+                    + "đang giữ và trạng thái slot đã thay đổi, gộp tối đa một message mỗi chu kỳ. "
+                    + "Truyền stationIds hoặc khung nhìn bản đồ (minLat, minLng, maxLat, maxLng)."
+    )
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(
+            @RequestParam(required = false) List<Long> stationIds,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLng,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLng) {
+        AvailabilityStream.Viewport viewport = minLat != null && minLng != null && maxLat != null && maxLng != null
+                ? new AvailabilityStream.Viewport(minLat, minLng, maxLat, maxLng)
+                : null;
+        return availabilityStream.subscribe(stationIds, viewport);
     }
 
     // ========================= GET BY ID =========================
@@ -82,12 +115,14 @@ public class StationController {
     // ========================= NEAREST STATIONS =========================
     @Operation(
             summary = "Tìm trạm gần nhất",
-            description = "API sử dụng OpenStreetMap để tìm danh sách các trạm gần vị trí người dùng (latitude, longitude)."
+            description = "API sử dụng OpenStreetMap để tìm danh sách các trạm gần vị trí người dùng (latitude, longitude). "
+                    + "Đặt byDrivingDistance = true để xếp hạng theo khoảng cách lái xe thực tế (OSRM)."
     )
     @PostMapping("/nearest")
     public ResponseEntity<ResponseData<List<NearestStationDTO>>> getNearestStations(
             @RequestBody NearestStationRequest request) {
-        return openStreetMapService.findNearestStations(request.getLatitude(), request.getLongitude());
+        return openStreetMapService.findNearestStations(request.getLatitude(), request.getLongitude(),
+                request.getLimit(), request.getRadiusKm(), request.isByDrivingDistance());
     }
 
     @PostMapping("/staffs/{stationId}")
@@ -129,4 +164,17 @@ public class StationController {
         return stationService.getListBatteryByStationCode(stationCode);
     }
 
+    // ========================= INVENTORY =========================
+    @GetMapping("/{id}/inventory")
+    @Operation(summary = "Tồn kho pin của trạm", description = "Số pin FULL / CHARGING / MAINTENANCE / DEFECTIVE và số pin đang giữ của trạm, đọc từ bộ đếm tồn kho.")
+    public ResponseEntity<ResponseData<StationInventoryDTO>> getStationInventory(@PathVariable Long id) {
+        return stationInventoryService.getStationInventory(id);
+    }
+
+    @GetMapping("/inventory")
+    @Operation(summary = "Tồn kho pin toàn hệ thống", description = "Tổng bộ đếm tồn kho của tất cả các trạm.")
+    public ResponseEntity<ResponseData<StationInventoryDTO>> getFleetInventory() {
+        return stationInventoryService.getFleetInventory();
+    }
+
 }
@@ -0,0 +1,51 @@
+package com.boilerplate.station.controller;
+
+import com.boilerplate.station.enums.HealthResolution;
+import com.boilerplate.station.model.DTO.HealthSeriesDTO;
+import com.boilerplate.station.model.createRequest.HealthSampleRequest;
+import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.service.StationHealthService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/station-health")
+@RequiredArgsConstructor
+public class StationHealthController {
+
+    private final StationHealthService stationHealthService;
+
+    // ========================= INGEST =========================
+    @Operation(
+            summary = "Gửi dữ liệu sức khỏe trạm theo lô",
+            description = "Trạm gửi một mảng mẫu (stationId, avgSoH, humidity, recordedAt). "
+                    + "Cả lô được ghi trong một câu lệnh; thiếu trường hoặc trạm không tồn tại thì cả lô bị từ chối."
+    )
+    @PostMapping("/ingest")
+    public ResponseEntity<ResponseData<Map<String, Integer>>> ingest(@RequestBody List<HealthSampleRequest> samples) {
+        return stationHealthService.ingest(samples);
+    }
+
+    // ========================= RANGE QUERY =========================
+    @Operation(
+            summary = "Lấy chuỗi số liệu sức khỏe của trạm",
+            description = "Trả về các điểm trong [from, to). Không truyền resolution thì tự chọn: "
+                    + "khoảng ngắn trả mẫu gốc, khoảng dài trả trung bình / min / max theo phút hoặc giờ. "
+                    + "Vượt số điểm tối đa thì truncated = true, gọi tiếp với from sau điểm cuối."
+    )
+    @GetMapping("/{stationId}")
+    public ResponseEntity<ResponseData<HealthSeriesDTO>> getSeries(
+            @PathVariable Long stationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) HealthResolution resolution) {
+        return stationHealthService.getSeries(stationId, from, to, resolution);
+    }
+}
@@ -1,22 +1,28 @@
 package com.boilerplate.station.controller;
 
+import com.boilerplate.station.enums.TimeSlot;
 import com.boilerplate.station.model.DTO.BatteryReturnLogDTO;
 import com.boilerplate.station.model.DTO.BatterySwapLogDTO;
+import com.boilerplate.station.model.DTO.SwapForecastDTO;
 import com.boilerplate.station.model.createRequest.BatteryReturnLogRequest;
 import com.boilerplate.station.model.event.Producer.StationSwapSummaryDTO;
 import com.boilerplate.station.model.response.ResponseData;
 import com.boilerplate.station.service.BatteryService;
+import com.boilerplate.station.service.DailySwapSummaryService;
 import com.boilerplate.station.service.StationService;
 import com.boilerplate.station.service.StationSwapSummaryService;
+import com.boilerplate.station.service.SwapForecastService;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/swaplog")
@@ -29,6 +35,12 @@ public class SwapLogController {
     @Autowired
     private StationSwapSummaryService stationSwapSummaryService;
 
+    @Autowired
+    private DailySwapSummaryService dailySwapSummaryService;
+
+    @Autowired
+    private SwapForecastService swapForecastService;
+
 
     // ========================= GET BY STATION ID =========================
     @Operation(
@@ -44,11 +56,22 @@ public class SwapLogController {
     // ========================= GET ALL =========================
     @Operation(
             summary = "Lấy toàn bộ lịch sử đổi pin",
-            description = "API trả về danh sách tất cả các log đổi pin trong hệ thống."
+            description = "API trả về log đổi pin theo trang, mới nhất trước. Trang sau: beforeId = id cuối của trang trước."
     )
     @GetMapping("/verhicle-station/getall")
-    public ResponseEntity<ResponseData<List<BatterySwapLogDTO>>> getAllSwapLogs() {
-        return batteryService.getAllSwapLogs();
+    public ResponseEntity<ResponseData<List<BatterySwapLogDTO>>> getAllSwapLogs(
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size) {
+        return batteryService.getAllSwapLogs(beforeId, size);
+    }
+
+    @Operation(
+            summary = "Xuất toàn bộ lịch sử đổi pin (NDJSON)",
+            description = "Stream toàn bộ log đổi pin, mỗi dòng một object JSON."
+    )
+    @GetMapping("/verhicle-station/export")
+    public ResponseEntity<StreamingResponseBody> exportSwapLogs() {
+        return batteryService.exportSwapLogs();
     }
 
     @PostMapping("/returnlog/{swaplogId}")
@@ -67,10 +90,21 @@ public class SwapLogController {
         return batteryService.updateLog(id, request);
     }
 
+    @Operation(
+            summary = "Tổng hợp số lượt đổi pin theo trạm, ngày và khung giờ",
+            description = "Không truyền tham số thì trả về toàn bộ dữ liệu, gồm cả các tháng đã lưu trữ ra file. "
+                    + "Có thể lọc theo stationId, khoảng ngày from/to (yyyy-MM-dd, tính cả 2 đầu; chỉ các tháng lưu trữ "
+                    + "giao với khoảng này được đọc) và phân trang theo page/size (mỗi phần tử là một cặp trạm - ngày)."
+    )
     @GetMapping("/getallsumary")
-    public ResponseEntity<ResponseData<List<StationSwapSummaryDTO>>> getAllSwapSummary() {
-        // Lấy tất cả tổng hợp swap theo trạm, ngày và khung giờ
-        List<StationSwapSummaryDTO> summaries = stationSwapSummaryService.getAllSwapSummary();
+    public ResponseEntity<ResponseData<List<StationSwapSummaryDTO>>> getAllSwapSummary(
+            @RequestParam(required = false) Long stationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        // Lấy tổng hợp swap theo trạm, ngày và khung giờ
+        List<StationSwapSummaryDTO> summaries = stationSwapSummaryService.getSwapSummary(stationId, from, to, page, size);
 
         return ResponseEntity.ok(
                 ResponseData.<List<StationSwapSummaryDTO>>builder()
@@ -81,4 +115,43 @@ public class SwapLogController {
         );
     }
 
+    @Operation(
+            summary = "Số lượt đổi pin theo khung giờ của một trạm trong ngày",
+            description = "Đọc từ bảng rollup được cộng dồn mỗi lần đổi pin. Không truyền date thì lấy ngày hôm nay."
+    )
+    @GetMapping("/summary/daily/{stationId}")
+    public ResponseEntity<ResponseData<Map<TimeSlot, Integer>>> getDailySwapSummary(
+            @PathVariable Long stationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        Map<TimeSlot, Integer> summary = dailySwapSummaryService
+                .getDailySummary(stationId, date != null ? date : LocalDate.now());
+
+        return ResponseEntity.ok(
+                ResponseData.<Map<TimeSlot, Integer>>builder()
+                        .statusCode(200)
+                        .message("Lấy tổng hợp swap trong ngày thành công")
+                        .data(summary)
+                        .build()
+        );
+    }
+
+    @Operation(
+            summary = "Dự báo số lượt đổi pin của một trạm",
+            description = "Số lượt đổi pin dự kiến theo khung giờ cho ngày mai và 7 ngày tới, "
+                    + "tính bằng mô hình Holt-Winters theo thứ trong tuần được cập nhật sau mỗi khung giờ."
+    )
+    @GetMapping("/forecast/{stationId}")
+    public ResponseEntity<ResponseData<SwapForecastDTO>> getSwapForecast(@PathVariable Long stationId) {
+        return swapForecastService.getForecast(stationId);
+    }
+
+    @Operation(
+            summary = "Dự báo số lượt đổi pin của mọi trạm",
+            description = "Như /forecast/{stationId} cho tất cả các trạm đã có lịch sử đổi pin."
+    )
+    @GetMapping("/forecast")
+    public ResponseEntity<ResponseData<List<SwapForecastDTO>>> getAllSwapForecasts() {
+        return swapForecastService.getAllForecasts();
+    }
+
 }
@@ -0,0 +1,9 @@
+package com.boilerplate.station.enums;
+
+public enum BatteryEventType {
+    SWAP_IN,    // Pin từ xe nhập kho trạm khi đổi pin
+    SWAP_OUT,   // Pin của trạm giao cho xe khi đổi pin
+    CHARGE,     // Một phiên sạc kết thúc
+    TRANSFER,   // Chuyển pin giữa các trạm
+    RETURN      // Khách trả pin (battery_return_logs)
+}
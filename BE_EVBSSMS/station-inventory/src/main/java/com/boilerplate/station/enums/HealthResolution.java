@@ -0,0 +1,16 @@
+package com.boilerplate.station.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum HealthResolution {
+    RAW(0),
+    MINUTE(60),
+    HOUR(3600);
+
+    private final int bucketSeconds;
+
+    HealthResolution(int bucketSeconds) {
+        this.bucketSeconds = bucketSeconds;
+    }
+}
@@ -0,0 +1,11 @@
+package com.boilerplate.station.enums;
+
+public enum HealthUpdateOutcome {
+    UPDATED,        // Đã cập nhật soh/soc
+    NOT_FOUND,      // Không tồn tại mã pin
+    MISSING_CODE,   // Thiếu mã pin
+    MISSING_VALUE,  // Không có soh lẫn soc
+    INVALID_SOH,    // soh ngoài khoảng 0..100
+    INVALID_SOC,    // soc ngoài khoảng 0..100
+    DUPLICATE       // Mã bị lặp trong yêu cầu, chỉ lấy lần cuối
+}
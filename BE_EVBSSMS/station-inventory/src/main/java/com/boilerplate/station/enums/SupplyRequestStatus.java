@@ -1,6 +1,7 @@
 package com.boilerplate.station.enums;
 
 public enum SupplyRequestStatus {
+    DRAFT,      // Đề xuất tự động của planner cân bằng pin, chờ admin xem xét
     PENDING,    // Chờ admin duyệt
     APPROVED,   // Admin chấp nhận yêu cầu
     REJECTED,   // Admin từ chối
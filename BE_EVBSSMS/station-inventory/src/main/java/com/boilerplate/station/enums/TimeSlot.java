@@ -21,4 +21,14 @@ public enum TimeSlot {
     public int getEndHour() {
         return endHour;
     }
+
+    /**
+     * Khung giờ chứa giờ {@code hour} (0-23).
+     */
+    public static TimeSlot ofHour(int hour) {
+        for (TimeSlot slot : values()) {
+            if (hour >= slot.startHour && hour < slot.endHour) return slot;
+        }
+        throw new IllegalArgumentException("Giờ không hợp lệ: " + hour);
+    }
 }
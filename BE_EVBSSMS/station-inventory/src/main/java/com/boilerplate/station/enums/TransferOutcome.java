@@ -0,0 +1,9 @@
+package com.boilerplate.station.enums;
+
+public enum TransferOutcome {
+    TRANSFERRED,        // Đã chuyển sang trạm đích
+    NOT_FOUND,          // Không tồn tại mã pin
+    HELD,               // Pin đang được giữ cho lượt đổi, không chuyển
+    ALREADY_AT_STATION, // Pin đã ở trạm đích
+    DUPLICATE           // Mã bị lặp trong yêu cầu, chỉ xử lý lần đầu
+}
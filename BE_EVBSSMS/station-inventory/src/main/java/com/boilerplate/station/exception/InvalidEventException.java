@@ -0,0 +1,11 @@
+package com.boilerplate.station.exception;
+
+/**
+ * Sự kiện Kafka không đọc được hoặc thiếu dữ liệu bắt buộc: không retry, chuyển thẳng sang dead-letter topic.
+ */
+public class InvalidEventException extends RuntimeException {
+
+    public InvalidEventException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,32 @@
+package com.boilerplate.station.model.DTO;
+
+import com.boilerplate.station.enums.BatteryEventType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một mốc trên timeline của pin; trường không áp dụng cho loại sự kiện bị bỏ khỏi JSON.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatteryEventDTO {
+    private Long id;
+    private BatteryEventType type;
+    private LocalDateTime time;
+    private Long stationId;
+    private String stationCode;
+    private Long fromStationId;
+    private String fromStationCode;
+    private String vehicleId;
+    private Double socBefore;
+    private Double socAfter;
+    private Double energyConsumed;
+    private String referenceId;
+    private String detail;
+}
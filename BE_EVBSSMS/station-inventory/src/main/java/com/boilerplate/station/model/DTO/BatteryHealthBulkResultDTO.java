@@ -0,0 +1,28 @@
+package com.boilerplate.station.model.DTO;
+
+import com.boilerplate.station.enums.HealthUpdateOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatteryHealthBulkResultDTO {
+    private int requested;
+    private int updated;
+    private List<Item> errors; // chỉ các phần tử không được cập nhật
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private int index;      // vị trí trong mảng gửi lên
+        private String batteryCode;
+        private HealthUpdateOutcome outcome;
+    }
+}
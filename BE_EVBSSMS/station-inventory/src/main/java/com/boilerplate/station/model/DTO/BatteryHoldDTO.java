@@ -0,0 +1,19 @@
+package com.boilerplate.station.model.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatteryHoldDTO {
+    private String batteryCode;
+    private Long stationId;
+    private String holdBy;
+    private LocalDateTime holdUntil; // sau thời điểm này pin được nhả tự động
+}
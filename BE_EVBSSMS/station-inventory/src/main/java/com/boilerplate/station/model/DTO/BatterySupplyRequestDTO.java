@@ -2,6 +2,7 @@ package com.boilerplate.station.model.DTO;
 
 import com.boilerplate.station.enums.SupplyRequestStatus;
 import com.boilerplate.station.model.entity.BatterySupplyRequest;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -9,6 +10,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor // dùng cho JPQL constructor expression, giữ đúng thứ tự field
 public class BatterySupplyRequestDTO {
     private Long id;
     private String stationCode;
@@ -20,6 +22,7 @@ public class BatterySupplyRequestDTO {
     private LocalDateTime createdAt;
     private LocalDateTime processedAt;
     private String adminNote;
+    private String sourceStationCode; // trạm chuyển pin đi, chỉ có với đề xuất tự động
 
     public static BatterySupplyRequestDTO fromEntity(BatterySupplyRequest entity) {
         if (entity == null) return null;
@@ -35,6 +38,7 @@ public class BatterySupplyRequestDTO {
                 .createdAt(entity.getCreatedAt())
                 .processedAt(entity.getProcessedAt())
                 .adminNote(entity.getAdminNote())
+                .sourceStationCode(entity.getSourceStation() != null ? entity.getSourceStation().getStationCode() : null)
                 .build();
     }
 
@@ -0,0 +1,18 @@
+package com.boilerplate.station.model.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatteryTimelineDTO {
+    private List<BatteryEventDTO> events;
+    private LocalDateTime incompleteBefore; // null: đủ lịch sử; khác null: sự kiện trước mốc này có thể thiếu
+}
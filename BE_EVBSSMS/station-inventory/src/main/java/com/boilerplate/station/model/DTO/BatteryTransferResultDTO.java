@@ -0,0 +1,28 @@
+package com.boilerplate.station.model.DTO;
+
+import com.boilerplate.station.enums.TransferOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatteryTransferResultDTO {
+    private String destinationStationCode;
+    private int requested;
+    private int transferred;
+    private List<Item> items; // cùng thứ tự với danh sách mã gửi lên
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private String batteryCode;
+        private TransferOutcome outcome;
+    }
+}
@@ -0,0 +1,22 @@
+package com.boilerplate.station.model.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChargingSlotDTO {
+    private Long slotId;
+    private Long batteryId;
+    private Double soc;            // SoC hiện tại (%)
+    private Double powerW;         // công suất được cấp ở tick gần nhất
+    private boolean held;          // pin đang được booking giữ -> ưu tiên cấp điện
+    private LocalDateTime startedAt;
+    private Long etaMinutes;       // ước tính tới khi đầy theo công suất hiện tại, null nếu đang không được cấp điện
+}
@@ -0,0 +1,23 @@
+package com.boilerplate.station.model.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HealthPointDTO {
+    private LocalDateTime time;     // thời điểm mẫu, hoặc đầu khung với dữ liệu đã gộp
+    private Double avgSoH;
+    private Double minSoH;
+    private Double maxSoH;
+    private Double humidity;
+    private Double minHumidity;
+    private Double maxHumidity;
+    private Long samples;           // số mẫu gốc trong khung (1 với dữ liệu gốc)
+}
@@ -0,0 +1,23 @@
+package com.boilerplate.station.model.DTO;
+
+import com.boilerplate.station.enums.HealthResolution;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HealthSeriesDTO {
+    private Long stationId;
+    private HealthResolution resolution;    // độ phân giải đã chọn cho khoảng thời gian
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<HealthPointDTO> points;
+    private boolean truncated;              // còn điểm sau điểm cuối: gọi lại với from = time của điểm cuối + 1 khung
+}
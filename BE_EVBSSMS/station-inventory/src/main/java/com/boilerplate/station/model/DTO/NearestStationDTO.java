@@ -1,6 +1,7 @@
 package com.boilerplate.station.model.DTO;
 
 import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.service.StationGeoIndex;
 import lombok.Data;
 
 @Data
@@ -11,6 +12,7 @@ public class NearestStationDTO {
     private double latitude;
     private double longitude;
     private double distanceKm;
+    private Double drivingDistanceKm; // chỉ có khi tìm theo khoảng cách lái xe
 
     public static NearestStationDTO fromEntity(Station station, double distanceKm) {
         NearestStationDTO dto = new NearestStationDTO();
@@ -22,4 +24,15 @@ public class NearestStationDTO {
         dto.setDistanceKm(distanceKm);
         return dto;
     }
+
+    public static NearestStationDTO fromIndex(StationGeoIndex.Hit hit) {
+        NearestStationDTO dto = new NearestStationDTO();
+        dto.setId(hit.station().id());
+        dto.setStationName(hit.station().stationName());
+        dto.setAddress(hit.station().address());
+        dto.setLatitude(hit.station().latitude());
+        dto.setLongitude(hit.station().longitude());
+        dto.setDistanceKm(hit.distanceKm());
+        return dto;
+    }
 }
@@ -0,0 +1,24 @@
+package com.boilerplate.station.model.DTO;
+
+import com.boilerplate.station.enums.SlotStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * Một phần tử của luồng availability: chỉ chứa các trường thay đổi (trường null bị bỏ khỏi JSON).
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StationAvailabilityDTO {
+    private Long stationId;
+    private Integer full;                 // số pin FULL hiện tại
+    private Integer charging;
+    private Integer held;
+    private Map<Long, SlotStatus> slots;  // slotId -> trạng thái mới (giá trị null = slot bị gỡ khỏi trạm)
+}
@@ -3,6 +3,7 @@ package com.boilerplate.station.model.DTO;
 import com.boilerplate.station.enums.StationStatus;
 import com.boilerplate.station.model.entity.Battery;
 import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.repository.StationRepository;
 import lombok.*;
 
 import java.util.List;
@@ -24,6 +25,7 @@ public class StationDTO {
     private int totalSlots;
     private int availableSlots;
     private StationStatus status;
+    private Integer fullBatteries;
     private List<BatteryDTO> batteries;
     private List<String> staffCode;
 
@@ -51,4 +53,23 @@ public class StationDTO {
 
                 .build();
     }
+
+    /**
+     * Bản tóm tắt cho danh sách / bản đồ: có số pin FULL, không kèm danh sách pin và nhân viên.
+     */
+    public static StationDTO fromSummary(StationRepository.StationSummary summary) {
+        return StationDTO.builder()
+                .id(summary.getId())
+                .stationCode(summary.getStationCode())
+                .stationName(summary.getStationName())
+                .latitude(summary.getLatitude())
+                .longitude(summary.getLongitude())
+                .address(summary.getAddress())
+                .phoneNumber(summary.getPhoneNumber())
+                .totalSlots(summary.getTotalSlots())
+                .availableSlots(summary.getAvailableSlots())
+                .status(summary.getStatus())
+                .fullBatteries(summary.getFullBatteries())
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.boilerplate.station.model.DTO;
+
+import com.boilerplate.station.model.entity.StationInventory;
+import com.boilerplate.station.repository.StationInventoryRepository;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StationInventoryDTO {
+    private Long stationId;      // null với số liệu toàn hệ thống
+    private Long stationCount;   // số trạm được cộng (chỉ có ở số liệu toàn hệ thống)
+    private long fullCount;
+    private long chargingCount;
+    private long maintenanceCount;
+    private long defectiveCount;
+    private long heldCount;
+    private LocalDateTime updatedAt;
+
+    public static StationInventoryDTO fromEntity(StationInventory inventory) {
+        if (inventory == null) return null;
+
+        return StationInventoryDTO.builder()
+                .stationId(inventory.getStationId())
+                .fullCount(inventory.getFullCount())
+                .chargingCount(inventory.getChargingCount())
+                .maintenanceCount(inventory.getMaintenanceCount())
+                .defectiveCount(inventory.getDefectiveCount())
+                .heldCount(inventory.getHeldCount())
+                .updatedAt(inventory.getUpdatedAt())
+                .build();
+    }
+
+    public static StationInventoryDTO fromTotals(StationInventoryRepository.InventoryTotals totals) {
+        return StationInventoryDTO.builder()
+                .stationCount(totals.getStationCount())
+                .fullCount(totals.getFullCount())
+                .chargingCount(totals.getChargingCount())
+                .maintenanceCount(totals.getMaintenanceCount())
+                .defectiveCount(totals.getDefectiveCount())
+                .heldCount(totals.getHeldCount())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.boilerplate.station.model.DTO;
+
+import com.boilerplate.station.enums.TimeSlot;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SwapForecastDTO {
+    private Long stationId;
+    private boolean trained;        // false = trạm chưa có lịch sử swap, dự báo bằng 0
+    private DayForecast nextDay;
+    private List<DayForecast> nextWeek;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DayForecast {
+        private LocalDate date;
+        private Map<TimeSlot, Double> slots;    // số lượt swap dự kiến theo khung giờ
+        private double total;
+    }
+}
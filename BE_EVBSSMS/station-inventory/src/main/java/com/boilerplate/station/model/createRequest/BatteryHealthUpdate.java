@@ -0,0 +1,22 @@
+package com.boilerplate.station.model.createRequest;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một phần tử của cập nhật soh/soc hàng loạt, gửi dạng mảng gọn {@code ["BAT-001", 97.5, 80.2]}.
+ * soh hoặc soc có thể là null nếu không đổi.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({"code", "soh", "soc"})
+public class BatteryHealthUpdate {
+    private String code;
+    private Double soh;
+    private Double soc;
+}
@@ -0,0 +1,17 @@
+package com.boilerplate.station.model.createRequest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HealthSampleRequest {
+    private Long stationId;
+    private Double avgSoH;
+    private Double humidity;
+    private LocalDateTime recordedAt;   // null = thời điểm server nhận
+}
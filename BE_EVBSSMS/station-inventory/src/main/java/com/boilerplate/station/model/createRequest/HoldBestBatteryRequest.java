@@ -0,0 +1,10 @@
+package com.boilerplate.station.model.createRequest;
+
+import lombok.Data;
+
+@Data
+public class HoldBestBatteryRequest {
+    private String stationCode;
+    private String holdBy;      // mã booking / driver giữ pin
+    private Long ttlSeconds;    // null = thời gian giữ mặc định
+}
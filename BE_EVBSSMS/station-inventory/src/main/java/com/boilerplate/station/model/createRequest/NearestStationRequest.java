@@ -6,4 +6,7 @@ import lombok.Data;
 public class NearestStationRequest {
     private double latitude;
     private double longitude;
+    private Integer limit;      // số trạm muốn lấy (mặc định theo cấu hình)
+    private Double radiusKm;    // bán kính tìm kiếm (km), bỏ trống = theo cấu hình
+    private boolean byDrivingDistance; // true: xếp hạng theo khoảng cách lái xe (OSRM)
 }
@@ -0,0 +1,9 @@
+package com.boilerplate.station.model.createRequest;
+
+import lombok.Data;
+
+@Data
+public class ReleaseHoldRequest {
+    private String batteryCode;
+    private String holdBy;      // null = nhả bất kể ai đang giữ
+}
@@ -0,0 +1,53 @@
+package com.boilerplate.station.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Một file NDJSON.gz chứa log của một tháng đã được chuyển khỏi bảng chính (battery_swap_logs / charge_logs).
+ * Một tháng có thể có nhiều phần nếu được lưu trữ nhiều lần. Ràng buộc (table_name, month, part) cũng là
+ * chỉ mục cho truy vấn theo (table_name, month).
+ */
+@Entity
+@Table(name = "archived_log_files", uniqueConstraints = {
+        // Hai lần chạy đồng thời không thể cùng ghi một phần
+        @UniqueConstraint(name = "uk_archived_log_files_table_month_part", columnNames = {"table_name", "month", "part"})
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ArchivedLogFile {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "table_name", length = 64, nullable = false)
+    private String tableName;
+
+    @Column(name = "month", nullable = false)
+    private LocalDate month;        // ngày đầu tháng
+
+    @Column(name = "part", nullable = false)
+    private int part;
+
+    @Column(name = "path", nullable = false)
+    private String path;
+
+    @Column(name = "row_count")
+    private long rowCount;
+
+    @Column(name = "max_id")
+    private Long maxId;             // id lớn nhất trong file; các dòng của tháng có id <= max_id được xóa khỏi bảng chính
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+}
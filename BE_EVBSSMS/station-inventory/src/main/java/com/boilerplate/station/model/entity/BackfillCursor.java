@@ -0,0 +1,39 @@
+package com.boilerplate.station.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tiến độ dựng lại dữ liệu từ một bảng nguồn: đã chép tới id {@code lastId}, dừng ở {@code maxId}
+ * (id lớn nhất trước mốc chốt khi tạo dòng). Chỉ các dòng có thời điểm trước {@code cutoff} được chép,
+ * vì id không tăng theo thời gian (sequence cấp trước theo khối). Dòng có {@code completedAt} là dấu hoàn tất,
+ * các lần khởi động sau bỏ qua.
+ */
+@Entity
+@Table(name = "backfill_cursors")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BackfillCursor {
+    @Id
+    @Column(length = 64)
+    private String name; // "battery_events.swap_logs", ...
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "max_id", nullable = false)
+    private long maxId;
+
+    @Column(name = "cutoff")
+    private LocalDateTime cutoff; // null: không lọc theo thời gian
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -8,8 +8,16 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name = "batteries")
+@Table(name = "batteries", indexes = {
+        // Chọn pin FULL tốt nhất chưa bị giữ tại một trạm
+        @Index(name = "idx_batteries_station_available", columnList = "station_id, status, is_hold, soc"),
+        @Index(name = "idx_batteries_hold_until", columnList = "hold_until"),
+        // Tra cứu / cập nhật soh-soc hàng loạt theo mã pin
+        @Index(name = "idx_batteries_code", columnList = "battery_code")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -33,9 +41,15 @@ public class Battery {
     private String referenceId; // code của Station hoặc User tương ứng
 
 
-    @Column(nullable = false)
+    @Column(name = "is_hold", nullable = false)
     private boolean isHold = false; // pin đang được giữ để đổi
 
+    @Column(name = "hold_by", length = 64)
+    private String holdBy;            // ai đang giữ pin (mã booking / driver)
+
+    @Column(name = "hold_until")
+    private LocalDateTime holdUntil;  // hết hạn giữ, sau thời điểm này pin được nhả tự động
+
     @ManyToOne
     @JoinColumn(name = "station_id")
     private Station station;
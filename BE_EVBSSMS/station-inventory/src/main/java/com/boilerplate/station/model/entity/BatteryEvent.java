@@ -0,0 +1,66 @@
+package com.boilerplate.station.model.entity;
+
+import com.boilerplate.station.enums.BatteryEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một mốc trong lịch sử của pin (đổi, sạc, chuyển trạm, trả pin), chỉ thêm, không sửa.
+ * Ghi cùng transaction với log gốc qua {@code BatteryEventRepository.appendBatch}; các cột không áp dụng để null.
+ */
+@Entity
+@Immutable
+@Table(name = "battery_events", indexes = {
+        @Index(name = "idx_battery_events_battery_time", columnList = "battery_id, event_time, id")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatteryEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "battery_id", nullable = false)
+    private Long batteryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 16, nullable = false)
+    private BatteryEventType type;
+
+    @Column(name = "event_time", nullable = false)
+    private LocalDateTime eventTime;
+
+    @Column(name = "station_id")
+    private Long stationId;         // trạm nơi sự kiện xảy ra / trạm đích khi chuyển
+
+    @Column(name = "from_station_id")
+    private Long fromStationId;     // trạm nguồn khi chuyển
+
+    @Column(name = "vehicle_id", length = 64)
+    private String vehicleId;
+
+    @Column(name = "soc_before")
+    private Double socBefore;
+
+    @Column(name = "soc_after")
+    private Double socAfter;
+
+    @Column(name = "energy_consumed")
+    private Double energyConsumed;  // Wh
+
+    @Column(name = "reference_id", length = 64)
+    private String referenceId;     // id bên ngoài liên quan (booking, ...)
+
+    @Column(name = "detail")
+    private String detail;
+}
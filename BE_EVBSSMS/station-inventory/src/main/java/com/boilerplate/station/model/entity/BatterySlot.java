@@ -7,6 +7,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Table(name = "battery_slots")
 @Getter
@@ -31,5 +33,12 @@ public class BatterySlot {
     @OneToOne
     @JoinColumn(name = "battery_id")
     private Battery battery;
+
+    // Phiên sạc hiện tại: ghi khi gắn pin, dùng cho ChargeLog và phục hồi phiên sạc sau restart
+    @Column(name = "charge_started_at")
+    private LocalDateTime chargeStartedAt;
+
+    @Column(name = "charge_start_soc")
+    private Double chargeStartSoc;
 }
 
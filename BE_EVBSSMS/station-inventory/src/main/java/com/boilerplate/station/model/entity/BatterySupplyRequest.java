@@ -9,7 +9,11 @@ import lombok.experimental.SuperBuilder;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "battery_supply_request")
+@Table(name = "battery_supply_request", indexes = {
+        @Index(name = "idx_supply_request_station_status_id", columnList = "station_id, status, id"),
+        @Index(name = "idx_supply_request_status_id", columnList = "status, id"),
+        @Index(name = "idx_supply_request_created_at", columnList = "created_at")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -26,6 +30,11 @@ public class BatterySupplyRequest {
     @JoinColumn(name = "station_id", nullable = false)
     private Station station;
 
+    // ---- Trạm chuyển pin đi (chỉ có với đề xuất tự động) ----
+    @ManyToOne
+    @JoinColumn(name = "source_station_id")
+    private Station sourceStation;
+
     // ---- Số lượng pin cần thêm ----
     private int requestedQuantity;
 
@@ -40,9 +49,11 @@ public class BatterySupplyRequest {
 
     // ---- Trạng thái yêu cầu ----
     @Enumerated(EnumType.STRING)
+    @Column(name = "status")
     private SupplyRequestStatus status;
 
     // ---- Thời điểm gửi yêu cầu ----
+    @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     // ---- Thời điểm duyệt hoặc từ chối ----
@@ -10,15 +10,21 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "battery_swap_logs")
+@Table(name = "battery_swap_logs", indexes = {
+        @Index(name = "idx_swap_logs_station_time", columnList = "statiom_id, swap_time"),
+        // Quét theo tháng khi lưu trữ
+        @Index(name = "idx_swap_logs_time", columnList = "swap_time")
+})
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class BatterySwapLog {
 
+    // Sequence cấp trước theo khối (allocationSize) để Hibernate gom INSERT thành JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "battery_swap_logs_seq")
+    @SequenceGenerator(name = "battery_swap_logs_seq", sequenceName = "battery_swap_logs_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -39,6 +45,7 @@ public class BatterySwapLog {
     @JoinColumn(name = "battery_Return_Log_id")
     private BatteryReturnLog batteryReturnLog;
 
+    @Column(name = "swap_time")
     private LocalDateTime swapTime;
 
 }
@@ -17,8 +17,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class BatterySwapStationLog {
 
+    // Cùng bảng với BatterySwapLog: lấy id từ cùng sequence, để id không trùng với khối mà BatterySwapLog đã cấp trước
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "battery_swap_station_logs_seq")
+    @SequenceGenerator(name = "battery_swap_station_logs_seq", sequenceName = "battery_swap_logs_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -29,6 +31,8 @@ public class BatterySwapStationLog {
 
     private String newStationId;
 
+    // Cùng bảng với BatterySwapLog: phải cùng tên cột để Hibernate không coi là hai cột khác nhau
+    @Column(name = "swap_time")
     private LocalDateTime swapTime;
 
 }
@@ -5,7 +5,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "charge_logs")
+@Table(name = "charge_logs", indexes = {
+        // Quét theo tháng khi lưu trữ
+        @Index(name = "idx_charge_logs_end_time", columnList = "end_time")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -13,8 +16,10 @@ import java.time.LocalDateTime;
 @Builder
 public class ChargeLog {
 
+    // Sequence cấp trước theo khối (allocationSize) để Hibernate gom INSERT thành JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "charge_logs_seq")
+    @SequenceGenerator(name = "charge_logs_seq", sequenceName = "charge_logs_seq", allocationSize = 50)
     private Long id;
 
     // --- Thông tin SoC ---
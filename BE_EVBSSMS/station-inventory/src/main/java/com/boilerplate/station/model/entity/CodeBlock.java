@@ -0,0 +1,26 @@
+package com.boilerplate.station.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Bộ đếm hi/lo cho sinh mã: mỗi instance thuê một khối [nextValue, nextValue + size)
+ * bằng một câu UPDATE nguyên tử rồi cấp mã trong bộ nhớ.
+ */
+@Entity
+@Table(name = "code_blocks")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CodeBlock {
+    @Id
+    @Column(length = 32)
+    private String name; // "battery", "station"
+
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+}
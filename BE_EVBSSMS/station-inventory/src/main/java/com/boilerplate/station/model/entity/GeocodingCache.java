@@ -0,0 +1,38 @@
+package com.boilerplate.station.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cache geocode bền vững (sống qua restart).
+ * latitude/longitude null nghĩa là địa chỉ không có kết quả (cache âm).
+ */
+@Entity
+@Table(name = "geocoding_cache", indexes = {
+        @Index(name = "idx_geocoding_address_key", columnList = "address_key", unique = true)
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class GeocodingCache {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "address_key", nullable = false, length = 512)
+    private String addressKey;
+
+    private Double latitude;
+    private Double longitude;
+
+    @Column(nullable = false)
+    private LocalDateTime cachedAt;
+}
@@ -0,0 +1,36 @@
+package com.boilerplate.station.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sự kiện Kafka đã xử lý, khóa theo idempotency key: nhận lại cùng sự kiện thì bỏ qua,
+ * chỉ gửi lại kết quả đã lưu.
+ */
+@Entity
+@Table(name = "processed_events", indexes = {
+        @Index(name = "idx_processed_events_time", columnList = "processed_at")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessedEvent {
+    @Id
+    @Column(name = "event_id", length = 128)
+    private String eventId;
+
+    @Column(name = "topic", length = 128)
+    private String topic;
+
+    @Column(name = "outcome", length = 16)
+    private String outcome;     // SUCCESS / FAILED
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -36,6 +37,9 @@ public class Station {
     @Enumerated(EnumType.STRING)
     private StationStatus status; // ACTIVE, MAINTENANCE, OFFLINE
 
+    @Column(name = "power_cap_w")
+    private Double powerCapW; // tổng công suất sạc tối đa của trạm (W), null = không giới hạn
+
     @OneToMany(mappedBy = "station", cascade = CascadeType.ALL)
     private List<BatterySlot> slots;
 
@@ -44,6 +48,7 @@ public class Station {
 
     // Danh sách mã nhân viên thuộc trạm. Dùng ElementCollection vì lưu List<String> đơn giản
     @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @CollectionTable(name = "station_staffs", joinColumns = @JoinColumn(name = "station_id"))
     @Column(name = "staff_code", length = 64)
     private List<String> staffs = new ArrayList<>();
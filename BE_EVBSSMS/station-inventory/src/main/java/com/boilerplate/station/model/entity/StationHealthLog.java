@@ -9,7 +9,10 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "station_health_log")
+@Table(name = "station_health_log", indexes = {
+        @Index(name = "idx_station_health_station_time", columnList = "station_id, recorded_at"),
+        @Index(name = "idx_station_health_time", columnList = "recorded_at")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -26,6 +29,7 @@ public class StationHealthLog {
     private Double avgSoH;
 
     private Double humidity;
+    @Column(name = "recorded_at")
     private LocalDateTime recordedAt;
 }
 
@@ -0,0 +1,77 @@
+package com.boilerplate.station.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Số liệu sức khỏe trạm gộp theo khung thời gian (1 phút / 1 giờ). Lưu tổng + số mẫu thay vì trung bình
+ * để gộp dần từng batch mẫu mới bằng upsert.
+ */
+@Entity
+@Table(name = "station_health_rollups", indexes = {
+        @Index(name = "idx_station_health_rollups_time", columnList = "bucket_seconds, bucket_start")
+})
+@IdClass(StationHealthRollup.Key.class)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StationHealthRollup {
+
+    @Id
+    @Column(name = "station_id")
+    private Long stationId;
+
+    @Id
+    @Column(name = "bucket_seconds")
+    private int bucketSeconds;      // 60 hoặc 3600
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(name = "sample_count")
+    private long sampleCount;
+
+    @Column(name = "soh_sum")
+    private double sohSum;
+    @Column(name = "soh_min")
+    private double sohMin;
+    @Column(name = "soh_max")
+    private double sohMax;
+
+    @Column(name = "humidity_sum")
+    private double humiditySum;
+    @Column(name = "humidity_min")
+    private double humidityMin;
+    @Column(name = "humidity_max")
+    private double humidityMax;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long stationId;
+        private int bucketSeconds;
+        private LocalDateTime bucketStart;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && bucketSeconds == k.bucketSeconds
+                    && java.util.Objects.equals(stationId, k.stationId)
+                    && java.util.Objects.equals(bucketStart, k.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return java.util.Objects.hash(stationId, bucketSeconds, bucketStart);
+        }
+    }
+}
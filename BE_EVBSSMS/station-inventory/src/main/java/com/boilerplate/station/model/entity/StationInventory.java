@@ -9,7 +9,9 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "station_inventory")
+@Table(name = "station_inventory", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_station_inventory_station", columnNames = "station_id")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -19,11 +21,13 @@ public class StationInventory {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(name = "station_id")
     private Long stationId;
     private int fullCount;
     private int chargingCount;
     private int maintenanceCount;
     private int defectiveCount;
+    private int heldCount; // pin tại trạm đang được giữ cho lượt đổi
 
     private LocalDateTime updatedAt;
 }
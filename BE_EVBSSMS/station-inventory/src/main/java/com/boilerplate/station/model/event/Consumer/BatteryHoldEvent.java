@@ -9,4 +9,6 @@ import lombok.*;
 @Setter
 public class BatteryHoldEvent {
     private String batteryCode;        // ID pin được giữ
+    private String holdBy;             // ai giữ pin (mã booking / driver), có thể null
+    private Long ttlSeconds;           // thời gian giữ, null = mặc định
 }
@@ -10,6 +10,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 @Setter
 public class BatterySwapEvent {
 
+    private Long bookingId;          // booking tương ứng, dùng để trả BatterySwapResult
+
     private String oldBatteryId;     // ID pin cũ người dùng mang đến
     private String newBatteryId;     // ID pin mới cấp cho người dùng
 
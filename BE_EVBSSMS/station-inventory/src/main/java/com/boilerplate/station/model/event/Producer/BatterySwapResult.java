@@ -1,8 +1,17 @@
 package com.boilerplate.station.model.event.Producer;
 
 import com.boilerplate.station.enums.SwapStatus;
+import lombok.*;
 
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
 public class BatterySwapResult {
     private Long bookingId;
     private SwapStatus swapStatus;
+    private String stationId;       // mã trạm thực hiện đổi (cũng là key của message)
+    private String oldBatteryId;
+    private String newBatteryId;
+    private String message;         // lý do khi FAILED
 }
@@ -7,7 +7,9 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "battery_swap_summary")
+@Table(name = "battery_swap_summary", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_swap_summary_station_date_slot", columnNames = {"station_id", "date", "time_slot"})
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -19,11 +21,15 @@ public class BatterySwapSummary {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(name = "station_id")
     private Long stationId;      // ID trạm
 
+    @Column(name = "date")
     private LocalDate date;      // Ngày swap
 
-    private TimeSlot timeSlot;     // Khung giờ: "0-6", "6-12", "12-18", "18-24"
+    @Column(name = "time_slot")
+    private TimeSlot timeSlot;     // Khung giờ: "0-6", "6-12", "12-18", "18-24" (lưu theo ordinal)
 
+    @Column(name = "swap_count")
     private int swapCount;       // Số lần swap trong khung giờ
 }
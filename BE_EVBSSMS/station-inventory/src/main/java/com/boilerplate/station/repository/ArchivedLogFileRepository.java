@@ -0,0 +1,30 @@
+package com.boilerplate.station.repository;
+
+import com.boilerplate.station.model.entity.ArchivedLogFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedLogFileRepository extends JpaRepository<ArchivedLogFile, Long> {
+
+    List<ArchivedLogFile> findByTableNameAndMonthOrderByPart(String tableName, LocalDate month);
+
+    List<ArchivedLogFile> findByTableNameIn(Collection<String> tableNames);
+
+    // Các file có tháng nằm trong [fromMonth, toMonth]; tham số null = không giới hạn.
+    // CAST để Postgres biết kiểu của tham số trong IS NULL (LocalDate được gửi không kèm kiểu)
+    @Query("""
+            SELECT f FROM ArchivedLogFile f
+            WHERE f.tableName = :tableName
+              AND (CAST(:fromMonth AS LocalDate) IS NULL OR f.month >= :fromMonth)
+              AND (CAST(:toMonth AS LocalDate) IS NULL OR f.month <= :toMonth)
+            ORDER BY f.month, f.part
+            """)
+    List<ArchivedLogFile> findOverlapping(@Param("tableName") String tableName,
+                                          @Param("fromMonth") LocalDate fromMonth,
+                                          @Param("toMonth") LocalDate toMonth);
+}
@@ -0,0 +1,16 @@
+package com.boilerplate.station.repository;
+
+import com.boilerplate.station.model.entity.BackfillCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface BackfillCursorRepository extends JpaRepository<BackfillCursor, String> {
+
+    /**
+     * Khóa advisory theo tên job, tự nhả khi transaction kết thúc: các instance cùng chạy một job
+     * lần lượt xử lý từng lô, không chép trùng.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(:job))", nativeQuery = true)
+    int lock(@Param("job") String job);
+}
@@ -0,0 +1,154 @@
+package com.boilerplate.station.repository;
+
+import com.boilerplate.station.model.DTO.BatteryEventDTO;
+import com.boilerplate.station.model.entity.BatteryEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BatteryEventRepository extends JpaRepository<BatteryEvent, Long> {
+
+    /**
+     * Thêm một batch sự kiện trong một câu INSERT; các mảng cùng độ dài, phần tử thứ i là một sự kiện.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO battery_events (battery_id, type, event_time, station_id, from_station_id, vehicle_id,
+                                        soc_before, soc_after, energy_consumed, reference_id, detail)
+            SELECT * FROM unnest(CAST(:batteryIds AS bigint[]), CAST(:types AS varchar[]),
+                                 CAST(:times AS timestamp[]), CAST(:stationIds AS bigint[]),
+                                 CAST(:fromStationIds AS bigint[]), CAST(:vehicleIds AS varchar[]),
+                                 CAST(:socBefore AS float8[]), CAST(:socAfter AS float8[]),
+                                 CAST(:energy AS float8[]), CAST(:referenceIds AS varchar[]),
+                                 CAST(:details AS varchar[]))
+            """, nativeQuery = true)
+    int appendBatch(@Param("batteryIds") Long[] batteryIds,
+                    @Param("types") String[] types,
+                    @Param("times") LocalDateTime[] times,
+                    @Param("stationIds") Long[] stationIds,
+                    @Param("fromStationIds") Long[] fromStationIds,
+                    @Param("vehicleIds") String[] vehicleIds,
+                    @Param("socBefore") Double[] socBefore,
+                    @Param("socAfter") Double[] socAfter,
+                    @Param("energy") Double[] energy,
+                    @Param("referenceIds") String[] referenceIds,
+                    @Param("details") String[] details);
+
+    /**
+     * Timeline của một pin, mới nhất trước, một lần quét chỉ mục (battery_id, event_time, id).
+     * Trang sau: truyền (beforeTime, beforeId) = (time, id) của phần tử cuối trang trước.
+     * beforeTime được CAST vì Postgres không tự suy ra kiểu của nó trong IS NULL.
+     */
+    @Query("""
+            SELECT new com.boilerplate.station.model.DTO.BatteryEventDTO(
+                e.id, e.type, e.eventTime, e.stationId, s.stationCode, e.fromStationId, f.stationCode,
+                e.vehicleId, e.socBefore, e.socAfter, e.energyConsumed, e.referenceId, e.detail)
+            FROM BatteryEvent e
+            LEFT JOIN Station s ON s.id = e.stationId
+            LEFT JOIN Station f ON f.id = e.fromStationId
+            WHERE e.batteryId = :batteryId
+              AND (CAST(:beforeTime AS LocalDateTime) IS NULL OR e.eventTime < :beforeTime
+                   OR (e.eventTime = :beforeTime AND e.id < :beforeId))
+            ORDER BY e.eventTime DESC, e.id DESC
+            """)
+    List<BatteryEventDTO> findTimeline(@Param("batteryId") Long batteryId,
+                                       @Param("beforeTime") LocalDateTime beforeTime,
+                                       @Param("beforeId") Long beforeId,
+                                       Pageable limit);
+
+    // Thời điểm của sự kiện sớm nhất đã ghi (mốc chốt khi dựng lại từ log)
+    @Query("SELECT MIN(e.eventTime) FROM BatteryEvent e")
+    LocalDateTime findFirstEventTime();
+
+    /**
+     * Id lớn nhất của các bảng log trước {@code before} (null = tất cả): cận trên của phạm vi id cần quét khi dựng lại.
+     * Log chuyển trạm (BatterySwapStationLog) nằm chung bảng battery_swap_logs.
+     */
+    @Query(value = """
+            SELECT COALESCE(MAX(id), 0) FROM battery_swap_logs
+            WHERE CAST(:before AS timestamp) IS NULL OR swap_time < :before
+            """, nativeQuery = true)
+    long maxSwapLogId(@Param("before") LocalDateTime before);
+
+    @Query(value = """
+            SELECT COALESCE(MAX(id), 0) FROM charge_logs
+            WHERE CAST(:before AS timestamp) IS NULL OR end_time < :before
+            """, nativeQuery = true)
+    long maxChargeLogId(@Param("before") LocalDateTime before);
+
+    @Query(value = """
+            SELECT COALESCE(MAX(id), 0) FROM battery_return_logs
+            WHERE CAST(:before AS timestamp) IS NULL OR return_time < :before
+            """, nativeQuery = true)
+    long maxReturnLogId(@Param("before") LocalDateTime before);
+
+    /**
+     * Dựng sự kiện đổi pin / chuyển trạm từ các dòng battery_swap_logs có id trong (afterId, toId] và thời điểm
+     * trước {@code before} (null = không lọc): log từ mốc này đã có sự kiện ghi trực tiếp, dù id của nó nhỏ hơn.
+     * Dòng chuyển trạm nhận biết qua old_battery_id.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO battery_events (battery_id, type, event_time, station_id, from_station_id, vehicle_id,
+                                        soc_before, soc_after, energy_consumed, reference_id, detail)
+            SELECT * FROM (
+                SELECT l.verhice_battery_id, 'SWAP_IN', l.swap_time, l.statiom_id, CAST(NULL AS bigint), l.vehice_id,
+                       CAST(NULL AS float8), CAST(NULL AS float8), CAST(NULL AS float8),
+                       CAST(NULL AS varchar), CAST(NULL AS varchar)
+                FROM battery_swap_logs l
+                WHERE l.id > :afterId AND l.id <= :toId
+                  AND l.verhice_battery_id IS NOT NULL AND l.swap_time IS NOT NULL
+                  AND (CAST(:before AS timestamp) IS NULL OR l.swap_time < :before)
+                UNION ALL
+                SELECT l.battery_id, 'SWAP_OUT', l.swap_time, l.statiom_id, NULL, l.vehice_id,
+                       NULL, NULL, NULL, NULL, NULL
+                FROM battery_swap_logs l
+                WHERE l.id > :afterId AND l.id <= :toId
+                  AND l.battery_id IS NOT NULL AND l.swap_time IS NOT NULL
+                  AND (CAST(:before AS timestamp) IS NULL OR l.swap_time < :before)
+                UNION ALL
+                SELECT l.old_battery_id, 'TRANSFER', l.swap_time, dst.id, src.id, NULL,
+                       NULL, NULL, NULL, NULL, NULL
+                FROM battery_swap_logs l
+                LEFT JOIN stations src ON src.station_code = l.old_station_id
+                LEFT JOIN stations dst ON dst.station_code = l.new_station_id
+                WHERE l.id > :afterId AND l.id <= :toId
+                  AND l.old_battery_id IS NOT NULL AND l.swap_time IS NOT NULL
+                  AND (CAST(:before AS timestamp) IS NULL OR l.swap_time < :before)
+            ) AS history
+            """, nativeQuery = true)
+    int backfillSwapLogs(@Param("afterId") long afterId, @Param("toId") long toId,
+                         @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO battery_events (battery_id, type, event_time, station_id, from_station_id, vehicle_id,
+                                        soc_before, soc_after, energy_consumed, reference_id, detail)
+            SELECT c.battery_id, 'CHARGE', c.end_time, c.station_id, NULL, NULL,
+                   c.soc_before, c.soc_after, c.energy_consumed, NULL, NULL
+            FROM charge_logs c
+            WHERE c.id > :afterId AND c.id <= :toId
+              AND (CAST(:before AS timestamp) IS NULL OR c.end_time < :before)
+            """, nativeQuery = true)
+    int backfillChargeLogs(@Param("afterId") long afterId, @Param("toId") long toId,
+                           @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO battery_events (battery_id, type, event_time, station_id, from_station_id, vehicle_id,
+                                        soc_before, soc_after, energy_consumed, reference_id, detail)
+            SELECT r.battery_id, 'RETURN', r.return_time, NULL, NULL, NULL,
+                   NULL, NULL, NULL, r.booking_id, r.condition
+            FROM battery_return_logs r
+            WHERE r.id > :afterId AND r.id <= :toId
+              AND r.battery_id IS NOT NULL AND r.return_time IS NOT NULL
+              AND (CAST(:before AS timestamp) IS NULL OR r.return_time < :before)
+            """, nativeQuery = true)
+    int backfillReturnLogs(@Param("afterId") long afterId, @Param("toId") long toId,
+                           @Param("before") LocalDateTime before);
+}
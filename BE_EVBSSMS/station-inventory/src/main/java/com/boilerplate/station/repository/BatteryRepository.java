@@ -1,13 +1,276 @@
 package com.boilerplate.station.repository;
 
+import com.boilerplate.station.enums.BatteryStatus;
+import com.boilerplate.station.enums.OwnerType;
+import com.boilerplate.station.model.DTO.BatteryDTO;
 import com.boilerplate.station.model.entity.Battery;
+import com.boilerplate.station.model.entity.Station;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BatteryRepository extends JpaRepository<Battery, Long> {
     Optional<Battery> findByBatteryCode(String code);
 
+    @Query("SELECT b.id FROM Battery b WHERE b.batteryCode = :code")
+    Optional<Long> findIdByBatteryCode(@Param("code") String code);
+
     List<Battery> findByStationId(Long stationId);
+
+    // Đếm pin theo (trạm, trạng thái), dùng để đối soát StationInventory
+    @Query("""
+            SELECT b.station.id AS stationId, b.status AS status, COUNT(b) AS total,
+                   SUM(CASE WHEN b.isHold = true THEN 1 ELSE 0 END) AS held
+            FROM Battery b
+            WHERE b.station IS NOT NULL
+            GROUP BY b.station.id, b.status
+            """)
+    List<StationStatusCount> countByStationAndStatus();
+
+    interface StationStatusCount {
+        Long getStationId();
+
+        BatteryStatus getStatus();
+
+        Long getTotal();
+
+        Long getHeld();
+    }
+
+    /**
+     * Khóa (FOR UPDATE) và đọc các pin theo mã trong một query, theo thứ tự id tăng dần
+     * để các lần chuyển đồng thời luôn khóa cùng thứ tự, không deadlock.
+     */
+    @Query(value = """
+            SELECT b.id AS id, b.battery_code AS batteryCode, b.is_hold AS hold,
+                   b.station_id AS stationId, b.status AS status
+            FROM batteries b
+            WHERE b.battery_code IN (:codes)
+            ORDER BY b.id
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<TransferCandidate> lockForTransfer(@Param("codes") Collection<String> codes);
+
+    // Chuyển nhiều pin sang trạm trong một câu UPDATE
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Battery b
+            SET b.station = :station, b.ownerType = :ownerType, b.referenceId = :referenceId
+            WHERE b.id IN :ids AND b.isHold = false
+            """)
+    int moveToStation(@Param("ids") Collection<Long> ids,
+                      @Param("station") Station station,
+                      @Param("ownerType") OwnerType ownerType,
+                      @Param("referenceId") String referenceId);
+
+    interface TransferCandidate {
+        Long getId();
+
+        String getBatteryCode();
+
+        Boolean getHold();
+
+        Long getStationId();
+
+        BatteryStatus getStatus();
+    }
+
+    // ========================= ĐỔI PIN =========================
+
+    /**
+     * Một round trip cho lượt đổi pin: khóa hai pin theo mã (thứ tự id tăng dần) và lấy luôn id trạm
+     * đích theo mã trạm, không load entity / collection nào.
+     */
+    @Query(value = """
+            SELECT b.id AS id, b.battery_code AS batteryCode, b.station_id AS stationId, b.status AS status,
+                   b.is_hold AS hold,
+                   (SELECT s.id FROM stations s WHERE s.station_code = :stationCode) AS targetStationId
+            FROM batteries b
+            WHERE b.battery_code IN (:codes)
+            ORDER BY b.id
+            FOR UPDATE OF b
+            """, nativeQuery = true)
+    List<SwapCandidate> lockForSwap(@Param("codes") Collection<String> codes,
+                                    @Param("stationCode") String stationCode);
+
+    interface SwapCandidate {
+        Long getId();
+
+        String getBatteryCode();
+
+        Long getStationId();
+
+        BatteryStatus getStatus();
+
+        Boolean getHold();
+
+        Long getTargetStationId();
+    }
+
+    // Pin xe mang đến: nhập kho trạm
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE Battery b
+            SET b.station = :station, b.ownerType = com.boilerplate.station.enums.OwnerType.STATION,
+                b.referenceId = :stationCode, b.status = com.boilerplate.station.enums.BatteryStatus.IN_STOCK
+            WHERE b.id = :id
+            """)
+    int dockAtStation(@Param("id") Long id, @Param("station") Station station, @Param("stationCode") String stationCode);
+
+    // Pin của trạm: giao cho xe, kết thúc lượt giữ (nếu có)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE Battery b
+            SET b.station = NULL, b.ownerType = com.boilerplate.station.enums.OwnerType.VEHICLE,
+                b.referenceId = :vehicleId, b.status = com.boilerplate.station.enums.BatteryStatus.IN_CAR,
+                b.isHold = false, b.holdBy = NULL, b.holdUntil = NULL
+            WHERE b.id = :id
+            """)
+    int handToVehicle(@Param("id") Long id, @Param("vehicleId") String vehicleId);
+
+    // ========================= GIỮ PIN =========================
+
+    /**
+     * Giữ pin theo mã nếu pin chưa bị giữ, trong một câu UPDATE có điều kiện.
+     * Rỗng nếu pin không tồn tại hoặc đã bị giữ.
+     */
+    @Query(value = """
+            UPDATE batteries SET is_hold = true, hold_by = :holder, hold_until = :until
+            WHERE battery_code = :code AND is_hold = false
+            RETURNING id, battery_code AS batteryCode, station_id AS stationId, status
+            """, nativeQuery = true)
+    Optional<HeldBattery> holdByCode(@Param("code") String code,
+                                     @Param("holder") String holder,
+                                     @Param("until") LocalDateTime until);
+
+    /**
+     * Giữ pin FULL tốt nhất (SOC rồi SOH cao nhất) chưa bị giữ tại trạm. Pin đang bị transaction khác
+     * khóa thì bỏ qua (SKIP LOCKED) nên các lượt giữ đồng thời nhận pin khác nhau thay vì chờ nhau.
+     */
+    @Query(value = """
+            UPDATE batteries SET is_hold = true, hold_by = :holder, hold_until = :until
+            WHERE is_hold = false AND id = (
+                SELECT id FROM batteries
+                WHERE station_id = :stationId AND status = 'FULL' AND is_hold = false
+                ORDER BY soc DESC NULLS LAST, soh DESC NULLS LAST, id
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id, battery_code AS batteryCode, station_id AS stationId, status
+            """, nativeQuery = true)
+    Optional<HeldBattery> holdBestAvailable(@Param("stationId") Long stationId,
+                                            @Param("holder") String holder,
+                                            @Param("until") LocalDateTime until);
+
+    // Nhả pin đang giữ; holder null = nhả bất kể ai giữ
+    @Query(value = """
+            UPDATE batteries SET is_hold = false, hold_by = NULL, hold_until = NULL
+            WHERE battery_code = :code AND is_hold = true
+              AND (CAST(:holder AS varchar) IS NULL OR hold_by = :holder)
+            RETURNING id, battery_code AS batteryCode, station_id AS stationId, status
+            """, nativeQuery = true)
+    Optional<HeldBattery> release(@Param("code") String code, @Param("holder") String holder);
+
+    // Nhả các pin (trong ids) đã quá hạn giữ; pin được giữ lại với hạn mới thì không bị nhả
+    @Query(value = """
+            UPDATE batteries SET is_hold = false, hold_by = NULL, hold_until = NULL
+            WHERE id IN (:ids) AND is_hold = true AND hold_until <= :now
+            RETURNING id, battery_code AS batteryCode, station_id AS stationId, status
+            """, nativeQuery = true)
+    List<HeldBattery> releaseExpired(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Quét dự phòng: nhả tối đa :limit pin quá hạn bất kỳ (hold của instance khác / trước khi restart)
+    @Query(value = """
+            UPDATE batteries SET is_hold = false, hold_by = NULL, hold_until = NULL
+            WHERE id IN (
+                SELECT id FROM batteries
+                WHERE is_hold = true AND hold_until <= :now
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id, battery_code AS batteryCode, station_id AS stationId, status
+            """, nativeQuery = true)
+    List<HeldBattery> releaseAllExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    interface HeldBattery {
+        Long getId();
+
+        String getBatteryCode();
+
+        Long getStationId();
+
+        BatteryStatus getStatus();
+    }
+
+    // Pin đang sạc được booking giữ: ưu tiên cấp điện khi trạm bị giới hạn công suất
+    @Query("SELECT b.id FROM Battery b WHERE b.status = com.boilerplate.station.enums.BatteryStatus.CHARGING AND b.isHold = true")
+    List<Long> findHeldChargingIds();
+
+    // Các pin sạc xong trong một tick: một câu UPDATE cho cả nhóm
+    @Query(value = """
+            UPDATE batteries SET soc = 100, status = 'FULL'
+            WHERE id IN (:ids) AND status = 'CHARGING'
+            RETURNING id, station_id AS stationId, is_hold AS hold
+            """, nativeQuery = true)
+    List<ChargedBattery> markCharged(@Param("ids") Collection<Long> ids);
+
+    interface ChargedBattery {
+        Long getId();
+
+        Long getStationId();
+
+        Boolean getHold();
+    }
+
+    // Lưu SoC của mọi pin đang sạc bằng một câu lệnh (phục hồi phiên sạc sau restart)
+    @Modifying
+    @Query(value = """
+            UPDATE batteries b SET soc = v.soc
+            FROM unnest(CAST(:ids AS bigint[]), CAST(:socs AS float8[])) AS v(id, soc)
+            WHERE b.id = v.id AND b.status = 'CHARGING'
+            """, nativeQuery = true)
+    int checkpointSoc(@Param("ids") Long[] ids, @Param("socs") Double[] socs);
+
+    // Cập nhật soh/soc của nhiều pin theo mã bằng một câu lệnh; giá trị null giữ nguyên. Trả về các pin đã cập nhật.
+    @Query(value = """
+            UPDATE batteries b SET soh = COALESCE(v.soh, b.soh), soc = COALESCE(v.soc, b.soc)
+            FROM unnest(CAST(:codes AS varchar[]), CAST(:soh AS float8[]), CAST(:soc AS float8[])) AS v(code, soh, soc)
+            WHERE b.battery_code = v.code
+            RETURNING b.id, b.battery_code AS batteryCode, b.status
+            """, nativeQuery = true)
+    List<UpdatedHealth> updateHealth(@Param("codes") String[] codes, @Param("soh") Double[] soh, @Param("soc") Double[] soc);
+
+    interface UpdatedHealth {
+        Long getId();
+
+        String getBatteryCode();
+
+        String getStatus();
+    }
+
+    String SELECT_DTO = """
+            SELECT new com.boilerplate.station.model.DTO.BatteryDTO(
+                b.id, b.batteryCode, b.model, b.capacity, b.soh, b.soc, b.status, b.isHold, b.ownerType, b.referenceId)
+            FROM Battery b
+            """;
+
+    // Một trang pin theo id giảm dần, không load Station
+    @Query(SELECT_DTO + "WHERE (:beforeId IS NULL OR b.id < :beforeId) ORDER BY b.id DESC")
+    List<BatteryDTO> findPage(@Param("beforeId") Long beforeId, Pageable limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_DTO + "ORDER BY b.id")
+    Stream<BatteryDTO> streamAll();
 }
@@ -1,7 +1,81 @@
 package com.boilerplate.station.repository;
 
+import com.boilerplate.station.enums.SlotStatus;
+import com.boilerplate.station.model.DTO.BatterySlotDTO;
 import com.boilerplate.station.model.entity.BatterySlot;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface BatterySlotRepository extends JpaRepository<BatterySlot, Long> {
+
+    String SELECT_DTO = """
+            SELECT new com.boilerplate.station.model.DTO.BatterySlotDTO(
+                sl.id, sl.slotCode, sl.isAvailable, sl.status, s.id, s.stationName, b.id, b.batteryCode)
+            FROM BatterySlot sl
+            LEFT JOIN sl.station s
+            LEFT JOIN sl.battery b
+            """;
+
+    @Query(SELECT_DTO + "WHERE (:beforeId IS NULL OR sl.id < :beforeId) ORDER BY sl.id DESC")
+    List<BatterySlotDTO> findPage(@Param("beforeId") Long beforeId, Pageable limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_DTO + "ORDER BY sl.id")
+    Stream<BatterySlotDTO> streamAll();
+
+    // Các slot đang sạc kèm thông số pin, để dựng lại phiên sạc khi khởi động
+    @Query("""
+            SELECT sl.id AS slotId, s.id AS stationId, b.id AS batteryId, b.capacity AS capacity, b.soh AS soh,
+                   b.soc AS soc, b.isHold AS hold, sl.chargeStartedAt AS startedAt, sl.chargeStartSoc AS startSoc
+            FROM BatterySlot sl
+            JOIN sl.battery b
+            JOIN sl.station s
+            WHERE b.status = com.boilerplate.station.enums.BatteryStatus.CHARGING
+            """)
+    List<ChargingSlot> findChargingSlots();
+
+    interface ChargingSlot {
+        Long getSlotId();
+
+        Long getStationId();
+
+        Long getBatteryId();
+
+        Double getCapacity();
+
+        Double getSoh();
+
+        Double getSoc();
+
+        Boolean getHold();
+
+        LocalDateTime getStartedAt();
+
+        Double getStartSoc();
+    }
+
+    // Trạng thái slot của các trạm (snapshot ban đầu cho luồng availability)
+    @Query("SELECT sl.id AS id, sl.station.id AS stationId, sl.status AS status FROM BatterySlot sl WHERE sl.station.id IN :stationIds")
+    List<SlotState> findStates(@Param("stationIds") Collection<Long> stationIds);
+
+    interface SlotState {
+        Long getId();
+
+        Long getStationId();
+
+        SlotStatus getStatus();
+    }
 }
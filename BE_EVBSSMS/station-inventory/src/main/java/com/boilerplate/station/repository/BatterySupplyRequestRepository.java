@@ -1,9 +1,17 @@
 package com.boilerplate.station.repository;
 
+import com.boilerplate.station.enums.SupplyRequestStatus;
+import com.boilerplate.station.model.DTO.BatterySupplyRequestDTO;
 import com.boilerplate.station.model.entity.BatterySupplyRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,4 +24,60 @@ public interface BatterySupplyRequestRepository extends JpaRepository<BatterySup
     default BatterySupplyRequest findByIdCustom(Long id) {
         return findById(id).orElse(null);
     }
+
+    /**
+     * Tìm request theo bộ lọc, mới nhất trước, phân trang keyset theo id:
+     * trang sau truyền {@code beforeId} = id cuối của trang trước. Tham số null = không lọc, riêng {@code status} null
+     * bỏ qua các đề xuất DRAFT của planner (chỉ thấy khi lọc status = DRAFT).
+     * Trả thẳng DTO (join lấy mã / tên trạm), không load entity Station.
+     * Tham số thời gian được CAST: driver Postgres gửi LocalDateTime không kèm kiểu, nên {@code ? IS NULL} không suy ra được.
+     */
+    @Query("""
+            SELECT new com.boilerplate.station.model.DTO.BatterySupplyRequestDTO(
+                r.id, s.stationCode, s.stationName, r.requestedQuantity, r.batteryModel, r.reason,
+                r.status, r.createdAt, r.processedAt, r.adminNote, src.stationCode)
+            FROM BatterySupplyRequest r JOIN r.station s LEFT JOIN r.sourceStation src
+            WHERE (:stationCode IS NULL OR s.stationCode = :stationCode)
+              AND ((:status IS NULL AND r.status <> com.boilerplate.station.enums.SupplyRequestStatus.DRAFT)
+                   OR r.status = :status)
+              AND (CAST(:from AS LocalDateTime) IS NULL OR r.createdAt >= :from)
+              AND (CAST(:to AS LocalDateTime) IS NULL OR r.createdAt < :to)
+              AND (:beforeId IS NULL OR r.id < :beforeId)
+            ORDER BY r.id DESC
+            """)
+    List<BatterySupplyRequestDTO> search(@Param("stationCode") String stationCode,
+                                         @Param("status") SupplyRequestStatus status,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("beforeId") Long beforeId,
+                                         Pageable limit);
+
+    // Xóa các đề xuất cũ trước khi ghi kế hoạch mới
+    @Modifying
+    @Query("DELETE FROM BatterySupplyRequest r WHERE r.status = :status")
+    int deleteByStatus(@Param("status") SupplyRequestStatus status);
+
+    // Tổng số pin theo trạm nhận của các request ở trạng thái cho trước
+    @Query("""
+            SELECT r.station.id AS stationId, SUM(r.requestedQuantity) AS quantity
+            FROM BatterySupplyRequest r
+            WHERE r.status IN :statuses
+            GROUP BY r.station.id
+            """)
+    List<StationQuantity> sumByStation(@Param("statuses") Collection<SupplyRequestStatus> statuses);
+
+    // Tổng số pin theo trạm cho đi của các request ở trạng thái cho trước (request không có trạm nguồn bị bỏ qua)
+    @Query("""
+            SELECT r.sourceStation.id AS stationId, SUM(r.requestedQuantity) AS quantity
+            FROM BatterySupplyRequest r
+            WHERE r.status IN :statuses AND r.sourceStation IS NOT NULL
+            GROUP BY r.sourceStation.id
+            """)
+    List<StationQuantity> sumBySourceStation(@Param("statuses") Collection<SupplyRequestStatus> statuses);
+
+    interface StationQuantity {
+        Long getStationId();
+
+        Long getQuantity();
+    }
 }
@@ -1,12 +1,20 @@
 package com.boilerplate.station.repository;
 
+import com.boilerplate.station.model.DTO.BatterySwapLogDTO;
 import com.boilerplate.station.model.entity.BatterySwapLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BatterySwapLogRepository extends JpaRepository<BatterySwapLog, Long> {
 
@@ -18,4 +26,134 @@ public interface BatterySwapLogRepository extends JpaRepository<BatterySwapLog,
 
     @Query("SELECT DISTINCT b.station.id FROM BatterySwapLog b")
     List<Long> findAllStationIds();
+
+    /**
+     * Số lượt swap theo (trạm, ngày, khung giờ) trong một lần quét bảng; khung giờ là khung 6 giờ của TimeSlot,
+     * trả về bằng giờ bắt đầu (0, 6, 12, 18). Gom theo khung ngay trong DB nên một trạm-ngày chỉ có tối đa 4 dòng
+     * thay vì 24: tổng hợp toàn bảng không phải dựng hàng triệu dòng projection.
+     * Phân trang theo cặp (trạm, ngày): chỉ trả các nhóm có thứ hạng trong (offset, offset + limit].
+     * Các tham số lọc null nghĩa là không lọc; {@code to} là cận trên không bao gồm.
+     * {@code archivedMonths[i]}/{@code archivedMaxIds[i]}: tháng đã lưu trữ ra file và id lớn nhất trong file;
+     * các dòng id <= max_id của tháng đó đã được đếm từ file nên bị loại (dù lệnh xóa chưa chạy xong).
+     */
+    @Query(value = """
+            SELECT g.station_id AS stationId, g.swap_date AS swapDate,
+                   g.slot_hour AS slotHour, g.swap_count AS swapCount
+            FROM (
+                SELECT l.statiom_id AS station_id,
+                       CAST(l.swap_time AS date) AS swap_date,
+                       CAST(EXTRACT(HOUR FROM l.swap_time) AS integer) / 6 * 6 AS slot_hour,
+                       COUNT(*) AS swap_count,
+                       DENSE_RANK() OVER (ORDER BY l.statiom_id, CAST(l.swap_time AS date)) AS day_rank
+                FROM battery_swap_logs l
+                WHERE l.statiom_id IS NOT NULL
+                  AND l.swap_time IS NOT NULL
+                  AND (CAST(:stationId AS bigint) IS NULL OR l.statiom_id = :stationId)
+                  AND (CAST(:from AS timestamp) IS NULL OR l.swap_time >= :from)
+                  AND (CAST(:to AS timestamp) IS NULL OR l.swap_time < :to)
+                  AND NOT EXISTS (
+                      SELECT 1 FROM unnest(CAST(:archivedMonths AS timestamp[]), CAST(:archivedMaxIds AS bigint[]))
+                                    AS a(month_start, max_id)
+                      WHERE l.swap_time >= a.month_start AND l.swap_time < a.month_start + INTERVAL '1 month'
+                        AND l.id <= a.max_id)
+                GROUP BY l.statiom_id, CAST(l.swap_time AS date), CAST(EXTRACT(HOUR FROM l.swap_time) AS integer) / 6 * 6
+            ) g
+            WHERE g.day_rank > :offset AND g.day_rank <= :offset + :limit
+            ORDER BY g.station_id, g.swap_date, g.slot_hour
+            """, nativeQuery = true)
+    List<SlotSwapCount> countSwapsByStationDateSlot(@Param("stationId") Long stationId,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to,
+                                                    @Param("archivedMonths") LocalDateTime[] archivedMonths,
+                                                    @Param("archivedMaxIds") Long[] archivedMaxIds,
+                                                    @Param("offset") long offset,
+                                                    @Param("limit") long limit);
+
+    interface SlotSwapCount {
+        Long getStationId();
+
+        LocalDate getSwapDate();
+
+        Integer getSlotHour();
+
+        Long getSwapCount();
+    }
+
+    String SELECT_DTO = """
+            SELECT new com.boilerplate.station.model.DTO.BatterySwapLogDTO(
+                l.id, vb.batteryCode, sb.batteryCode, s.stationCode, l.vehiceId, CAST(rl.id AS String), l.swapTime)
+            FROM BatterySwapLog l
+            LEFT JOIN l.verhicleBattery vb
+            LEFT JOIN l.stationBattery sb
+            LEFT JOIN l.station s
+            LEFT JOIN l.batteryReturnLog rl
+            """;
+
+    // Một trang log, mới nhất trước; trang sau truyền beforeId = id cuối của trang trước
+    @Query(SELECT_DTO + "WHERE (:beforeId IS NULL OR l.id < :beforeId) ORDER BY l.id DESC")
+    List<BatterySwapLogDTO> findPage(@Param("beforeId") Long beforeId, Pageable limit);
+
+    // Toàn bộ log cho export, đọc dần theo fetch size (phải dùng trong transaction)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_DTO + "ORDER BY l.id")
+    Stream<BatterySwapLogDTO> streamAll();
+
+    /**
+     * Đẩy sequence id lên trên MAX(id) hiện có (bảng cũ dùng IDENTITY); không bao giờ lùi sequence.
+     */
+    @Query(value = """
+            SELECT setval('battery_swap_logs_seq', GREATEST(
+                (SELECT COALESCE(MAX(id), 1) FROM battery_swap_logs),
+                (SELECT last_value FROM battery_swap_logs_seq)))
+            """, nativeQuery = true)
+    Long alignIdSequence();
+
+    // ===== Lưu trữ theo tháng (LogArchiveService) =====
+
+    interface ArchiveRow {
+        Long getId();
+        Long getOldBatteryId();
+        Long getVehicleBatteryId();
+        Long getStationBatteryId();
+        Long getStationId();
+        String getVehicleId();
+        Long getReturnLogId();
+        LocalDateTime getSwapTime();
+    }
+
+    // Các tháng (ngày đầu tháng) còn log đổi pin trong bảng, trước {@code before}.
+    // Log chuyển trạm (BatterySwapStationLog, old_battery_id khác null) dùng chung bảng và không được lưu trữ.
+    @Query(value = """
+            SELECT DISTINCT CAST(date_trunc('month', swap_time) AS date)
+            FROM battery_swap_logs WHERE swap_time < :before AND old_battery_id IS NULL
+            """, nativeQuery = true)
+    List<LocalDate> findMonthsBefore(@Param("before") LocalDateTime before);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT id, old_battery_id AS oldBatteryId, verhice_battery_id AS vehicleBatteryId, battery_id AS stationBatteryId,
+                   statiom_id AS stationId, vehice_id AS vehicleId, battery_return_log_id AS returnLogId,
+                   swap_time AS swapTime
+            FROM battery_swap_logs
+            WHERE swap_time >= :from AND swap_time < :to
+            ORDER BY id
+            """, nativeQuery = true)
+    Stream<ArchiveRow> streamForArchive(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Xóa tối đa :limit dòng đã lưu trữ của tháng mỗi lần; không đụng log chuyển trạm
+    @Modifying
+    @Query(value = """
+            DELETE FROM battery_swap_logs WHERE id IN (
+                SELECT id FROM battery_swap_logs
+                WHERE swap_time >= :from AND swap_time < :to AND id <= :maxId
+                  AND old_battery_id IS NULL LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteArchived(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                       @Param("maxId") long maxId, @Param("limit") int limit);
 }
@@ -1,9 +1,58 @@
 package com.boilerplate.station.repository;
 
+import com.boilerplate.station.enums.TimeSlot;
 import com.boilerplate.station.model.event.Producer.BatterySwapSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface BatterySwapSummaryRepository extends JpaRepository<BatterySwapSummary, Long> {
+
+    // Rollup của 1 trạm trong 1 ngày (tối đa 1 dòng / khung giờ)
+    List<BatterySwapSummary> findByStationIdAndDate(Long stationId, LocalDate date);
+
+    List<BatterySwapSummary> findByDate(LocalDate date);
+
+    // Lịch sử [from, to) để khởi tạo mô hình dự báo
+    List<BatterySwapSummary> findByDateGreaterThanEqualAndDateLessThan(LocalDate from, LocalDate to);
+
+    // Số lượt swap của mọi trạm trong một khung giờ vừa kết thúc
+    List<BatterySwapSummary> findByDateAndTimeSlot(LocalDate date, TimeSlot timeSlot);
+
+    /**
+     * Cộng dồn {@code delta} lượt swap vào (trạm, ngày, khung giờ), tạo dòng mới nếu chưa có.
+     * {@code timeSlot} là ordinal của TimeSlot.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO battery_swap_summary (station_id, date, time_slot, swap_count)
+            VALUES (:stationId, :date, :timeSlot, :delta)
+            ON CONFLICT (station_id, date, time_slot)
+            DO UPDATE SET swap_count = battery_swap_summary.swap_count + EXCLUDED.swap_count
+            """, nativeQuery = true)
+    void increment(@Param("stationId") Long stationId,
+                   @Param("date") LocalDate date,
+                   @Param("timeSlot") int timeSlot,
+                   @Param("delta") int delta);
+
+    /**
+     * Ghi đè số lượt swap của (trạm, ngày, khung giờ); chạy lại nhiều lần cho cùng kết quả.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO battery_swap_summary (station_id, date, time_slot, swap_count)
+            VALUES (:stationId, :date, :timeSlot, :swapCount)
+            ON CONFLICT (station_id, date, time_slot)
+            DO UPDATE SET swap_count = EXCLUDED.swap_count
+            """, nativeQuery = true)
+    void upsert(@Param("stationId") Long stationId,
+                @Param("date") LocalDate date,
+                @Param("timeSlot") int timeSlot,
+                @Param("swapCount") int swapCount);
 }
@@ -1,7 +1,93 @@
 package com.boilerplate.station.repository;
 
+import com.boilerplate.station.model.DTO.ChargeLogDTO;
 import com.boilerplate.station.model.entity.ChargeLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface ChargeLogRepository extends JpaRepository<ChargeLog, Long> {
+
+    String SELECT_DTO = """
+            SELECT new com.boilerplate.station.model.DTO.ChargeLogDTO(
+                c.id, c.socBefore, c.socAfter, c.energyConsumed, c.startTime, c.endTime,
+                b.id, b.batteryCode, sl.id, s.id, s.stationName)
+            FROM ChargeLog c
+            JOIN c.battery b
+            JOIN c.slot sl
+            JOIN c.station s
+            """;
+
+    @Query(SELECT_DTO + "WHERE (:beforeId IS NULL OR c.id < :beforeId) ORDER BY c.id DESC")
+    List<ChargeLogDTO> findPage(@Param("beforeId") Long beforeId, Pageable limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_DTO + "ORDER BY c.id")
+    Stream<ChargeLogDTO> streamAll();
+
+    /**
+     * Đẩy sequence id lên trên MAX(id) hiện có (bảng cũ dùng IDENTITY); không bao giờ lùi sequence.
+     */
+    @Query(value = """
+            SELECT setval('charge_logs_seq', GREATEST(
+                (SELECT COALESCE(MAX(id), 1) FROM charge_logs),
+                (SELECT last_value FROM charge_logs_seq)))
+            """, nativeQuery = true)
+    Long alignIdSequence();
+
+    // ===== Lưu trữ theo tháng (LogArchiveService), tháng tính theo end_time =====
+
+    interface ArchiveRow {
+        Long getId();
+        Long getBatteryId();
+        Long getSlotId();
+        Long getStationId();
+        Double getSocBefore();
+        Double getSocAfter();
+        Double getEnergyConsumed();
+        LocalDateTime getStartTime();
+        LocalDateTime getEndTime();
+    }
+
+    @Query(value = """
+            SELECT DISTINCT CAST(date_trunc('month', end_time) AS date)
+            FROM charge_logs WHERE end_time < :before
+            """, nativeQuery = true)
+    List<LocalDate> findMonthsBefore(@Param("before") LocalDateTime before);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT id, battery_id AS batteryId, slot_id AS slotId, station_id AS stationId,
+                   soc_before AS socBefore, soc_after AS socAfter, energy_consumed AS energyConsumed,
+                   start_time AS startTime, end_time AS endTime
+            FROM charge_logs
+            WHERE end_time >= :from AND end_time < :to
+            ORDER BY id
+            """, nativeQuery = true)
+    Stream<ArchiveRow> streamForArchive(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM charge_logs WHERE id IN (
+                SELECT id FROM charge_logs
+                WHERE end_time >= :from AND end_time < :to AND id <= :maxId LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteArchived(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                       @Param("maxId") long maxId, @Param("limit") int limit);
 }
@@ -0,0 +1,20 @@
+package com.boilerplate.station.repository;
+
+import com.boilerplate.station.model.entity.CodeBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CodeBlockRepository extends JpaRepository<CodeBlock, String> {
+
+    /**
+     * Thuê khối {@code size} giá trị tiếp theo của bộ đếm {@code name} (tạo bộ đếm bắt đầu từ {@code start}
+     * nếu chưa có). Trả về cận trên (không bao gồm) của khối vừa thuê.
+     */
+    @Query(value = """
+            INSERT INTO code_blocks (name, next_value) VALUES (:name, :start + :size)
+            ON CONFLICT (name) DO UPDATE SET next_value = code_blocks.next_value + :size
+            RETURNING next_value
+            """, nativeQuery = true)
+    long lease(@Param("name") String name, @Param("start") long start, @Param("size") long size);
+}
@@ -0,0 +1,10 @@
+package com.boilerplate.station.repository;
+
+import com.boilerplate.station.model.entity.GeocodingCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface GeocodingCacheRepository extends JpaRepository<GeocodingCache, Long> {
+    Optional<GeocodingCache> findByAddressKey(String addressKey);
+}
@@ -0,0 +1,30 @@
+package com.boilerplate.station.repository;
+
+import com.boilerplate.station.model.entity.ProcessedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, String> {
+
+    /**
+     * Ghi nhận sự kiện đã xử lý. Trả về 0 nếu {@code eventId} đã có (sự kiện trùng).
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO processed_events (event_id, topic, outcome, processed_at)
+            VALUES (:eventId, :topic, :outcome, :processedAt)
+            ON CONFLICT (event_id) DO NOTHING
+            """, nativeQuery = true)
+    int markProcessed(@Param("eventId") String eventId,
+                      @Param("topic") String topic,
+                      @Param("outcome") String outcome,
+                      @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedEvent e WHERE e.processedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -1,7 +1,78 @@
 package com.boilerplate.station.repository;
 
 import com.boilerplate.station.model.entity.StationHealthLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface StationHealthLogRepository extends JpaRepository<StationHealthLog, Long> {
+
+    interface HealthSample {
+        LocalDateTime getRecordedAt();
+        Double getAvgSoH();
+        Double getHumidity();
+    }
+
+    /**
+     * Ghi một batch mẫu trong một câu lệnh: insert nhiều dòng vào station_health_log và cộng dồn
+     * vào các khung 1 phút / 1 giờ của station_health_rollups (mỗi khung một lần upsert cho cả batch).
+     * Các mảng tham số cùng độ dài, phần tử thứ i là một mẫu.
+     */
+    @Modifying
+    @Query(value = """
+            WITH v AS (
+                SELECT * FROM unnest(CAST(:stationIds AS bigint[]), CAST(:soh AS float8[]),
+                                     CAST(:humidity AS float8[]), CAST(:recordedAt AS timestamp[]))
+                         AS t(station_id, soh, humidity, recorded_at)
+            ), raw AS (
+                INSERT INTO station_health_log (station_id, avg_so_h, humidity, recorded_at)
+                SELECT station_id, soh, humidity, recorded_at FROM v
+            ), buckets AS (
+                SELECT v.station_id, b.seconds, date_trunc(b.unit, v.recorded_at) AS bucket_start,
+                       count(*) AS n, sum(v.soh) AS soh_sum, min(v.soh) AS soh_min, max(v.soh) AS soh_max,
+                       sum(v.humidity) AS hum_sum, min(v.humidity) AS hum_min, max(v.humidity) AS hum_max
+                FROM v CROSS JOIN (VALUES (60, 'minute'), (3600, 'hour')) AS b(seconds, unit)
+                GROUP BY v.station_id, b.seconds, date_trunc(b.unit, v.recorded_at)
+            )
+            INSERT INTO station_health_rollups AS r (station_id, bucket_seconds, bucket_start, sample_count,
+                    soh_sum, soh_min, soh_max, humidity_sum, humidity_min, humidity_max)
+            SELECT station_id, seconds, bucket_start, n, soh_sum, soh_min, soh_max, hum_sum, hum_min, hum_max
+            FROM buckets
+            ON CONFLICT (station_id, bucket_seconds, bucket_start) DO UPDATE SET
+                sample_count = r.sample_count + EXCLUDED.sample_count,
+                soh_sum = r.soh_sum + EXCLUDED.soh_sum,
+                soh_min = LEAST(r.soh_min, EXCLUDED.soh_min),
+                soh_max = GREATEST(r.soh_max, EXCLUDED.soh_max),
+                humidity_sum = r.humidity_sum + EXCLUDED.humidity_sum,
+                humidity_min = LEAST(r.humidity_min, EXCLUDED.humidity_min),
+                humidity_max = GREATEST(r.humidity_max, EXCLUDED.humidity_max)
+            """, nativeQuery = true)
+    int appendBatch(@Param("stationIds") Long[] stationIds,
+                    @Param("soh") Double[] soh,
+                    @Param("humidity") Double[] humidity,
+                    @Param("recordedAt") LocalDateTime[] recordedAt);
+
+    @Query("""
+            SELECT h.recordedAt AS recordedAt, h.avgSoH AS avgSoH, h.humidity AS humidity
+            FROM StationHealthLog h
+            WHERE h.station.id = :stationId AND h.recordedAt >= :from AND h.recordedAt < :to
+            ORDER BY h.recordedAt
+            """)
+    List<HealthSample> findRange(@Param("stationId") Long stationId,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to,
+                                 Pageable limit);
+
+    // Xóa tối đa :limit dòng cũ mỗi lần để không khóa bảng lâu
+    @Modifying
+    @Query(value = """
+            DELETE FROM station_health_log WHERE id IN (
+                SELECT id FROM station_health_log WHERE recorded_at < :before LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteOlderThan(@Param("before") LocalDateTime before, @Param("limit") int limit);
 }
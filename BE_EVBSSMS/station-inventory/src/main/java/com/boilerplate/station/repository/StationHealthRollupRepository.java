@@ -0,0 +1,36 @@
+package com.boilerplate.station.repository;
+
+import com.boilerplate.station.model.entity.StationHealthRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StationHealthRollupRepository extends JpaRepository<StationHealthRollup, StationHealthRollup.Key> {
+
+    @Query("""
+            SELECT r FROM StationHealthRollup r
+            WHERE r.stationId = :stationId AND r.bucketSeconds = :bucketSeconds
+              AND r.bucketStart >= :from AND r.bucketStart < :to
+            ORDER BY r.bucketStart
+            """)
+    List<StationHealthRollup> findRange(@Param("stationId") Long stationId,
+                                        @Param("bucketSeconds") int bucketSeconds,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        Pageable limit);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM station_health_rollups WHERE ctid IN (
+                SELECT ctid FROM station_health_rollups
+                WHERE bucket_seconds = :bucketSeconds AND bucket_start < :before LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteOlderThan(@Param("bucketSeconds") int bucketSeconds,
+                        @Param("before") LocalDateTime before,
+                        @Param("limit") int limit);
+}
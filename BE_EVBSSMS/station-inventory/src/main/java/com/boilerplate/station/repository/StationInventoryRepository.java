@@ -2,6 +2,91 @@ package com.boilerplate.station.repository;
 
 import com.boilerplate.station.model.entity.StationInventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface StationInventoryRepository extends JpaRepository<StationInventory, Long> {
+
+    Optional<StationInventory> findByStationId(Long stationId);
+
+    List<StationInventory> findByStationIdIn(Collection<Long> stationIds);
+
+    @Modifying
+    void deleteByStationId(Long stationId);
+
+    /**
+     * Cộng dồn chênh lệch vào bộ đếm của trạm, tạo dòng mới nếu trạm chưa có.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO station_inventory (station_id, full_count, charging_count, maintenance_count,
+                                           defective_count, held_count, updated_at)
+            VALUES (:stationId, :full, :charging, :maintenance, :defective, :held, CURRENT_TIMESTAMP)
+            ON CONFLICT (station_id) DO UPDATE SET
+                full_count = station_inventory.full_count + EXCLUDED.full_count,
+                charging_count = station_inventory.charging_count + EXCLUDED.charging_count,
+                maintenance_count = station_inventory.maintenance_count + EXCLUDED.maintenance_count,
+                defective_count = station_inventory.defective_count + EXCLUDED.defective_count,
+                held_count = station_inventory.held_count + EXCLUDED.held_count,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    void applyDelta(@Param("stationId") Long stationId,
+                    @Param("full") int full,
+                    @Param("charging") int charging,
+                    @Param("maintenance") int maintenance,
+                    @Param("defective") int defective,
+                    @Param("held") int held);
+
+    /**
+     * Ghi đè bộ đếm của trạm (dùng khi đối soát lệch).
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO station_inventory (station_id, full_count, charging_count, maintenance_count,
+                                           defective_count, held_count, updated_at)
+            VALUES (:stationId, :full, :charging, :maintenance, :defective, :held, CURRENT_TIMESTAMP)
+            ON CONFLICT (station_id) DO UPDATE SET
+                full_count = EXCLUDED.full_count,
+                charging_count = EXCLUDED.charging_count,
+                maintenance_count = EXCLUDED.maintenance_count,
+                defective_count = EXCLUDED.defective_count,
+                held_count = EXCLUDED.held_count,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    void overwrite(@Param("stationId") Long stationId,
+                   @Param("full") int full,
+                   @Param("charging") int charging,
+                   @Param("maintenance") int maintenance,
+                   @Param("defective") int defective,
+                   @Param("held") int held);
+
+    @Query("""
+            SELECT COUNT(i) AS stationCount,
+                   COALESCE(SUM(i.fullCount), 0) AS fullCount,
+                   COALESCE(SUM(i.chargingCount), 0) AS chargingCount,
+                   COALESCE(SUM(i.maintenanceCount), 0) AS maintenanceCount,
+                   COALESCE(SUM(i.defectiveCount), 0) AS defectiveCount,
+                   COALESCE(SUM(i.heldCount), 0) AS heldCount
+            FROM StationInventory i
+            """)
+    InventoryTotals sumAll();
+
+    interface InventoryTotals {
+        Long getStationCount();
+
+        Long getFullCount();
+
+        Long getChargingCount();
+
+        Long getMaintenanceCount();
+
+        Long getDefectiveCount();
+
+        Long getHeldCount();
+    }
 }
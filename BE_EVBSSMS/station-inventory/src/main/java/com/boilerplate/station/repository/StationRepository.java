@@ -1,11 +1,15 @@
 package com.boilerplate.station.repository;
 
 import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.enums.StationStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -24,4 +28,50 @@ public interface StationRepository extends JpaRepository<Station, Long> {
     // Kiểm tra staff đã thuộc bất kỳ trạm nào
     @Query("SELECT CASE WHEN COUNT(s) > 0 THEN TRUE ELSE FALSE END FROM Station s WHERE :staffCode MEMBER OF s.staffs")
     boolean existsStaffAnywhere(@Param("staffCode") String staffCode);
+
+    /**
+     * Danh sách trạm dạng tóm tắt trong một query, số pin FULL lấy từ bộ đếm station_inventory.
+     */
+    @Query("""
+            SELECT s.id AS id, s.stationCode AS stationCode, s.stationName AS stationName,
+                   s.latitude AS latitude, s.longitude AS longitude, s.address AS address,
+                   s.phoneNumber AS phoneNumber, s.totalSlots AS totalSlots,
+                   s.availableSlots AS availableSlots, s.status AS status,
+                   COALESCE(i.fullCount, 0) AS fullBatteries
+            FROM Station s LEFT JOIN StationInventory i ON i.stationId = s.id
+            ORDER BY s.id
+            """)
+    List<StationSummary> findAllSummaries();
+
+    // Bản chi tiết: nạp pin của mọi trạm bằng fetch join thay vì lazy load từng trạm
+    @EntityGraph(attributePaths = "batteries")
+    @Query("SELECT DISTINCT s FROM Station s ORDER BY s.id")
+    List<Station> findAllWithBatteries();
+
+    // Giới hạn công suất sạc (W) của các trạm có cấu hình
+    @Query("SELECT s.id AS id, s.powerCapW AS powerCapW FROM Station s WHERE s.powerCapW IS NOT NULL")
+    List<StationPowerCap> findPowerCaps();
+
+    // Các id trong danh sách thực sự tồn tại (kiểm tra cả batch bằng một query)
+    @Query("SELECT s.id FROM Station s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    interface StationPowerCap {
+        Long getId();
+        Double getPowerCapW();
+    }
+
+    interface StationSummary {
+        Long getId();
+        String getStationCode();
+        String getStationName();
+        Double getLatitude();
+        Double getLongitude();
+        String getAddress();
+        String getPhoneNumber();
+        int getTotalSlots();
+        int getAvailableSlots();
+        StationStatus getStatus();
+        int getFullBatteries();
+    }
 }
@@ -0,0 +1,272 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.SlotStatus;
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.DTO.StationAvailabilityDTO;
+import com.boilerplate.station.model.entity.StationInventory;
+import com.boilerplate.station.repository.BatterySlotRepository;
+import com.boilerplate.station.repository.StationInventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Đẩy thay đổi tình trạng trạm (số pin FULL / đang sạc / đang giữ, trạng thái slot) qua Server-Sent Events,
+ * thay cho việc dashboard gọi lại /api/stations/getAll và /api/battery-slots/getall.
+ * - Client đăng ký theo danh sách trạm hoặc theo khung nhìn bản đồ; nhận event {@code snapshot} ngay khi kết nối,
+ *   sau đó event {@code delta} chỉ chứa các trạm / slot đã đổi.
+ * - Các đường ghi (StationInventoryService, BatterySlotService) chỉ đánh dấu trạm thay đổi sau khi commit;
+ *   mỗi {@code coalesce-ms} các thay đổi được gộp lại, bộ đếm của các trạm bị đổi được đọc bằng một query
+ *   và mỗi client nhận tối đa một message.
+ * Chỉ thấy thay đổi ghi trên instance này.
+ * Metrics: station.stream.subscribers (gauge), station.stream.messages.
+ */
+@Slf4j
+@Component
+public class AvailabilityStream {
+
+    public record Viewport(double minLat, double minLon, double maxLat, double maxLon) {
+        boolean contains(double lat, double lon) {
+            return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
+        }
+    }
+
+    // Thay đổi chưa gửi của một trạm; chỉ được sửa trong ConcurrentHashMap.compute
+    private static final class Pending {
+        boolean inventory;
+        final Map<Long, SlotStatus> slots = new LinkedHashMap<>();
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final Set<Long> stationIds;   // null khi đăng ký theo khung nhìn
+        final Viewport viewport;
+
+        Subscriber(SseEmitter emitter, Set<Long> stationIds, Viewport viewport) {
+            this.emitter = emitter;
+            this.stationIds = stationIds;
+            this.viewport = viewport;
+        }
+
+        boolean matches(Long stationId) {
+            if (stationIds != null) return stationIds.contains(stationId);
+            return stationGeoIndex.get(stationId)
+                    .map(e -> viewport.contains(e.latitude(), e.longitude()))
+                    .orElse(false);
+        }
+    }
+
+    private final StationInventoryRepository inventoryRepository;
+    private final BatterySlotRepository batterySlotRepository;
+    private final StationGeoIndex stationGeoIndex;
+    private final long timeoutMs;
+    private final int maxStations;
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Counter messages;
+
+    public AvailabilityStream(StationInventoryRepository inventoryRepository,
+                              BatterySlotRepository batterySlotRepository,
+                              StationGeoIndex stationGeoIndex,
+                              MeterRegistry meterRegistry,
+                              @Value("${station.stream.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${station.stream.max-stations:200}") int maxStations) {
+        this.inventoryRepository = inventoryRepository;
+        this.batterySlotRepository = batterySlotRepository;
+        this.stationGeoIndex = stationGeoIndex;
+        this.timeoutMs = timeoutMs;
+        this.maxStations = maxStations;
+
+        meterRegistry.gauge("station.stream.subscribers", subscribers, List::size);
+        this.messages = meterRegistry.counter("station.stream.messages");
+    }
+
+    /**
+     * Đăng ký theo danh sách trạm ({@code stationIds}) hoặc theo khung nhìn ({@code viewport}).
+     */
+    public SseEmitter subscribe(Collection<Long> stationIds, Viewport viewport) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        register(emitter, stationIds, viewport);
+        return emitter;
+    }
+
+    void register(SseEmitter emitter, Collection<Long> stationIds, Viewport viewport) {
+        boolean byIds = stationIds != null && !stationIds.isEmpty();
+        Set<Long> ids;
+        if (byIds) {
+            if (stationIds.size() > maxStations) {
+                throw new BusinessException(AppException.BAD_REQUEST);
+            }
+            ids = new HashSet<>(stationIds);
+        } else if (viewport != null) {
+            ids = new HashSet<>();
+            stationGeoIndex.within(viewport.minLat(), viewport.minLon(), viewport.maxLat(), viewport.maxLon(), maxStations)
+                    .forEach(e -> ids.add(e.id()));
+        } else {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
+
+        Subscriber subscriber = new Subscriber(emitter, byIds ? ids : null, byIds ? null : viewport);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        if (send(subscriber, "snapshot", snapshot(ids))) {
+            subscribers.add(subscriber);
+        }
+    }
+
+    /**
+     * Bộ đếm pin của các trạm đã thay đổi (gọi trong transaction ghi; có hiệu lực sau commit).
+     */
+    public void inventoryChanged(Collection<Long> stationIds) {
+        afterCommit(() -> stationIds.forEach(id -> pending.compute(id, (k, p) -> {
+            Pending next = p != null ? p : new Pending();
+            next.inventory = true;
+            return next;
+        })));
+    }
+
+    public void slotChanged(Long stationId, Long slotId, SlotStatus status) {
+        if (stationId == null || slotId == null) return;
+        afterCommit(() -> pending.compute(stationId, (k, p) -> {
+            Pending next = p != null ? p : new Pending();
+            next.slots.put(slotId, status);
+            return next;
+        }));
+    }
+
+    /**
+     * Gửi các thay đổi gom được trong chu kỳ vừa qua: một query cho bộ đếm, tối đa một message mỗi client.
+     */
+    @Scheduled(fixedDelayString = "${station.stream.coalesce-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+        Map<Long, Pending> batch = new HashMap<>();
+        for (Long stationId : new ArrayList<>(pending.keySet())) {
+            Pending p = pending.remove(stationId);
+            if (p != null) batch.put(stationId, p);
+        }
+        if (subscribers.isEmpty()) return;
+
+        Set<Long> watched = new HashSet<>();
+        for (Long stationId : batch.keySet()) {
+            if (subscribers.stream().anyMatch(s -> s.matches(stationId))) watched.add(stationId);
+        }
+        if (watched.isEmpty()) return;
+
+        Set<Long> reload = new HashSet<>();
+        watched.forEach(id -> {
+            if (batch.get(id).inventory) reload.add(id);
+        });
+        Map<Long, StationInventory> counts = new HashMap<>();
+        if (!reload.isEmpty()) {
+            inventoryRepository.findByStationIdIn(reload).forEach(i -> counts.put(i.getStationId(), i));
+        }
+
+        Map<Long, StationAvailabilityDTO> deltas = new HashMap<>();
+        for (Long stationId : watched) {
+            Pending p = batch.get(stationId);
+            StationAvailabilityDTO delta = p.inventory ? counts(stationId, counts.get(stationId)) :
+                    StationAvailabilityDTO.builder().stationId(stationId).build();
+            if (!p.slots.isEmpty()) delta.setSlots(p.slots);
+            deltas.put(stationId, delta);
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            List<StationAvailabilityDTO> mine = new ArrayList<>();
+            deltas.forEach((stationId, delta) -> {
+                if (subscriber.matches(stationId)) mine.add(delta);
+            });
+            if (!mine.isEmpty()) send(subscriber, "delta", mine);
+        }
+    }
+
+    /**
+     * Comment định kỳ để giữ kết nối qua proxy và phát hiện client đã ngắt.
+     */
+    @Scheduled(fixedDelayString = "${station.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private List<StationAvailabilityDTO> snapshot(Set<Long> stationIds) {
+        if (stationIds.isEmpty()) return List.of();
+        Map<Long, StationAvailabilityDTO> result = new LinkedHashMap<>();
+        Map<Long, StationInventory> counts = new HashMap<>();
+        inventoryRepository.findByStationIdIn(stationIds).forEach(i -> counts.put(i.getStationId(), i));
+        stationIds.forEach(id -> result.put(id, counts(id, counts.get(id))));
+        for (BatterySlotRepository.SlotState slot : batterySlotRepository.findStates(stationIds)) {
+            StationAvailabilityDTO station = result.get(slot.getStationId());
+            if (station.getSlots() == null) station.setSlots(new LinkedHashMap<>());
+            station.getSlots().put(slot.getId(), slot.getStatus());
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    private static StationAvailabilityDTO counts(Long stationId, StationInventory inventory) {
+        return StationAvailabilityDTO.builder()
+                .stationId(stationId)
+                .full(inventory != null ? inventory.getFullCount() : 0)
+                .charging(inventory != null ? inventory.getChargingCount() : 0)
+                .held(inventory != null ? inventory.getHeldCount() : 0)
+                .build();
+    }
+
+    private boolean send(Subscriber subscriber, String event, Object data) {
+        try {
+            subscriber.emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            messages.increment();
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Client SSE đã ngắt: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
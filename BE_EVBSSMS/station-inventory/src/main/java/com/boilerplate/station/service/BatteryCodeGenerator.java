@@ -1,38 +1,86 @@
 package com.boilerplate.station.service;
 
+import com.boilerplate.station.repository.CodeBlockRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Sinh mã pin / mã trạm không trùng, kể cả khi chạy nhiều instance.
+ * Mỗi instance thuê một khối số liên tiếp từ bảng code_blocks (hi/lo) rồi cấp dần trong bộ nhớ:
+ * đường nóng chỉ là một getAndIncrement, chỉ chạm DB khi hết khối.
+ * Số bắt đầu từ 1000000 (7 chữ số) để không trùng các mã 6 chữ số ngẫu nhiên sinh trước đây.
+ * Khối đã thuê mà chưa dùng hết (restart, rollback) sẽ bị bỏ qua, mã có thể không liên tục.
+ */
 @Service
 public class BatteryCodeGenerator {
 
-    private static final String DIGITS = "0123456789";
-    private static final SecureRandom random = new SecureRandom();
+    static final long FIRST_VALUE = 1_000_000L;
+
+    private final CodeBlockRepository codeBlockRepository;
+    private final TransactionTemplate leaseTransaction;
+    private final long blockSize;
+
+    private final Sequence batterySequence = new Sequence("battery");
+    private final Sequence stationSequence = new Sequence("station");
+
+    public BatteryCodeGenerator(CodeBlockRepository codeBlockRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${station.code.block-size:100}") long blockSize) {
+        this.codeBlockRepository = codeBlockRepository;
+        this.blockSize = blockSize;
+        // Thuê khối trong transaction riêng: caller rollback thì khối vẫn được tính là đã dùng
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     /**
      * Generate battery code
-     * Format: BTR + 6 digits
-     * Example: BTR123456
+     * Format: BTR + số thứ tự (tối thiểu 7 chữ số)
+     * Example: BTR1000042
      */
-    public static String generateBatteryCode() {
-        StringBuilder sb = new StringBuilder("BTR");
-        for (int i = 0; i < 6; i++) {
-            sb.append(DIGITS.charAt(random.nextInt(DIGITS.length())));
-        }
-        return sb.toString();
+    public String generateBatteryCode() {
+        return "BTR" + batterySequence.next();
     }
 
     /**
      * Generate station code
-     * Format: STT + 6 digits
-     * Example: STT948201
+     * Format: STT + số thứ tự (tối thiểu 7 chữ số)
+     * Example: STT1000007
      */
-    public static String generateStationCode() {
-        StringBuilder sb = new StringBuilder("STT");
-        for (int i = 0; i < 6; i++) {
-            sb.append(DIGITS.charAt(random.nextInt(DIGITS.length())));
+    public String generateStationCode() {
+        return "STT" + stationSequence.next();
+    }
+
+    private record Block(AtomicLong cursor, long end) {}
+
+    private final class Sequence {
+        private final String name;
+        private volatile Block block = new Block(new AtomicLong(), 0);
+
+        Sequence(String name) {
+            this.name = name;
+        }
+
+        long next() {
+            while (true) {
+                Block current = block;
+                long value = current.cursor().getAndIncrement();
+                if (value < current.end()) return value;
+                refill(current);
+            }
+        }
+
+        private synchronized void refill(Block exhausted) {
+            // Thread khác đã thuê khối mới trong lúc chờ lock
+            if (block != exhausted) return;
+            Long end = leaseTransaction.execute(status -> codeBlockRepository.lease(name, FIRST_VALUE, blockSize));
+            if (end == null) throw new IllegalStateException("Không thuê được khối mã " + name);
+            block = new Block(new AtomicLong(end - blockSize), end);
         }
-        return sb.toString();
     }
 }
@@ -0,0 +1,219 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.SwapStatus;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.exception.InvalidEventException;
+import com.boilerplate.station.model.entity.ProcessedEvent;
+import com.boilerplate.station.model.event.Consumer.BatteryHoldEvent;
+import com.boilerplate.station.model.event.Consumer.BatterySwapEvent;
+import com.boilerplate.station.model.event.Consumer.BatterySwapStation;
+import com.boilerplate.station.model.event.Producer.BatterySwapResult;
+import com.boilerplate.station.repository.ProcessedEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Nhận sự kiện đổi pin / giữ pin / chuyển pin giữa trạm qua Kafka (batch listener), thay cho
+ * việc booking-swap gọi đồng bộ /api/batteries/event/*.
+ * - Thứ tự theo trạm: producer dùng mã trạm làm key nên sự kiện của một trạm nằm cùng partition
+ *   và được xử lý tuần tự theo offset.
+ * - Idempotency: key lấy từ header {@code event-id}, không có thì dùng topic-partition-offset.
+ *   Mỗi sự kiện được xử lý trong transaction riêng cùng với việc ghi processed_events, nên nhận lại
+ *   sự kiện (redelivery, producer gửi lại) không áp dụng lần hai.
+ * - Lỗi nghiệp vụ (BusinessException) là kết quả hợp lệ: ghi nhận FAILED, không retry.
+ *   Lỗi khác được retry rồi chuyển sang {@code <topic>.DLT} (xem KafkaConsumer).
+ * Kết quả đổi pin được gửi về topic swap-result (key = mã trạm) để booking-swap không phải chờ HTTP.
+ * Metrics: station.events{topic, result=processed|duplicate|rejected}.
+ */
+@Slf4j
+@Component
+public class BatteryEventConsumer {
+
+    public static final String HEADER_EVENT_ID = "event-id";
+
+    static final String SUCCESS = "SUCCESS";
+    static final String FAILED = "FAILED";
+
+    private final BatteryService batteryService;
+    private final BatteryReservationService batteryReservationService;
+    private final ProcessedEventRepository processedEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String swapResultTopic;
+    private final int retentionDays;
+
+    public BatteryEventConsumer(BatteryService batteryService,
+                                BatteryReservationService batteryReservationService,
+                                ProcessedEventRepository processedEventRepository,
+                                KafkaTemplate<String, Object> kafkaTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${station.kafka.topics.swap-result:battery.swap.result}") String swapResultTopic,
+                                @Value("${station.kafka.processed-retention-days:7}") int retentionDays) {
+        this.batteryService = batteryService;
+        this.batteryReservationService = batteryReservationService;
+        this.processedEventRepository = processedEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.swapResultTopic = swapResultTopic;
+        this.retentionDays = retentionDays;
+    }
+
+    @KafkaListener(topics = "${station.kafka.topics.battery-swap:battery.swap}",
+            containerFactory = "batterySwapListenerFactory")
+    public void onSwap(List<ConsumerRecord<String, BatterySwapEvent>> records) {
+        consume(records, record -> {
+            BatterySwapEvent event = record.value();
+            require(event.getStationId(), event.getOldBatteryId(), event.getNewBatteryId());
+            try {
+                Optional<String> previous = process(record, () -> batteryService.handleBatterySwap(event));
+                publishResult(event, previous.map(SwapStatus::valueOf).orElse(SwapStatus.SUCCESS), null);
+            } catch (BusinessException e) {
+                publishResult(event, SwapStatus.FAILED, e.getMessage());
+                throw e;
+            }
+        });
+    }
+
+    @KafkaListener(topics = "${station.kafka.topics.battery-hold:battery.hold}",
+            containerFactory = "batteryHoldListenerFactory")
+    public void onHold(List<ConsumerRecord<String, BatteryHoldEvent>> records) {
+        consume(records, record -> {
+            BatteryHoldEvent event = record.value();
+            require(event.getBatteryCode());
+            process(record, () -> batteryReservationService.hold(
+                    event.getBatteryCode(), event.getHoldBy(), event.getTtlSeconds()));
+        });
+    }
+
+    @KafkaListener(topics = "${station.kafka.topics.battery-transfer:battery.swap-station}",
+            containerFactory = "batteryTransferListenerFactory")
+    public void onTransfer(List<ConsumerRecord<String, BatterySwapStation>> records) {
+        consume(records, record -> {
+            BatterySwapStation event = record.value();
+            require(event.getBatteryId(), event.getOldstationId(), event.getNewstationId());
+            process(record, () -> batteryService.handleBatterySwapStation(event));
+        });
+    }
+
+    /**
+     * Xóa bản ghi idempotency cũ hơn {@code retentionDays} (03:30 hằng ngày).
+     */
+    @Scheduled(cron = "${station.kafka.processed-cleanup-cron:0 30 3 * * *}")
+    public void purgeProcessed() {
+        Integer deleted = transactionTemplate.execute(status ->
+                processedEventRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays)));
+        log.info("Đã xóa {} bản ghi processed_events cũ", deleted);
+    }
+
+    /**
+     * Xử lý lần lượt các record trong batch. Record lỗi (không phải lỗi nghiệp vụ) được báo kèm vị trí
+     * để error handler commit các record trước nó, retry / chuyển DLT riêng record đó rồi xử lý tiếp phần còn lại.
+     */
+    private <T> void consume(List<ConsumerRecord<String, T>> records, Consumer<ConsumerRecord<String, T>> handler) {
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, T> record = records.get(i);
+            try {
+                if (record.value() == null) {
+                    throw new InvalidEventException("Không đọc được payload tại " + position(record));
+                }
+                handler.accept(record);
+            } catch (BusinessException e) {
+                count(record.topic(), "rejected");
+                log.warn("Sự kiện tại {} bị từ chối: {}", position(record), e.getMessage());
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException("Xử lý sự kiện thất bại tại " + position(record), e, i);
+            }
+        }
+    }
+
+    /**
+     * Chạy {@code action} đúng một lần cho mỗi idempotency key. Trả về kết quả đã lưu nếu sự kiện là bản trùng,
+     * rỗng nếu vừa xử lý thành công. Lỗi nghiệp vụ được ghi nhận FAILED rồi ném lại.
+     */
+    private Optional<String> process(ConsumerRecord<String, ?> record, Runnable action) {
+        String key = idempotencyKey(record);
+        String topic = record.topic();
+        try {
+            Boolean fresh = transactionTemplate.execute(status -> {
+                if (!markProcessed(key, topic, SUCCESS)) return false;
+                action.run();
+                return true;
+            });
+            if (Boolean.TRUE.equals(fresh)) {
+                count(topic, "processed");
+                return Optional.empty();
+            }
+        } catch (BusinessException e) {
+            // Transaction đã rollback: ghi nhận riêng để lần nhận lại không xử lý tiếp
+            transactionTemplate.executeWithoutResult(status -> markProcessed(key, topic, FAILED));
+            throw e;
+        }
+        count(topic, "duplicate");
+        log.debug("Bỏ qua sự kiện trùng {}", key);
+        return Optional.of(processedEventRepository.findById(key).map(ProcessedEvent::getOutcome).orElse(SUCCESS));
+    }
+
+    private boolean markProcessed(String key, String topic, String outcome) {
+        return processedEventRepository.markProcessed(key, topic, outcome, LocalDateTime.now()) > 0;
+    }
+
+    private void publishResult(BatterySwapEvent event, SwapStatus status, String message) {
+        BatterySwapResult result = BatterySwapResult.builder()
+                .bookingId(event.getBookingId())
+                .swapStatus(status)
+                .stationId(event.getStationId())
+                .oldBatteryId(event.getOldBatteryId())
+                .newBatteryId(event.getNewBatteryId())
+                .message(message)
+                .build();
+        kafkaTemplate.send(swapResultTopic, event.getStationId(), result)
+                .whenComplete((sent, ex) -> {
+                    if (ex != null) {
+                        log.error("Gửi BatterySwapResult cho booking {} thất bại: {}", event.getBookingId(), ex.getMessage());
+                    }
+                });
+    }
+
+    private void count(String topic, String result) {
+        meterRegistry.counter("station.events", "topic", topic, "result", result).increment();
+    }
+
+    private static String idempotencyKey(ConsumerRecord<String, ?> record) {
+        Header header = record.headers().lastHeader(HEADER_EVENT_ID);
+        if (header != null && header.value() != null && header.value().length > 0) {
+            return record.topic() + ":" + new String(header.value(), StandardCharsets.UTF_8);
+        }
+        return position(record);
+    }
+
+    private static String position(ConsumerRecord<String, ?> record) {
+        return record.topic() + "-" + record.partition() + "@" + record.offset();
+    }
+
+    private static void require(String... values) {
+        for (String value : values) {
+            if (value == null || value.isBlank()) {
+                throw new InvalidEventException("Sự kiện thiếu trường bắt buộc");
+            }
+        }
+    }
+}
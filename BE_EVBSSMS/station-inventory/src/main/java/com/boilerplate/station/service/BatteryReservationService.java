@@ -0,0 +1,194 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.DTO.BatteryHoldDTO;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.repository.BatteryRepository;
+import com.boilerplate.station.repository.StationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Giữ pin cho lượt đổi:
+ * - Giữ bằng một câu UPDATE có điều kiện {@code is_hold = false}: hai booking đồng thời không thể cùng giữ một pin.
+ * - Mỗi lượt giữ ghi lại người giữ và hạn giữ; hết hạn thì pin được nhả tự động qua {@link HoldExpiryWheel}.
+ * - Quét DB định kỳ để nhả các hold quá hạn mà bánh xe của instance này không biết (instance khác, restart).
+ * Bộ đếm StationInventory (heldCount) được cập nhật theo từng lần giữ / nhả.
+ * Metrics: battery.reservation{action=held|released|expired|conflict}.
+ */
+@Slf4j
+@Service
+public class BatteryReservationService {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final BatteryRepository batteryRepository;
+    private final StationRepository stationRepository;
+    private final StationInventoryService stationInventoryService;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final int sweepBatchSize;
+    private final HoldExpiryWheel wheel;
+
+    private final Counter held;
+    private final Counter released;
+    private final Counter expired;
+    private final Counter conflicts;
+
+    public BatteryReservationService(BatteryRepository batteryRepository,
+                                     StationRepository stationRepository,
+                                     StationInventoryService stationInventoryService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${station.reservation.default-ttl-seconds:900}") long defaultTtlSeconds,
+                                     @Value("${station.reservation.max-ttl-seconds:3600}") long maxTtlSeconds,
+                                     @Value("${station.reservation.tick-ms:1000}") long tickMs,
+                                     @Value("${station.reservation.wheel-size:512}") int wheelSize,
+                                     @Value("${station.reservation.sweep-batch-size:500}") int sweepBatchSize) {
+        this.batteryRepository = batteryRepository;
+        this.stationRepository = stationRepository;
+        this.stationInventoryService = stationInventoryService;
+        this.defaultTtl = Duration.ofSeconds(defaultTtlSeconds);
+        this.maxTtl = Duration.ofSeconds(maxTtlSeconds);
+        this.sweepBatchSize = sweepBatchSize;
+        this.wheel = new HoldExpiryWheel(tickMs, wheelSize, System.currentTimeMillis());
+
+        this.held = reservations(meterRegistry, "held");
+        this.released = reservations(meterRegistry, "released");
+        this.expired = reservations(meterRegistry, "expired");
+        this.conflicts = reservations(meterRegistry, "conflict");
+    }
+
+    /**
+     * Giữ pin theo mã. Ném BATTERY_HELD nếu pin đang được giữ, BATTERY_NOT_FOUND nếu không có pin.
+     */
+    @Transactional
+    public BatteryHoldDTO hold(String batteryCode, String holdBy, Long ttlSeconds) {
+        if (batteryCode == null || batteryCode.isBlank()) {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
+        LocalDateTime until = expiry(ttlSeconds);
+        BatteryRepository.HeldBattery battery = batteryRepository.holdByCode(batteryCode, holdBy, until)
+                .orElseThrow(() -> {
+                    if (batteryRepository.findByBatteryCode(batteryCode).isEmpty()) {
+                        return new BusinessException(AppException.BATTERY_NOT_FOUND);
+                    }
+                    conflicts.increment();
+                    return new BusinessException(AppException.BATTERY_HELD);
+                });
+        return onHeld(battery, holdBy, until);
+    }
+
+    /**
+     * Giữ pin FULL tốt nhất chưa bị giữ tại trạm. Ném BATTERY_NOT_AVAILABLE nếu trạm không còn pin nào.
+     */
+    @Transactional
+    public BatteryHoldDTO holdBest(String stationCode, String holdBy, Long ttlSeconds) {
+        Station station = stationRepository.findByStationCode(stationCode)
+                .orElseThrow(() -> new BusinessException(AppException.STATION_NOT_FOUND));
+        LocalDateTime until = expiry(ttlSeconds);
+        BatteryRepository.HeldBattery battery = batteryRepository.holdBestAvailable(station.getId(), holdBy, until)
+                .orElseThrow(() -> new BusinessException(AppException.BATTERY_NOT_AVAILABLE));
+        return onHeld(battery, holdBy, until);
+    }
+
+    /**
+     * Nhả pin đang giữ. {@code holdBy} khác null thì chỉ nhả khi đúng người đang giữ.
+     * Trả về false nếu pin không ở trạng thái giữ (đã hết hạn, đã nhả, hoặc người khác giữ).
+     */
+    @Transactional
+    public boolean release(String batteryCode, String holdBy) {
+        return batteryRepository.release(batteryCode, holdBy)
+                .map(battery -> {
+                    onReleased(List.of(battery));
+                    released.increment();
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Mỗi tick: nhả các pin tới hạn trong bánh xe. Pin đã được nhả / giữ lại với hạn mới
+     * thì câu UPDATE có điều kiện bỏ qua.
+     */
+    @Scheduled(fixedDelayString = "${station.reservation.tick-ms:1000}")
+    @Transactional
+    public void expireDue() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) return;
+        releaseExpired(batteryRepository.releaseExpired(due, LocalDateTime.now()));
+    }
+
+    /**
+     * Quét dự phòng trong DB cho các hold quá hạn không nằm trong bánh xe của instance này.
+     */
+    @Scheduled(fixedDelayString = "${station.reservation.sweep-ms:60000}",
+            initialDelayString = "${station.reservation.sweep-ms:60000}")
+    @Transactional
+    public void sweep() {
+        List<BatteryRepository.HeldBattery> batch =
+                batteryRepository.releaseAllExpired(LocalDateTime.now(), sweepBatchSize);
+        if (batch.isEmpty()) return;
+        releaseExpired(batch);
+        log.info("Quét hold quá hạn: đã nhả {} pin", batch.size());
+    }
+
+    int pendingExpiries() {
+        return wheel.pending();
+    }
+
+    private BatteryHoldDTO onHeld(BatteryRepository.HeldBattery battery, String holdBy, LocalDateTime until) {
+        stationInventoryService.trackAll(
+                List.of(new StationInventoryService.BatteryState(battery.getStationId(), battery.getStatus(), false)),
+                List.of(new StationInventoryService.BatteryState(battery.getStationId(), battery.getStatus(), true)));
+        wheel.schedule(battery.getId(), until.atZone(ZONE).toInstant().toEpochMilli());
+        held.increment();
+        return BatteryHoldDTO.builder()
+                .batteryCode(battery.getBatteryCode())
+                .stationId(battery.getStationId())
+                .holdBy(holdBy)
+                .holdUntil(until)
+                .build();
+    }
+
+    private void releaseExpired(List<BatteryRepository.HeldBattery> batteries) {
+        if (batteries.isEmpty()) return;
+        onReleased(batteries);
+        expired.increment(batteries.size());
+        log.debug("Hết hạn giữ: {}", batteries.stream().map(BatteryRepository.HeldBattery::getBatteryCode).toList());
+    }
+
+    private void onReleased(List<BatteryRepository.HeldBattery> batteries) {
+        List<StationInventoryService.BatteryState> before = new ArrayList<>(batteries.size());
+        List<StationInventoryService.BatteryState> after = new ArrayList<>(batteries.size());
+        for (BatteryRepository.HeldBattery b : batteries) {
+            before.add(new StationInventoryService.BatteryState(b.getStationId(), b.getStatus(), true));
+            after.add(new StationInventoryService.BatteryState(b.getStationId(), b.getStatus(), false));
+        }
+        stationInventoryService.trackAll(before, after);
+    }
+
+    private LocalDateTime expiry(Long ttlSeconds) {
+        Duration ttl = ttlSeconds == null ? defaultTtl : Duration.ofSeconds(ttlSeconds);
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
+        return LocalDateTime.ofInstant(Instant.now().plus(ttl), ZONE);
+    }
+
+    private static Counter reservations(MeterRegistry registry, String action) {
+        return Counter.builder("battery.reservation").tag("action", action).register(registry);
+    }
+}
@@ -1,10 +1,14 @@
 package com.boilerplate.station.service;
 
+import com.boilerplate.station.enums.BatteryEventType;
 import com.boilerplate.station.enums.BatteryStatus;
+import com.boilerplate.station.enums.HealthUpdateOutcome;
 import com.boilerplate.station.enums.OwnerType;
 import com.boilerplate.station.exception.AppException;
 import com.boilerplate.station.exception.BusinessException;
 import com.boilerplate.station.model.DTO.BatteryDTO;
+import com.boilerplate.station.model.DTO.BatteryHealthBulkResultDTO;
+import com.boilerplate.station.model.DTO.BatteryHoldDTO;
 import com.boilerplate.station.model.DTO.BatteryReturnLogDTO;
 import com.boilerplate.station.model.DTO.BatterySwapLogDTO;
 import com.boilerplate.station.model.createRequest.*;
@@ -18,16 +22,25 @@ import com.boilerplate.station.repository.*;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -49,21 +62,56 @@ public class BatteryService {
     @Autowired
     private StationRepository stationRepository;
 
+    @Autowired
+    private DailySwapSummaryService dailySwapSummaryService;
+
+    @Autowired
+    private StationInventoryService stationInventoryService;
+
+    @Autowired
+    private PageLimits pageLimits;
+
+    @Autowired
+    private NdjsonExporter ndjsonExporter;
+
+    @Autowired
+    private BatteryReservationService batteryReservationService;
+
     private final RestTemplate restTemplate;
 
-    private static BatteryCodeGenerator batteryCodeGenerator;
+    @Autowired
+    private BatteryCodeGenerator batteryCodeGenerator;
 
-    public ResponseEntity<ResponseData<List<BatteryDTO>>> getAllBatteries() {
-        List<BatteryDTO> batteries = batteryRepository.findAll()
-                .stream()
-                .map(BatteryDTO::fromEntity)
-                .collect(Collectors.toList());
+    @Autowired
+    private LogAppendWriter logAppendWriter;
+
+    @Autowired
+    private BatteryTimelineService batteryTimelineService;
+
+    @Autowired
+    private ChargingEngine chargingEngine;
+
+    @Value("${station.battery-health.max-batch:10000}")
+    private int maxHealthBatch;
+
+    @Value("${station.battery-health.chunk-size:1000}")
+    private int healthChunkSize;
+
+    /**
+     * Một trang pin, id giảm dần. Trang sau: truyền {@code beforeId} = id cuối của trang trước.
+     */
+    public ResponseEntity<ResponseData<List<BatteryDTO>>> getAllBatteries(Long beforeId, Integer size) {
+        List<BatteryDTO> batteries = batteryRepository.findPage(beforeId, pageLimits.limit(size));
 
         return ResponseEntity.ok(
                 new ResponseData<>(HttpStatus.OK.value(), "Fetched all batteries successfully", batteries)
         );
     }
 
+    public ResponseEntity<StreamingResponseBody> exportBatteries() {
+        return ndjsonExporter.export("batteries.ndjson", batteryRepository::streamAll);
+    }
+
     public ResponseEntity<ResponseData<BatteryDTO>> getBatteryById(Long id) {
         Optional<Battery> battery = batteryRepository.findById(id);
         if (battery.isEmpty()) {
@@ -75,7 +123,7 @@ public class BatteryService {
     }
 
     public ResponseEntity<ResponseData<BatteryDTO>> createBattery(BatteryRequest request) {
-        String code = BatteryCodeGenerator.generateBatteryCode();
+        String code = batteryCodeGenerator.generateBatteryCode();
 
         Battery battery = new Battery();
         battery.setBatteryCode(code);
@@ -102,6 +150,7 @@ public class BatteryService {
         }
 
         Battery battery = existing.get();
+        StationInventoryService.BatteryState before = stationInventoryService.snapshot(battery);
         battery.setModel(request.getModel());
         battery.setCapacity(request.getCapacity());
         battery.setSoh(request.getSoh());
@@ -111,6 +160,7 @@ public class BatteryService {
         battery.setReferenceId(request.getReferenceId());
 
         Battery updated = batteryRepository.save(battery);
+        stationInventoryService.track(before, updated);
         BatteryDTO dto = BatteryDTO.fromEntity(updated);
 
         return ResponseEntity.ok(
@@ -125,7 +175,9 @@ public class BatteryService {
                     .body(new ResponseData<>(HttpStatus.NOT_FOUND.value(), "Battery not found", null));
         }
 
+        StationInventoryService.BatteryState before = stationInventoryService.snapshot(battery.get());
         batteryRepository.deleteById(id);
+        stationInventoryService.track(before, null);
         return ResponseEntity.ok(
                 new ResponseData<>(HttpStatus.OK.value(), "Battery deleted successfully", null)
         );
@@ -133,48 +185,63 @@ public class BatteryService {
 
 
 
+    /**
+     * Đổi pin tại trạm: pin xe mang đến (old) nhập kho trạm, pin của trạm (new) giao cho xe.
+     * Chỉ chạm hai dòng pin và chèn một dòng log: một query khóa hai pin + lấy id trạm,
+     * hai câu UPDATE theo id; log được giao cho LogAppendWriter. Không load Station hay collection batteries.
+     */
     public ResponseEntity<ResponseData<Void>> handleBatterySwap(BatterySwapEvent event) {
+        List<BatteryRepository.SwapCandidate> candidates = batteryRepository.lockForSwap(
+                List.of(event.getOldBatteryId(), event.getNewBatteryId()), event.getStationId());
+
+        BatteryRepository.SwapCandidate oldBattery = findCandidate(candidates, event.getOldBatteryId());
+        BatteryRepository.SwapCandidate newBattery = findCandidate(candidates, event.getNewBatteryId());
+        Long stationId = oldBattery.getTargetStationId();
+        if (stationId == null) {
+            throw new BusinessException(AppException.STATION_NOT_FOUND);
+        }
+
+        Station station = stationRepository.getReferenceById(stationId);
         // Pin Xe -> Trạm - Pin A
-        Battery oldBattery = batteryRepository.findByBatteryCode(event.getOldBatteryId())
-                .orElseThrow(() -> new RuntimeException("Old battery not found"));
-        Station station = stationRepository.findByStationCode(event.getStationId())
-                .orElseThrow(() -> new RuntimeException("Station not found"));
-        oldBattery.setOwnerType(OwnerType.STATION);
-        oldBattery.setReferenceId(event.getStationId());
-        oldBattery.setStatus(BatteryStatus.IN_STOCK);
-        oldBattery.setStation(station);
-        station.getBatteries().add(oldBattery);
-        // Pin mới -> Xe
+        batteryRepository.dockAtStation(oldBattery.getId(), station, event.getStationId());
         // Pin tram -> Xe - Pin B
-        Battery newBattery = batteryRepository.findByBatteryCode(event.getNewBatteryId())
-                .orElseThrow(() -> new RuntimeException("New battery not found"));
-        newBattery.setOwnerType(OwnerType.VEHICLE);
-        newBattery.setReferenceId(event.getVehicleId());
-        newBattery.setStatus(BatteryStatus.IN_CAR);
-        station.getBatteries().removeIf(b -> b.getBatteryCode().equals(oldBattery.getBatteryCode()));
-        newBattery.setStation(null);
+        batteryRepository.handToVehicle(newBattery.getId(), event.getVehicleId());
 
-        batteryRepository.save(oldBattery);
-        batteryRepository.save(newBattery);
-
-        // Mapping event -> request (không để null)
-        createSwapLog(new BatterySwapLogRequest(
-                event.getOldBatteryId(),   // verhicleBatteryCode: pin của xe (đem đến)
-                event.getNewBatteryId(),   // stationBatteryCode: pin của trạm (cấp cho xe)
-                event.getStationId(),      // stationCode
-                event.getVehicleId()       // verhicleCode (ID xe)
-        ));
+        stationInventoryService.trackAll(
+                List.of(stateOf(oldBattery), stateOf(newBattery)),
+                List.of(new StationInventoryService.BatteryState(stationId, BatteryStatus.IN_STOCK,
+                                Boolean.TRUE.equals(oldBattery.getHold())),
+                        StationInventoryService.BatteryState.NONE));
+
+        LocalDateTime swapTime = LocalDateTime.now();
+        logAppendWriter.append(new LogAppendWriter.SwapLogEntry(
+                oldBattery.getId(), newBattery.getId(), stationId, event.getVehicleId(), swapTime));
+        dailySwapSummaryService.recordSwap(stationId, swapTime);
 
         return ResponseEntity.ok(
                 new ResponseData<>(HttpStatus.OK.value(), "Đổi pin thành công", null)
         );
     }
 
+    private static BatteryRepository.SwapCandidate findCandidate(List<BatteryRepository.SwapCandidate> candidates,
+                                                                 String batteryCode) {
+        for (BatteryRepository.SwapCandidate candidate : candidates) {
+            if (candidate.getBatteryCode().equals(batteryCode)) return candidate;
+        }
+        throw new BusinessException(AppException.BATTERY_NOT_FOUND);
+    }
+
+    private static StationInventoryService.BatteryState stateOf(BatteryRepository.SwapCandidate battery) {
+        return new StationInventoryService.BatteryState(battery.getStationId(), battery.getStatus(),
+                Boolean.TRUE.equals(battery.getHold()));
+    }
+
 
     public ResponseEntity<ResponseData<Void>> handleBatterySwapStation(BatterySwapStation event) {
         // Pin cũ - chuyển từ trạm cũ sang trạm mới
         Battery oldBattery = batteryRepository.findByBatteryCode(event.getBatteryId())
                 .orElseThrow(() -> new BusinessException(AppException.BATTERY_NOT_FOUND));
+        StationInventoryService.BatteryState before = stationInventoryService.snapshot(oldBattery);
         oldBattery.setOwnerType(OwnerType.STATION);
         oldBattery.setReferenceId(event.getNewstationId());
         oldBattery.setStatus(BatteryStatus.IN_STOCK);
@@ -194,6 +261,7 @@ public class BatteryService {
         batteryRepository.save(oldBattery);
         stationRepository.save(newstation);
         stationRepository.save(oldstation);
+        stationInventoryService.track(before, oldBattery);
 
         createSwapStationLog(new BatterySwapStationLogRequest(
                 oldBattery.getBatteryCode(),
@@ -212,15 +280,29 @@ public class BatteryService {
 
 
 
-    public ResponseEntity<ResponseData<Void>> holdBattery(BatteryHoldEvent event) {
-        Battery battery = batteryRepository.findByBatteryCode(event.getBatteryCode())
-                .orElseThrow(() -> new BusinessException(AppException.BATTERY_NOT_FOUND));
-        if (battery.isHold()) {
-            throw new BusinessException(AppException.BATTERY_HELD);
+    public ResponseEntity<ResponseData<BatteryHoldDTO>> holdBattery(BatteryHoldEvent event) {
+        BatteryHoldDTO hold = batteryReservationService.hold(
+                event.getBatteryCode(), event.getHoldBy(), event.getTtlSeconds());
+        return ResponseEntity.ok(
+                new ResponseData<>(HttpStatus.OK.value(), "Giữ pin thành công", hold)
+        );
+    }
+
+    public ResponseEntity<ResponseData<BatteryHoldDTO>> holdBestBattery(HoldBestBatteryRequest request) {
+        BatteryHoldDTO hold = batteryReservationService.holdBest(
+                request.getStationCode(), request.getHoldBy(), request.getTtlSeconds());
+        return ResponseEntity.ok(
+                new ResponseData<>(HttpStatus.OK.value(), "Giữ pin thành công", hold)
+        );
+    }
+
+    public ResponseEntity<ResponseData<Void>> releaseBattery(ReleaseHoldRequest request) {
+        if (!batteryReservationService.release(request.getBatteryCode(), request.getHoldBy())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ResponseData<>(HttpStatus.CONFLICT.value(), "Pin không ở trạng thái được giữ", null));
         }
-        battery.setHold(true);
         return ResponseEntity.ok(
-                new ResponseData<>(HttpStatus.OK.value(), "Giữ pin thành công", null)
+                new ResponseData<>(HttpStatus.OK.value(), "Nhả pin thành công", null)
         );
     }
 
@@ -249,7 +331,15 @@ public class BatteryService {
         log.setNewStationId(request.getNewStationCode());
         log.setSwapTime(LocalDateTime.now());
 
-        return batterySwapStationLogRepository.save(log);
+        BatterySwapStationLog saved = batterySwapStationLogRepository.save(log);
+        batteryTimelineService.record(List.of(BatteryEvent.builder()
+                .batteryId(oldBattery.getId())
+                .type(BatteryEventType.TRANSFER)
+                .eventTime(saved.getSwapTime())
+                .fromStationId(stationIdOf(request.getOldStationCode()))
+                .stationId(stationIdOf(request.getNewStationCode()))
+                .build()));
+        return saved;
     }
 
     public ResponseEntity<ResponseData<List<BatterySwapLogDTO>>> getSwapLogsByStationId(Long stationId) {
@@ -284,26 +374,38 @@ public class BatteryService {
         log.setVehiceId(request.getVerhicleCode());
         log.setSwapTime(LocalDateTime.now());
 
-        return batterySwapLogRepository.save(log);
+        BatterySwapLog saved = batterySwapLogRepository.save(log);
+        dailySwapSummaryService.recordSwap(station.getId(), saved.getSwapTime());
+        batteryTimelineService.record(new LogAppendWriter.SwapLogEntry(vehicleBattery.getId(), stationBattery.getId(),
+                station.getId(), saved.getVehiceId(), saved.getSwapTime()).events());
+        return saved;
+    }
+
+    private Long stationIdOf(String stationCode) {
+        return stationCode == null ? null
+                : stationRepository.findByStationCode(stationCode).map(Station::getId).orElse(null);
     }
 
-    public ResponseEntity<ResponseData<List<BatterySwapLogDTO>>> getAllSwapLogs() {
-        List<BatterySwapLog> logs = batterySwapLogRepository.findAll();
+    /**
+     * Một trang log đổi pin, mới nhất trước. Trang sau: truyền {@code beforeId} = id cuối của trang trước.
+     */
+    public ResponseEntity<ResponseData<List<BatterySwapLogDTO>>> getAllSwapLogs(Long beforeId, Integer size) {
+        List<BatterySwapLogDTO> dtos = batterySwapLogRepository.findPage(beforeId, pageLimits.limit(size));
 
-        if (logs.isEmpty()) {
+        if (dtos.isEmpty() && beforeId == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new ResponseData<>(HttpStatus.NOT_FOUND.value(), "Không có log đổi pin nào trong hệ thống", null));
         }
 
-        List<BatterySwapLogDTO> dtos = logs.stream()
-                .map(BatterySwapLogDTO::fromEntity)
-                .collect(Collectors.toList());
-
         return ResponseEntity.ok(
                 new ResponseData<>(HttpStatus.OK.value(), "Lấy danh sách tất cả log đổi pin thành công", dtos)
         );
     }
 
+    public ResponseEntity<StreamingResponseBody> exportSwapLogs() {
+        return ndjsonExporter.export("swap-logs.ndjson", batterySwapLogRepository::streamAll);
+    }
+
     public ResponseEntity<ResponseData<BatteryDTO>> addBattery(AddBatteryRequest request) {
         Station station = stationRepository.findByStationCode(request.getStationCode())
                 .orElseThrow(() -> new BusinessException(AppException.STATION_NOT_FOUND));
@@ -313,10 +415,12 @@ public class BatteryService {
                 !battery.getStation().getStationCode().equals(request.getStationCode())) {
             throw new RuntimeException(("Pin đang thuộc trạm khác!"));
         }
+        StationInventoryService.BatteryState before = stationInventoryService.snapshot(battery);
         battery.setStation(station);
         battery.setReferenceId(station.getStationCode());
         battery.setStatus(BatteryStatus.IN_USE);
         Battery saved = batteryRepository.save(battery);
+        stationInventoryService.track(before, saved);
         station.getBatteries().add(saved);
 
         stationRepository.save(station);
@@ -359,6 +463,13 @@ public class BatteryService {
         swap.setBatteryReturnLog(saved);
 
         batterySwapLogRepository.save(swap);
+        batteryTimelineService.record(List.of(BatteryEvent.builder()
+                .batteryId(batteryOpt.get().getId())
+                .type(BatteryEventType.RETURN)
+                .eventTime(saved.getReturnTime() != null ? saved.getReturnTime() : LocalDateTime.now())
+                .referenceId(saved.getBookingId())
+                .detail(saved.getCondition() != null ? saved.getCondition().name() : null)
+                .build()));
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new ResponseData<>(HttpStatus.CREATED.value(), "Tạo log trả pin thành công", BatteryReturnLogDTO.fromEntity(saved)));
@@ -428,9 +539,121 @@ public class BatteryService {
         }
 
         Battery saved = batteryRepository.save(battery);
+        if (request.getSoc() != null && saved.getStatus() == BatteryStatus.CHARGING) {
+            chargingEngine.reportSoc(Map.of(saved.getId(), request.getSoc()));
+        }
         return ResponseEntity.ok(
                 new ResponseData<>(HttpStatus.OK.value(), "Cập nhật soh/soc thành công", BatteryDTO.fromEntity(saved))
         );
     }
 
+    /**
+     * Cập nhật soh/soc cho nhiều pin (trạm báo SoC của cả giá pin mỗi phút).
+     * Kiểm tra toàn bộ phần tử trong một lượt, rồi ghi các phần tử hợp lệ theo từng khối {@code chunk-size}
+     * bằng một câu UPDATE mỗi khối, không load entity. Phần tử lỗi được trả về kèm vị trí, phần còn lại vẫn được ghi.
+     * Mã lặp trong cùng yêu cầu: lấy giá trị cuối cùng.
+     */
+    public ResponseEntity<ResponseData<BatteryHealthBulkResultDTO>> updateBatteryHealthBulk(List<BatteryHealthUpdate> updates) {
+        if (updates == null || updates.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                    ResponseData.<BatteryHealthBulkResultDTO>builder()
+                            .statusCode(400)
+                            .message("Danh sách cập nhật không được để trống")
+                            .build()
+            );
+        }
+        if (updates.size() > maxHealthBatch) {
+            return ResponseEntity.badRequest().body(
+                    ResponseData.<BatteryHealthBulkResultDTO>builder()
+                            .statusCode(400)
+                            .message("Chỉ cập nhật tối đa " + maxHealthBatch + " pin mỗi lần")
+                            .build()
+            );
+        }
+
+        List<BatteryHealthBulkResultDTO.Item> errors = new ArrayList<>();
+        Map<String, Integer> valid = new LinkedHashMap<>(); // mã -> vị trí của phần tử được ghi
+        for (int i = 0; i < updates.size(); i++) {
+            BatteryHealthUpdate update = updates.get(i);
+            String code = update != null ? update.getCode() : null;
+            HealthUpdateOutcome invalid = validateHealth(update);
+            if (invalid != null) {
+                errors.add(new BatteryHealthBulkResultDTO.Item(i, code, invalid));
+                continue;
+            }
+            Integer previous = valid.remove(code);
+            if (previous != null) {
+                errors.add(new BatteryHealthBulkResultDTO.Item(previous, code, HealthUpdateOutcome.DUPLICATE));
+            }
+            valid.put(code, i);
+        }
+
+        int n = valid.size();
+        String[] codes = new String[n];
+        Double[] soh = new Double[n];
+        Double[] soc = new Double[n];
+        int k = 0;
+        for (Integer index : valid.values()) {
+            BatteryHealthUpdate update = updates.get(index);
+            codes[k] = update.getCode();
+            soh[k] = update.getSoh();
+            soc[k] = update.getSoc();
+            k++;
+        }
+
+        Set<String> updated = new HashSet<>(n * 2);
+        Map<Long, Double> chargingSoc = new HashMap<>();
+        int chunk = Math.max(healthChunkSize, 1);
+        for (int from = 0; from < n; from += chunk) {
+            int to = Math.min(from + chunk, n);
+            for (BatteryRepository.UpdatedHealth row : batteryRepository.updateHealth(
+                    Arrays.copyOfRange(codes, from, to),
+                    Arrays.copyOfRange(soh, from, to),
+                    Arrays.copyOfRange(soc, from, to))) {
+                updated.add(row.getBatteryCode());
+                Double reported = updates.get(valid.get(row.getBatteryCode())).getSoc();
+                if (reported != null && BatteryStatus.CHARGING.name().equals(row.getStatus())) {
+                    chargingSoc.put(row.getId(), reported);
+                }
+            }
+        }
+        // Pin đang sạc: phiên sạc tiếp tục từ SoC vừa báo, checkpoint không ghi đè lại giá trị cũ
+        chargingEngine.reportSoc(chargingSoc);
+        valid.forEach((code, index) -> {
+            if (!updated.contains(code)) {
+                errors.add(new BatteryHealthBulkResultDTO.Item(index, code, HealthUpdateOutcome.NOT_FOUND));
+            }
+        });
+        errors.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+
+        BatteryHealthBulkResultDTO result = BatteryHealthBulkResultDTO.builder()
+                .requested(updates.size())
+                .updated(updated.size())
+                .errors(errors)
+                .build();
+        return ResponseEntity.ok(
+                ResponseData.<BatteryHealthBulkResultDTO>builder()
+                        .statusCode(200)
+                        .message("Đã cập nhật soh/soc cho " + updated.size() + "/" + updates.size() + " pin")
+                        .data(result)
+                        .build()
+        );
+    }
+
+    private static HealthUpdateOutcome validateHealth(BatteryHealthUpdate update) {
+        if (update == null || update.getCode() == null || update.getCode().isBlank()) {
+            return HealthUpdateOutcome.MISSING_CODE;
+        }
+        if (update.getSoh() == null && update.getSoc() == null) {
+            return HealthUpdateOutcome.MISSING_VALUE;
+        }
+        if (update.getSoh() != null && !(update.getSoh() >= 0 && update.getSoh() <= 100)) {
+            return HealthUpdateOutcome.INVALID_SOH;
+        }
+        if (update.getSoc() != null && !(update.getSoc() >= 0 && update.getSoc() <= 100)) {
+            return HealthUpdateOutcome.INVALID_SOC;
+        }
+        return null;
+    }
+
 }
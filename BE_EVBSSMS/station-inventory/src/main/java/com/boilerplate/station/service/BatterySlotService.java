@@ -16,14 +16,16 @@ import com.boilerplate.station.repository.BatteryRepository;
 import com.boilerplate.station.repository.BatterySlotRepository;
 import com.boilerplate.station.repository.ChargeLogRepository;
 import com.boilerplate.station.repository.StationRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -33,19 +35,26 @@ public class BatterySlotService {
     private final StationRepository stationRepository;
     private final BatteryRepository batteryRepository;
     private final ChargeLogRepository chargeLogRepository;
+    private final StationInventoryService stationInventoryService;
+    private final PageLimits pageLimits;
+    private final NdjsonExporter ndjsonExporter;
+    private final LogAppendWriter logAppendWriter;
+    private final ChargingEngine chargingEngine;
+    private final AvailabilityStream availabilityStream;
 
     // ========================= GET ALL =========================
-    public ResponseEntity<ResponseData<List<BatterySlotDTO>>> getAllSlots() {
-        List<BatterySlotDTO> slots = batterySlotRepository.findAll()
-                .stream()
-                .map(BatterySlotDTO::fromEntity)
-                .collect(Collectors.toList());
+    public ResponseEntity<ResponseData<List<BatterySlotDTO>>> getAllSlots(Long beforeId, Integer size) {
+        List<BatterySlotDTO> slots = batterySlotRepository.findPage(beforeId, pageLimits.limit(size));
 
         return ResponseEntity.ok(
                 new ResponseData<>(HttpStatus.OK.value(), "Fetched all battery slots successfully", slots)
         );
     }
 
+    public ResponseEntity<StreamingResponseBody> exportSlots() {
+        return ndjsonExporter.export("battery-slots.ndjson", batterySlotRepository::streamAll);
+    }
+
     // ========================= GET BY ID =========================
     public ResponseEntity<ResponseData<BatterySlotDTO>> getSlotById(Long id) {
         BatterySlot slot = batterySlotRepository.findById(id)
@@ -86,6 +95,7 @@ public class BatterySlotService {
         }
 
         BatterySlot saved = batterySlotRepository.save(slot);
+        availabilityStream.slotChanged(station.getId(), saved.getId(), saved.getStatus());
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new ResponseData<>(HttpStatus.CREATED.value(), "Battery slot created successfully", BatterySlotDTO.fromEntity(saved)));
     }
@@ -105,6 +115,7 @@ public class BatterySlotService {
                     .orElseThrow(() -> new BusinessException(AppException.BATTERY_NOT_FOUND));
         }
 
+        Long previousStationId = slot.getStation() != null ? slot.getStation().getId() : null;
         slot.setSlotCode(request.getSlotCode());
         slot.setStation(station);
 
@@ -119,6 +130,10 @@ public class BatterySlotService {
         }
 
         BatterySlot updated = batterySlotRepository.save(slot);
+        if (previousStationId != null && !previousStationId.equals(station.getId())) {
+            availabilityStream.slotChanged(previousStationId, updated.getId(), null);
+        }
+        availabilityStream.slotChanged(station.getId(), updated.getId(), updated.getStatus());
         return ResponseEntity.ok(
                 new ResponseData<>(HttpStatus.OK.value(), "Battery slot updated successfully", BatterySlotDTO.fromEntity(updated))
         );
@@ -130,12 +145,17 @@ public class BatterySlotService {
                 .orElseThrow(() -> new BusinessException(AppException.SLOT_NOT_FOUND));
 
         batterySlotRepository.delete(slot);
+        if (slot.getStation() != null) {
+            // null = slot đã bị xóa
+            availabilityStream.slotChanged(slot.getStation().getId(), slot.getId(), null);
+        }
         return ResponseEntity.ok(
                 new ResponseData<>(HttpStatus.OK.value(), "Battery slot deleted successfully", null)
         );
     }
 
     // ========================= ASSIGN BATTERY TO SLOT =========================
+    @Transactional
     public ResponseEntity<ResponseData<BatterySlotDTO>> assignBatteryToSlot(Long slotId, Long batteryId) {
         BatterySlot slot = batterySlotRepository.findById(slotId)
                 .orElseThrow(() -> new BusinessException(AppException.SLOT_NOT_FOUND));
@@ -145,13 +165,19 @@ public class BatterySlotService {
             throw new BusinessException(AppException.SLOT_OCCUPIED);
         }
 
+        StationInventoryService.BatteryState before = stationInventoryService.snapshot(battery);
         battery.setStatus(BatteryStatus.CHARGING);
 
         slot.setBattery(battery);
         slot.setAvailable(false);
         slot.setStatus(SlotStatus.OCCUPIED);
+        slot.setChargeStartedAt(LocalDateTime.now());
+        slot.setChargeStartSoc(battery.getSoc());
 
         BatterySlot updated = batterySlotRepository.save(slot);
+        stationInventoryService.track(before, batteryRepository.save(battery));
+        chargingEngine.start(updated, battery);
+        availabilityStream.slotChanged(updated.getStation().getId(), updated.getId(), updated.getStatus());
 
         return ResponseEntity.ok(
                 new ResponseData<>(HttpStatus.OK.value(),
@@ -161,6 +187,7 @@ public class BatterySlotService {
     }
 
     // ========================= SET SLOT EMPTY (REMOVE BATTERY FULL CHARGE) =========================
+    @Transactional
     public ResponseEntity<ResponseData<BatterySlotDTO>> setSlotEmpty(Long slotId) {
 
         BatterySlot slot = batterySlotRepository.findById(slotId)
@@ -170,23 +197,35 @@ public class BatterySlotService {
             throw new BusinessException(AppException.SLOT_EMPTY);
         }
 
-        createChargeLog(
-                slot.getBattery(),
-                slot,
-                slot.getStation(),
-                slot.getBattery().getSoc(),
-                100.0,
-                null,
-                LocalDateTime.now()
-        );
-
-        slot.getBattery().setSoc(100.0);
-        slot.getBattery().setStatus((BatteryStatus.FULL));
+        Battery battery = slot.getBattery();
+        StationInventoryService.BatteryState before = stationInventoryService.snapshot(battery);
+        Optional<ChargingEngine.ChargingSession> session = chargingEngine.stop(slotId);
+        if (session.isPresent()) {
+            // Rút pin giữa chừng: ghi nhận SoC thực tế của phiên sạc
+            double soc = session.get().getSoc();
+            createChargeLog(battery, slot, slot.getStation(), session.get().getStartSoc(), soc,
+                    session.get().getStartedAt(), LocalDateTime.now());
+            battery.setSoc(soc);
+            battery.setStatus(soc >= 100.0 ? BatteryStatus.FULL : BatteryStatus.IN_STOCK);
+        } else if (battery.getStatus() == BatteryStatus.CHARGING) {
+            // Không có phiên sạc trong bộ nhớ (engine tắt): coi như sạc đầy như trước đây
+            double startSoc = slot.getChargeStartSoc() != null ? slot.getChargeStartSoc() : battery.getSoc();
+            LocalDateTime now = LocalDateTime.now();
+            createChargeLog(battery, slot, slot.getStation(), startSoc, 100.0,
+                    slot.getChargeStartedAt() != null ? slot.getChargeStartedAt() : now, now);
+            battery.setSoc(100.0);
+            battery.setStatus(BatteryStatus.FULL);
+        }
+        // Pin đã được ChargingEngine chuyển FULL và ghi ChargeLog thì chỉ cần gỡ khỏi slot
         slot.setBattery(null);
+        slot.setChargeStartedAt(null);
+        slot.setChargeStartSoc(null);
         slot.setStatus(SlotStatus.EMPTY);
         slot.setAvailable(true);
 
         BatterySlot updated = batterySlotRepository.save(slot);
+        stationInventoryService.track(before, batteryRepository.save(battery));
+        availabilityStream.slotChanged(updated.getStation().getId(), updated.getId(), updated.getStatus());
 
 
 
@@ -213,24 +252,13 @@ public class BatterySlotService {
         double soh = battery.getSoh();                // trạng thái sức khỏe pin (%)
         double energyConsumed = ChargeLog.calculateEnergyConsumed(capacityWh, soh, socBefore, socAfter);
 
-        ChargeLog chargeLog = new ChargeLog();
-        chargeLog.setBattery(battery);
-        chargeLog.setSlot(slot);
-        chargeLog.setStation(station);
-        chargeLog.setSocBefore(socBefore);
-        chargeLog.setSocAfter(socAfter);
-        chargeLog.setEnergyConsumed(energyConsumed);
-        chargeLog.setStartTime(startTime);
-        chargeLog.setEndTime(endTime);
-
-        chargeLogRepository.save(chargeLog);
+        logAppendWriter.append(new LogAppendWriter.ChargeLogEntry(
+                battery.getId(), slot.getId(), station.getId(),
+                socBefore, socAfter, energyConsumed, startTime, endTime));
     }
 
-    public ResponseEntity<ResponseData<List<ChargeLogDTO>>> getAllChargeLogs() {
-        List<ChargeLog> logs = chargeLogRepository.findAll();
-        List<ChargeLogDTO> dtoList = logs.stream()
-                .map(ChargeLogDTO::fromEntity)
-                .toList();
+    public ResponseEntity<ResponseData<List<ChargeLogDTO>>> getAllChargeLogs(Long beforeId, Integer size) {
+        List<ChargeLogDTO> dtoList = chargeLogRepository.findPage(beforeId, pageLimits.limit(size));
 
         ResponseData<List<ChargeLogDTO>> response = ResponseData.<List<ChargeLogDTO>>builder()
                 .statusCode(200)
@@ -241,5 +269,8 @@ public class BatterySlotService {
         return ResponseEntity.ok(response);
     }
 
+    public ResponseEntity<StreamingResponseBody> exportChargeLogs() {
+        return ndjsonExporter.export("charge-logs.ndjson", chargeLogRepository::streamAll);
+    }
 
 }
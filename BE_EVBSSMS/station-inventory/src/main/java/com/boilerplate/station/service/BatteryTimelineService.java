@@ -0,0 +1,274 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.DTO.BatteryEventDTO;
+import com.boilerplate.station.model.DTO.BatteryTimelineDTO;
+import com.boilerplate.station.model.entity.ArchivedLogFile;
+import com.boilerplate.station.model.entity.BackfillCursor;
+import com.boilerplate.station.model.entity.BatteryEvent;
+import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.repository.ArchivedLogFileRepository;
+import com.boilerplate.station.repository.BackfillCursorRepository;
+import com.boilerplate.station.repository.BatteryEventRepository;
+import com.boilerplate.station.repository.BatteryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lịch sử hợp nhất của từng pin trong bảng chỉ-thêm battery_events.
+ * - Các đường ghi log (đổi pin, sạc, chuyển trạm, trả pin) gọi {@link #record} trong cùng transaction với log gốc;
+ *   mỗi batch là một câu INSERT.
+ * - Timeline đọc bằng một lần quét chỉ mục (battery_id, event_time, id), phân trang keyset theo (time, id).
+ * - Sự kiện của các log có từ trước được dựng lại lúc khởi động ({@code station.battery-events.backfill-on-start}),
+ *   trước khi listener / web server nhận việc, xem {@link #afterSingletonsInstantiated}.
+ * - Việc dựng lại chỉ đọc các bảng log chính. Tháng đã được LogArchiveService chuyển ra file (và xóa khỏi bảng)
+ *   trước khi dựng lại xong không có trong battery_events: file lưu trữ có thể chỉ nằm trên đĩa của instance khác,
+ *   nên không được chép lại. Timeline báo khoảng thiếu này qua {@link BatteryTimelineDTO#getIncompleteBefore}.
+ */
+@Slf4j
+@Service
+public class BatteryTimelineService implements SmartInitializingSingleton {
+
+    static final String BACKFILL = "battery_events";
+
+    // Chép các dòng có id trong (afterId, toId] và thời điểm trước before
+    @FunctionalInterface
+    private interface Copy {
+        int copy(long afterId, long toId, LocalDateTime before);
+    }
+
+    // Một bảng log nguồn: bảng lưu trữ tương ứng (null nếu không lưu trữ), id lớn nhất trước mốc chốt và câu chép một lô
+    private record Source(String name, String archivedTable, Function<LocalDateTime, Long> maxId, Copy copy) {
+    }
+
+    private final BatteryRepository batteryRepository;
+    private final BatteryEventRepository eventRepository;
+    private final BackfillCursorRepository cursorRepository;
+    private final ArchivedLogFileRepository archivedFileRepository;
+    private final PageLimits pageLimits;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean backfillOnStart;
+    private final int backfillBatchSize;
+    private final List<Source> sources;
+
+    // Khoảng thiếu không đổi sau khi dựng lại xong (lưu trữ về sau chỉ chuyển các log đã có sự kiện)
+    private volatile boolean gapSettled;
+    private volatile LocalDateTime settledGap;
+
+    public BatteryTimelineService(BatteryRepository batteryRepository,
+                                  BatteryEventRepository eventRepository,
+                                  BackfillCursorRepository cursorRepository,
+                                  ArchivedLogFileRepository archivedFileRepository,
+                                  PageLimits pageLimits,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${station.battery-events.backfill-on-start:true}") boolean backfillOnStart,
+                                  @Value("${station.battery-events.backfill-batch-size:50000}") int backfillBatchSize) {
+        this.batteryRepository = batteryRepository;
+        this.eventRepository = eventRepository;
+        this.cursorRepository = cursorRepository;
+        this.archivedFileRepository = archivedFileRepository;
+        this.pageLimits = pageLimits;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillOnStart = backfillOnStart;
+        this.backfillBatchSize = Math.max(backfillBatchSize, 1);
+        this.sources = List.of(
+                new Source(BACKFILL + ".swap_logs", LogArchiveService.SWAP_LOGS,
+                        eventRepository::maxSwapLogId, eventRepository::backfillSwapLogs),
+                new Source(BACKFILL + ".charge_logs", LogArchiveService.CHARGE_LOGS,
+                        eventRepository::maxChargeLogId, eventRepository::backfillChargeLogs),
+                new Source(BACKFILL + ".return_logs", null,
+                        eventRepository::maxReturnLogId, eventRepository::backfillReturnLogs));
+    }
+
+    /**
+     * Chạy sau khi mọi bean được tạo nhưng trước khi các SmartLifecycle (Kafka listener, web server, scheduler)
+     * khởi động, nên instance này chưa ghi sự kiện trực tiếp nào.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (backfillOnStart) backfill();
+    }
+
+    /**
+     * Dựng sự kiện từ các bảng log theo từng lô {@code backfill-batch-size} id, mỗi lô một transaction
+     * giữ khóa advisory; tiến độ lưu trong backfill_cursors nên instance khác hoặc lần khởi động sau chạy tiếp
+     * mà không chép trùng. Mốc chốt là thời điểm của sự kiện sớm nhất đã có khi bắt đầu (chưa có sự kiện nào thì
+     * là lúc tạo cursor): log từ mốc đó đã được ghi sự kiện trực tiếp. Id không tăng theo thời gian (mỗi instance
+     * cấp id theo khối lấy trước từ sequence), nên mốc được so với cột thời gian của từng dòng khi chép;
+     * id lớn nhất trước mốc chỉ giới hạn phạm vi quét.
+     */
+    void backfill() {
+        List<BackfillCursor> cursors = transactionTemplate.execute(status -> openCursors());
+        if (cursors != null && cursors.stream().allMatch(c -> c.getCompletedAt() != null)) return;
+
+        long inserted = 0;
+        for (Source source : sources) {
+            Integer copied;
+            while ((copied = transactionTemplate.execute(status -> copyBatch(source))) != null) {
+                inserted += copied;
+            }
+        }
+        if (inserted > 0) {
+            log.info("Đã dựng {} sự kiện pin từ các bảng log", inserted);
+        }
+    }
+
+    private List<BackfillCursor> openCursors() {
+        cursorRepository.lock(BACKFILL);
+        List<BackfillCursor> cursors = cursorRepository.findAllById(sources.stream().map(Source::name).toList());
+        if (cursors.size() == sources.size()) return cursors;
+
+        LocalDateTime firstEvent = eventRepository.findFirstEventTime();
+        LocalDateTime cutoff = firstEvent != null ? firstEvent : LocalDateTime.now();
+        Set<String> existing = cursors.stream().map(BackfillCursor::getName).collect(Collectors.toSet());
+        List<BackfillCursor> created = sources.stream()
+                .filter(source -> !existing.contains(source.name()))
+                .map(source -> new BackfillCursor(source.name(), 0, source.maxId().apply(cutoff), cutoff, null))
+                .toList();
+        cursorRepository.saveAll(created);
+        List<BackfillCursor> all = new ArrayList<>(cursors);
+        all.addAll(created);
+        return all;
+    }
+
+    // Chép một lô của bảng nguồn; null khi bảng đó đã xong
+    private Integer copyBatch(Source source) {
+        cursorRepository.lock(BACKFILL);
+        BackfillCursor cursor = cursorRepository.findById(source.name()).orElse(null);
+        if (cursor == null || cursor.getCompletedAt() != null) return null;
+        if (cursor.getLastId() >= cursor.getMaxId()) {
+            cursor.setCompletedAt(LocalDateTime.now());
+            cursorRepository.save(cursor);
+            return null;
+        }
+        long to = Math.min(cursor.getLastId() + backfillBatchSize, cursor.getMaxId());
+        int copied = source.copy().copy(cursor.getLastId(), to, cursor.getCutoff());
+        cursor.setLastId(to);
+        cursorRepository.save(cursor);
+        return copied;
+    }
+
+    /**
+     * Thêm các sự kiện trong transaction hiện tại của người gọi; sự kiện thiếu batteryId bị bỏ qua.
+     */
+    public void record(List<BatteryEvent> events) {
+        List<BatteryEvent> valid = events.stream()
+                .filter(e -> e.getBatteryId() != null && e.getType() != null && e.getEventTime() != null)
+                .toList();
+        if (valid.isEmpty()) return;
+
+        int n = valid.size();
+        Long[] batteryIds = new Long[n];
+        String[] types = new String[n];
+        LocalDateTime[] times = new LocalDateTime[n];
+        Long[] stationIds = new Long[n];
+        Long[] fromStationIds = new Long[n];
+        String[] vehicleIds = new String[n];
+        Double[] socBefore = new Double[n];
+        Double[] socAfter = new Double[n];
+        Double[] energy = new Double[n];
+        String[] referenceIds = new String[n];
+        String[] details = new String[n];
+        for (int i = 0; i < n; i++) {
+            BatteryEvent event = valid.get(i);
+            batteryIds[i] = event.getBatteryId();
+            types[i] = event.getType().name();
+            times[i] = event.getEventTime();
+            stationIds[i] = event.getStationId();
+            fromStationIds[i] = event.getFromStationId();
+            vehicleIds[i] = event.getVehicleId();
+            socBefore[i] = event.getSocBefore();
+            socAfter[i] = event.getSocAfter();
+            energy[i] = event.getEnergyConsumed();
+            referenceIds[i] = event.getReferenceId();
+            details[i] = event.getDetail();
+        }
+        eventRepository.appendBatch(batteryIds, types, times, stationIds, fromStationIds, vehicleIds,
+                socBefore, socAfter, energy, referenceIds, details);
+    }
+
+    /**
+     * Timeline của pin theo mã, mới nhất trước.
+     * Trang sau: truyền {@code beforeTime}/{@code beforeId} = time/id của phần tử cuối trang trước.
+     * {@code incompleteBefore} khác null: sự kiện trước mốc đó có thể thiếu, xem {@link #incompleteBefore}.
+     */
+    public ResponseEntity<ResponseData<BatteryTimelineDTO>> getTimeline(String batteryCode,
+                                                                         LocalDateTime beforeTime,
+                                                                         Long beforeId,
+                                                                         Integer size) {
+        if (beforeId != null && beforeTime == null) {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
+        Long batteryId = batteryRepository.findIdByBatteryCode(batteryCode)
+                .orElseThrow(() -> new BusinessException(AppException.BATTERY_NOT_FOUND));
+
+        List<BatteryEventDTO> events = eventRepository.findTimeline(batteryId, beforeTime,
+                beforeId != null ? beforeId : Long.MAX_VALUE, pageLimits.limit(size));
+
+        return ResponseEntity.ok(
+                ResponseData.<BatteryTimelineDTO>builder()
+                        .statusCode(200)
+                        .message("Lấy lịch sử pin thành công")
+                        .data(BatteryTimelineDTO.builder()
+                                .events(events)
+                                .incompleteBefore(incompleteBefore())
+                                .build())
+                        .build()
+        );
+    }
+
+    /**
+     * Mốc mà trước đó battery_events có thể thiếu sự kiện; null khi đủ.
+     * - Chưa dựng lại: mọi log trước sự kiện ghi trực tiếp đầu tiên.
+     * - Đang dựng lại: mọi log trước mốc chốt.
+     * - Đã xong: hết tháng lưu trữ muộn nhất (trước mốc chốt) được chuyển ra file trước khi bảng của nó dựng lại xong.
+     */
+    LocalDateTime incompleteBefore() {
+        if (gapSettled) return settledGap;
+
+        List<BackfillCursor> cursors = cursorRepository.findAllById(sources.stream().map(Source::name).toList());
+        if (cursors.size() < sources.size()) {
+            LocalDateTime firstEvent = eventRepository.findFirstEventTime();
+            return firstEvent != null ? firstEvent : LocalDateTime.now();
+        }
+        LocalDateTime cutoff = cursors.stream().map(BackfillCursor::getCutoff).filter(Objects::nonNull)
+                .min(Comparator.naturalOrder()).orElse(null);
+        if (cursors.stream().anyMatch(c -> c.getCompletedAt() == null)) {
+            return cutoff != null ? cutoff : LocalDateTime.now();
+        }
+
+        Map<String, LocalDateTime> completedAt = cursors.stream()
+                .collect(Collectors.toMap(BackfillCursor::getName, BackfillCursor::getCompletedAt));
+        Map<String, LocalDateTime> copiedUntil = sources.stream()
+                .filter(source -> source.archivedTable() != null)
+                .collect(Collectors.toMap(Source::archivedTable, source -> completedAt.get(source.name())));
+        LocalDateTime gap = archivedFileRepository.findByTableNameIn(copiedUntil.keySet()).stream()
+                .filter(file -> cutoff == null || file.getMonth().atStartOfDay().isBefore(cutoff))
+                .filter(file -> file.getArchivedAt() == null
+                        || file.getArchivedAt().isBefore(copiedUntil.get(file.getTableName())))
+                .map(ArchivedLogFile::getMonth)
+                .max(Comparator.naturalOrder())
+                .map(month -> month.plusMonths(1).atStartOfDay())
+                .map(end -> cutoff != null && end.isAfter(cutoff) ? cutoff : end)
+                .orElse(null);
+        settledGap = gap;
+        gapSettled = true;
+        return gap;
+    }
+}
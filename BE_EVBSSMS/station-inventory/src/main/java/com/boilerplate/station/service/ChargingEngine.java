@@ -0,0 +1,401 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.BatteryStatus;
+import com.boilerplate.station.model.DTO.ChargingSlotDTO;
+import com.boilerplate.station.model.entity.Battery;
+import com.boilerplate.station.model.entity.BatterySlot;
+import com.boilerplate.station.model.entity.ChargeLog;
+import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.repository.BatteryRepository;
+import com.boilerplate.station.repository.BatterySlotRepository;
+import com.boilerplate.station.repository.StationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Mô phỏng quá trình sạc của các pin đang nằm trong slot.
+ * - Mỗi slot đang sạc là một {@link ChargingSession} trong bộ nhớ; mỗi tick tăng SoC theo công suất được cấp,
+ *   dung lượng và SOH của pin. Trên {@value #TAPER_FROM_SOC}% công suất giảm dần (giai đoạn CV).
+ * - Trạm có giới hạn công suất ({@code Station.powerCapW}): điện được chia theo thứ tự ưu tiên — pin đang được
+ *   booking giữ trước, sau đó pin cần ít năng lượng nhất để đầy (sớm có thêm pin FULL cho lượt đổi tiếp theo).
+ * - Tick không ghi DB theo từng slot: các pin đầy trong tick được chuyển FULL bằng một câu UPDATE, ChargeLog đi qua
+ *   {@link LogAppendWriter}; SoC của các phiên còn lại được lưu định kỳ bằng một câu lệnh để phục hồi sau restart.
+ * Phiên sạc chỉ nằm trong bộ nhớ của một instance, nên {@code station.charging.enabled} mặc định tắt và chỉ bật khi
+ * station-service chạy một instance; khi tắt, rút pin khỏi slot coi như pin đã sạc đầy (như trước khi có engine).
+ * Metrics: station.charging.sessions (gauge), station.charging.completed, station.charging.tick.
+ */
+@Slf4j
+@Service
+public class ChargingEngine {
+
+    static final double TAPER_FROM_SOC = 80.0;
+    private static final double MIN_TAPER = 0.1;
+    private static final double MS_PER_HOUR = 3_600_000.0;
+
+    /**
+     * Phiên sạc của một slot. SoC và công suất chỉ được thread tick cập nhật.
+     */
+    @Getter
+    public static final class ChargingSession {
+        private final Long slotId;
+        private final Long stationId;
+        private final Long batteryId;
+        private final double capacityWh;
+        private final double soh;
+        private final double startSoc;
+        private final LocalDateTime startedAt;
+        private volatile double soc;
+        private volatile double powerW;
+        private volatile boolean held;
+        // SoC trạm báo về (cập nhật soh/soc), thread tick áp vào phiên ở lần kế tiếp
+        @Getter(AccessLevel.NONE)
+        private final AtomicReference<Double> reportedSoc = new AtomicReference<>();
+
+        ChargingSession(Long slotId, Long stationId, Long batteryId, double capacityWh, double soh,
+                        double startSoc, double soc, LocalDateTime startedAt, boolean held) {
+            this.slotId = slotId;
+            this.stationId = stationId;
+            this.batteryId = batteryId;
+            this.capacityWh = capacityWh;
+            this.soh = soh;
+            this.startSoc = startSoc;
+            this.soc = soc;
+            this.startedAt = startedAt;
+            this.held = held;
+        }
+
+        // Năng lượng pin chứa được khi đầy, đã tính hao mòn (Wh)
+        double usableWh() {
+            return Math.max(1.0, capacityWh * soh / 100.0);
+        }
+
+        double remainingWh() {
+            return usableWh() * (100.0 - soc) / 100.0;
+        }
+    }
+
+    private final BatteryRepository batteryRepository;
+    private final BatterySlotRepository batterySlotRepository;
+    private final StationRepository stationRepository;
+    private final StationInventoryService stationInventoryService;
+    private final LogAppendWriter logAppendWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final double slotPowerW;
+    private final double defaultStationCapW;
+    private final double defaultCapacityWh;
+    private final double timeScale;
+    private final long checkpointMs;
+
+    private final Map<Long, ChargingSession> sessions = new ConcurrentHashMap<>();
+    private volatile Map<Long, Double> powerCaps = Map.of();
+    private long lastTickMs = System.currentTimeMillis();
+    private long lastCheckpointMs = lastTickMs;
+
+    private final Counter completed;
+    private final Timer tickTimer;
+
+    public ChargingEngine(BatteryRepository batteryRepository,
+                          BatterySlotRepository batterySlotRepository,
+                          StationRepository stationRepository,
+                          StationInventoryService stationInventoryService,
+                          LogAppendWriter logAppendWriter,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${station.charging.enabled:false}") boolean enabled,
+                          @Value("${station.charging.slot-power-w:7000}") double slotPowerW,
+                          @Value("${station.charging.default-station-cap-w:0}") double defaultStationCapW,
+                          @Value("${station.charging.default-capacity-wh:5000}") double defaultCapacityWh,
+                          @Value("${station.charging.time-scale:1}") double timeScale,
+                          @Value("${station.charging.checkpoint-ms:60000}") long checkpointMs) {
+        this.batteryRepository = batteryRepository;
+        this.batterySlotRepository = batterySlotRepository;
+        this.stationRepository = stationRepository;
+        this.stationInventoryService = stationInventoryService;
+        this.logAppendWriter = logAppendWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.slotPowerW = slotPowerW;
+        this.defaultStationCapW = defaultStationCapW;
+        this.defaultCapacityWh = defaultCapacityWh;
+        this.timeScale = timeScale;
+        this.checkpointMs = checkpointMs;
+
+        meterRegistry.gauge("station.charging.sessions", sessions, Map::size);
+        this.completed = meterRegistry.counter("station.charging.completed");
+        this.tickTimer = meterRegistry.timer("station.charging.tick");
+    }
+
+    /**
+     * Dựng lại các phiên sạc từ DB khi khởi động (SoC theo lần checkpoint gần nhất).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!enabled) return;
+        refreshPowerCaps();
+        for (BatterySlotRepository.ChargingSlot slot : batterySlotRepository.findChargingSlots()) {
+            double soc = orDefault(slot.getSoc(), 0);
+            sessions.put(slot.getSlotId(), new ChargingSession(slot.getSlotId(), slot.getStationId(), slot.getBatteryId(),
+                    orDefault(slot.getCapacity(), defaultCapacityWh), orDefault(slot.getSoh(), 100),
+                    orDefault(slot.getStartSoc(), soc), soc,
+                    slot.getStartedAt() != null ? slot.getStartedAt() : LocalDateTime.now(),
+                    Boolean.TRUE.equals(slot.getHold())));
+        }
+        log.info("Phục hồi {} phiên sạc", sessions.size());
+    }
+
+    /**
+     * Bắt đầu sạc pin vừa gắn vào slot. Trong transaction thì chỉ có hiệu lực sau khi commit.
+     */
+    public void start(BatterySlot slot, Battery battery) {
+        if (!enabled) return;
+        double soc = orDefault(battery.getSoc(), 0);
+        ChargingSession session = new ChargingSession(slot.getId(), slot.getStation().getId(), battery.getId(),
+                orDefault(battery.getCapacity(), defaultCapacityWh), orDefault(battery.getSoh(), 100),
+                orDefault(slot.getChargeStartSoc(), soc), soc,
+                slot.getChargeStartedAt() != null ? slot.getChargeStartedAt() : LocalDateTime.now(),
+                battery.isHold());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sessions.put(session.getSlotId(), session);
+                }
+            });
+        } else {
+            sessions.put(session.getSlotId(), session);
+        }
+    }
+
+    /**
+     * Ghi nhận SoC trạm báo về cho các pin đang sạc (batteryId -> soc) để phiên sạc tiếp tục từ giá trị đó,
+     * thay vì checkpoint ghi đè lại SoC cũ. Trong transaction thì chỉ có hiệu lực sau khi commit.
+     */
+    public void reportSoc(Map<Long, Double> socByBattery) {
+        if (!enabled || socByBattery.isEmpty()) return;
+        Runnable apply = () -> sessions.values().forEach(session -> {
+            Double soc = socByBattery.get(session.getBatteryId());
+            if (soc != null) session.reportedSoc.set(soc);
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Kết thúc phiên sạc của slot (pin bị rút ra). Rỗng nếu slot không sạc hoặc pin đã đầy trước đó.
+     */
+    public Optional<ChargingSession> stop(Long slotId) {
+        return Optional.ofNullable(sessions.remove(slotId));
+    }
+
+    @Scheduled(fixedDelayString = "${station.charging.tick-ms:5000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        long elapsed = now - lastTickMs;
+        lastTickMs = now;
+        if (!enabled || sessions.isEmpty()) return;
+
+        tickTimer.record(() -> {
+            refreshHeld();
+            List<ChargingSession> done = advance(elapsed);
+            if (!done.isEmpty()) {
+                complete(done);
+            }
+            if (now - lastCheckpointMs >= checkpointMs) {
+                lastCheckpointMs = now;
+                checkpoint();
+            }
+        });
+    }
+
+    /**
+     * Cộng SoC cho mọi phiên sau {@code elapsedMs} (nhân {@code timeScale}), chia công suất theo giới hạn của
+     * từng trạm. Các phiên đã đầy được gỡ khỏi bảng và trả về. Chỉ tính trong bộ nhớ, không truy cập DB.
+     */
+    List<ChargingSession> advance(long elapsedMs) {
+        double hours = elapsedMs * timeScale / MS_PER_HOUR;
+        Comparator<ChargingSession> priority = Comparator
+                .comparing((ChargingSession s) -> !s.held)
+                .thenComparingDouble(ChargingSession::remainingWh)
+                .thenComparing(ChargingSession::getSlotId);
+
+        applyReportedSoc();
+        Map<Long, List<ChargingSession>> byStation = sessions.values().stream()
+                .collect(Collectors.groupingBy(ChargingSession::getStationId));
+        List<ChargingSession> done = new ArrayList<>();
+
+        byStation.forEach((stationId, group) -> {
+            group.sort(priority);
+            double budget = capOf(stationId);
+            for (ChargingSession session : group) {
+                double power = Math.min(slotPowerW * taper(session.soc), budget);
+                budget -= power;
+                session.powerW = power;
+                session.soc = Math.min(100.0, session.soc + power * hours / session.usableWh() * 100.0);
+                if (session.soc >= 100.0 && sessions.remove(session.slotId, session)) {
+                    done.add(session);
+                }
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Chuyển các pin đã đầy sang FULL (một câu UPDATE), cập nhật bộ đếm tồn kho và ghi ChargeLog.
+     */
+    void complete(List<ChargingSession> done) {
+        LocalDateTime endTime = LocalDateTime.now();
+        Map<Long, ChargingSession> byBattery = done.stream()
+                .collect(Collectors.toMap(ChargingSession::getBatteryId, s -> s, (a, b) -> a));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<BatteryRepository.ChargedBattery> charged = batteryRepository.markCharged(byBattery.keySet());
+            List<StationInventoryService.BatteryState> before = new ArrayList<>(charged.size());
+            List<StationInventoryService.BatteryState> after = new ArrayList<>(charged.size());
+            for (BatteryRepository.ChargedBattery battery : charged) {
+                boolean hold = Boolean.TRUE.equals(battery.getHold());
+                before.add(new StationInventoryService.BatteryState(battery.getStationId(), BatteryStatus.CHARGING, hold));
+                after.add(new StationInventoryService.BatteryState(battery.getStationId(), BatteryStatus.FULL, hold));
+
+                ChargingSession session = byBattery.get(battery.getId());
+                logAppendWriter.append(new LogAppendWriter.ChargeLogEntry(
+                        session.getBatteryId(), session.getSlotId(), session.getStationId(),
+                        session.getStartSoc(), 100.0,
+                        ChargeLog.calculateEnergyConsumed(session.getCapacityWh(), session.getSoh(), session.getStartSoc(), 100.0),
+                        session.getStartedAt(), endTime));
+            }
+            stationInventoryService.trackAll(before, after);
+            completed.increment(charged.size());
+        });
+    }
+
+    /**
+     * Lưu SoC của các phiên đang sạc (một câu lệnh) và nạp lại giới hạn công suất trạm.
+     */
+    @PreDestroy
+    void checkpoint() {
+        if (!enabled) return;
+        applyReportedSoc();
+        List<ChargingSession> active = new ArrayList<>(sessions.values());
+        if (!active.isEmpty()) {
+            Long[] ids = new Long[active.size()];
+            Double[] socs = new Double[active.size()];
+            for (int i = 0; i < active.size(); i++) {
+                ids[i] = active.get(i).getBatteryId();
+                socs[i] = active.get(i).getSoc();
+            }
+            transactionTemplate.executeWithoutResult(status -> batteryRepository.checkpointSoc(ids, socs));
+        }
+        refreshPowerCaps();
+    }
+
+    public ResponseEntity<ResponseData<List<ChargingSlotDTO>>> getChargingStatus(Long stationId) {
+        List<ChargingSlotDTO> slots = sessions.values().stream()
+                .filter(s -> stationId == null || stationId.equals(s.getStationId()))
+                .sorted(Comparator.comparing(ChargingSession::getSlotId))
+                .map(this::toDTO)
+                .toList();
+
+        return ResponseEntity.ok(
+                new ResponseData<>(HttpStatus.OK.value(), "Lấy trạng thái sạc thành công", slots)
+        );
+    }
+
+    int activeSessions() {
+        return sessions.size();
+    }
+
+    ChargingSession session(Long slotId) {
+        return sessions.get(slotId);
+    }
+
+    private ChargingSlotDTO toDTO(ChargingSession session) {
+        Long eta = session.getPowerW() > 0
+                ? Math.round(session.remainingWh() / session.getPowerW() * 60 / timeScale)
+                : null;
+        return ChargingSlotDTO.builder()
+                .slotId(session.getSlotId())
+                .batteryId(session.getBatteryId())
+                .soc(session.getSoc())
+                .powerW(session.getPowerW())
+                .held(session.isHeld())
+                .startedAt(session.getStartedAt())
+                .etaMinutes(eta)
+                .build();
+    }
+
+    private void applyReportedSoc() {
+        for (ChargingSession session : sessions.values()) {
+            Double soc = session.reportedSoc.getAndSet(null);
+            if (soc != null) session.soc = soc;
+        }
+    }
+
+    private void refreshHeld() {
+        Set<Long> held = new HashSet<>(batteryRepository.findHeldChargingIds());
+        for (ChargingSession session : sessions.values()) {
+            session.held = held.contains(session.getBatteryId());
+        }
+    }
+
+    private void refreshPowerCaps() {
+        Map<Long, Double> caps = new HashMap<>();
+        for (StationRepository.StationPowerCap cap : stationRepository.findPowerCaps()) {
+            caps.put(cap.getId(), cap.getPowerCapW());
+        }
+        powerCaps = caps;
+    }
+
+    private double capOf(Long stationId) {
+        Double cap = powerCaps.get(stationId);
+        if (cap != null) return cap;
+        return defaultStationCapW > 0 ? defaultStationCapW : Double.POSITIVE_INFINITY;
+    }
+
+    // Công suất nhận được theo SoC: đủ công suất tới 80%, sau đó giảm tuyến tính về 10%
+    static double taper(double soc) {
+        if (soc < TAPER_FROM_SOC) return 1.0;
+        return Math.max(MIN_TAPER, (100.0 - soc) / (100.0 - TAPER_FROM_SOC));
+    }
+
+    private static double orDefault(Double value, double fallback) {
+        return value != null ? value : fallback;
+    }
+}
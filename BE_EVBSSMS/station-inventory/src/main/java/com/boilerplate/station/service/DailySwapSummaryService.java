@@ -6,13 +6,26 @@ import com.boilerplate.station.model.event.Producer.BatterySwapSummary;
 import com.boilerplate.station.repository.BatterySwapLogRepository;
 import com.boilerplate.station.repository.BatterySwapSummaryRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Rollup số lượt swap theo (trạm, ngày, khung giờ) trong bảng battery_swap_summary.
+ * - Mỗi lần tạo swap log thì cộng dồn ngay vào rollup (upsert), đọc số liệu trong ngày chỉ là tra vài dòng.
+ * - Job hằng ngày đối soát lại ngày hôm qua từ battery_swap_logs bằng một câu GROUP BY,
+ *   ghi đè bằng upsert nên chạy lại nhiều lần không sinh bản ghi trùng.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DailySwapSummaryService {
@@ -20,34 +33,68 @@ public class DailySwapSummaryService {
     private final BatterySwapLogRepository swapLogRepository;
     private final BatterySwapSummaryRepository summaryRepository;
 
+    /**
+     * Cộng 1 lượt swap vào rollup. Gọi trong cùng transaction với việc lưu swap log.
+     */
+    @Transactional
+    public void recordSwap(Long stationId, LocalDateTime swapTime) {
+        if (stationId == null || swapTime == null) return;
+        TimeSlot slot = TimeSlot.ofHour(swapTime.getHour());
+        summaryRepository.increment(stationId, swapTime.toLocalDate(), slot.ordinal(), 1);
+    }
+
+    /**
+     * Số lượt swap của trạm trong ngày theo từng khung giờ (khung chưa có swap = 0).
+     */
+    @Transactional(readOnly = true)
+    public Map<TimeSlot, Integer> getDailySummary(Long stationId, LocalDate date) {
+        Map<TimeSlot, Integer> result = new LinkedHashMap<>();
+        for (TimeSlot slot : TimeSlot.values()) {
+            result.put(slot, 0);
+        }
+        for (BatterySwapSummary summary : summaryRepository.findByStationIdAndDate(stationId, date)) {
+            result.put(summary.getTimeSlot(), summary.getSwapCount());
+        }
+        return result;
+    }
+
     // Chạy mỗi ngày lúc 17:00
     @Scheduled(cron = "0 0 17 * * ?")
     public void generateDailySummary() {
-        LocalDate yesterday = LocalDate.now().minusDays(1);
+        reconcile(LocalDate.now().minusDays(1));
+    }
 
-        // Lấy tất cả stationId đã có swap hôm qua
-        List<Long> stationIds = swapLogRepository.findAllStationIds();
+    /**
+     * Tính lại rollup của ngày {@code date} từ swap log và ghi đè, kể cả các khung giờ về 0.
+     * Chỉ nên chạy cho ngày đã kết thúc để không ghi đè lượt swap đang được cộng dồn.
+     */
+    @Transactional
+    public void reconcile(LocalDate date) {
+        List<BatterySwapLogRepository.SlotSwapCount> rows = swapLogRepository.countSwapsByStationDateSlot(
+                null, date.atStartOfDay(), date.plusDays(1).atStartOfDay(),
+                new LocalDateTime[0], new Long[0], 0, Integer.MAX_VALUE);
 
-        for (Long stationId : stationIds) {
-            for (TimeSlot slot : TimeSlot.values()) {
-                LocalDateTime slotStart = yesterday.atTime(slot.getStartHour(), 0);
-                LocalDateTime slotEnd = yesterday.atTime(slot.getEndHour(), 0);
+        // Trạm có swap trong ngày hoặc đã có rollup (để đưa về 0 nếu log bị xóa)
+        Map<Long, Map<TimeSlot, Integer>> counts = new HashMap<>();
+        for (BatterySwapSummary existing : summaryRepository.findByDate(date)) {
+            counts.computeIfAbsent(existing.getStationId(), id -> emptySlots());
+        }
+        for (BatterySwapLogRepository.SlotSwapCount row : rows) {
+            counts.computeIfAbsent(row.getStationId(), id -> emptySlots())
+                    .merge(TimeSlot.ofHour(row.getSlotHour()), row.getSwapCount().intValue(), Integer::sum);
+        }
 
-                int count = swapLogRepository
-                        .findByStationIdAndSwapTimeBetween(stationId, slotStart, slotEnd)
-                        .size();
+        counts.forEach((stationId, slots) -> slots.forEach((slot, count) ->
+                summaryRepository.upsert(stationId, date, slot.ordinal(), count)));
 
-                BatterySwapSummary summary = BatterySwapSummary.builder()
-                        .stationId(stationId)
-                        .date(yesterday)
-                        .timeSlot(slot)
-                        .swapCount(count)
-                        .build();
+        log.info("Đã đối soát swap summary ngày {} cho {} trạm", date, counts.size());
+    }
 
-                summaryRepository.save(summary);
-            }
+    private static Map<TimeSlot, Integer> emptySlots() {
+        Map<TimeSlot, Integer> slots = new EnumMap<>(TimeSlot.class);
+        for (TimeSlot slot : TimeSlot.values()) {
+            slots.put(slot, 0);
         }
-
-        System.out.println("Đã tổng hợp swap logs cho ngày " + yesterday);
+        return slots;
     }
 }
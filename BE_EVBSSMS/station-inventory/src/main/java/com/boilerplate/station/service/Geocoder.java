@@ -0,0 +1,23 @@
+package com.boilerplate.station.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Nguồn geocode địa chỉ -> tọa độ.
+ * - Trả về null khi dịch vụ không tìm thấy địa chỉ (kết quả hợp lệ, được cache âm).
+ * - Future lỗi khi lỗi mạng / lỗi dịch vụ / quá hạn (không được cache).
+ */
+public interface Geocoder {
+
+    CompletableFuture<OpenStreetMapService.LocationDTO> geocodeAsync(String normalizedAddress);
+
+    default OpenStreetMapService.LocationDTO geocode(String normalizedAddress) throws Exception {
+        try {
+            return geocodeAsync(normalizedAddress).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.model.entity.GeocodingCache;
+import com.boilerplate.station.repository.GeocodingCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache geocode 2 tầng đặt trước Geocoder:
+ * - Tầng 1: LRU trong bộ nhớ.
+ * - Tầng 2: bảng geocoding_cache (sống qua restart, dùng chung giữa các instance).
+ * Địa chỉ không có kết quả được cache âm trong {@code negativeTtl} để không gọi lại liên tục;
+ * lỗi mạng / lỗi dịch vụ / quá hạn thì không cache.
+ * Metrics: geocoding.cache.requests{result=memory_hit|db_hit|negative_hit|miss}, geocoding.cache.errors.
+ */
+@Slf4j
+@Service
+public class GeocodingCacheService {
+
+    private static final int MAX_KEY_LENGTH = 512;
+
+    private record CachedLocation(OpenStreetMapService.LocationDTO location, LocalDateTime cachedAt) {}
+
+    private final Geocoder geocoder;
+    private final GeocodingCacheRepository repository;
+    private final Duration negativeTtl;
+    private final Map<String, CachedLocation> memory;
+    private final Map<String, CompletableFuture<OpenStreetMapService.LocationDTO>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter memoryHits;
+    private final Counter dbHits;
+    private final Counter negativeHits;
+    private final Counter misses;
+    private final Counter errors;
+
+    public GeocodingCacheService(Geocoder geocoder,
+                                 GeocodingCacheRepository repository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${station.geocoding.memory-max-entries:10000}") int memoryMaxEntries,
+                                 @Value("${station.geocoding.negative-ttl-hours:24}") long negativeTtlHours) {
+        this.geocoder = geocoder;
+        this.repository = repository;
+        this.negativeTtl = Duration.ofHours(negativeTtlHours);
+        this.memory = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedLocation> eldest) {
+                return size() > memoryMaxEntries;
+            }
+        };
+
+        this.memoryHits = requests(meterRegistry, "memory_hit");
+        this.dbHits = requests(meterRegistry, "db_hit");
+        this.negativeHits = requests(meterRegistry, "negative_hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.errors = Counter.builder("geocoding.cache.errors").register(meterRegistry);
+    }
+
+    /**
+     * Tra tọa độ cho địa chỉ đã chuẩn hóa. Trả về null nếu không tìm thấy hoặc geocoder lỗi.
+     */
+    public OpenStreetMapService.LocationDTO lookup(String normalizedAddress) {
+        return lookupAsync(normalizedAddress).join();
+    }
+
+    /**
+     * Như {@link #lookup} nhưng không block chờ geocoder. Các lookup đồng thời cho cùng
+     * một địa chỉ chưa có trong cache dùng chung một request tới geocoder.
+     */
+    public CompletableFuture<OpenStreetMapService.LocationDTO> lookupAsync(String normalizedAddress) {
+        if (normalizedAddress == null || normalizedAddress.isBlank()) return CompletableFuture.completedFuture(null);
+        String key = toKey(normalizedAddress);
+
+        // Tầng 1: bộ nhớ
+        CachedLocation cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+        }
+        if (cached != null && !isExpired(cached)) {
+            count(cached, memoryHits);
+            return CompletableFuture.completedFuture(cached.location());
+        }
+
+        CompletableFuture<OpenStreetMapService.LocationDTO> pending = inFlight.get(key);
+        if (pending != null) return pending;
+
+        // Tầng 2: DB
+        Optional<GeocodingCache> row = repository.findByAddressKey(key);
+        if (row.isPresent()) {
+            CachedLocation fromDb = toCached(row.get());
+            if (!isExpired(fromDb)) {
+                remember(key, fromDb);
+                count(fromDb, dbHits);
+                return CompletableFuture.completedFuture(fromDb.location());
+            }
+        }
+
+        // Miss: gọi geocoder thật
+        CompletableFuture<OpenStreetMapService.LocationDTO> created = new CompletableFuture<>();
+        pending = inFlight.putIfAbsent(key, created);
+        if (pending != null) return pending;
+
+        misses.increment();
+        CompletableFuture<OpenStreetMapService.LocationDTO> remote;
+        try {
+            remote = geocoder.geocodeAsync(normalizedAddress);
+        } catch (RuntimeException e) {
+            remote = CompletableFuture.failedFuture(e);
+        }
+        remote.handle((location, err) -> {
+            if (err != null) {
+                errors.increment();
+                log.warn("Geocode thất bại cho \"{}\": {}", normalizedAddress, err.getMessage());
+                return null;
+            }
+            CachedLocation fresh = new CachedLocation(location, LocalDateTime.now());
+            remember(key, fresh);
+            persist(key, fresh, row.orElse(null));
+            return location;
+        }).whenComplete((location, err) -> {
+            inFlight.remove(key, created);
+            if (err != null) {
+                created.complete(null);
+            } else {
+                created.complete(location);
+            }
+        });
+        return created;
+    }
+
+    private void persist(String key, CachedLocation value, GeocodingCache existing) {
+        if (key.length() > MAX_KEY_LENGTH) return;
+        GeocodingCache entity = existing != null ? existing : GeocodingCache.builder().addressKey(key).build();
+        entity.setLatitude(value.location() != null ? value.location().latitude() : null);
+        entity.setLongitude(value.location() != null ? value.location().longitude() : null);
+        entity.setCachedAt(value.cachedAt());
+        try {
+            repository.save(entity);
+        } catch (DataIntegrityViolationException e) {
+            // Instance khác vừa ghi cùng key, giữ bản của họ
+            log.debug("Geocoding cache key \"{}\" đã tồn tại", key);
+        }
+    }
+
+    private void remember(String key, CachedLocation value) {
+        synchronized (memory) {
+            memory.put(key, value);
+        }
+    }
+
+    private boolean isExpired(CachedLocation cached) {
+        return cached.location() == null
+                && cached.cachedAt().plus(negativeTtl).isBefore(LocalDateTime.now());
+    }
+
+    private void count(CachedLocation cached, Counter hitCounter) {
+        (cached.location() == null ? negativeHits : hitCounter).increment();
+    }
+
+    private static CachedLocation toCached(GeocodingCache row) {
+        OpenStreetMapService.LocationDTO location = row.getLatitude() != null && row.getLongitude() != null
+                ? new OpenStreetMapService.LocationDTO(row.getLatitude(), row.getLongitude())
+                : null;
+        return new CachedLocation(location, row.getCachedAt());
+    }
+
+    private static String toKey(String normalizedAddress) {
+        return normalizedAddress.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter requests(MeterRegistry registry, String result) {
+        return Counter.builder("geocoding.cache.requests").tag("result", result).register(registry);
+    }
+}
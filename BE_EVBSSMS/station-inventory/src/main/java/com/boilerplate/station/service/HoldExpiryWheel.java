@@ -0,0 +1,67 @@
+package com.boilerplate.station.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel cho hạn giữ pin: {@code size} ô, mỗi ô ứng với một tick {@code tickMs}.
+ * Thêm hạn và lấy các hạn đã tới đều O(1) theo số pin (không quét toàn bộ pin đang giữ).
+ * Hạn xa hơn một vòng quay nằm chung ô và chỉ được trả về khi tới đúng tick của nó.
+ */
+class HoldExpiryWheel {
+
+    private record Entry(long batteryId, long deadlineTick) {}
+
+    private final long tickMs;
+    private final List<Entry>[] buckets;
+    private long currentTick;
+    private int pending;
+
+    @SuppressWarnings("unchecked")
+    HoldExpiryWheel(long tickMs, int size, long startMs) {
+        if (tickMs <= 0 || size <= 0) throw new IllegalArgumentException("tickMs và size phải > 0");
+        this.tickMs = tickMs;
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) buckets[i] = new ArrayList<>();
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * Lên lịch nhả pin {@code batteryId} lúc {@code deadlineMs}. Hạn đã qua thì nhả ở tick kế tiếp.
+     */
+    synchronized void schedule(long batteryId, long deadlineMs) {
+        long tick = Math.max(Math.ceilDiv(deadlineMs, tickMs), currentTick + 1);
+        buckets[(int) (tick % buckets.length)].add(new Entry(batteryId, tick));
+        pending++;
+    }
+
+    /**
+     * Quay bánh xe tới {@code nowMs}, trả về id các pin đã tới hạn.
+     */
+    synchronized List<Long> advance(long nowMs) {
+        long nowTick = nowMs / tickMs;
+        List<Long> due = new ArrayList<>();
+        if (nowTick <= currentTick) return due;
+
+        // Bị trễ hơn một vòng thì mỗi ô chỉ cần xét một lần
+        long steps = Math.min(nowTick - currentTick, buckets.length);
+        for (long t = nowTick - steps + 1; t <= nowTick; t++) {
+            Iterator<Entry> it = buckets[(int) (t % buckets.length)].iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.deadlineTick() <= nowTick) {
+                    due.add(entry.batteryId());
+                    it.remove();
+                }
+            }
+        }
+        currentTick = nowTick;
+        pending -= due.size();
+        return due;
+    }
+
+    synchronized int pending() {
+        return pending;
+    }
+}
@@ -0,0 +1,304 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.BatteryEventType;
+import com.boilerplate.station.model.entity.Battery;
+import com.boilerplate.station.model.entity.BatteryEvent;
+import com.boilerplate.station.model.entity.BatterySlot;
+import com.boilerplate.station.model.entity.BatterySwapLog;
+import com.boilerplate.station.model.entity.ChargeLog;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.repository.BatterySwapLogRepository;
+import com.boilerplate.station.repository.ChargeLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ghi log chỉ-thêm (BatterySwapLog, ChargeLog) ra khỏi transaction của request.
+ * - {@code sync}: ghi ngay trong transaction của người gọi (log và nghiệp vụ commit cùng nhau).
+ * - {@code async}: sau khi transaction người gọi commit, entry vào hàng đợi có giới hạn; một thread nền
+ *   gom tối đa {@code batchSize} entry mỗi lần và ghi bằng JDBC batch (id lấy từ sequence cấp trước theo khối).
+ *   Log còn trong hàng đợi sẽ mất nếu tiến trình chết đột ngột; tắt bình thường thì được ghi hết trước khi dừng.
+ * Hàng đợi đầy: người gọi chờ tối đa {@code offerTimeoutMs} rồi tự ghi trong transaction riêng (backpressure,
+ * không bỏ log). Batch lỗi được ghi lại từng entry để một dòng hỏng không kéo cả batch.
+ * Metrics: station.log_writer.queue (gauge), station.log_writer.entries{result=written|fallback|failed},
+ * station.log_writer.flush (timer mỗi batch).
+ * Mỗi entry đồng thời sinh sự kiện battery_events (xem {@link BatteryTimelineService}) trong cùng transaction với log.
+ */
+@Slf4j
+@Component
+public class LogAppendWriter implements SmartInitializingSingleton {
+
+    public enum Durability { SYNC, ASYNC }
+
+    /**
+     * Một dòng log chờ ghi; chỉ giữ id của các bản ghi liên kết để không giữ entity trong hàng đợi.
+     */
+    public sealed interface LogEntry permits SwapLogEntry, ChargeLogEntry {
+        Object toEntity(EntityManager entityManager);
+
+        List<BatteryEvent> events();
+    }
+
+    public record SwapLogEntry(Long vehicleBatteryId, Long stationBatteryId, Long stationId,
+                               String vehicleId, LocalDateTime swapTime) implements LogEntry {
+        @Override
+        public Object toEntity(EntityManager entityManager) {
+            BatterySwapLog log = new BatterySwapLog();
+            log.setVerhicleBattery(reference(entityManager, Battery.class, vehicleBatteryId));
+            log.setStationBattery(reference(entityManager, Battery.class, stationBatteryId));
+            log.setStation(reference(entityManager, Station.class, stationId));
+            log.setVehiceId(vehicleId);
+            log.setSwapTime(swapTime);
+            return log;
+        }
+
+        @Override
+        public List<BatteryEvent> events() {
+            return List.of(event(vehicleBatteryId, BatteryEventType.SWAP_IN),
+                    event(stationBatteryId, BatteryEventType.SWAP_OUT));
+        }
+
+        private BatteryEvent event(Long batteryId, BatteryEventType type) {
+            return BatteryEvent.builder()
+                    .batteryId(batteryId)
+                    .type(type)
+                    .eventTime(swapTime)
+                    .stationId(stationId)
+                    .vehicleId(vehicleId)
+                    .build();
+        }
+    }
+
+    public record ChargeLogEntry(Long batteryId, Long slotId, Long stationId,
+                                 double socBefore, double socAfter, double energyConsumed,
+                                 LocalDateTime startTime, LocalDateTime endTime) implements LogEntry {
+        @Override
+        public Object toEntity(EntityManager entityManager) {
+            return ChargeLog.builder()
+                    .battery(reference(entityManager, Battery.class, batteryId))
+                    .slot(reference(entityManager, BatterySlot.class, slotId))
+                    .station(reference(entityManager, Station.class, stationId))
+                    .socBefore(socBefore)
+                    .socAfter(socAfter)
+                    .energyConsumed(energyConsumed)
+                    .startTime(startTime)
+                    .endTime(endTime)
+                    .build();
+        }
+
+        @Override
+        public List<BatteryEvent> events() {
+            return List.of(BatteryEvent.builder()
+                    .batteryId(batteryId)
+                    .type(BatteryEventType.CHARGE)
+                    .eventTime(endTime)
+                    .stationId(stationId)
+                    .socBefore(socBefore)
+                    .socAfter(socAfter)
+                    .energyConsumed(energyConsumed)
+                    .build());
+        }
+    }
+
+    private final EntityManager entityManager;
+    private final BatterySwapLogRepository batterySwapLogRepository;
+    private final ChargeLogRepository chargeLogRepository;
+    private final BatteryTimelineService batteryTimelineService;
+    private final TransactionTemplate transactionTemplate;
+    private final Durability durability;
+    private final BlockingQueue<LogEntry> queue;
+    private final int batchSize;
+    private final long flushMs;
+    private final long offerTimeoutMs;
+
+    private final Counter written;
+    private final Counter fallback;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public LogAppendWriter(EntityManager entityManager,
+                           BatterySwapLogRepository batterySwapLogRepository,
+                           ChargeLogRepository chargeLogRepository,
+                           BatteryTimelineService batteryTimelineService,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${station.log-writer.durability:sync}") String durability,
+                           @Value("${station.log-writer.queue-capacity:10000}") int queueCapacity,
+                           @Value("${station.log-writer.batch-size:50}") int batchSize,
+                           @Value("${station.log-writer.flush-ms:200}") long flushMs,
+                           @Value("${station.log-writer.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.entityManager = entityManager;
+        this.batterySwapLogRepository = batterySwapLogRepository;
+        this.chargeLogRepository = chargeLogRepository;
+        this.batteryTimelineService = batteryTimelineService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.durability = Durability.valueOf(durability.trim().toUpperCase(Locale.ROOT));
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushMs = flushMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+
+        meterRegistry.gauge("station.log_writer.queue", queue, BlockingQueue::size);
+        this.written = entries(meterRegistry, "written");
+        this.fallback = entries(meterRegistry, "fallback");
+        this.failed = entries(meterRegistry, "failed");
+        this.flushTimer = meterRegistry.timer("station.log_writer.flush");
+    }
+
+    @PostConstruct
+    void start() {
+        if (durability != Durability.ASYNC) return;
+        running = true;
+        flusher = new Thread(this::runFlusher, "log-append-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Dừng nhận batch mới và ghi nốt phần còn trong hàng đợi (chờ tối đa 10s).
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Còn {} log chưa ghi khi dừng LogAppendWriter", queue.size());
+        }
+    }
+
+    /**
+     * Bảng log cũ dùng IDENTITY: đồng bộ sequence với MAX(id) trước khi ghi theo sequence. Chạy khi mọi bean
+     * đã tạo xong nhưng trước khi Kafka listener / web server khởi động, nên chưa có log nào được ghi theo sequence.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        alignSequences();
+    }
+
+    void alignSequences() {
+        transactionTemplate.executeWithoutResult(status -> {
+            batterySwapLogRepository.alignIdSequence();
+            chargeLogRepository.alignIdSequence();
+        });
+    }
+
+    public void append(LogEntry entry) {
+        if (durability == Durability.SYNC) {
+            entityManager.persist(entry.toEntity(entityManager));
+            batteryTimelineService.record(entry.events());
+            written.increment();
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Transaction người gọi rollback thì log cũng không được ghi
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    int pending() {
+        return queue.size();
+    }
+
+    private void enqueue(LogEntry entry) {
+        try {
+            if (queue.offer(entry, offerTimeoutMs, TimeUnit.MILLISECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        fallback.increment();
+        writeBatch(List.of(entry));
+    }
+
+    private void runFlusher() {
+        List<LogEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LogEntry first = queue.poll(flushMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Thread ghi log gặp lỗi: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<LogEntry> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> persistAll(batch));
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed.increment();
+                log.error("Ghi log {} thất bại: {}", batch.get(0), e.getMessage());
+            } else {
+                log.warn("Ghi batch {} log thất bại, ghi lại từng dòng: {}", batch.size(), e.getMessage());
+                for (LogEntry entry : batch) {
+                    writeBatch(List.of(entry));
+                }
+            }
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    private void persistAll(List<LogEntry> batch) {
+        List<BatteryEvent> events = new ArrayList<>(batch.size() * 2);
+        for (LogEntry entry : batch) {
+            entityManager.persist(entry.toEntity(entityManager));
+            events.addAll(entry.events());
+        }
+        batteryTimelineService.record(events);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static <T> T reference(EntityManager entityManager, Class<T> type, Long id) {
+        return id == null ? null : entityManager.getReference(type, id);
+    }
+
+    private static Counter entries(MeterRegistry meterRegistry, String result) {
+        return meterRegistry.counter("station.log_writer.entries", "result", result);
+    }
+}
@@ -0,0 +1,285 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.model.entity.ArchivedLogFile;
+import com.boilerplate.station.repository.ArchivedLogFileRepository;
+import com.boilerplate.station.repository.BatterySwapLogRepository;
+import com.boilerplate.station.repository.ChargeLogRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tách log swap/sạc thành phần "nóng" (các tháng gần đây, nằm trong bảng) và phần "lạnh" (tháng đã đóng,
+ * nằm trong file NDJSON.gz trên đĩa).
+ * - Hằng ngày, mỗi tháng cũ hơn {@code hot-months} tháng được ghi ra {@code <dir>/<bảng>-<yyyy-MM>-part<n>.ndjson.gz}
+ *   (ghi ra file tạm rồi đổi tên), ghi vào danh mục archived_log_files, sau đó xóa khỏi bảng theo từng lô nhỏ.
+ * - Chỉ xóa các dòng có id <= max_id của file; nếu lần chạy trước dừng giữa chừng, lần sau xóa nốt trước khi export.
+ * - Log chuyển trạm (BatterySwapStationLog) dùng chung bảng battery_swap_logs nhưng không được lưu trữ:
+ *   export bỏ qua và lệnh xóa loại trừ các dòng có old_battery_id.
+ * - Truy vấn đọc lại các tháng đã lưu trữ qua {@link #forEachArchivedSwap}, không cần nạp lại vào DB.
+ * Mặc định tắt ({@code station.archive.enabled}). Danh mục nằm trong DB dùng chung còn file nằm trên đĩa của
+ * instance chạy job, nên chỉ bật trên một instance và thư mục lưu trữ phải là volume bền dùng chung cho các instance
+ * phục vụ truy vấn. Hai lần chạy đồng thời bị chặn bởi ràng buộc duy nhất (bảng, tháng, phần): bên thua không
+ * ghi danh mục và không xóa dòng nào. File trong danh mục nhưng không có trên đĩa được bỏ qua khi đọc (có cảnh báo).
+ * Metrics: station.archive.rows{table}, station.archive.missing_files.
+ */
+@Slf4j
+@Service
+public class LogArchiveService {
+
+    static final String SWAP_LOGS = "battery_swap_logs";
+    static final String CHARGE_LOGS = "charge_logs";
+
+    interface ArchivedRow {
+        Long id();
+    }
+
+    record SwapLogRecord(Long id, Long vehicleBatteryId, Long stationBatteryId, Long stationId,
+                         String vehicleId, Long returnLogId, LocalDateTime swapTime) implements ArchivedRow {
+    }
+
+    record ChargeLogRecord(Long id, Long batteryId, Long slotId, Long stationId, Double socBefore,
+                           Double socAfter, Double energyConsumed, LocalDateTime startTime,
+                           LocalDateTime endTime) implements ArchivedRow {
+    }
+
+    @FunctionalInterface
+    private interface ArchivedDelete {
+        int delete(LocalDateTime from, LocalDateTime to, long maxId, int limit);
+    }
+
+    private final BatterySwapLogRepository swapLogRepository;
+    private final ChargeLogRepository chargeLogRepository;
+    private final ArchivedLogFileRepository archivedFileRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+    private final Path directory;
+    private final int hotMonths;
+    private final int deleteBatchSize;
+    private final boolean enabled;
+    private final Counter missingFiles;
+
+    public LogArchiveService(BatterySwapLogRepository swapLogRepository,
+                             ChargeLogRepository chargeLogRepository,
+                             ArchivedLogFileRepository archivedFileRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${station.archive.dir:./archive}") String directory,
+                             @Value("${station.archive.hot-months:3}") int hotMonths,
+                             @Value("${station.archive.delete-batch-size:5000}") int deleteBatchSize,
+                             @Value("${station.archive.enabled:false}") boolean enabled) {
+        this.swapLogRepository = swapLogRepository;
+        this.chargeLogRepository = chargeLogRepository;
+        this.archivedFileRepository = archivedFileRepository;
+        // Jackson không tự đóng luồng gzip sau mỗi object
+        this.objectMapper = objectMapper.copy().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.directory = Paths.get(directory);
+        this.hotMonths = hotMonths;
+        this.deleteBatchSize = deleteBatchSize;
+        this.enabled = enabled;
+        this.missingFiles = meterRegistry.counter("station.archive.missing_files");
+    }
+
+    @Scheduled(cron = "${station.archive.cron:0 0 2 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) return;
+        try {
+            archiveClosedMonths(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Lưu trữ log theo tháng thất bại: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lưu trữ mọi tháng trước {@code hotMonths} tháng gần nhất (tính theo {@code today}).
+     *
+     * @return số file đã tạo
+     */
+    int archiveClosedMonths(LocalDate today) {
+        LocalDateTime cutoff = YearMonth.from(today).minusMonths(hotMonths).atDay(1).atStartOfDay();
+        int files = 0;
+        for (LocalDate month : new TreeSet<>(swapLogRepository.findMonthsBefore(cutoff))) {
+            if (archiveMonth(SWAP_LOGS, month, (from, to) -> swapLogRepository.streamForArchive(from, to)
+                    .filter(row -> row.getOldBatteryId() == null)
+                    .map(LogArchiveService::toRecord), swapLogRepository::deleteArchived)) files++;
+        }
+        for (LocalDate month : new TreeSet<>(chargeLogRepository.findMonthsBefore(cutoff))) {
+            if (archiveMonth(CHARGE_LOGS, month, (from, to) -> chargeLogRepository.streamForArchive(from, to)
+                    .map(LogArchiveService::toRecord), chargeLogRepository::deleteArchived)) files++;
+        }
+        if (files > 0) log.info("Đã lưu trữ {} file log theo tháng (trước {})", files, cutoff.toLocalDate());
+        return files;
+    }
+
+    private boolean archiveMonth(String table, LocalDate month,
+                                 BiFunction<LocalDateTime, LocalDateTime, Stream<? extends ArchivedRow>> source,
+                                 ArchivedDelete delete) {
+        LocalDateTime from = month.atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atStartOfDay();
+        List<ArchivedLogFile> parts = archivedFileRepository.findByTableNameAndMonthOrderByPart(table, month);
+
+        // Xóa nốt các dòng đã nằm trong file của lần chạy trước
+        parts.stream().map(ArchivedLogFile::getMaxId).filter(id -> id != null).max(Long::compare)
+                .ifPresent(maxId -> purge(() -> delete.delete(from, to, maxId, deleteBatchSize)));
+
+        int part = parts.size() + 1;
+        Path file = directory.resolve(String.format("%s-%s-part%d.ndjson.gz", table, YearMonth.from(month), part));
+        long[] written = new long[2];   // [số dòng, id lớn nhất]
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            readOnlyTransaction.executeWithoutResult(status -> write(tmp, source.apply(from, to), written));
+            if (written[0] == 0) {
+                Files.deleteIfExists(tmp);
+                return false;
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            archivedFileRepository.save(ArchivedLogFile.builder()
+                    .tableName(table)
+                    .month(month)
+                    .part(part)
+                    .path(file.toString())
+                    .rowCount(written[0])
+                    .maxId(written[1])
+                    .archivedAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Instance khác vừa lưu trữ cùng phần này: giữ danh mục của họ, không xóa dòng nào.
+            // Không xóa file vì trên volume dùng chung đó cũng là file của họ.
+            log.warn("Phần {} của {} tháng {} đã được lưu trữ bởi lần chạy khác, bỏ qua", part, table,
+                    YearMonth.from(month));
+            return false;
+        }
+        int deleted = purge(() -> delete.delete(from, to, written[1], deleteBatchSize));
+        Counter.builder("station.archive.rows").tag("table", table).register(meterRegistry).increment(written[0]);
+        log.info("Đã lưu trữ {} dòng {} tháng {} vào {}, xóa {} dòng khỏi bảng",
+                written[0], table, YearMonth.from(month), file, deleted);
+        return true;
+    }
+
+    private void write(Path tmp, Stream<? extends ArchivedRow> rows, long[] written) {
+        try (rows;
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp));
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            Iterator<? extends ArchivedRow> it = rows.iterator();
+            while (it.hasNext()) {
+                ArchivedRow row = it.next();
+                writer.write(row);
+                written[0]++;
+                written[1] = Math.max(written[1], row.id());
+            }
+            writer.flush();
+            if (written[0] > 0) out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int purge(IntSupplier deleteBatch) {
+        int total = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> deleteBatch.getAsInt());
+            int count = deleted != null ? deleted : 0;
+            total += count;
+            if (count < deleteBatchSize) return total;
+        }
+    }
+
+    /**
+     * Duyệt các lượt swap đã lưu trữ trong [from, to) của một trạm (hoặc mọi trạm nếu {@code stationId} null).
+     * Tham số thời gian null nghĩa là không giới hạn. Chỉ đọc các file có tháng giao với khoảng cần lấy;
+     * file không có trên đĩa của instance này bị bỏ qua.
+     *
+     * @return tháng (ngày đầu tháng) đã đọc -> id lớn nhất đã lưu trữ của tháng đó; rỗng = khoảng này không có
+     * dữ liệu lưu trữ. Người gọi đếm thêm từ bảng phải bỏ các dòng id <= giá trị này (chưa kịp xóa).
+     */
+    public Map<LocalDate, Long> forEachArchivedSwap(Long stationId, LocalDateTime from, LocalDateTime to,
+                                                    Consumer<SwapLogRecord> action) {
+        LocalDate fromMonth = from != null ? from.toLocalDate().withDayOfMonth(1) : null;
+        LocalDate toMonth = to != null ? to.minusNanos(1).toLocalDate().withDayOfMonth(1) : null;
+        List<ArchivedLogFile> files = archivedFileRepository.findOverlapping(SWAP_LOGS, fromMonth, toMonth);
+        Map<LocalDate, Long> maxIdByMonth = new TreeMap<>();
+        for (ArchivedLogFile file : files) {
+            Path path = Paths.get(file.getPath());
+            if (!Files.isReadable(path)) {
+                // Dòng chưa bị xóa vẫn được đếm từ bảng vì tháng này không được đưa vào kết quả
+                missingFiles.increment();
+                log.warn("Không tìm thấy file lưu trữ {} trên instance này, bỏ qua", path);
+                continue;
+            }
+            if (file.getMaxId() != null) maxIdByMonth.merge(file.getMonth(), file.getMaxId(), Math::max);
+            read(path, SwapLogRecord.class, swap -> {
+                if (swap.stationId() == null || swap.swapTime() == null) return;
+                if (stationId != null && !stationId.equals(swap.stationId())) return;
+                if (from != null && swap.swapTime().isBefore(from)) return;
+                if (to != null && !swap.swapTime().isBefore(to)) return;
+                action.accept(swap);
+            });
+        }
+        return maxIdByMonth;
+    }
+
+    private <T> void read(Path file, Class<T> type, Consumer<T> action) {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file));
+             MappingIterator<T> rows = objectMapper.readerFor(type).readValues(in)) {
+            while (rows.hasNextValue()) action.accept(rows.nextValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static SwapLogRecord toRecord(BatterySwapLogRepository.ArchiveRow row) {
+        return new SwapLogRecord(row.getId(), row.getVehicleBatteryId(), row.getStationBatteryId(),
+                row.getStationId(), row.getVehicleId(), row.getReturnLogId(), row.getSwapTime());
+    }
+
+    private static ChargeLogRecord toRecord(ChargeLogRepository.ArchiveRow row) {
+        return new ChargeLogRecord(row.getId(), row.getBatteryId(), row.getSlotId(), row.getStationId(),
+                row.getSocBefore(), row.getSocAfter(), row.getEnergyConsumed(), row.getStartTime(), row.getEndTime());
+    }
+}
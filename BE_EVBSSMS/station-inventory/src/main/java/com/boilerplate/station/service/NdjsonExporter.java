@@ -0,0 +1,65 @@
+package com.boilerplate.station.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Export NDJSON (mỗi dòng một object JSON) cho các bảng lớn.
+ * Dữ liệu đọc dần từ một JPA Stream trong transaction read-only và ghi thẳng ra response,
+ * không gom cả danh sách vào bộ nhớ.
+ */
+@Slf4j
+@Component
+public class NdjsonExporter {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final int FLUSH_EVERY = 1_000;
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public NdjsonExporter(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        // Không để Jackson tự đóng output stream của servlet sau mỗi object
+        this.objectMapper = objectMapper.copy().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> export(String fileName, Supplier<Stream<T>> source) {
+        StreamingResponseBody body = out -> readOnlyTransaction.executeWithoutResult(status -> {
+            long written = 0;
+            try (Stream<T> rows = source.get();
+                 SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                for (T row : (Iterable<T>) rows::iterator) {
+                    writer.write(row);
+                    if (++written % FLUSH_EVERY == 0) writer.flush();
+                }
+                writer.flush();
+                if (written > 0) out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            log.debug("Đã export {} dòng ra {}", written, fileName);
+        });
+
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,44 @@
+package com.boilerplate.station.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 🧭 Geocode qua OpenStreetMap Nominatim API (không block thread gọi).
+ */
+@Slf4j
+@Component
+public class NominatimGeocoder implements Geocoder {
+
+    private final OsmHttpClient httpClient;
+    private final String baseUrl;
+
+    public NominatimGeocoder(OsmHttpClient httpClient,
+                             @Value("${station.nominatim.base-url:https://nominatim.openstreetmap.org}") String baseUrl) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public CompletableFuture<OpenStreetMapService.LocationDTO> geocodeAsync(String normalizedAddress) {
+        // Encode địa chỉ để tránh lỗi ký tự đặc biệt
+        String encodedAddress = URLEncoder.encode(normalizedAddress, StandardCharsets.UTF_8);
+        String url = baseUrl + "/search?q=" + encodedAddress + "&format=json&addressdetails=1&limit=1";
+
+        return httpClient.getJson(url).thenApply(results -> {
+            if (!results.isArray() || results.isEmpty()) return null;
+
+            JsonNode first = results.get(0);
+            double lat = first.path("lat").asDouble();
+            double lon = first.path("lon").asDouble();
+            log.info("Tọa độ tìm được cho \"{}\": {}, {}", normalizedAddress, lat, lon);
+            return new OpenStreetMapService.LocationDTO(lat, lon);
+        });
+    }
+}
@@ -1,113 +1,85 @@
 package com.boilerplate.station.service;
 
 import com.boilerplate.station.model.DTO.NearestStationDTO;
-import com.boilerplate.station.model.entity.Station;
 import com.boilerplate.station.model.response.ResponseData;
-import com.boilerplate.station.repository.StationRepository;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URLEncoder;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class OpenStreetMapService {
 
     @Autowired
-    private StationRepository stationRepository;
+    private StationGeoIndex stationGeoIndex;
+
+    @Autowired
+    private GeocodingCacheService geocodingCacheService;
+
+    @Autowired
+    private OsrmClient osrmClient;
+
+    @Value("${station.nearest.default-k:5}")
+    private int defaultK;
+
+    @Value("${station.nearest.max-k:50}")
+    private int maxK;
+
+    // <= 0: không giới hạn bán kính
+    @Value("${station.nearest.default-radius-km:0}")
+    private double defaultRadiusKm;
+
+    // Số ứng viên (theo đường chim bay) gửi sang OSRM khi xếp hạng theo đường lái xe
+    @Value("${station.nearest.driving-candidates:20}")
+    private int drivingCandidates;
 
 
     public record LocationDTO(double latitude, double longitude) {}
 
     /**
-     * 🧭 Lấy tọa độ (latitude, longitude) từ địa chỉ bằng OpenStreetMap Nominatim API.
+     * 🧭 Lấy tọa độ (latitude, longitude) từ địa chỉ bằng OpenStreetMap Nominatim API,
+     * đi qua cache geocode (bộ nhớ + DB).
      */
     public LocationDTO getCoordinatesFromAddress(String address) {
-        try {
-            // Chuẩn hóa địa chỉ trước khi gửi
-            String normalizedAddress = normalizeAddress(address);
-
-            // Encode địa chỉ để tránh lỗi ký tự đặc biệt
-            String encodedAddress = URLEncoder.encode(normalizedAddress, StandardCharsets.UTF_8);
-            String urlString = "https://nominatim.openstreetmap.org/search?q=" + encodedAddress
-                    + "&format=json&addressdetails=1&limit=1";
-
-            URL url = new URL(urlString);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setRequestProperty("User-Agent", "Mozilla/5.0 (compatible; OpenStreetMapService/1.0)");
-
-            BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = in.readLine()) != null) {
-                response.append(line);
-            }
-            in.close();
-
-            JSONArray results = new JSONArray(response.toString());
-
-            if (results.length() > 0) {
-                JSONObject first = results.getJSONObject(0);
-                double lat = first.getDouble("lat");
-                double lon = first.getDouble("lon");
-                System.out.println(" Tọa độ tìm được cho \"" + normalizedAddress + "\": " + lat + ", " + lon);
-                return new LocationDTO(lat, lon);
-            }
-
-            return null;
-
-        } catch (Exception e) {
-            System.err.println(" Lỗi khi gọi OSM API: " + e.getMessage());
-            return null;
-        }
+        // Chuẩn hóa địa chỉ trước khi tra cache / gửi đi
+        String normalizedAddress = normalizeAddress(address);
+        return geocodingCacheService.lookup(normalizedAddress);
+    }
+
+    /**
+     * Biến thể không block của {@link #getCoordinatesFromAddress}, dùng khi cần geocode nhiều địa chỉ song song.
+     */
+    public CompletableFuture<LocationDTO> getCoordinatesFromAddressAsync(String address) {
+        return geocodingCacheService.lookupAsync(normalizeAddress(address));
     }
 
     /**
      * 🚗 Tính khoảng cách giữa 2 điểm (km) bằng OSRM API (Open Source Routing Machine).
      */
     public double getRouteDistance(double lat1, double lon1, double lat2, double lon2) {
-        try {
-            String urlString = String.format(
-                    "https://router.project-osrm.org/route/v1/driving/%.6f,%.6f;%.6f,%.6f?overview=false",
-                    lon1, lat1, lon2, lat2);
-
-            HttpURLConnection conn = (HttpURLConnection) new URL(urlString).openConnection();
-            conn.setRequestMethod("GET");
-            conn.setRequestProperty("User-Agent", "Mozilla/5.0 (compatible; OpenStreetMapService/1.0)");
-
-            BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8));
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = in.readLine()) != null) response.append(line);
-            in.close();
-
-            JSONObject json = new JSONObject(response.toString());
-            if (!json.getString("code").equalsIgnoreCase("Ok")) {
-                System.err.println("⚠️ OSRM không trả về route hợp lệ!");
-                return -1;
-            }
-
-            JSONArray routes = json.getJSONArray("routes");
-            if (routes.isEmpty()) return -1;
-
-            double distanceMeters = routes.getJSONObject(0).getDouble("distance");
-            return distanceMeters / 1000.0; // đổi sang km
-
-        } catch (Exception e) {
-            System.err.println(" Lỗi khi gọi OSRM API: " + e.getMessage());
-            return -1;
-        }
+        return osrmClient.route(lat1, lon1, lat2, lon2);
+    }
+
+    public CompletableFuture<Double> getRouteDistanceAsync(double lat1, double lon1, double lat2, double lon2) {
+        return osrmClient.routeAsync(lat1, lon1, lat2, lon2);
+    }
+
+    /**
+     * 🚗 Ma trận khoảng cách lái xe (km) từ 1 điểm tới nhiều điểm, một request OSRM /table.
+     * Phần tử -1 nghĩa là không có đường đi.
+     */
+    public double[] getDistanceMatrix(double lat, double lon, List<LocationDTO> destinations) {
+        return osrmClient.table(lat, lon, destinations);
+    }
+
+    public CompletableFuture<double[]> getDistanceMatrixAsync(double lat, double lon, List<LocationDTO> destinations) {
+        return osrmClient.tableAsync(lat, lon, destinations);
     }
 
     /**
@@ -134,32 +106,61 @@ public class OpenStreetMapService {
 
 
     public ResponseEntity<ResponseData<List<NearestStationDTO>>> findNearestStations(double userLat, double userLon) {
-        List<Station> allStations = stationRepository.findAll();
+        return findNearestStations(userLat, userLon, null, null, false);
+    }
 
-        List<NearestStationDTO> nearestStations = allStations.stream()
-                .sorted(Comparator.comparingDouble(s -> distance(userLat, userLon, s.getLatitude(), s.getLongitude())))
-                .limit(5)
-                .map(s -> NearestStationDTO.fromEntity(s,
-                        distance(userLat, userLon, s.getLatitude(), s.getLongitude())))
-                .toList();
+    /**
+     * Tìm K trạm gần nhất qua chỉ mục lưới trong bộ nhớ, chỉ quét các ô lân cận
+     * thay vì load toàn bộ bảng stations.
+     * Nếu {@code byDrivingDistance}: lấy các ứng viên gần nhất theo đường chim bay rồi xếp hạng lại
+     * theo khoảng cách lái xe thực tế bằng một request OSRM /table.
+     */
+    public ResponseEntity<ResponseData<List<NearestStationDTO>>> findNearestStations(double userLat, double userLon,
+                                                                                      Integer limit, Double radiusKm,
+                                                                                      boolean byDrivingDistance) {
+        int k = limit != null && limit > 0 ? Math.min(limit, maxK) : defaultK;
+        double radius = radiusKm != null && radiusKm > 0 ? radiusKm : defaultRadiusKm;
+
+        List<NearestStationDTO> nearestStations;
+        if (byDrivingDistance) {
+            nearestStations = rankByDrivingDistance(userLat, userLon,
+                    stationGeoIndex.nearest(userLat, userLon, Math.max(k, drivingCandidates), radius), k);
+        } else {
+            nearestStations = stationGeoIndex.nearest(userLat, userLon, k, radius)
+                    .stream()
+                    .map(NearestStationDTO::fromIndex)
+                    .toList();
+        }
 
         return ResponseEntity.ok(
                 new ResponseData<>(
                         HttpStatus.OK.value(),
-                        "Lấy 5 trạm gần nhất thành công",
+                        "Lấy " + nearestStations.size() + " trạm gần nhất thành công",
                         nearestStations
                 )
         );
     }
 
-    private double distance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // km
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
+    private List<NearestStationDTO> rankByDrivingDistance(double userLat, double userLon,
+                                                          List<StationGeoIndex.Hit> candidates, int k) {
+        List<LocationDTO> destinations = candidates.stream()
+                .map(h -> new LocationDTO(h.station().latitude(), h.station().longitude()))
+                .toList();
+        double[] drivingKm = getDistanceMatrix(userLat, userLon, destinations);
+
+        List<NearestStationDTO> ranked = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            NearestStationDTO dto = NearestStationDTO.fromIndex(candidates.get(i));
+            dto.setDrivingDistanceKm(drivingKm[i] >= 0 ? drivingKm[i] : null);
+            ranked.add(dto);
+        }
+        // Trạm có đường đi xếp trước theo km lái xe; trạm không tính được giữ thứ tự đường chim bay
+        ranked.sort(Comparator.comparing(NearestStationDTO::getDrivingDistanceKm,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return ranked.size() > k ? ranked.subList(0, k) : ranked;
+    }
+
+    public double distance(double lat1, double lon1, double lat2, double lon2) {
+        return StationGeoIndex.distance(lat1, lon1, lat2, lon2);
     }
 }
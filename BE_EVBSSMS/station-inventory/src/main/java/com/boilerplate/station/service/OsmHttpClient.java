@@ -0,0 +1,134 @@
+package com.boilerplate.station.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client dùng chung cho Nominatim / OSRM.
+ * - Một java.net.http.HttpClient duy nhất (giữ kết nối keep-alive, không mở connection mới mỗi lần gọi).
+ * - Connect timeout + deadline cho từng request: request chậm không giữ thread Tomcat mãi mãi.
+ * - Giới hạn số request đang chạy; request vượt giới hạn xếp hàng chờ, không block thread gọi.
+ * - JSON được parse trực tiếp từ stream response bằng Jackson.
+ */
+@Component
+public class OsmHttpClient {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (compatible; OpenStreetMapService/1.0)";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Duration defaultDeadline;
+    private final Semaphore permits;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    public OsmHttpClient(ObjectMapper objectMapper,
+                         @Value("${station.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+                         @Value("${station.http.request-timeout-ms:5000}") long requestTimeoutMs,
+                         @Value("${station.http.max-concurrent:16}") int maxConcurrent) {
+        this.objectMapper = objectMapper;
+        this.defaultDeadline = Duration.ofMillis(requestTimeoutMs);
+        this.permits = new Semaphore(maxConcurrent);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    public CompletableFuture<JsonNode> getJson(String url) {
+        return getJson(url, defaultDeadline);
+    }
+
+    /**
+     * GET {@code url} và parse body thành JSON. Future hoàn thành lỗi nếu quá {@code deadline},
+     * status khác 2xx hoặc body không phải JSON.
+     */
+    public CompletableFuture<JsonNode> getJson(String url, Duration deadline) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(deadline)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        CompletableFuture<JsonNode> result = new CompletableFuture<>();
+        submit(() -> {
+            try {
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                        .thenApply(this::parse)
+                        .whenComplete((json, err) -> {
+                            release();
+                            if (err != null) {
+                                result.completeExceptionally(err);
+                            } else {
+                                result.complete(json);
+                            }
+                        });
+            } catch (RuntimeException e) {
+                release();
+                result.completeExceptionally(e);
+            }
+        });
+        // Deadline tính cả thời gian xếp hàng chờ permit
+        return result.orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private JsonNode parse(HttpResponse<InputStream> response) {
+        try (InputStream body = response.body()) {
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("HTTP " + response.statusCode() + " từ " + response.uri().getHost());
+            }
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void submit(Runnable task) {
+        if (permits.tryAcquire()) {
+            task.run();
+        } else {
+            waiting.add(task);
+            // Permit có thể vừa được trả giữa tryAcquire và add
+            drain();
+        }
+    }
+
+    private void release() {
+        permits.release();
+        drain();
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            next.run();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        httpClient.shutdownNow();
+    }
+}
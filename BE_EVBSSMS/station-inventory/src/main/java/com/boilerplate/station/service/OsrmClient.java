@@ -0,0 +1,127 @@
+package com.boilerplate.station.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 🚗 Client OSRM (Open Source Routing Machine), có cache khoảng cách theo cặp điểm.
+ * - route(): 1 cặp điểm qua /route.
+ * - table(): 1 điểm gốc tới N điểm đích trong MỘT request /table.
+ * Khoảng cách trả về tính bằng km, -1 nếu không có đường hoặc OSRM lỗi / quá hạn.
+ * Các biến thể *Async không block thread gọi, dùng để fan-out song song.
+ */
+@Slf4j
+@Component
+public class OsrmClient {
+
+    private final OsmHttpClient httpClient;
+    private final String baseUrl;
+    private final RouteCache routeCache;
+
+    public OsrmClient(OsmHttpClient httpClient,
+                      @Value("${station.osrm.base-url:https://router.project-osrm.org}") String baseUrl,
+                      RouteCache routeCache) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.routeCache = routeCache;
+    }
+
+    public double route(double lat1, double lon1, double lat2, double lon2) {
+        return routeAsync(lat1, lon1, lat2, lon2).join();
+    }
+
+    public CompletableFuture<Double> routeAsync(double lat1, double lon1, double lat2, double lon2) {
+        Double cached = routeCache.get(lat1, lon1, lat2, lon2);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+
+        String url = String.format(Locale.ROOT,
+                "%s/route/v1/driving/%.6f,%.6f;%.6f,%.6f?overview=false",
+                baseUrl, lon1, lat1, lon2, lat2);
+
+        return httpClient.getJson(url)
+                .thenApply(json -> {
+                    if (!"Ok".equalsIgnoreCase(json.path("code").asText())) {
+                        log.warn("OSRM không trả về route hợp lệ: {}", json.path("code").asText());
+                        return -1.0;
+                    }
+
+                    JsonNode routes = json.path("routes");
+                    if (!routes.isArray() || routes.isEmpty()) return -1.0;
+
+                    double distanceKm = routes.get(0).path("distance").asDouble() / 1000.0;
+                    routeCache.put(lat1, lon1, lat2, lon2, distanceKm);
+                    return distanceKm;
+                })
+                .exceptionally(e -> {
+                    log.warn("Lỗi khi gọi OSRM /route: {}", e.getMessage());
+                    return -1.0;
+                });
+    }
+
+    /**
+     * Khoảng cách lái xe (km) từ (lat, lon) tới từng điểm trong {@code destinations}, cùng thứ tự.
+     * Các cặp đã có trong cache không gửi lại; phần còn lại gom vào một request /table.
+     */
+    public double[] table(double lat, double lon, List<OpenStreetMapService.LocationDTO> destinations) {
+        return tableAsync(lat, lon, destinations).join();
+    }
+
+    public CompletableFuture<double[]> tableAsync(double lat, double lon,
+                                                  List<OpenStreetMapService.LocationDTO> destinations) {
+        double[] result = new double[destinations.size()];
+        List<Integer> missing = new ArrayList<>();
+
+        for (int i = 0; i < destinations.size(); i++) {
+            OpenStreetMapService.LocationDTO d = destinations.get(i);
+            Double cached = routeCache.get(lat, lon, d.latitude(), d.longitude());
+            if (cached != null) {
+                result[i] = cached;
+            } else {
+                missing.add(i);
+            }
+        }
+        if (missing.isEmpty()) return CompletableFuture.completedFuture(result);
+
+        // Mặc định coi như không tới được, ghi đè khi OSRM trả kết quả
+        for (int i : missing) result[i] = -1;
+
+        StringBuilder coords = new StringBuilder(String.format(Locale.ROOT, "%.6f,%.6f", lon, lat));
+        for (int i : missing) {
+            OpenStreetMapService.LocationDTO d = destinations.get(i);
+            coords.append(String.format(Locale.ROOT, ";%.6f,%.6f", d.longitude(), d.latitude()));
+        }
+        String url = baseUrl + "/table/v1/driving/" + coords + "?sources=0&annotations=distance";
+
+        return httpClient.getJson(url)
+                .thenApply(json -> {
+                    if (!"Ok".equalsIgnoreCase(json.path("code").asText())) {
+                        log.warn("OSRM không trả về table hợp lệ: {}", json.path("code").asText());
+                        return result;
+                    }
+
+                    // distances[0][0] là gốc -> gốc, đích thứ j nằm ở cột j + 1
+                    JsonNode row = json.path("distances").path(0);
+                    for (int j = 0; j < missing.size(); j++) {
+                        JsonNode cell = row.path(j + 1);
+                        if (!cell.isNumber()) continue;
+                        int i = missing.get(j);
+                        OpenStreetMapService.LocationDTO d = destinations.get(i);
+                        double distanceKm = cell.asDouble() / 1000.0;
+                        result[i] = distanceKm;
+                        routeCache.put(lat, lon, d.latitude(), d.longitude(), distanceKm);
+                    }
+                    return result;
+                })
+                .exceptionally(e -> {
+                    log.warn("Lỗi khi gọi OSRM /table: {}", e.getMessage());
+                    return result;
+                });
+    }
+}
@@ -0,0 +1,33 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kích thước trang cho các danh sách phân trang keyset (beforeId + size).
+ * Không truyền size thì dùng mặc định, size lớn hơn giới hạn thì bị cắt về giới hạn.
+ */
+@Component
+public class PageLimits {
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public PageLimits(@Value("${station.paging.default-size:100}") int defaultSize,
+                      @Value("${station.paging.max-size:1000}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    public Pageable limit(Integer size) {
+        int pageSize = size == null ? defaultSize : Math.min(size, maxSize);
+        if (pageSize <= 0) {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
+        return PageRequest.of(0, pageSize);
+    }
+}
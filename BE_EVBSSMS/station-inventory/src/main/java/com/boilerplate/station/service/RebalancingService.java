@@ -0,0 +1,371 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.SupplyRequestStatus;
+import com.boilerplate.station.model.DTO.BatterySupplyRequestDTO;
+import com.boilerplate.station.model.DTO.SwapForecastDTO;
+import com.boilerplate.station.model.entity.BatterySupplyRequest;
+import com.boilerplate.station.model.entity.StationInventory;
+import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.repository.BatterySupplyRequestRepository;
+import com.boilerplate.station.repository.BatterySupplyRequestRepository.StationQuantity;
+import com.boilerplate.station.repository.StationInventoryRepository;
+import com.boilerplate.station.repository.StationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Lập kế hoạch cân bằng pin giữa các trạm và ghi thành yêu cầu cấp pin ở trạng thái DRAFT cho admin duyệt.
+ * - Mỗi trạm có nhu cầu = dự báo số lượt swap ngày mai ({@link SwapForecastService}) × {@code coverage},
+ *   và số pin sẵn có = FULL + CHARGING − pin đang được giữ + pin sắp nhận − pin sắp cho đi, theo các yêu cầu
+ *   cấp pin PENDING / APPROVED chưa hoàn tất; nhờ vậy lần chạy sau không đề xuất lại lượng pin đang chuyển. Trạm chưa có mô hình dự báo lấy nhu cầu = số pin
+ *   sẵn có, nên không bị coi là trạm dư. Trạm thiếu cần nhận phần chênh lệch; trạm dư
+ *   (sau khi giữ lại {@code reserve} pin) có thể cho đi phần còn lại.
+ * - Bài toán vận chuyển được giải bằng luồng cực đại chi phí nhỏ nhất: nguồn → trạm dư → trạm thiếu → đích,
+ *   chi phí cạnh là khoảng cách. Mỗi pin thiếu chưa được bù là một lượt có thể hết pin, nên kế hoạch bù được
+ *   nhiều pin nhất, và trong các kế hoạch đó chọn tổng quãng đường ngắn nhất.
+ * - Mỗi trạm thiếu chỉ nối với {@code candidates} trạm dư gần nhất trong bán kính {@code max-distance-km}
+ *   (khoảng cách đường chim bay), nên đồ thị có O(số trạm × candidates) cạnh; 1k trạm dày đặc giải trong khoảng 1 giây.
+ * Mỗi lần chạy thay toàn bộ đề xuất DRAFT cũ, nên hai instance chạy cùng lúc sẽ ghi đè / nhân đôi đề xuất của nhau:
+ * lịch chạy {@code station.rebalance.enabled} mặc định tắt và chỉ bật trên một instance. Admin vẫn chạy tay được
+ * qua {@link #runNow}.
+ * Metrics: station.rebalance.run.
+ */
+@Slf4j
+@Service
+public class RebalancingService {
+
+    public record StationState(Long stationId, double latitude, double longitude, int available, int target) {
+        int deficit() {
+            return Math.max(0, target - available);
+        }
+    }
+
+    public record Transfer(Long fromStationId, Long toStationId, int quantity, double distanceKm) {}
+
+    // Yêu cầu đã gửi / đã duyệt nhưng pin chưa chuyển xong
+    private static final Set<SupplyRequestStatus> IN_FLIGHT =
+            Set.of(SupplyRequestStatus.PENDING, SupplyRequestStatus.APPROVED);
+
+    /**
+     * Luồng cực đại chi phí nhỏ nhất (đường tăng luồng ngắn nhất, Dijkstra với thế vị). Chi phí cạnh không âm.
+     */
+    static final class MinCostFlow {
+        private static final long INF = Long.MAX_VALUE / 4;
+
+        private final int nodes;
+        private final int[] head;
+        private int[] to;
+        private int[] next;
+        private int[] cap;
+        private long[] cost;
+        private int edges;
+
+        MinCostFlow(int nodes, int expectedEdges) {
+            this.nodes = nodes;
+            this.head = new int[nodes];
+            Arrays.fill(head, -1);
+            int size = Math.max(2, expectedEdges * 2);
+            this.to = new int[size];
+            this.next = new int[size];
+            this.cap = new int[size];
+            this.cost = new long[size];
+        }
+
+        /**
+         * Thêm cạnh u → v, trả về chỉ số cạnh để đọc luồng sau khi giải.
+         */
+        int addEdge(int u, int v, int capacity, long edgeCost) {
+            if (edges + 2 > to.length) {
+                int size = to.length * 2;
+                to = Arrays.copyOf(to, size);
+                next = Arrays.copyOf(next, size);
+                cap = Arrays.copyOf(cap, size);
+                cost = Arrays.copyOf(cost, size);
+            }
+            int e = edges;
+            link(u, v, capacity, edgeCost);
+            link(v, u, 0, -edgeCost);
+            return e;
+        }
+
+        private void link(int u, int v, int capacity, long edgeCost) {
+            to[edges] = v;
+            cap[edges] = capacity;
+            cost[edges] = edgeCost;
+            next[edges] = head[u];
+            head[u] = edges++;
+        }
+
+        int flow(int edge) {
+            return cap[edge ^ 1];
+        }
+
+        /**
+         * Trả về {luồng, chi phí}.
+         */
+        long[] solve(int source, int sink) {
+            long[] potential = new long[nodes];
+            long[] dist = new long[nodes];
+            int[] via = new int[nodes];
+            long totalFlow = 0;
+            long totalCost = 0;
+            while (true) {
+                Arrays.fill(dist, INF);
+                Arrays.fill(via, -1);
+                dist[source] = 0;
+                PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(a -> a[0]));
+                queue.add(new long[]{0, source});
+                while (!queue.isEmpty()) {
+                    long[] top = queue.poll();
+                    int u = (int) top[1];
+                    if (top[0] > dist[u]) continue;
+                    if (u == sink) break;
+                    for (int e = head[u]; e != -1; e = next[e]) {
+                        if (cap[e] <= 0) continue;
+                        int v = to[e];
+                        long d = dist[u] + cost[e] + potential[u] - potential[v];
+                        if (d < dist[v]) {
+                            dist[v] = d;
+                            via[v] = e;
+                            queue.add(new long[]{d, v});
+                        }
+                    }
+                }
+                if (dist[sink] == INF) break;
+                // Dừng Dijkstra khi tới đích: nút chưa chốt được cộng dist[sink], thế vị vẫn hợp lệ
+                for (int v = 0; v < nodes; v++) {
+                    potential[v] += Math.min(dist[v], dist[sink]);
+                }
+                int push = Integer.MAX_VALUE;
+                for (int v = sink; v != source; v = to[via[v] ^ 1]) {
+                    push = Math.min(push, cap[via[v]]);
+                }
+                for (int v = sink; v != source; v = to[via[v] ^ 1]) {
+                    cap[via[v]] -= push;
+                    cap[via[v] ^ 1] += push;
+                    totalCost += (long) push * cost[via[v]];
+                }
+                totalFlow += push;
+            }
+            return new long[]{totalFlow, totalCost};
+        }
+    }
+
+    private final StationInventoryRepository inventoryRepository;
+    private final StationRepository stationRepository;
+    private final BatterySupplyRequestRepository supplyRequestRepository;
+    private final StationGeoIndex stationGeoIndex;
+    private final SwapForecastService swapForecastService;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer runTimer;
+    private final boolean enabled;
+    private final double coverage;
+    private final int reserve;
+    private final double maxDistanceKm;
+    private final int candidates;
+    private final String batteryModel;
+
+    public RebalancingService(StationInventoryRepository inventoryRepository,
+                              StationRepository stationRepository,
+                              BatterySupplyRequestRepository supplyRequestRepository,
+                              StationGeoIndex stationGeoIndex,
+                              SwapForecastService swapForecastService,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${station.rebalance.enabled:false}") boolean enabled,
+                              @Value("${station.rebalance.coverage:1.2}") double coverage,
+                              @Value("${station.rebalance.reserve:2}") int reserve,
+                              @Value("${station.rebalance.max-distance-km:30}") double maxDistanceKm,
+                              @Value("${station.rebalance.candidates:10}") int candidates,
+                              @Value("${station.rebalance.battery-model:ANY}") String batteryModel) {
+        this.inventoryRepository = inventoryRepository;
+        this.stationRepository = stationRepository;
+        this.supplyRequestRepository = supplyRequestRepository;
+        this.stationGeoIndex = stationGeoIndex;
+        this.swapForecastService = swapForecastService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.runTimer = meterRegistry.timer("station.rebalance.run");
+        this.enabled = enabled;
+        this.coverage = coverage;
+        this.reserve = reserve;
+        this.maxDistanceKm = maxDistanceKm;
+        this.candidates = candidates;
+        this.batteryModel = batteryModel;
+    }
+
+    // Mặc định 21:30 hằng ngày, sau khi khung 18-24 đã có gần đủ số liệu
+    @Scheduled(cron = "${station.rebalance.cron:0 30 21 * * *}")
+    public void scheduledRun() {
+        if (!enabled) return;
+        List<BatterySupplyRequestDTO> drafts = run();
+        log.info("Planner cân bằng pin đã tạo {} đề xuất chuyển pin", drafts.size());
+    }
+
+    /**
+     * Chạy planner ngay (admin), trả về các đề xuất DRAFT vừa tạo.
+     */
+    public ResponseEntity<ResponseData<List<BatterySupplyRequestDTO>>> runNow() {
+        List<BatterySupplyRequestDTO> drafts = run();
+        return ResponseEntity.ok(
+                ResponseData.<List<BatterySupplyRequestDTO>>builder()
+                        .statusCode(200)
+                        .message("Đã tạo " + drafts.size() + " đề xuất chuyển pin")
+                        .data(drafts)
+                        .build()
+        );
+    }
+
+    List<BatterySupplyRequestDTO> run() {
+        return runTimer.record(() -> {
+            List<StationState> states = loadStates();
+            List<Transfer> transfers = plan(states);
+            return saveDrafts(states, transfers);
+        });
+    }
+
+    private List<StationState> loadStates() {
+        LocalDate today = LocalDate.now();
+        Map<Long, Long> incoming = toMap(supplyRequestRepository.sumByStation(IN_FLIGHT));
+        Map<Long, Long> outgoing = toMap(supplyRequestRepository.sumBySourceStation(IN_FLIGHT));
+        List<StationState> states = new ArrayList<>();
+        for (StationInventory inventory : inventoryRepository.findAll()) {
+            Long stationId = inventory.getStationId();
+            stationGeoIndex.get(stationId).ifPresent(location -> {
+                SwapForecastDTO forecast = swapForecastService.forecast(stationId, today);
+                long moving = incoming.getOrDefault(stationId, 0L) - outgoing.getOrDefault(stationId, 0L);
+                int available = (int) Math.max(0,
+                        inventory.getFullCount() + inventory.getChargingCount() - inventory.getHeldCount() + moving);
+                // Trạm chưa có mô hình (trạm mới, dự báo chưa bootstrap): giữ nguyên tồn kho, không cho cũng không nhận
+                int target = forecast.isTrained()
+                        ? (int) Math.ceil(forecast.getNextDay().getTotal() * coverage)
+                        : available;
+                states.add(new StationState(stationId, location.latitude(), location.longitude(), available, target));
+            });
+        }
+        return states;
+    }
+
+    private static Map<Long, Long> toMap(List<StationQuantity> rows) {
+        return rows.stream().collect(Collectors.toMap(StationQuantity::getStationId, StationQuantity::getQuantity));
+    }
+
+    /**
+     * Giải bài toán vận chuyển cho một ảnh chụp tồn kho + dự báo. Trả về các lô chuyển (trạm đi, trạm đến, số pin).
+     * Không đọc / ghi DB, chỉ dùng cấu hình của service; public để chạy trên ảnh chụp tự dựng (station-benchmarks).
+     */
+    public List<Transfer> plan(List<StationState> states) {
+        List<StationState> donors = new ArrayList<>();
+        List<StationState> receivers = new ArrayList<>();
+        for (StationState state : states) {
+            if (state.deficit() > 0) {
+                receivers.add(state);
+            } else if (state.available() - state.target() - reserve > 0) {
+                donors.add(state);
+            }
+        }
+        if (donors.isEmpty() || receivers.isEmpty()) return List.of();
+
+        // Nút: 0 = nguồn, 1..D = trạm dư, D+1..D+R = trạm thiếu, D+R+1 = đích
+        int source = 0;
+        int sink = donors.size() + receivers.size() + 1;
+        int k = Math.min(candidates, donors.size());
+        MinCostFlow flow = new MinCostFlow(sink + 1, donors.size() + receivers.size() * (k + 1));
+        for (int d = 0; d < donors.size(); d++) {
+            StationState donor = donors.get(d);
+            flow.addEdge(source, 1 + d, donor.available() - donor.target() - reserve, 0);
+        }
+
+        List<int[]> arcs = new ArrayList<>();       // {chỉ số cạnh, donor, receiver}
+        List<Double> arcKm = new ArrayList<>();
+        double maxLatDelta = maxDistanceKm / 111.0;
+        int[] nearest = new int[k];
+        double[] nearestKm = new double[k];
+        for (int r = 0; r < receivers.size(); r++) {
+            StationState receiver = receivers.get(r);
+            int node = 1 + donors.size() + r;
+            flow.addEdge(node, sink, receiver.deficit(), 0);
+
+            // Giữ k trạm dư gần nhất trong bán kính (mảng đã sắp xếp, chèn trực tiếp)
+            int found = 0;
+            for (int d = 0; d < donors.size(); d++) {
+                StationState donor = donors.get(d);
+                if (Math.abs(donor.latitude() - receiver.latitude()) > maxLatDelta) continue;
+                double km = StationGeoIndex.distance(receiver.latitude(), receiver.longitude(),
+                        donor.latitude(), donor.longitude());
+                if (km > maxDistanceKm || (found == k && km >= nearestKm[k - 1])) continue;
+                int i = found < k ? found++ : k - 1;
+                while (i > 0 && nearestKm[i - 1] > km) {
+                    nearest[i] = nearest[i - 1];
+                    nearestKm[i] = nearestKm[i - 1];
+                    i--;
+                }
+                nearest[i] = d;
+                nearestKm[i] = km;
+            }
+            for (int i = 0; i < found; i++) {
+                // chi phí nguyên theo mét để Dijkstra chính xác
+                int edge = flow.addEdge(1 + nearest[i], node, receiver.deficit(), Math.round(nearestKm[i] * 1000));
+                arcs.add(new int[]{edge, nearest[i], r});
+                arcKm.add(nearestKm[i]);
+            }
+        }
+        flow.solve(source, sink);
+
+        List<Transfer> transfers = new ArrayList<>();
+        for (int i = 0; i < arcs.size(); i++) {
+            int[] arc = arcs.get(i);
+            int quantity = flow.flow(arc[0]);
+            if (quantity > 0) {
+                transfers.add(new Transfer(donors.get(arc[1]).stationId(), receivers.get(arc[2]).stationId(),
+                        quantity, arcKm.get(i)));
+            }
+        }
+        return transfers;
+    }
+
+    private List<BatterySupplyRequestDTO> saveDrafts(List<StationState> states, List<Transfer> transfers) {
+        Map<Long, StationState> byId = new HashMap<>();
+        states.forEach(s -> byId.put(s.stationId(), s));
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            supplyRequestRepository.deleteByStatus(SupplyRequestStatus.DRAFT);
+            List<BatterySupplyRequest> drafts = new ArrayList<>(transfers.size());
+            for (Transfer transfer : transfers) {
+                StationState receiver = byId.get(transfer.toStationId());
+                drafts.add(BatterySupplyRequest.builder()
+                        .station(stationRepository.getReferenceById(transfer.toStationId()))
+                        .sourceStation(stationRepository.getReferenceById(transfer.fromStationId()))
+                        .requestedQuantity(transfer.quantity())
+                        .batteryModel(batteryModel)
+                        .reason(String.format(Locale.ROOT,
+                                "Đề xuất tự động: dự kiến cần %d pin, hiện có %d (tính cả pin đang chuyển); chuyển %d pin từ trạm #%d (~%.1f km)",
+                                receiver.target(), receiver.available(), transfer.quantity(),
+                                transfer.fromStationId(), transfer.distanceKm()))
+                        .status(SupplyRequestStatus.DRAFT)
+                        .createdAt(now)
+                        .build());
+            }
+            return supplyRequestRepository.saveAll(drafts).stream().map(BatterySupplyRequestDTO::fromEntity).toList();
+        });
+    }
+}
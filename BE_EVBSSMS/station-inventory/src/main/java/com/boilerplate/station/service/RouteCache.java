@@ -0,0 +1,60 @@
+package com.boilerplate.station.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache khoảng cách lái xe (km) giữa 2 điểm.
+ * Tọa độ được làm tròn {@code precision} chữ số thập phân (4 ~ 11m) để các vị trí
+ * gần như trùng nhau dùng chung một entry.
+ */
+@Component
+public class RouteCache {
+
+    private record Key(long lat1, long lon1, long lat2, long lon2) {}
+
+    private final double scale;
+    private final Map<Key, Double> cache;
+
+    public RouteCache(@Value("${station.osrm.route-cache.max-entries:50000}") int maxEntries,
+                      @Value("${station.osrm.route-cache.precision:4}") int precision) {
+        this.scale = Math.pow(10, precision);
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return khoảng cách (km) đã cache, hoặc null nếu chưa có.
+     */
+    public Double get(double lat1, double lon1, double lat2, double lon2) {
+        Key key = key(lat1, lon1, lat2, lon2);
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    public void put(double lat1, double lon1, double lat2, double lon2, double distanceKm) {
+        Key key = key(lat1, lon1, lat2, lon2);
+        synchronized (cache) {
+            cache.put(key, distanceKm);
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private Key key(double lat1, double lon1, double lat2, double lon2) {
+        return new Key(Math.round(lat1 * scale), Math.round(lon1 * scale),
+                Math.round(lat2 * scale), Math.round(lon2 * scale));
+    }
+}
@@ -0,0 +1,255 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.repository.StationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục không gian (grid) trong bộ nhớ cho tọa độ trạm.
+ * - Mỗi ô lưới có cạnh {@code cellDegrees} độ, key = (hàng, cột).
+ * - Truy vấn top-K quét các vòng ô lưới từ ô chứa người dùng ra ngoài,
+ *   dừng ngay khi vòng tiếp theo chắc chắn xa hơn trạm thứ K hoặc vượt bán kính.
+ * - Đồng bộ với StationService khi tạo / sửa / xóa trạm, và rebuild định kỳ
+ *   để bắt các thay đổi từ instance khác.
+ */
+@Slf4j
+@Component
+public class StationGeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    public record Entry(Long id, String stationName, String address, double latitude, double longitude) {}
+
+    public record Hit(Entry station, double distanceKm) {}
+
+    private final StationRepository stationRepository;
+    private final double cellDegrees;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final Map<Long, Entry> byId = new HashMap<>();
+    private int minRow = Integer.MAX_VALUE, maxRow = Integer.MIN_VALUE;
+    private int minCol = Integer.MAX_VALUE, maxCol = Integer.MIN_VALUE;
+
+    public StationGeoIndex(StationRepository stationRepository,
+                           @Value("${station.geo-index.cell-degrees:0.05}") double cellDegrees) {
+        this.stationRepository = stationRepository;
+        this.cellDegrees = cellDegrees;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${station.geo-index.refresh-ms:300000}",
+            initialDelayString = "${station.geo-index.refresh-ms:300000}")
+    public void rebuild() {
+        List<Station> stations = stationRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            byId.clear();
+            minRow = minCol = Integer.MAX_VALUE;
+            maxRow = maxCol = Integer.MIN_VALUE;
+            for (Station s : stations) {
+                insert(toEntry(s));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Station geo index rebuilt with {} stations", byId.size());
+    }
+
+    /**
+     * Thêm hoặc cập nhật vị trí một trạm. Trạm chưa có tọa độ sẽ bị gỡ khỏi chỉ mục.
+     */
+    public void upsert(Station station) {
+        if (station == null || station.getId() == null) return;
+        Entry entry = toEntry(station);
+        lock.writeLock().lock();
+        try {
+            delete(station.getId());
+            if (entry != null) insert(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long stationId) {
+        if (stationId == null) return;
+        lock.writeLock().lock();
+        try {
+            delete(stationId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Entry> get(Long stationId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(byId.get(stationId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Các trạm nằm trong khung nhìn bản đồ (tối đa {@code limit} trạm).
+     */
+    public List<Entry> within(double minLat, double minLon, double maxLat, double maxLon, int limit) {
+        List<Entry> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Entry e : byId.values()) {
+                if (e.latitude() >= minLat && e.latitude() <= maxLat
+                        && e.longitude() >= minLon && e.longitude() <= maxLon) {
+                    result.add(e);
+                    if (result.size() >= limit) break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Lấy tối đa {@code k} trạm gần nhất trong bán kính {@code radiusKm} (<= 0 là không giới hạn),
+     * sắp xếp theo khoảng cách tăng dần.
+     */
+    public List<Hit> nearest(double lat, double lon, int k, double radiusKm) {
+        if (k <= 0) return List.of();
+        double maxKm = radiusKm > 0 ? radiusKm : Double.MAX_VALUE;
+
+        // Max-heap theo khoảng cách, giữ K ứng viên tốt nhất
+        PriorityQueue<Hit> heap = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(Hit::distanceKm).reversed());
+
+        lock.readLock().lock();
+        try {
+            if (byId.isEmpty()) return List.of();
+
+            int row = row(lat);
+            int col = col(lon);
+            int maxRing = Math.max(
+                    Math.max(Math.abs(row - minRow), Math.abs(row - maxRow)),
+                    Math.max(Math.abs(col - minCol), Math.abs(col - maxCol)));
+
+            for (int ring = 0; ring <= maxRing; ring++) {
+                double ringMinKm = ringLowerBoundKm(lat, ring);
+                if (ringMinKm > maxKm) break;
+                if (heap.size() == k && ringMinKm > heap.peek().distanceKm()) break;
+
+                for (int r = row - ring; r <= row + ring; r++) {
+                    boolean edgeRow = r == row - ring || r == row + ring;
+                    int step = edgeRow || ring == 0 ? 1 : 2 * ring;
+                    for (int c = col - ring; c <= col + ring; c += step) {
+                        List<Entry> bucket = cells.get(key(r, c));
+                        if (bucket == null) continue;
+                        for (Entry e : bucket) {
+                            double d = distance(lat, lon, e.latitude(), e.longitude());
+                            if (d > maxKm) continue;
+                            if (heap.size() < k) {
+                                heap.add(new Hit(e, d));
+                            } else if (d < heap.peek().distanceKm()) {
+                                heap.poll();
+                                heap.add(new Hit(e, d));
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return result;
+    }
+
+    /**
+     * Khoảng cách haversine (km) giữa 2 điểm.
+     */
+    public static double distance(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS_KM * c;
+    }
+
+    // Mọi điểm thuộc vòng ô thứ `ring` đều cách người dùng ít nhất (ring - 1) cạnh ô.
+    // Cạnh theo kinh độ co lại theo cos(lat) nên lấy vĩ độ xa xích đạo nhất của vòng.
+    private double ringLowerBoundKm(double lat, int ring) {
+        if (ring <= 1) return 0;
+        double farLat = Math.min(89.0, Math.abs(lat) + (ring + 1) * cellDegrees);
+        double heightKm = cellDegrees * KM_PER_DEGREE;
+        double widthKm = heightKm * Math.cos(Math.toRadians(farLat));
+        return (ring - 1) * Math.min(heightKm, widthKm);
+    }
+
+    private void insert(Entry e) {
+        if (e == null) return;
+        int r = row(e.latitude());
+        int c = col(e.longitude());
+        cells.computeIfAbsent(key(r, c), x -> new ArrayList<>()).add(e);
+        byId.put(e.id(), e);
+        minRow = Math.min(minRow, r);
+        maxRow = Math.max(maxRow, r);
+        minCol = Math.min(minCol, c);
+        maxCol = Math.max(maxCol, c);
+    }
+
+    private void delete(Long stationId) {
+        Entry old = byId.remove(stationId);
+        if (old == null) return;
+        long k = key(row(old.latitude()), col(old.longitude()));
+        List<Entry> bucket = cells.get(k);
+        if (bucket != null) {
+            bucket.removeIf(e -> e.id().equals(stationId));
+            if (bucket.isEmpty()) cells.remove(k);
+        }
+    }
+
+    private static Entry toEntry(Station s) {
+        if (s.getLatitude() == null || s.getLongitude() == null) return null;
+        return new Entry(s.getId(), s.getStationName(), s.getAddress(), s.getLatitude(), s.getLongitude());
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor(lat / cellDegrees);
+    }
+
+    private int col(double lon) {
+        return (int) Math.floor(lon / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
@@ -0,0 +1,244 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.HealthResolution;
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.DTO.HealthPointDTO;
+import com.boilerplate.station.model.DTO.HealthSeriesDTO;
+import com.boilerplate.station.model.createRequest.HealthSampleRequest;
+import com.boilerplate.station.model.entity.StationHealthRollup;
+import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.repository.StationHealthLogRepository;
+import com.boilerplate.station.repository.StationHealthRollupRepository;
+import com.boilerplate.station.repository.StationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * Telemetry sức khỏe trạm (SoH trung bình, độ ẩm) gửi lên vài giây một lần.
+ * - Ingest theo batch: cả batch được ghi bằng một câu lệnh (insert nhiều dòng + upsert khung 1 phút / 1 giờ).
+ * - Truy vấn theo khoảng thời gian tự chọn độ phân giải: khoảng ngắn đọc dữ liệu gốc, khoảng dài đọc bảng gộp,
+ *   nên biểu đồ một tháng chỉ đọc vài trăm dòng giờ thay vì hàng triệu mẫu.
+ * - Retention: dữ liệu gốc, khung phút và khung giờ được xóa dần theo tuổi, mỗi lần tối đa {@code purge-batch-size} dòng.
+ * Metrics: station.health.samples.
+ */
+@Slf4j
+@Service
+public class StationHealthService {
+
+    private final StationHealthLogRepository healthLogRepository;
+    private final StationHealthRollupRepository rollupRepository;
+    private final StationRepository stationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatch;
+    private final int maxPoints;
+    private final Duration rawMaxRange;
+    private final Duration minuteMaxRange;
+    private final Duration rawRetention;
+    private final Duration minuteRetention;
+    private final Duration hourRetention;
+    private final int purgeBatchSize;
+    private final Counter samples;
+
+    public StationHealthService(StationHealthLogRepository healthLogRepository,
+                                StationHealthRollupRepository rollupRepository,
+                                StationRepository stationRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${station.health.max-batch:5000}") int maxBatch,
+                                @Value("${station.health.max-points:5000}") int maxPoints,
+                                @Value("${station.health.raw-max-range-hours:6}") long rawMaxRangeHours,
+                                @Value("${station.health.minute-max-range-days:7}") long minuteMaxRangeDays,
+                                @Value("${station.health.raw-retention-days:7}") long rawRetentionDays,
+                                @Value("${station.health.minute-retention-days:30}") long minuteRetentionDays,
+                                @Value("${station.health.hour-retention-days:365}") long hourRetentionDays,
+                                @Value("${station.health.purge-batch-size:10000}") int purgeBatchSize) {
+        this.healthLogRepository = healthLogRepository;
+        this.rollupRepository = rollupRepository;
+        this.stationRepository = stationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatch = maxBatch;
+        this.maxPoints = maxPoints;
+        this.rawMaxRange = Duration.ofHours(rawMaxRangeHours);
+        this.minuteMaxRange = Duration.ofDays(minuteMaxRangeDays);
+        this.rawRetention = Duration.ofDays(rawRetentionDays);
+        this.minuteRetention = Duration.ofDays(minuteRetentionDays);
+        this.hourRetention = Duration.ofDays(hourRetentionDays);
+        this.purgeBatchSize = purgeBatchSize;
+        this.samples = meterRegistry.counter("station.health.samples");
+    }
+
+    /**
+     * Ghi một batch mẫu. Mẫu thiếu SoH / độ ẩm hoặc trạm không tồn tại làm cả batch bị từ chối;
+     * mẫu không có recordedAt lấy thời điểm server nhận. Gửi lại cùng batch sẽ bị tính hai lần.
+     */
+    @Transactional
+    public ResponseEntity<ResponseData<Map<String, Integer>>> ingest(List<HealthSampleRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > maxBatch) {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
+        int n = requests.size();
+        Long[] stationIds = new Long[n];
+        Double[] soh = new Double[n];
+        Double[] humidity = new Double[n];
+        LocalDateTime[] recordedAt = new LocalDateTime[n];
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> distinctStations = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            HealthSampleRequest request = requests.get(i);
+            if (request == null || request.getStationId() == null
+                    || request.getAvgSoH() == null || request.getHumidity() == null) {
+                throw new BusinessException(AppException.VALIDATION_FAILED);
+            }
+            stationIds[i] = request.getStationId();
+            soh[i] = request.getAvgSoH();
+            humidity[i] = request.getHumidity();
+            recordedAt[i] = request.getRecordedAt() != null ? request.getRecordedAt() : now;
+            distinctStations.add(request.getStationId());
+        }
+        if (stationRepository.findExistingIds(distinctStations).size() != distinctStations.size()) {
+            throw new BusinessException(AppException.STATION_NOT_FOUND);
+        }
+
+        healthLogRepository.appendBatch(stationIds, soh, humidity, recordedAt);
+        samples.increment(n);
+        return ResponseEntity.ok(
+                new ResponseData<>(HttpStatus.OK.value(), "Ghi dữ liệu sức khỏe trạm thành công", Map.of("accepted", n))
+        );
+    }
+
+    /**
+     * Chuỗi số liệu của một trạm trong [from, to). Không truyền {@code resolution} thì chọn theo độ dài khoảng
+     * và thời hạn lưu của từng mức sao cho số khung không vượt {@code max-points}; dữ liệu gốc dày hơn dự kiến
+     * thì lên khung phút. Mỗi lần trả tối đa {@code max-points} điểm, còn thiếu thì {@code truncated = true}.
+     */
+    public ResponseEntity<ResponseData<HealthSeriesDTO>> getSeries(Long stationId, LocalDateTime from,
+                                                                    LocalDateTime to, HealthResolution resolution) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        if (!start.isBefore(end)) {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
+        if (!stationRepository.existsById(stationId)) {
+            throw new BusinessException(AppException.STATION_NOT_FOUND);
+        }
+        HealthResolution chosen = resolution != null ? resolution : resolve(start, end, LocalDateTime.now());
+        List<HealthPointDTO> points = findPoints(stationId, chosen, start, end);
+        if (resolution == null && chosen == HealthResolution.RAW && points.size() > maxPoints) {
+            chosen = HealthResolution.MINUTE;
+            points = findPoints(stationId, chosen, start, end);
+        }
+        boolean truncated = points.size() > maxPoints;
+
+        HealthSeriesDTO dto = HealthSeriesDTO.builder()
+                .stationId(stationId)
+                .resolution(chosen)
+                .from(start)
+                .to(end)
+                .points(truncated ? points.subList(0, maxPoints) : points)
+                .truncated(truncated)
+                .build();
+        return ResponseEntity.ok(
+                new ResponseData<>(HttpStatus.OK.value(), "Lấy dữ liệu sức khỏe trạm thành công", dto)
+        );
+    }
+
+    // Đọc thêm một điểm để biết còn dữ liệu sau giới hạn hay không
+    private List<HealthPointDTO> findPoints(Long stationId, HealthResolution resolution,
+                                            LocalDateTime start, LocalDateTime end) {
+        PageRequest limit = PageRequest.of(0, maxPoints + 1);
+        return resolution == HealthResolution.RAW
+                ? healthLogRepository.findRange(stationId, start, end, limit).stream().map(StationHealthService::toPoint).toList()
+                : rollupRepository.findRange(stationId, resolution.getBucketSeconds(), start, end, limit).stream()
+                        .map(StationHealthService::toPoint).toList();
+    }
+
+    /**
+     * Mức chi tiết nhất vừa đủ: khoảng ngắn dùng dữ liệu gốc, tới {@code minute-max-range-days} (và không quá
+     * {@code max-points} phút) dùng khung phút, dài hơn dùng khung giờ. Nếu {@code from} đã quá thời hạn lưu
+     * của mức đó thì lên mức thô hơn.
+     */
+    HealthResolution resolve(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        Duration span = Duration.between(from, to);
+        if (span.compareTo(rawMaxRange) <= 0 && !from.isBefore(now.minus(rawRetention))) {
+            return HealthResolution.RAW;
+        }
+        if (span.compareTo(minuteMaxRange) <= 0
+                && span.toSeconds() / HealthResolution.MINUTE.getBucketSeconds() <= maxPoints
+                && !from.isBefore(now.minus(minuteRetention))) {
+            return HealthResolution.MINUTE;
+        }
+        return HealthResolution.HOUR;
+    }
+
+    /**
+     * Xóa dữ liệu quá hạn (mặc định phút 15 mỗi giờ), từng lô trong transaction riêng.
+     */
+    @Scheduled(cron = "${station.health.retention-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int raw = purge(() -> healthLogRepository.deleteOlderThan(now.minus(rawRetention), purgeBatchSize));
+        int minute = purge(() -> rollupRepository.deleteOlderThan(
+                HealthResolution.MINUTE.getBucketSeconds(), now.minus(minuteRetention), purgeBatchSize));
+        int hour = purge(() -> rollupRepository.deleteOlderThan(
+                HealthResolution.HOUR.getBucketSeconds(), now.minus(hourRetention), purgeBatchSize));
+        if (raw + minute + hour > 0) {
+            log.info("Đã xóa dữ liệu sức khỏe trạm quá hạn: {} mẫu gốc, {} khung phút, {} khung giờ", raw, minute, hour);
+        }
+    }
+
+    private int purge(IntSupplier deleteBatch) {
+        int total = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> deleteBatch.getAsInt());
+            int count = deleted != null ? deleted : 0;
+            total += count;
+            if (count < purgeBatchSize) return total;
+        }
+    }
+
+    private static HealthPointDTO toPoint(StationHealthLogRepository.HealthSample sample) {
+        return HealthPointDTO.builder()
+                .time(sample.getRecordedAt())
+                .avgSoH(sample.getAvgSoH())
+                .minSoH(sample.getAvgSoH())
+                .maxSoH(sample.getAvgSoH())
+                .humidity(sample.getHumidity())
+                .minHumidity(sample.getHumidity())
+                .maxHumidity(sample.getHumidity())
+                .samples(1L)
+                .build();
+    }
+
+    private static HealthPointDTO toPoint(StationHealthRollup bucket) {
+        long n = Math.max(bucket.getSampleCount(), 1);
+        return HealthPointDTO.builder()
+                .time(bucket.getBucketStart())
+                .avgSoH(bucket.getSohSum() / n)
+                .minSoH(bucket.getSohMin())
+                .maxSoH(bucket.getSohMax())
+                .humidity(bucket.getHumiditySum() / n)
+                .minHumidity(bucket.getHumidityMin())
+                .maxHumidity(bucket.getHumidityMax())
+                .samples(bucket.getSampleCount())
+                .build();
+    }
+}
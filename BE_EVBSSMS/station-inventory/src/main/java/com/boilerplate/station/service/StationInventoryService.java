@@ -0,0 +1,241 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.BatteryStatus;
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.DTO.StationInventoryDTO;
+import com.boilerplate.station.model.entity.Battery;
+import com.boilerplate.station.model.entity.StationInventory;
+import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.repository.BatteryRepository;
+import com.boilerplate.station.repository.StationInventoryRepository;
+import com.boilerplate.station.repository.StationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bộ đếm tồn kho theo trạm (station_inventory), cập nhật trong cùng transaction với mỗi lần
+ * pin đổi trạng thái / đổi trạm / giữ-nhả. Màn hình tồn kho chỉ đọc bộ đếm, không load danh sách pin.
+ *
+ * Cách dùng: chụp {@link #snapshot} trước khi sửa pin, gọi {@link #track} sau khi sửa.
+ * Job đối soát định kỳ so bộ đếm với bảng batteries; chênh lệch chỉ được sửa khi lặp lại
+ * giống hệt ở 2 lần kiểm tra liên tiếp, tránh ghi đè nhầm do transaction đang chạy dở.
+ */
+@Slf4j
+@Service
+public class StationInventoryService {
+
+    private static final int FULL = 0;
+    private static final int CHARGING = 1;
+    private static final int MAINTENANCE = 2;
+    private static final int DEFECTIVE = 3;
+    private static final int HELD = 4;
+    private static final int SIZE = 5;
+
+    /**
+     * Phần trạng thái pin ảnh hưởng tới bộ đếm.
+     */
+    public record BatteryState(Long stationId, BatteryStatus status, boolean hold) {
+        static final BatteryState NONE = new BatteryState(null, null, false);
+    }
+
+    private final StationInventoryRepository inventoryRepository;
+    private final BatteryRepository batteryRepository;
+    private final StationRepository stationRepository;
+    private final AvailabilityStream availabilityStream;
+
+    // stationId -> chênh lệch (thực tế - bộ đếm) thấy ở lần kiểm tra trước
+    private final Map<Long, int[]> suspectedDrift = new ConcurrentHashMap<>();
+
+    private final Counter driftDetected;
+    private final Counter driftCorrected;
+
+    public StationInventoryService(StationInventoryRepository inventoryRepository,
+                                   BatteryRepository batteryRepository,
+                                   StationRepository stationRepository,
+                                   AvailabilityStream availabilityStream,
+                                   MeterRegistry meterRegistry) {
+        this.inventoryRepository = inventoryRepository;
+        this.batteryRepository = batteryRepository;
+        this.stationRepository = stationRepository;
+        this.availabilityStream = availabilityStream;
+        this.driftDetected = Counter.builder("station.inventory.drift").tag("action", "detected").register(meterRegistry);
+        this.driftCorrected = Counter.builder("station.inventory.drift").tag("action", "corrected").register(meterRegistry);
+    }
+
+    public BatteryState snapshot(Battery battery) {
+        if (battery == null) return BatteryState.NONE;
+        return new BatteryState(
+                battery.getStation() != null ? battery.getStation().getId() : null,
+                battery.getStatus(),
+                battery.isHold());
+    }
+
+    /**
+     * Áp chênh lệch giữa trạng thái {@code before} và trạng thái hiện tại của {@code battery}
+     * ({@code null} nếu pin đã bị xóa). Không làm gì nếu không có thay đổi liên quan.
+     */
+    @Transactional
+    public void track(BatteryState before, Battery battery) {
+        BatteryState after = snapshot(battery);
+        if (before.equals(after)) return;
+        trackAll(List.of(before), List.of(after));
+    }
+
+    /**
+     * Như {@link #track} cho nhiều pin cùng lúc ({@code before.get(i)} -> {@code after.get(i)}):
+     * chênh lệch được gộp theo trạm, mỗi trạm chỉ một câu upsert.
+     */
+    @Transactional
+    public void trackAll(List<BatteryState> before, List<BatteryState> after) {
+        Map<Long, int[]> deltas = new HashMap<>();
+        for (int i = 0; i < before.size(); i++) {
+            if (before.get(i).equals(after.get(i))) continue;
+            add(deltas, before.get(i), -1);
+            add(deltas, after.get(i), 1);
+        }
+        deltas.values().removeIf(StationInventoryService::isZero);
+        deltas.forEach((stationId, d) ->
+                inventoryRepository.applyDelta(stationId, d[FULL], d[CHARGING], d[MAINTENANCE], d[DEFECTIVE], d[HELD]));
+        if (!deltas.isEmpty()) {
+            availabilityStream.inventoryChanged(deltas.keySet());
+        }
+    }
+
+    /**
+     * Xóa bộ đếm khi trạm bị xóa.
+     */
+    @Transactional
+    public void removeStation(Long stationId) {
+        inventoryRepository.deleteByStationId(stationId);
+        suspectedDrift.remove(stationId);
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseEntity<ResponseData<StationInventoryDTO>> getStationInventory(Long stationId) {
+        if (!stationRepository.existsById(stationId)) {
+            throw new BusinessException(AppException.STATION_NOT_FOUND);
+        }
+        StationInventoryDTO dto = inventoryRepository.findByStationId(stationId)
+                .map(StationInventoryDTO::fromEntity)
+                .orElseGet(() -> StationInventoryDTO.builder().stationId(stationId).build());
+
+        return ResponseEntity.ok(
+                new ResponseData<>(HttpStatus.OK.value(), "Lấy tồn kho trạm thành công", dto)
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public ResponseEntity<ResponseData<StationInventoryDTO>> getFleetInventory() {
+        StationInventoryDTO dto = StationInventoryDTO.fromTotals(inventoryRepository.sumAll());
+        return ResponseEntity.ok(
+                new ResponseData<>(HttpStatus.OK.value(), "Lấy tồn kho toàn hệ thống thành công", dto)
+        );
+    }
+
+    /**
+     * So bộ đếm với bảng batteries. Trạm chưa có bộ đếm được khởi tạo ngay;
+     * trạm lệch được sửa khi cùng một chênh lệch xuất hiện ở 2 lần kiểm tra liên tiếp.
+     */
+    @Scheduled(initialDelayString = "${station.inventory.drift-check-initial-delay-ms:60000}",
+            fixedDelayString = "${station.inventory.drift-check-ms:900000}")
+    @Transactional
+    public void checkDrift() {
+        Map<Long, int[]> actual = new HashMap<>();
+        for (BatteryRepository.StationStatusCount row : batteryRepository.countByStationAndStatus()) {
+            int[] counts = actual.computeIfAbsent(row.getStationId(), id -> new int[SIZE]);
+            int index = indexOf(row.getStatus());
+            if (index >= 0) counts[index] += row.getTotal().intValue();
+            counts[HELD] += row.getHeld() != null ? row.getHeld().intValue() : 0;
+        }
+
+        Map<Long, int[]> recorded = new HashMap<>();
+        for (StationInventory inventory : inventoryRepository.findAll()) {
+            recorded.put(inventory.getStationId(), new int[]{
+                    inventory.getFullCount(), inventory.getChargingCount(), inventory.getMaintenanceCount(),
+                    inventory.getDefectiveCount(), inventory.getHeldCount()});
+        }
+
+        Set<Long> stationIds = new HashSet<>(actual.keySet());
+        stationIds.addAll(recorded.keySet());
+        int corrected = 0;
+        for (Long stationId : stationIds) {
+            int[] real = actual.getOrDefault(stationId, new int[SIZE]);
+            int[] counted = recorded.get(stationId);
+
+            if (counted == null) {
+                // Trạm chưa có bộ đếm (dữ liệu có từ trước): khởi tạo luôn
+                overwrite(stationId, real);
+                continue;
+            }
+
+            int[] drift = new int[SIZE];
+            for (int i = 0; i < SIZE; i++) drift[i] = real[i] - counted[i];
+            if (isZero(drift)) {
+                suspectedDrift.remove(stationId);
+                continue;
+            }
+
+            driftDetected.increment();
+            int[] previous = suspectedDrift.put(stationId, drift);
+            if (previous != null && Arrays.equals(previous, drift)) {
+                log.warn("Tồn kho trạm {} lệch {} (full, charging, maintenance, defective, held), đã sửa theo bảng batteries",
+                        stationId, Arrays.toString(drift));
+                overwrite(stationId, real);
+                suspectedDrift.remove(stationId);
+                driftCorrected.increment();
+                corrected++;
+            }
+        }
+
+        if (corrected > 0) {
+            log.info("Đối soát tồn kho: đã sửa {} trạm", corrected);
+        }
+    }
+
+    private void overwrite(Long stationId, int[] counts) {
+        inventoryRepository.overwrite(stationId, counts[FULL], counts[CHARGING], counts[MAINTENANCE],
+                counts[DEFECTIVE], counts[HELD]);
+        availabilityStream.inventoryChanged(List.of(stationId));
+    }
+
+    private static void add(Map<Long, int[]> deltas, BatteryState state, int sign) {
+        if (state.stationId() == null) return;
+        int[] d = deltas.computeIfAbsent(state.stationId(), id -> new int[SIZE]);
+        int index = indexOf(state.status());
+        if (index >= 0) d[index] += sign;
+        if (state.hold()) d[HELD] += sign;
+    }
+
+    private static int indexOf(BatteryStatus status) {
+        if (status == null) return -1;
+        return switch (status) {
+            case FULL -> FULL;
+            case CHARGING -> CHARGING;
+            case MAINTENANCE -> MAINTENANCE;
+            case DEFECTIVE -> DEFECTIVE;
+            default -> -1;
+        };
+    }
+
+    private static boolean isZero(int[] values) {
+        for (int v : values) {
+            if (v != 0) return false;
+        }
+        return true;
+    }
+}
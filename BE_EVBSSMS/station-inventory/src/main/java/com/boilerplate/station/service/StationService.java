@@ -28,14 +28,31 @@ public class StationService {
     private final StationRepository stationRepository;
     private final BatteryRepository batteryRepository;
     private final OpenStreetMapService openStreetMapService;
-    private static BatteryCodeGenerator batteryCodeGenerator;
+    private final StationGeoIndex stationGeoIndex;
+    private final StationInventoryService stationInventoryService;
+    private final BatteryCodeGenerator batteryCodeGenerator;
+
+    private static final String INCLUDE_BATTERIES = "batteries";
 
     //========================= Station CRUD Operations ========================
-    public ResponseEntity<ResponseData<List<StationDTO>>> getAllStations() {
-        List<StationDTO> stations = stationRepository.findAll()
-                .stream()
-                .map(StationDTO::fromEntity)
-                .collect(Collectors.toList());
+    /**
+     * Mặc định trả bản tóm tắt (không kèm pin). {@code include=batteries} trả bản chi tiết có danh sách pin.
+     */
+    public ResponseEntity<ResponseData<List<StationDTO>>> getAllStations(String include) {
+        List<StationDTO> stations;
+        if (include == null || include.isBlank()) {
+            stations = stationRepository.findAllSummaries()
+                    .stream()
+                    .map(StationDTO::fromSummary)
+                    .collect(Collectors.toList());
+        } else if (INCLUDE_BATTERIES.equalsIgnoreCase(include.trim())) {
+            stations = stationRepository.findAllWithBatteries()
+                    .stream()
+                    .map(StationDTO::fromEntity)
+                    .collect(Collectors.toList());
+        } else {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
 
         return ResponseEntity.ok(
                 new ResponseData<>(HttpStatus.OK.value(), "Lấy danh sách tất cả trạm thành công", stations)
@@ -59,7 +76,7 @@ public class StationService {
         try {
             var location = openStreetMapService.getCoordinatesFromAddress(request.getAddress());
             Station station = new Station();
-            station.setStationCode(BatteryCodeGenerator.generateStationCode());
+            station.setStationCode(batteryCodeGenerator.generateStationCode());
             station.setStationName(request.getStationName());
             station.setAddress(request.getAddress());
             station.setPhoneNumber(request.getPhoneNumber());
@@ -70,6 +87,7 @@ public class StationService {
             station.setLongitude(location.longitude());
 
             Station saved = stationRepository.save(station);
+            stationGeoIndex.upsert(saved);
             StationDTO dto = StationDTO.fromEntity(saved);
 
             return ResponseEntity.status(HttpStatus.CREATED)
@@ -109,6 +127,7 @@ public class StationService {
         station.setStatus(request.getStatus());
 
         Station updated = stationRepository.save(station);
+        stationGeoIndex.upsert(updated);
         StationDTO dto = StationDTO.fromEntity(updated);
 
         return ResponseEntity.ok(
@@ -124,6 +143,8 @@ public class StationService {
         }
 
         stationRepository.deleteById(id);
+        stationInventoryService.removeStation(id);
+        stationGeoIndex.remove(id);
         return ResponseEntity.ok(
                 new ResponseData<>(HttpStatus.OK.value(), "Xóa trạm thành công", null)
         );
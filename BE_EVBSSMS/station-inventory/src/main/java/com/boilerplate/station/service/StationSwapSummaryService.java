@@ -1,7 +1,8 @@
 package com.boilerplate.station.service;
 
 import com.boilerplate.station.enums.TimeSlot;
-import com.boilerplate.station.model.entity.BatterySwapLog;
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
 import com.boilerplate.station.model.entity.Station;
 import com.boilerplate.station.model.event.Producer.StationSwapSummaryDTO;
 import com.boilerplate.station.repository.BatterySwapLogRepository;
@@ -19,56 +20,97 @@ public class StationSwapSummaryService {
 
     private final BatterySwapLogRepository swapLogRepository;
     private final StationRepository stationRepository;
+    private final LogArchiveService logArchiveService;
 
     /**
      * Lấy tất cả swap, gom theo trạm, ngày, khung giờ
      */
     public List<StationSwapSummaryDTO> getAllSwapSummary() {
-        List<StationSwapSummaryDTO> result = new ArrayList<>();
-
-        // Lấy tất cả trạm
-        List<Station> stations = stationRepository.findAll();
-
-        for (Station station : stations) {
-            // Lấy tất cả swap của trạm này
-            List<BatterySwapLog> swaps = swapLogRepository.findByStationId(station.getId());
+        return getSwapSummary(null, null, null, null, null);
+    }
 
-            // Gom theo ngày
-            Map<LocalDate, Map<TimeSlot, Integer>> summaryMap = new TreeMap<>();
+    /**
+     * Tổng hợp swap theo trạm, ngày, khung giờ.
+     * DB gom nhóm theo (trạm, ngày, giờ) trong một câu GROUP BY, mỗi giờ được cộng vào khung giờ tương ứng.
+     * Các tháng đã lưu trữ ra file ({@link LogArchiveService}) được đọc thêm khi khoảng [from, to) giao với danh mục
+     * archived_log_files (khoảng không giới hạn thì đọc mọi tháng đã lưu trữ, để tổng không thiếu lịch sử);
+     * khi đó phân trang làm trong bộ nhớ thay vì trong DB, và các dòng của tháng đó có id <= max_id của file
+     * bị loại khỏi truy vấn DB (file đã ghi danh mục nhưng lệnh xóa chưa chạy xong).
+     * Các tham số null nghĩa là không lọc / không phân trang. {@code to} tính cả ngày đó.
+     * Phân trang theo từng bản ghi (trạm, ngày), sắp theo stationId rồi ngày.
+     */
+    public List<StationSwapSummaryDTO> getSwapSummary(Long stationId, LocalDate from, LocalDate to,
+                                                      Integer page, Integer size) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
+        if ((page != null && page < 0) || (size != null && size <= 0)) {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
 
-            for (BatterySwapLog log : swaps) {
-                LocalDate date = log.getSwapTime().toLocalDate();
+        long limit = size != null ? size : Integer.MAX_VALUE;
+        long offset = size != null && page != null ? (long) page * size : 0;
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
 
-                summaryMap.putIfAbsent(date, new LinkedHashMap<>());
-                Map<TimeSlot, Integer> slotMap = summaryMap.get(date);
+        // Gom giờ -> khung giờ, sắp theo (trạm, ngày)
+        Map<Long, Map<LocalDate, Map<TimeSlot, Integer>>> summaryMap = new TreeMap<>();
+        Map<LocalDate, Long> archived = logArchiveService.forEachArchivedSwap(stationId, fromTime, toTime, swap ->
+                add(summaryMap, swap.stationId(), swap.swapTime().toLocalDate(), swap.swapTime().getHour(), 1));
+        boolean inMemoryPaging = !archived.isEmpty();
 
-                for (TimeSlot slot : TimeSlot.values()) {
-                    LocalDateTime start = date.atTime(slot.getStartHour(), 0);
-                    LocalDateTime end;
-                    if(slot.getEndHour() == 24){
-                        end = date.plusDays(1).atTime(0, 0);
-                    } else {
-                        end = date.atTime(slot.getEndHour(), 0);
-                    }
+        // Dòng đã có trong file nhưng chưa bị xóa khỏi bảng không được đếm hai lần
+        LocalDateTime[] archivedMonths = archived.keySet().stream()
+                .map(LocalDate::atStartOfDay).toArray(LocalDateTime[]::new);
+        Long[] archivedMaxIds = archived.values().toArray(Long[]::new);
+        List<BatterySwapLogRepository.SlotSwapCount> rows = swapLogRepository.countSwapsByStationDateSlot(
+                stationId, fromTime, toTime, archivedMonths, archivedMaxIds,
+                inMemoryPaging ? 0 : offset, inMemoryPaging ? Integer.MAX_VALUE : limit);
+        for (BatterySwapLogRepository.SlotSwapCount row : rows) {
+            add(summaryMap, row.getStationId(), row.getSwapDate(), row.getSlotHour(), row.getSwapCount().intValue());
+        }
+        if (summaryMap.isEmpty()) return new ArrayList<>();
 
-                    slotMap.put(slot, slotMap.getOrDefault(slot, 0)
-                            + (log.getSwapTime().isEqual(start) || log.getSwapTime().isAfter(start)
-                            && log.getSwapTime().isBefore(end) ? 1 : 0));
+        long skip = inMemoryPaging ? offset : 0;
+        List<StationSwapSummaryDTO> result = new ArrayList<>();
+        for (Map.Entry<Long, Map<LocalDate, Map<TimeSlot, Integer>>> station : summaryMap.entrySet()) {
+            if (result.size() >= limit) break;
+            for (Map.Entry<LocalDate, Map<TimeSlot, Integer>> day : station.getValue().entrySet()) {
+                if (skip > 0) {
+                    skip--;
+                    continue;
                 }
-            }
-
-            // Chuyển summaryMap thành DTO
-            for (Map.Entry<LocalDate, Map<TimeSlot, Integer>> entry : summaryMap.entrySet()) {
-                StationSwapSummaryDTO dto = StationSwapSummaryDTO.builder()
-                        .stationId(station.getId())
-                        .stationName(station.getStationName())
-                        .date(entry.getKey().toString())
-                        .swapCountBySlot(entry.getValue())
-                        .build();
-                result.add(dto);
+                if (result.size() >= limit) break;
+                result.add(StationSwapSummaryDTO.builder()
+                        .stationId(station.getKey())
+                        .date(day.getKey().toString())
+                        .swapCountBySlot(day.getValue())
+                        .build());
             }
         }
 
+        Set<Long> stationIds = new HashSet<>();
+        result.forEach(dto -> stationIds.add(dto.getStationId()));
+        Map<Long, String> stationNames = new HashMap<>();
+        for (Station station : stationRepository.findAllById(stationIds)) {
+            stationNames.put(station.getId(), station.getStationName());
+        }
+        result.forEach(dto -> dto.setStationName(stationNames.get(dto.getStationId())));
         return result;
     }
+
+    private static void add(Map<Long, Map<LocalDate, Map<TimeSlot, Integer>>> summaryMap,
+                            Long stationId, LocalDate date, int hour, int count) {
+        summaryMap.computeIfAbsent(stationId, id -> new TreeMap<>())
+                .computeIfAbsent(date, d -> emptySlots())
+                .merge(TimeSlot.ofHour(hour), count, Integer::sum);
+    }
+
+    private static Map<TimeSlot, Integer> emptySlots() {
+        Map<TimeSlot, Integer> slots = new LinkedHashMap<>();
+        for (TimeSlot slot : TimeSlot.values()) {
+            slots.put(slot, 0);
+        }
+        return slots;
+    }
 }
@@ -1,30 +1,57 @@
 package com.boilerplate.station.service;
 
+import com.boilerplate.station.enums.BatteryEventType;
+import com.boilerplate.station.enums.OwnerType;
 import com.boilerplate.station.enums.SupplyRequestStatus;
+import com.boilerplate.station.enums.TransferOutcome;
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
 import com.boilerplate.station.model.DTO.BatterySupplyRequestDTO;
+import com.boilerplate.station.model.DTO.BatteryTransferResultDTO;
 import com.boilerplate.station.model.createRequest.CreateSupplyRequest;
-import com.boilerplate.station.model.entity.Battery;
+import com.boilerplate.station.model.entity.BatteryEvent;
 import com.boilerplate.station.model.entity.BatterySupplyRequest;
 import com.boilerplate.station.model.entity.Station;
 import com.boilerplate.station.model.response.ResponseData;
 import com.boilerplate.station.repository.BatteryRepository;
 import com.boilerplate.station.repository.BatterySupplyRequestRepository;
 import com.boilerplate.station.repository.StationRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 @Service
 @RequiredArgsConstructor
 public class SupplyRequestService {
+
+    @Value("${station.transfer.max-batch:500}")
+    private int maxTransferBatch;
+
+    @Value("${station.supply-request.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${station.supply-request.max-page-size:200}")
+    private int maxPageSize;
+
     private final BatterySupplyRequestRepository supplyRequestRepository;
     private final StationRepository stationRepository;
     private final BatteryRepository batteryRepository;
+    private final StationInventoryService stationInventoryService;
+    private final BatteryTimelineService batteryTimelineService;
 
     public ResponseEntity<ResponseData<BatterySupplyRequestDTO>> createRequest(CreateSupplyRequest request) {
         if (request.getStationCode() == null || request.getStationCode().isBlank()) {
@@ -87,13 +114,10 @@ public class SupplyRequestService {
     }
 
 
-    public ResponseEntity<ResponseData<List<BatterySupplyRequestDTO>>> getByStationCode(String stationCode) {
+    public ResponseEntity<ResponseData<List<BatterySupplyRequestDTO>>> getByStationCode(
+            String stationCode, SupplyRequestStatus status, LocalDate from, LocalDate to, Long beforeId, Integer size) {
 
-        List<BatterySupplyRequestDTO> dtoList = supplyRequestRepository.findAll()
-                .stream()
-                .filter(r -> r.getStation() != null && stationCode.equals(r.getStation().getStationCode()))
-                .map(BatterySupplyRequestDTO::fromEntity)
-                .toList();
+        List<BatterySupplyRequestDTO> dtoList = search(stationCode, status, from, to, beforeId, size);
 
         return ResponseEntity.ok(
                 ResponseData.<List<BatterySupplyRequestDTO>>builder()
@@ -104,58 +128,105 @@ public class SupplyRequestService {
         );
     }
 
-    public ResponseEntity<ResponseData<Void>> transferBatteries(
+    /**
+     * Chuyển nhiều pin sang trạm đích theo lô:
+     * một query khóa + đọc tất cả pin (theo thứ tự id, tránh deadlock), một câu UPDATE cho các pin hợp lệ.
+     * Pin không tồn tại / đang giữ / đã ở trạm đích được bỏ qua và báo lại trong kết quả từng mã.
+     */
+    @Transactional
+    public ResponseEntity<ResponseData<BatteryTransferResultDTO>> transferBatteries(
             List<String> batteryCodes,
             String destinationStationCode) {
         if (batteryCodes == null || batteryCodes.isEmpty()) {
             return ResponseEntity.badRequest().body(
-                    ResponseData.<Void>builder()
+                    ResponseData.<BatteryTransferResultDTO>builder()
                             .statusCode(400)
                             .message("Danh sách pin không được để trống")
                             .build()
             );
         }
+        if (batteryCodes.size() > maxTransferBatch) {
+            return ResponseEntity.badRequest().body(
+                    ResponseData.<BatteryTransferResultDTO>builder()
+                            .statusCode(400)
+                            .message("Chỉ chuyển tối đa " + maxTransferBatch + " pin mỗi lần")
+                            .build()
+            );
+        }
         Station destinationStation = stationRepository.findByStationCode(destinationStationCode)
-                .orElseThrow(() -> new RuntimeException(
-                        "Station " + destinationStationCode + " không tồn tại"
-                ));
-        List<Battery> transferred = new ArrayList<>();
-        for (String code : batteryCodes) {
-            Battery battery = batteryRepository.findByBatteryCode(code)
-                    .orElseThrow(() -> new RuntimeException("Battery " + code + " không tồn tại"));
+                .orElseThrow(() -> new BusinessException(AppException.STATION_NOT_FOUND));
 
-            if (battery.isHold()) {
-                throw new RuntimeException("Battery " + code + " đang bị giữ, không thể chuyển");
-            }
-            Station oldStation = battery.getStation();
-            if (oldStation != null) {
-                oldStation.getBatteries().remove(battery);
+        Set<String> uniqueCodes = new LinkedHashSet<>(batteryCodes);
+        Map<String, BatteryRepository.TransferCandidate> found = new HashMap<>();
+        for (BatteryRepository.TransferCandidate candidate : batteryRepository.lockForTransfer(uniqueCodes)) {
+            found.put(candidate.getBatteryCode(), candidate);
+        }
+
+        List<Long> idsToMove = new ArrayList<>();
+        List<StationInventoryService.BatteryState> before = new ArrayList<>();
+        List<StationInventoryService.BatteryState> after = new ArrayList<>();
+        List<BatteryEvent> events = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        List<BatteryTransferResultDTO.Item> items = new ArrayList<>(batteryCodes.size());
+        Set<String> seen = new HashSet<>();
+
+        for (String code : batteryCodes) {
+            TransferOutcome outcome;
+            BatteryRepository.TransferCandidate candidate = found.get(code);
+            if (!seen.add(code)) {
+                outcome = TransferOutcome.DUPLICATE;
+            } else if (candidate == null) {
+                outcome = TransferOutcome.NOT_FOUND;
+            } else if (Boolean.TRUE.equals(candidate.getHold())) {
+                outcome = TransferOutcome.HELD;
+            } else if (destinationStation.getId().equals(candidate.getStationId())) {
+                outcome = TransferOutcome.ALREADY_AT_STATION;
+            } else {
+                outcome = TransferOutcome.TRANSFERRED;
+                idsToMove.add(candidate.getId());
+                before.add(new StationInventoryService.BatteryState(
+                        candidate.getStationId(), candidate.getStatus(), false));
+                after.add(new StationInventoryService.BatteryState(
+                        destinationStation.getId(), candidate.getStatus(), false));
+                events.add(BatteryEvent.builder()
+                        .batteryId(candidate.getId())
+                        .type(BatteryEventType.TRANSFER)
+                        .eventTime(now)
+                        .fromStationId(candidate.getStationId())
+                        .stationId(destinationStation.getId())
+                        .build());
             }
+            items.add(new BatteryTransferResultDTO.Item(code, outcome));
+        }
 
-            battery.setStation(destinationStation);
-            battery.setOwnerType(com.boilerplate.station.enums.OwnerType.STATION);
-            battery.setReferenceId(destinationStation.getStationCode());
-            destinationStation.getBatteries().add(battery);
-            transferred.add(batteryRepository.save(battery));
+        if (!idsToMove.isEmpty()) {
+            batteryRepository.moveToStation(idsToMove, destinationStation, OwnerType.STATION,
+                    destinationStation.getStationCode());
+            stationInventoryService.trackAll(before, after);
+            batteryTimelineService.record(events);
         }
 
-        stationRepository.save(destinationStation);
+        BatteryTransferResultDTO result = BatteryTransferResultDTO.builder()
+                .destinationStationCode(destinationStation.getStationCode())
+                .requested(batteryCodes.size())
+                .transferred(idsToMove.size())
+                .items(items)
+                .build();
 
         return ResponseEntity.ok(
-                ResponseData.<Void>builder()
+                ResponseData.<BatteryTransferResultDTO>builder()
                         .statusCode(200)
-                        .message("Chuyển pin thành công sang trạm " + destinationStationCode)
-                        .data(null)
+                        .message("Đã chuyển " + idsToMove.size() + "/" + batteryCodes.size()
+                                + " pin sang trạm " + destinationStationCode)
+                        .data(result)
                         .build()
         );
     }
 
 
-    public ResponseEntity<ResponseData<List<BatterySupplyRequestDTO>>> getAllRequests() {
-        List<BatterySupplyRequestDTO> dtoList = supplyRequestRepository.findAll()
-                .stream()
-                .map(BatterySupplyRequestDTO::fromEntity)
-                .toList();
+    public ResponseEntity<ResponseData<List<BatterySupplyRequestDTO>>> getAllRequests(
+            SupplyRequestStatus status, LocalDate from, LocalDate to, Long beforeId, Integer size) {
+        List<BatterySupplyRequestDTO> dtoList = search(null, status, from, to, beforeId, size);
 
         return ResponseEntity.ok(
                 ResponseData.<List<BatterySupplyRequestDTO>>builder()
@@ -166,6 +237,29 @@ public class SupplyRequestService {
         );
     }
 
+    /**
+     * Một trang request mới nhất trước. Trang sau: truyền {@code beforeId} = id cuối của trang hiện tại.
+     * {@code from}/{@code to} lọc theo ngày tạo, tính cả 2 đầu.
+     */
+    private List<BatterySupplyRequestDTO> search(String stationCode, SupplyRequestStatus status,
+                                                 LocalDate from, LocalDate to, Long beforeId, Integer size) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
+        int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        if (pageSize <= 0) {
+            throw new BusinessException(AppException.BAD_REQUEST);
+        }
+
+        return supplyRequestRepository.search(
+                stationCode,
+                status,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                beforeId,
+                PageRequest.of(0, pageSize));
+    }
+
     public ResponseEntity<ResponseData<BatterySupplyRequestDTO>> getRequestById(Long requestId) {
         BatterySupplyRequest request = supplyRequestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Request with ID " + requestId + " not found"));
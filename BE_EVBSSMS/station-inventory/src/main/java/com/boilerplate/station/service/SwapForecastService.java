@@ -0,0 +1,306 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.TimeSlot;
+import com.boilerplate.station.model.DTO.SwapForecastDTO;
+import com.boilerplate.station.model.event.Producer.BatterySwapSummary;
+import com.boilerplate.station.model.response.ResponseData;
+import com.boilerplate.station.repository.BatterySwapSummaryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Dự báo số lượt swap theo (trạm, khung giờ) ngay trong service, thay cho việc gửi toàn bộ summary cho LLM.
+ * - Mỗi (trạm, khung giờ) là một chuỗi theo ngày, dùng Holt-Winters cộng tính với mùa vụ theo thứ trong tuần
+ *   (level là EWMA của số lượt đã khử mùa, trend được giảm chấn khi dự báo xa).
+ * - Mô hình được cập nhật tăng dần: khi một khung giờ kết thúc, số lượt của khung đó (đã được cộng dồn vào
+ *   battery_swap_summary lúc swap) được đọc bằng một query và đưa vào mô hình của mọi trạm; không fit lại từ đầu.
+ * - Khi khởi động, mô hình được dựng lại từ {@code history-days} ngày gần nhất của battery_swap_summary.
+ * - Cập nhật các trạm chạy song song trên một ForkJoinPool riêng; dự báo chỉ đọc trạng thái trong bộ nhớ.
+ * Mỗi instance tự dựng mô hình từ DB nên kết quả giống nhau giữa các instance.
+ * Metrics: station.forecast.models (gauge), station.forecast.update.
+ */
+@Slf4j
+@Service
+public class SwapForecastService {
+
+    static final int SEASON = 7;
+    private static final double DAMPING = 0.9;
+    private static final int MAX_GAP_DAYS = 28;
+
+    /**
+     * Holt-Winters cộng tính cho chuỗi theo ngày, mùa vụ 7 ngày đánh chỉ số theo {@link DayOfWeek}.
+     * Tuần đầu tiên chỉ gom số liệu để khởi tạo level và hệ số mùa vụ; trước đó dự báo bằng trung bình.
+     */
+    static final class SeasonalModel {
+        private final double alpha;
+        private final double beta;
+        private final double gamma;
+        private final double[] season = new double[SEASON];
+        private double level;
+        private double trend;
+        private int observations;
+        private LocalDate lastDate;
+
+        SeasonalModel(double alpha, double beta, double gamma) {
+            this.alpha = alpha;
+            this.beta = beta;
+            this.gamma = gamma;
+        }
+
+        /**
+         * Thêm số lượt của ngày {@code date}. Ngày bị bỏ qua ở giữa được coi là 0 lượt;
+         * ngày cũ hơn hoặc bằng ngày đã học bị bỏ qua (gọi lại nhiều lần an toàn).
+         */
+        synchronized void observe(LocalDate date, double value) {
+            if (lastDate != null) {
+                if (!date.isAfter(lastDate)) return;
+                long gap = ChronoUnit.DAYS.between(lastDate, date) - 1;
+                if (gap > MAX_GAP_DAYS) {
+                    reset();
+                } else {
+                    for (long i = 1; i <= gap; i++) update(lastDate.plusDays(1), 0);
+                }
+            }
+            update(date, value);
+        }
+
+        private void update(LocalDate date, double y) {
+            int d = date.getDayOfWeek().getValue() - 1;
+            lastDate = date;
+            if (observations < SEASON) {
+                season[d] = y;      // tạm giữ giá trị gốc của tuần đầu
+                level += (y - level) / (observations + 1);
+                observations++;
+                if (observations == SEASON) {
+                    for (int i = 0; i < SEASON; i++) season[i] -= level;
+                }
+                return;
+            }
+            double previousLevel = level;
+            level = alpha * (y - season[d]) + (1 - alpha) * (level + trend);
+            trend = beta * (level - previousLevel) + (1 - beta) * trend;
+            season[d] = gamma * (y - level) + (1 - gamma) * season[d];
+            observations++;
+        }
+
+        private void reset() {
+            level = 0;
+            trend = 0;
+            observations = 0;
+            Arrays.fill(season, 0);
+        }
+
+        /**
+         * Số lượt dự kiến của ngày {@code target} (sau ngày đã học cuối cùng), không âm.
+         */
+        synchronized double forecast(LocalDate target) {
+            if (observations == 0) return 0;
+            if (observations < SEASON) return level;
+            long h = Math.max(1, ChronoUnit.DAYS.between(lastDate, target));
+            double dampedTrend = 0;
+            double factor = 1;
+            for (long i = 1; i <= h; i++) {
+                factor *= DAMPING;
+                dampedTrend += factor * trend;
+            }
+            return Math.max(0, level + dampedTrend + season[target.getDayOfWeek().getValue() - 1]);
+        }
+
+        synchronized LocalDate lastDate() {
+            return lastDate;
+        }
+    }
+
+    private final BatterySwapSummaryRepository summaryRepository;
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+    private final int historyDays;
+    private final ForkJoinPool pool;
+    private final Timer updateTimer;
+
+    private final Map<Long, Map<TimeSlot, SeasonalModel>> models = new ConcurrentHashMap<>();
+
+    public SwapForecastService(BatterySwapSummaryRepository summaryRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${station.forecast.alpha:0.3}") double alpha,
+                               @Value("${station.forecast.beta:0.05}") double beta,
+                               @Value("${station.forecast.gamma:0.2}") double gamma,
+                               @Value("${station.forecast.history-days:56}") int historyDays,
+                               @Value("${station.forecast.parallelism:0}") int parallelism) {
+        this.summaryRepository = summaryRepository;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.historyDays = historyDays;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        meterRegistry.gauge("station.forecast.models", models, Map::size);
+        this.updateTimer = meterRegistry.timer("station.forecast.update");
+    }
+
+    /**
+     * Dựng mô hình từ lịch sử tới hết hôm qua, cộng các khung giờ của hôm nay đã kết thúc (job đóng khung
+     * đã chạy trước khi khởi động lại sẽ không chạy lại); khung đang mở được học khi kết thúc.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        bootstrap(LocalDateTime.now());
+    }
+
+    void bootstrap(LocalDateTime now) {
+        LocalDate today = now.toLocalDate();
+        train(summaryRepository.findByDateGreaterThanEqualAndDateLessThan(today.minusDays(historyDays), today.plusDays(1)),
+                slot -> slot.getEndHour() <= now.getHour() ? today : today.minusDays(1));
+        log.info("Đã dựng mô hình dự báo swap cho {} trạm", models.size());
+    }
+
+    /**
+     * Học từ các dòng summary cho sẵn, mọi khung giờ tới hết ngày {@code until}. Public để dựng mô hình không qua DB
+     * (station-benchmarks, công cụ offline); trong service mô hình được dựng bởi {@link #bootstrap()}.
+     */
+    public void train(Collection<BatterySwapSummary> rows, LocalDate until) {
+        train(rows, slot -> until);
+    }
+
+    /**
+     * Học từ các dòng summary, mỗi chuỗi chạy từ ngày đầu tiên có số liệu tới {@code until} của khung giờ đó
+     * (ngày thiếu = 0 lượt); số liệu sau {@code until} bị bỏ qua.
+     */
+    void train(Collection<BatterySwapSummary> rows, Function<TimeSlot, LocalDate> until) {
+        Map<Long, Map<TimeSlot, TreeMap<LocalDate, Integer>>> series = new HashMap<>();
+        for (BatterySwapSummary row : rows) {
+            if (row.getStationId() == null || row.getTimeSlot() == null) continue;
+            series.computeIfAbsent(row.getStationId(), id -> new EnumMap<>(TimeSlot.class))
+                    .computeIfAbsent(row.getTimeSlot(), slot -> new TreeMap<>())
+                    .merge(row.getDate(), row.getSwapCount(), Integer::sum);
+        }
+        inParallel(series.keySet(), stationId -> series.get(stationId).forEach((slot, counts) -> {
+            LocalDate last = until.apply(slot);
+            if (counts.firstKey().isAfter(last)) return;
+            SeasonalModel model = model(stationId, slot);
+            for (LocalDate date = counts.firstKey(); !date.isAfter(last); date = date.plusDays(1)) {
+                model.observe(date, counts.getOrDefault(date, 0));
+            }
+        }));
+    }
+
+    /**
+     * Khi một khung giờ kết thúc (mặc định 5 phút sau 0h, 6h, 12h, 18h), học số lượt của khung đó cho mọi trạm.
+     */
+    @Scheduled(cron = "${station.forecast.slot-close-cron:0 5 0,6,12,18 * * *}")
+    public void onSlotClosed() {
+        LocalDateTime closed = LocalDateTime.now().minusHours(1);
+        observeSlot(closed.toLocalDate(), TimeSlot.ofHour(closed.getHour()));
+    }
+
+    /**
+     * Đưa số lượt của (ngày, khung giờ) vào mô hình; trạm đã có mô hình mà không có dòng summary được tính 0 lượt.
+     */
+    void observeSlot(LocalDate date, TimeSlot slot) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (BatterySwapSummary row : summaryRepository.findByDateAndTimeSlot(date, slot)) {
+            counts.merge(row.getStationId(), row.getSwapCount(), Integer::sum);
+        }
+        Set<Long> stations = new HashSet<>(models.keySet());
+        counts.forEach((stationId, count) -> {
+            if (count > 0) stations.add(stationId);
+        });
+        inParallel(stations, stationId -> model(stationId, slot).observe(date, counts.getOrDefault(stationId, 0)));
+    }
+
+    public ResponseEntity<ResponseData<SwapForecastDTO>> getForecast(Long stationId) {
+        return ResponseEntity.ok(
+                ResponseData.<SwapForecastDTO>builder()
+                        .statusCode(200)
+                        .message("Lấy dự báo lượt đổi pin thành công")
+                        .data(forecast(stationId, LocalDate.now()))
+                        .build()
+        );
+    }
+
+    public ResponseEntity<ResponseData<List<SwapForecastDTO>>> getAllForecasts() {
+        LocalDate today = LocalDate.now();
+        List<SwapForecastDTO> result = new ArrayList<>();
+        new TreeMap<>(models).keySet().forEach(stationId -> result.add(forecast(stationId, today)));
+        return ResponseEntity.ok(
+                ResponseData.<List<SwapForecastDTO>>builder()
+                        .statusCode(200)
+                        .message("Lấy dự báo lượt đổi pin thành công")
+                        .data(result)
+                        .build()
+        );
+    }
+
+    /**
+     * Dự báo ngày mai và 7 ngày tới tính từ {@code today}.
+     */
+    public SwapForecastDTO forecast(Long stationId, LocalDate today) {
+        Map<TimeSlot, SeasonalModel> station = models.get(stationId);
+        List<SwapForecastDTO.DayForecast> week = new ArrayList<>(SEASON);
+        for (int i = 1; i <= SEASON; i++) {
+            LocalDate date = today.plusDays(i);
+            Map<TimeSlot, Double> slots = new EnumMap<>(TimeSlot.class);
+            double total = 0;
+            for (TimeSlot slot : TimeSlot.values()) {
+                SeasonalModel model = station != null ? station.get(slot) : null;
+                double value = model != null ? round(model.forecast(date)) : 0;
+                slots.put(slot, value);
+                total += value;
+            }
+            week.add(new SwapForecastDTO.DayForecast(date, slots, round(total)));
+        }
+        return SwapForecastDTO.builder()
+                .stationId(stationId)
+                .trained(station != null)
+                .nextDay(week.get(0))
+                .nextWeek(week)
+                .build();
+    }
+
+    SeasonalModel model(Long stationId, TimeSlot slot) {
+        return models.computeIfAbsent(stationId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(slot, s -> new SeasonalModel(alpha, beta, gamma));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private void inParallel(Collection<Long> stationIds, Consumer<Long> update) {
+        if (stationIds.isEmpty()) return;
+        updateTimer.record(() -> pool.submit(() -> stationIds.parallelStream().forEach(update)).join());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
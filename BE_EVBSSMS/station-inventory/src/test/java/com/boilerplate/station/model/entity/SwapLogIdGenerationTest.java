@@ -0,0 +1,128 @@
+package com.boilerplate.station.model.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * BatterySwapLog và BatterySwapStationLog ghi chung bảng battery_swap_logs.
+ * Chạy trên Postgres cấu hình bằng STATION_INVENTORY_DB_* (như service), trong một schema riêng bị xóa sau khi chạy;
+ * bỏ qua nếu không kết nối được.
+ */
+class SwapLogIdGenerationTest {
+
+    private static final String SCHEMA = "swap_log_id_test";
+
+    private static DriverManagerDataSource dataSource;
+    private static final List<LocalContainerEntityManagerFactoryBean> factories = new ArrayList<>();
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:postgresql://" + env("STATION_INVENTORY_DB_HOST", "localhost") + ":"
+                        + env("STATION_INVENTORY_DB_PORT", "5434") + "/" + env("STATION_INVENTORY_DB_NAME", "stationdb"),
+                env("STATION_INVENTORY_DB_USER", "ev"), env("STATION_INVENTORY_DB_PASSWORD", "evpass"));
+        try (Connection ignored = dataSource.getConnection()) {
+            // kết nối được
+        } catch (Exception e) {
+            Assumptions.abort("Không kết nối được Postgres: " + e.getMessage());
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbc.execute("CREATE SCHEMA " + SCHEMA);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        factories.forEach(LocalContainerEntityManagerFactoryBean::destroy);
+        if (dataSource != null) {
+            new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    private static String env(String name, String fallback) {
+        return Objects.requireNonNullElse(System.getenv(name), fallback);
+    }
+
+    // Mỗi factory là một instance service, với khối id cấp trước riêng
+    private static EntityManagerFactory instance(String ddl) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.boilerplate.station.model.entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                // Đặt tên cột như Spring Boot (snake_case)
+                "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                "hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName(),
+                "hibernate.default_schema", SCHEMA,
+                "hibernate.hbm2ddl.auto", ddl));
+        factory.afterPropertiesSet();
+        factories.add(factory);
+        return factory.getObject();
+    }
+
+    private static Long persist(EntityManagerFactory factory, Object log) {
+        EntityManager em = factory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.persist(log);
+            em.getTransaction().commit();
+            return (Long) factory.getPersistenceUnitUtil().getIdentifier(log);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static BatterySwapLog swapLog() {
+        BatterySwapLog log = new BatterySwapLog();
+        log.setVehiceId("VH-1");
+        log.setSwapTime(LocalDateTime.now());
+        return log;
+    }
+
+    private static BatterySwapStationLog stationLog() {
+        BatterySwapStationLog log = new BatterySwapStationLog();
+        log.setOldStationId("ST-1");
+        log.setNewStationId("ST-2");
+        log.setSwapTime(LocalDateTime.now());
+        return log;
+    }
+
+    @Test
+    void bothLogTypesShareOneIdSequenceAcrossInstances() {
+        EntityManagerFactory first = instance("create");
+        EntityManagerFactory second = instance("none");
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            ids.add(persist(first, swapLog()));
+            ids.add(persist(second, stationLog()));
+            ids.add(persist(first, stationLog()));
+            ids.add(persist(second, swapLog()));
+        }
+
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        Long rows = new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM " + SCHEMA + ".battery_swap_logs", Long.class);
+        assertEquals(ids.size(), rows);
+    }
+}
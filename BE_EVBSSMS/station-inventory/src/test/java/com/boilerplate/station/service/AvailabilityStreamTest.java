@@ -0,0 +1,161 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.SlotStatus;
+import com.boilerplate.station.model.DTO.StationAvailabilityDTO;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.model.entity.StationInventory;
+import com.boilerplate.station.repository.BatterySlotRepository;
+import com.boilerplate.station.repository.StationInventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AvailabilityStreamTest {
+
+    /**
+     * Ghi lại các event thay vì ghi ra HTTP response.
+     */
+    static class CapturingEmitter extends SseEmitter {
+        final List<String> names = new ArrayList<>();
+        final List<Object> payloads = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String text) {
+                    if (text.startsWith("event:")) names.add(text.substring(6).trim().split("\n")[0]);
+                } else {
+                    payloads.add(part.getData());
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<StationAvailabilityDTO> last() {
+            return (List<StationAvailabilityDTO>) payloads.get(payloads.size() - 1);
+        }
+    }
+
+    private StationInventoryRepository inventoryRepository;
+    private BatterySlotRepository batterySlotRepository;
+    private AvailabilityStream stream;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(StationInventoryRepository.class);
+        batterySlotRepository = mock(BatterySlotRepository.class);
+        StationGeoIndex geoIndex = new StationGeoIndex(null, 0.05);
+        geoIndex.upsert(station(1, 10.77, 106.70));
+        geoIndex.upsert(station(2, 21.03, 105.85));
+        stream = new AvailabilityStream(inventoryRepository, batterySlotRepository, geoIndex,
+                new SimpleMeterRegistry(), 60_000, 200);
+    }
+
+    private static Station station(long id, double lat, double lon) {
+        Station s = new Station();
+        s.setId(id);
+        s.setLatitude(lat);
+        s.setLongitude(lon);
+        return s;
+    }
+
+    private static StationInventory inventory(long stationId, int full) {
+        StationInventory inventory = new StationInventory();
+        inventory.setStationId(stationId);
+        inventory.setFullCount(full);
+        inventory.setChargingCount(2);
+        return inventory;
+    }
+
+    private static BatterySlotRepository.SlotState slot(long id, long stationId, SlotStatus status) {
+        BatterySlotRepository.SlotState slot = mock(BatterySlotRepository.SlotState.class);
+        when(slot.getId()).thenReturn(id);
+        when(slot.getStationId()).thenReturn(stationId);
+        when(slot.getStatus()).thenReturn(status);
+        return slot;
+    }
+
+    @Test
+    void subscriberReceivesSnapshotFirst() {
+        List<StationInventory> counts = List.of(inventory(1, 4));
+        List<BatterySlotRepository.SlotState> slots = List.of(slot(11, 1, SlotStatus.EMPTY), slot(12, 1, SlotStatus.OCCUPIED));
+        when(inventoryRepository.findByStationIdIn(anyCollection())).thenReturn(counts);
+        when(batterySlotRepository.findStates(anyCollection())).thenReturn(slots);
+        CapturingEmitter emitter = new CapturingEmitter();
+
+        stream.register(emitter, List.of(1L), null);
+
+        assertEquals(List.of("snapshot"), emitter.names);
+        StationAvailabilityDTO station = emitter.last().get(0);
+        assertEquals(4, station.getFull());
+        assertEquals(Map.of(11L, SlotStatus.EMPTY, 12L, SlotStatus.OCCUPIED), station.getSlots());
+        assertEquals(1, stream.subscriberCount());
+    }
+
+    @Test
+    void burstIsCoalescedIntoOneMessage() {
+        CapturingEmitter emitter = new CapturingEmitter();
+        stream.register(emitter, List.of(1L), null);
+        List<StationInventory> counts = List.of(inventory(1, 7));
+        when(inventoryRepository.findByStationIdIn(anyCollection())).thenReturn(counts);
+
+        for (int i = 0; i < 20; i++) {
+            stream.inventoryChanged(Set.of(1L));
+            stream.slotChanged(1L, 11L, i % 2 == 0 ? SlotStatus.OCCUPIED : SlotStatus.EMPTY);
+        }
+        stream.slotChanged(1L, 12L, SlotStatus.OCCUPIED);
+        stream.flush();
+        stream.flush();
+
+        assertEquals(List.of("snapshot", "delta"), emitter.names);
+        List<StationAvailabilityDTO> delta = emitter.last();
+        assertEquals(1, delta.size());
+        assertEquals(7, delta.get(0).getFull());
+        assertEquals(Map.of(11L, SlotStatus.EMPTY, 12L, SlotStatus.OCCUPIED), delta.get(0).getSlots());
+        // một query cho snapshot, một query cho cả đợt thay đổi
+        verify(inventoryRepository, times(2)).findByStationIdIn(anyCollection());
+    }
+
+    @Test
+    void viewportOnlyReceivesStationsInside() {
+        CapturingEmitter emitter = new CapturingEmitter();
+        stream.register(emitter, null, new AvailabilityStream.Viewport(10.0, 106.0, 11.0, 107.0));
+
+        stream.slotChanged(2L, 21L, SlotStatus.EMPTY);
+        stream.flush();
+        assertEquals(List.of("snapshot"), emitter.names);
+
+        stream.slotChanged(1L, 11L, SlotStatus.OUT_OF_SERVICE);
+        stream.flush();
+        assertEquals(List.of("snapshot", "delta"), emitter.names);
+        StationAvailabilityDTO delta = emitter.last().get(0);
+        assertEquals(1L, delta.getStationId());
+        // Chỉ slot đổi: không đọc lại bộ đếm
+        assertNull(delta.getFull());
+        assertTrue(delta.getSlots().containsKey(11L));
+    }
+
+    @Test
+    void changesWithoutSubscribersDoNotTouchDatabase() {
+        stream.inventoryChanged(Set.of(1L, 2L));
+        stream.flush();
+
+        verifyNoInteractions(inventoryRepository, batterySlotRepository);
+    }
+}
@@ -0,0 +1,96 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.repository.CodeBlockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatteryCodeGeneratorTest {
+
+    // Bảng code_blocks giả lập, dùng chung giữa các "instance"
+    private final Map<String, Long> table = new HashMap<>();
+    private final AtomicInteger leases = new AtomicInteger();
+    private CodeBlockRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CodeBlockRepository.class);
+        when(repository.lease(anyString(), anyLong(), anyLong())).thenAnswer(inv -> {
+            synchronized (table) {
+                leases.incrementAndGet();
+                String name = inv.getArgument(0);
+                long start = inv.getArgument(1);
+                long size = inv.getArgument(2);
+                long end = table.getOrDefault(name, start) + size;
+                table.put(name, end);
+                return end;
+            }
+        });
+    }
+
+    private BatteryCodeGenerator newInstance(long blockSize) {
+        return new BatteryCodeGenerator(repository, mock(PlatformTransactionManager.class), blockSize);
+    }
+
+    @Test
+    void codesAreSequentialWithinBlockAndLeaseOncePerBlock() {
+        BatteryCodeGenerator generator = newInstance(10);
+
+        assertEquals("BTR1000000", generator.generateBatteryCode());
+        assertEquals("BTR1000001", generator.generateBatteryCode());
+        assertEquals("STT1000000", generator.generateStationCode());
+        for (int i = 0; i < 18; i++) generator.generateBatteryCode();
+
+        assertEquals("BTR1000020", generator.generateBatteryCode());
+        assertEquals(4, leases.get());
+    }
+
+    @Test
+    void concurrentInstancesNeverCollide() throws InterruptedException {
+        List<BatteryCodeGenerator> instances = List.of(newInstance(7), newInstance(7), newInstance(7));
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        int threads = 8;
+        int perThread = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            BatteryCodeGenerator generator = instances.get(t % instances.size());
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    if (!codes.add(generator.generateBatteryCode())) duplicates.incrementAndGet();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+
+        assertEquals(0, duplicates.get());
+        assertEquals(threads * perThread, codes.size());
+        assertTrue(codes.stream().allMatch(c -> c.matches("BTR\\d{7,}")));
+    }
+}
@@ -0,0 +1,180 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.configuration.KafkaConsumer;
+import com.boilerplate.station.configuration.KafkaProducer;
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.entity.ProcessedEvent;
+import com.boilerplate.station.repository.ProcessedEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chạy listener thật trên Kafka nhúng (KRaft); service nghiệp vụ và DB được mock.
+ */
+class BatteryEventConsumerTest {
+
+    private static final String SWAP = "battery.swap";
+    private static final String HOLD = "battery.hold";
+    private static final String TRANSFER = "battery.swap-station";
+    private static final String RESULT = "battery.swap.result";
+    private static final String SWAP_DLT = SWAP + KafkaConsumer.DLT_SUFFIX;
+
+    private static EmbeddedKafkaKraftBroker broker;
+    private static AnnotationConfigApplicationContext context;
+    private static org.apache.kafka.clients.producer.KafkaProducer<String, String> producer;
+    private static org.apache.kafka.clients.consumer.KafkaConsumer<String, String> observer;
+    private static final List<ConsumerRecord<String, String>> observed = new ArrayList<>();
+
+    private static final BatteryService batteryService = mock(BatteryService.class);
+    private static final BatteryReservationService reservationService = mock(BatteryReservationService.class);
+    private static final Map<String, ProcessedEvent> processed = new ConcurrentHashMap<>();
+
+    @BeforeAll
+    static void start() {
+        broker = new EmbeddedKafkaKraftBroker(1, 2, SWAP, HOLD, TRANSFER, RESULT, SWAP_DLT);
+        broker.afterPropertiesSet();
+
+        ProcessedEventRepository repository = mock(ProcessedEventRepository.class);
+        when(repository.markProcessed(anyString(), anyString(), anyString(), any())).thenAnswer(inv -> {
+            ProcessedEvent row = new ProcessedEvent(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), inv.getArgument(3));
+            return processed.putIfAbsent(row.getEventId(), row) == null ? 1 : 0;
+        });
+        when(repository.findById(anyString())).thenAnswer(inv -> Optional.ofNullable(processed.get(inv.<String>getArgument(0))));
+        when(batteryService.handleBatterySwap(argThat(e -> e != null && "BTR-MISSING".equals(e.getOldBatteryId()))))
+                .thenThrow(new BusinessException(AppException.BATTERY_NOT_FOUND));
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "spring.kafka.bootstrap-servers", broker.getBrokersAsString(),
+                "station.kafka.concurrency", "1",
+                "station.kafka.retry.backoff-ms", "50",
+                "station.kafka.retry.max-retries", "1")));
+        // Đăng ký dạng singleton có sẵn để Spring không inject vào các field @Autowired của mock
+        context.getBeanFactory().registerSingleton("batteryService", batteryService);
+        context.getBeanFactory().registerSingleton("batteryReservationService", reservationService);
+        context.getBeanFactory().registerSingleton("processedEventRepository", repository);
+        context.getBeanFactory().registerSingleton("transactionManager", mock(PlatformTransactionManager.class));
+        context.getBeanFactory().registerSingleton("meterRegistry", new SimpleMeterRegistry());
+        context.register(KafkaConsumer.class, KafkaProducer.class, BatteryEventConsumer.class);
+        context.refresh();
+
+        producer = new org.apache.kafka.clients.producer.KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()),
+                new StringSerializer(), new StringSerializer());
+        observer = new org.apache.kafka.clients.consumer.KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ConsumerConfig.GROUP_ID_CONFIG, "test-observer",
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"),
+                new StringDeserializer(), new StringDeserializer());
+        observer.subscribe(List.of(RESULT, SWAP_DLT));
+    }
+
+    @AfterAll
+    static void stop() {
+        observer.close();
+        producer.close();
+        context.close();
+        broker.destroy();
+    }
+
+    private static void send(String topic, String key, String eventId, String json) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, json);
+        if (eventId != null) {
+            record.headers().add(BatteryEventConsumer.HEADER_EVENT_ID, eventId.getBytes(StandardCharsets.UTF_8));
+        }
+        producer.send(record);
+        producer.flush();
+    }
+
+    private static String swap(long bookingId, String station, String oldBattery, String newBattery) {
+        return """
+                {"bookingId":%d,"oldBatteryId":"%s","newBatteryId":"%s","vehicleId":"VH-1","stationId":"%s","swapStatus":"PENDING"}
+                """.formatted(bookingId, oldBattery, newBattery, station);
+    }
+
+    private static long await(String topic, Predicate<String> match, long expected) {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (System.currentTimeMillis() < deadline) {
+            observer.poll(Duration.ofMillis(200)).forEach(observed::add);
+            long found = observed.stream().filter(r -> r.topic().equals(topic) && match.test(r.value())).count();
+            if (found >= expected) return found;
+        }
+        return observed.stream().filter(r -> r.topic().equals(topic) && match.test(r.value())).count();
+    }
+
+    @Test
+    void duplicateSwapIsAppliedOnceAndResultRepublished() {
+        send(SWAP, "STT1", "evt-42", swap(42, "STT1", "BTR-A", "BTR-B"));
+        send(SWAP, "STT1", "evt-42", swap(42, "STT1", "BTR-A", "BTR-B"));
+
+        assertTrue(await(RESULT, v -> v.contains("\"bookingId\":42") && v.contains("SUCCESS"), 2) >= 2);
+        verify(batteryService, after(500).times(1))
+                .handleBatterySwap(argThat(e -> e != null && "BTR-A".equals(e.getOldBatteryId())));
+    }
+
+    @Test
+    void businessRejectionPublishesFailedWithoutDeadLetter() {
+        send(SWAP, "STT2", "evt-43", swap(43, "STT2", "BTR-MISSING", "BTR-C"));
+
+        assertTrue(await(RESULT, v -> v.contains("\"bookingId\":43") && v.contains("FAILED"), 1) >= 1);
+        assertTrue(observed.stream().noneMatch(r -> r.topic().equals(SWAP_DLT) && r.value().contains("BTR-MISSING")));
+    }
+
+    @Test
+    void poisonMessageGoesToDeadLetterAndLaterEventsStillFlow() {
+        send(SWAP, "STT3", null, "not-json");
+        send(SWAP, "STT3", "evt-44", swap(44, "STT3", "BTR-D", "BTR-E"));
+
+        assertTrue(await(SWAP_DLT, "not-json"::equals, 1) >= 1);
+        assertTrue(await(RESULT, v -> v.contains("\"bookingId\":44") && v.contains("SUCCESS"), 1) >= 1);
+    }
+
+    @Test
+    void holdEventReservesBattery() {
+        send(HOLD, "STT4", "evt-45", "{\"batteryCode\":\"BTR-H\",\"holdBy\":\"BK-45\",\"ttlSeconds\":300}");
+
+        verify(reservationService, timeout(20_000)).hold(eq("BTR-H"), eq("BK-45"), eq(300L));
+    }
+
+    @Test
+    void transferEventMovesBattery() {
+        send(TRANSFER, "STT5", "evt-46",
+                "{\"batteryId\":\"BTR-T\",\"oldstationId\":\"STT5\",\"newstationId\":\"STT6\",\"swapStatus\":\"PENDING\"}");
+
+        verify(batteryService, timeout(20_000))
+                .handleBatterySwapStation(argThat(e -> e != null && "BTR-T".equals(e.getBatteryId())));
+    }
+}
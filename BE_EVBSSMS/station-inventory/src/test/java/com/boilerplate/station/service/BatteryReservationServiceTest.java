@@ -0,0 +1,149 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.BatteryStatus;
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.DTO.BatteryHoldDTO;
+import com.boilerplate.station.model.entity.Battery;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.repository.BatteryRepository;
+import com.boilerplate.station.repository.StationInventoryRepository;
+import com.boilerplate.station.repository.StationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatteryReservationServiceTest {
+
+    private BatteryRepository batteryRepository;
+    private StationRepository stationRepository;
+    private StationInventoryRepository inventoryRepository;
+    private BatteryReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        batteryRepository = mock(BatteryRepository.class);
+        stationRepository = mock(StationRepository.class);
+        inventoryRepository = mock(StationInventoryRepository.class);
+        StationInventoryService inventory = new StationInventoryService(inventoryRepository, batteryRepository,
+                stationRepository, mock(AvailabilityStream.class), new SimpleMeterRegistry());
+        service = new BatteryReservationService(batteryRepository, stationRepository, inventory,
+                new SimpleMeterRegistry(), 900, 3600, 1000, 64, 500);
+    }
+
+    private static BatteryRepository.HeldBattery held(long id, String code, long stationId) {
+        BatteryRepository.HeldBattery battery = mock(BatteryRepository.HeldBattery.class);
+        when(battery.getId()).thenReturn(id);
+        when(battery.getBatteryCode()).thenReturn(code);
+        when(battery.getStationId()).thenReturn(stationId);
+        when(battery.getStatus()).thenReturn(BatteryStatus.FULL);
+        return battery;
+    }
+
+    @Test
+    void holdRecordsHolderExpiryAndHeldCounter() {
+        BatteryRepository.HeldBattery battery = held(10, "BTR1000010", 1);
+        when(batteryRepository.holdByCode(eq("BTR1000010"), eq("BK-1"), any())).thenReturn(Optional.of(battery));
+
+        BatteryHoldDTO hold = service.hold("BTR1000010", "BK-1", 120L);
+
+        assertEquals("BK-1", hold.getHoldBy());
+        assertTrue(hold.getHoldUntil().isAfter(LocalDateTime.now().plusSeconds(100)));
+        verify(inventoryRepository).applyDelta(1L, 0, 0, 0, 0, 1);
+        assertEquals(1, service.pendingExpiries());
+    }
+
+    @Test
+    void losingConcurrentHoldIsRejected() {
+        when(batteryRepository.holdByCode(anyString(), any(), any())).thenReturn(Optional.empty());
+        when(batteryRepository.findByBatteryCode("BTR1000010")).thenReturn(Optional.of(new Battery()));
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.hold("BTR1000010", "BK-2", null));
+
+        assertEquals(AppException.BATTERY_HELD, e.getAppException());
+        verify(inventoryRepository, never()).applyDelta(any(), eq(0), eq(0), eq(0), eq(0), eq(1));
+    }
+
+    @Test
+    void holdBestUsesConditionalQueryForStation() {
+        Station station = new Station();
+        station.setId(3L);
+        when(stationRepository.findByStationCode("STT1000003")).thenReturn(Optional.of(station));
+        BatteryRepository.HeldBattery battery = held(11, "BTR1000011", 3);
+        when(batteryRepository.holdBestAvailable(eq(3L), eq("BK-3"), any())).thenReturn(Optional.of(battery));
+
+        assertEquals("BTR1000011", service.holdBest("STT1000003", "BK-3", null).getBatteryCode());
+
+        when(batteryRepository.holdBestAvailable(eq(3L), eq("BK-4"), any())).thenReturn(Optional.empty());
+        BusinessException e = assertThrows(BusinessException.class, () -> service.holdBest("STT1000003", "BK-4", null));
+        assertEquals(AppException.BATTERY_NOT_AVAILABLE, e.getAppException());
+    }
+
+    @Test
+    void ttlAboveLimitIsRejected() {
+        assertThrows(BusinessException.class, () -> service.hold("BTR1000010", "BK-1", 7200L));
+    }
+
+    @Test
+    void releaseDecrementsHeldCounter() {
+        BatteryRepository.HeldBattery battery = held(10, "BTR1000010", 1);
+        when(batteryRepository.release("BTR1000010", "BK-1")).thenReturn(Optional.of(battery));
+
+        assertTrue(service.release("BTR1000010", "BK-1"));
+        assertFalse(service.release("BTR1000010", "BK-9"));
+        verify(inventoryRepository).applyDelta(1L, 0, 0, 0, 0, -1);
+    }
+
+    @Test
+    void expiredHoldIsReleasedByWheel() throws Exception {
+        BatteryRepository.HeldBattery battery = held(10, "BTR1000010", 1);
+        when(batteryRepository.holdByCode(anyString(), any(), any())).thenReturn(Optional.of(battery));
+        when(batteryRepository.releaseExpired(anyCollection(), any())).thenReturn(List.of(battery));
+        BatteryReservationService fast = new BatteryReservationService(batteryRepository, stationRepository,
+                new StationInventoryService(inventoryRepository, batteryRepository, stationRepository,
+                        mock(AvailabilityStream.class), new SimpleMeterRegistry()),
+                new SimpleMeterRegistry(), 1, 3600, 100, 64, 500);
+
+        fast.hold("BTR1000010", "BK-1", null);
+        fast.expireDue();
+        verify(batteryRepository, never()).releaseExpired(anyCollection(), any());
+
+        Thread.sleep(1_300);
+        fast.expireDue();
+
+        verify(batteryRepository).releaseExpired(eq(List.of(10L)), any());
+        verify(inventoryRepository).applyDelta(1L, 0, 0, 0, 0, -1);
+        assertEquals(0, fast.pendingExpiries());
+    }
+
+    @Test
+    void wheelFiresOnlyAtDeadlineAcrossRotations() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(1000, 8, 0);
+        wheel.schedule(1, 3_000);
+        wheel.schedule(2, 11_000); // cùng ô với id 1 nhưng ở vòng quay sau
+        wheel.schedule(3, -5_000); // đã quá hạn: nhả ở tick kế tiếp
+
+        assertEquals(List.of(3L), wheel.advance(1_000));
+        assertEquals(List.of(1L), wheel.advance(3_500));
+        assertEquals(List.of(), wheel.advance(10_999));
+        assertEquals(List.of(2L), wheel.advance(60_000));
+        assertEquals(0, wheel.pending());
+    }
+}
@@ -0,0 +1,145 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.HealthUpdateOutcome;
+import com.boilerplate.station.model.DTO.BatteryHealthBulkResultDTO;
+import com.boilerplate.station.model.createRequest.BatteryHealthUpdate;
+import com.boilerplate.station.repository.BatteryRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BatteryServiceHealthBulkTest {
+
+    private BatteryRepository batteryRepository;
+    private ChargingEngine chargingEngine;
+    private BatteryService service;
+
+    @BeforeEach
+    void setUp() {
+        batteryRepository = mock(BatteryRepository.class);
+        service = new BatteryService(batteryRepository, mock(RestTemplate.class));
+        ReflectionTestUtils.setField(service, "maxHealthBatch", 10_000);
+        ReflectionTestUtils.setField(service, "healthChunkSize", 2);
+        chargingEngine = mock(ChargingEngine.class);
+        ReflectionTestUtils.setField(service, "chargingEngine", chargingEngine);
+        // Mọi mã gửi xuống đều tồn tại, trừ mã bắt đầu bằng "X"; mã bắt đầu bằng "C" đang sạc
+        when(batteryRepository.updateHealth(any(), any(), any())).thenAnswer(inv -> {
+            String[] codes = inv.getArgument(0);
+            return Arrays.stream(codes).filter(c -> !c.startsWith("X"))
+                    .map(c -> (BatteryRepository.UpdatedHealth) new Updated((long) c.hashCode(), c,
+                            c.startsWith("C") ? "CHARGING" : "FULL"))
+                    .toList();
+        });
+    }
+
+    private record Updated(Long id, String batteryCode, String status) implements BatteryRepository.UpdatedHealth {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getBatteryCode() {
+            return batteryCode;
+        }
+
+        @Override
+        public String getStatus() {
+            return status;
+        }
+    }
+
+    @Test
+    void compactArrayBodyIsParsed() throws Exception {
+        List<BatteryHealthUpdate> updates = new ObjectMapper().readValue(
+                "[[\"BAT-1\", 97.5, 80.2], [\"BAT-2\", null, 55]]", new TypeReference<>() {});
+
+        assertEquals(new BatteryHealthUpdate("BAT-1", 97.5, 80.2), updates.get(0));
+        assertNull(updates.get(1).getSoh());
+        assertEquals(55.0, updates.get(1).getSoc());
+    }
+
+    @Test
+    void invalidItemsAreReportedAndValidOnesWrittenInChunks() {
+        List<BatteryHealthUpdate> updates = List.of(
+                new BatteryHealthUpdate("B1", 90.0, 50.0),
+                new BatteryHealthUpdate("B2", 101.0, 50.0),
+                new BatteryHealthUpdate("B3", null, -1.0),
+                new BatteryHealthUpdate(null, 90.0, 50.0),
+                new BatteryHealthUpdate("B4", null, null),
+                new BatteryHealthUpdate("X5", 80.0, null),
+                new BatteryHealthUpdate("B6", null, 70.0));
+
+        BatteryHealthBulkResultDTO result = service.updateBatteryHealthBulk(updates).getBody().getData();
+
+        assertEquals(7, result.getRequested());
+        assertEquals(2, result.getUpdated());
+        assertEquals(List.of(
+                new BatteryHealthBulkResultDTO.Item(1, "B2", HealthUpdateOutcome.INVALID_SOH),
+                new BatteryHealthBulkResultDTO.Item(2, "B3", HealthUpdateOutcome.INVALID_SOC),
+                new BatteryHealthBulkResultDTO.Item(3, null, HealthUpdateOutcome.MISSING_CODE),
+                new BatteryHealthBulkResultDTO.Item(4, "B4", HealthUpdateOutcome.MISSING_VALUE),
+                new BatteryHealthBulkResultDTO.Item(5, "X5", HealthUpdateOutcome.NOT_FOUND)), result.getErrors());
+
+        // 3 phần tử hợp lệ, khối 2 => 2 câu UPDATE
+        ArgumentCaptor<String[]> codes = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<Double[]> soh = ArgumentCaptor.forClass(Double[].class);
+        verify(batteryRepository, times(2)).updateHealth(codes.capture(), soh.capture(), any());
+        assertArrayEquals(new String[]{"B1", "X5"}, codes.getAllValues().get(0));
+        assertArrayEquals(new Double[]{90.0, 80.0}, soh.getAllValues().get(0));
+        assertArrayEquals(new String[]{"B6"}, codes.getAllValues().get(1));
+    }
+
+    @Test
+    void duplicateCodeKeepsLastValue() {
+        BatteryHealthBulkResultDTO result = service.updateBatteryHealthBulk(List.of(
+                new BatteryHealthUpdate("B1", 90.0, 10.0),
+                new BatteryHealthUpdate("B1", 90.0, 20.0))).getBody().getData();
+
+        assertEquals(1, result.getUpdated());
+        assertEquals(List.of(new BatteryHealthBulkResultDTO.Item(0, "B1", HealthUpdateOutcome.DUPLICATE)),
+                result.getErrors());
+        ArgumentCaptor<Double[]> soc = ArgumentCaptor.forClass(Double[].class);
+        verify(batteryRepository).updateHealth(any(), any(), soc.capture());
+        assertArrayEquals(new Double[]{20.0}, soc.getValue());
+    }
+
+    @Test
+    void reportedSocOfChargingBatteriesIsPushedToEngine() {
+        service.updateBatteryHealthBulk(List.of(
+                new BatteryHealthUpdate("C1", 90.0, 42.0),
+                new BatteryHealthUpdate("C2", 90.0, null),
+                new BatteryHealthUpdate("B3", 90.0, 70.0)));
+
+        verify(chargingEngine).reportSoc(Map.of((long) "C1".hashCode(), 42.0));
+    }
+
+    @Test
+    void oversizedRequestIsRejectedWithoutWriting() {
+        ReflectionTestUtils.setField(service, "maxHealthBatch", 3);
+        List<BatteryHealthUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < 4; i++) updates.add(new BatteryHealthUpdate("B" + i, 90.0, 50.0));
+
+        assertEquals(400, service.updateBatteryHealthBulk(updates).getStatusCode().value());
+        verifyNoInteractions(batteryRepository);
+    }
+}
@@ -0,0 +1,137 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.BatteryStatus;
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.model.event.Consumer.BatterySwapEvent;
+import com.boilerplate.station.repository.BatteryRepository;
+import com.boilerplate.station.repository.BatterySwapLogRepository;
+import com.boilerplate.station.repository.StationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BatteryServiceSwapTest {
+
+    private BatteryRepository batteryRepository;
+    private StationRepository stationRepository;
+    private BatterySwapLogRepository swapLogRepository;
+    private StationInventoryService inventoryService;
+    private DailySwapSummaryService dailySwapSummaryService;
+    private LogAppendWriter logAppendWriter;
+    private BatteryService service;
+
+    @BeforeEach
+    void setUp() {
+        batteryRepository = mock(BatteryRepository.class);
+        stationRepository = mock(StationRepository.class);
+        swapLogRepository = mock(BatterySwapLogRepository.class);
+        inventoryService = mock(StationInventoryService.class);
+        dailySwapSummaryService = mock(DailySwapSummaryService.class);
+        logAppendWriter = mock(LogAppendWriter.class);
+
+        service = new BatteryService(batteryRepository, mock(RestTemplate.class));
+        ReflectionTestUtils.setField(service, "stationRepository", stationRepository);
+        ReflectionTestUtils.setField(service, "batterySwapLogRepository", swapLogRepository);
+        ReflectionTestUtils.setField(service, "stationInventoryService", inventoryService);
+        ReflectionTestUtils.setField(service, "dailySwapSummaryService", dailySwapSummaryService);
+        ReflectionTestUtils.setField(service, "logAppendWriter", logAppendWriter);
+
+        Station station = new Station();
+        station.setId(7L);
+        when(stationRepository.getReferenceById(7L)).thenReturn(station);
+    }
+
+    private static BatteryRepository.SwapCandidate candidate(long id, String code, Long stationId,
+                                                             BatteryStatus status, Long targetStationId) {
+        BatteryRepository.SwapCandidate candidate = mock(BatteryRepository.SwapCandidate.class);
+        when(candidate.getId()).thenReturn(id);
+        when(candidate.getBatteryCode()).thenReturn(code);
+        when(candidate.getStationId()).thenReturn(stationId);
+        when(candidate.getStatus()).thenReturn(status);
+        when(candidate.getHold()).thenReturn(false);
+        when(candidate.getTargetStationId()).thenReturn(targetStationId);
+        return candidate;
+    }
+
+    private static BatterySwapEvent event() {
+        return new BatterySwapEvent(1L, "BTR-OLD", "BTR-NEW", "VH-1", "STT7", "PENDING");
+    }
+
+    @Test
+    void swapTouchesOnlyTwoBatteryRowsAndAppendsOneLog() {
+        List<BatteryRepository.SwapCandidate> locked = List.of(
+                candidate(1, "BTR-OLD", null, BatteryStatus.IN_CAR, 7L),
+                candidate(2, "BTR-NEW", 7L, BatteryStatus.FULL, 7L));
+        when(batteryRepository.lockForSwap(anyCollection(), eq("STT7"))).thenReturn(locked);
+
+        service.handleBatterySwap(event());
+
+        verify(batteryRepository).lockForSwap(List.of("BTR-OLD", "BTR-NEW"), "STT7");
+        verify(batteryRepository).dockAtStation(eq(1L), any(Station.class), eq("STT7"));
+        verify(batteryRepository).handToVehicle(2L, "VH-1");
+        verify(batteryRepository, never()).findByBatteryCode(anyString());
+        verify(stationRepository, never()).findByStationCode(anyString());
+
+        ArgumentCaptor<LogAppendWriter.LogEntry> log = ArgumentCaptor.forClass(LogAppendWriter.LogEntry.class);
+        verify(logAppendWriter).append(log.capture());
+        LogAppendWriter.SwapLogEntry entry = (LogAppendWriter.SwapLogEntry) log.getValue();
+        assertEquals(1L, entry.vehicleBatteryId());
+        assertEquals(2L, entry.stationBatteryId());
+        assertEquals(7L, entry.stationId());
+        assertEquals("VH-1", entry.vehicleId());
+        verify(dailySwapSummaryService).recordSwap(7L, entry.swapTime());
+        verifyNoInteractions(swapLogRepository);
+    }
+
+    @Test
+    void swapHandsStationBatteryOutOfInventory() {
+        List<BatteryRepository.SwapCandidate> locked = List.of(
+                candidate(1, "BTR-OLD", null, BatteryStatus.IN_CAR, 7L),
+                candidate(2, "BTR-NEW", 7L, BatteryStatus.FULL, 7L));
+        when(batteryRepository.lockForSwap(anyCollection(), anyString())).thenReturn(locked);
+
+        service.handleBatterySwap(event());
+
+        verify(inventoryService).trackAll(
+                List.of(new StationInventoryService.BatteryState(null, BatteryStatus.IN_CAR, false),
+                        new StationInventoryService.BatteryState(7L, BatteryStatus.FULL, false)),
+                List.of(new StationInventoryService.BatteryState(7L, BatteryStatus.IN_STOCK, false),
+                        StationInventoryService.BatteryState.NONE));
+    }
+
+    @Test
+    void missingBatteryOrStationIsRejected() {
+        List<BatteryRepository.SwapCandidate> onlyOld = List.of(candidate(1, "BTR-OLD", null, BatteryStatus.IN_CAR, 7L));
+        when(batteryRepository.lockForSwap(anyCollection(), anyString())).thenReturn(onlyOld);
+        BusinessException missingBattery = assertThrows(BusinessException.class, () -> service.handleBatterySwap(event()));
+        assertEquals(AppException.BATTERY_NOT_FOUND, missingBattery.getAppException());
+
+        List<BatteryRepository.SwapCandidate> noStation = List.of(
+                candidate(1, "BTR-OLD", null, BatteryStatus.IN_CAR, null),
+                candidate(2, "BTR-NEW", 7L, BatteryStatus.FULL, null));
+        when(batteryRepository.lockForSwap(anyCollection(), anyString())).thenReturn(noStation);
+        BusinessException missingStation = assertThrows(BusinessException.class, () -> service.handleBatterySwap(event()));
+        assertEquals(AppException.STATION_NOT_FOUND, missingStation.getAppException());
+
+        verify(batteryRepository, never()).handToVehicle(anyLong(), anyString());
+    }
+}
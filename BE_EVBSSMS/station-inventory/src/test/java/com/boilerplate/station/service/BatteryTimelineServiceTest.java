@@ -0,0 +1,242 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.BatteryEventType;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.DTO.BatteryTimelineDTO;
+import com.boilerplate.station.model.entity.ArchivedLogFile;
+import com.boilerplate.station.model.entity.BackfillCursor;
+import com.boilerplate.station.model.entity.BatteryEvent;
+import com.boilerplate.station.repository.ArchivedLogFileRepository;
+import com.boilerplate.station.repository.BackfillCursorRepository;
+import com.boilerplate.station.repository.BatteryEventRepository;
+import com.boilerplate.station.repository.BatteryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BatteryTimelineServiceTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 3, 1, 8, 0);
+
+    private BatteryRepository batteryRepository;
+    private BatteryEventRepository eventRepository;
+    private BackfillCursorRepository cursorRepository;
+    private ArchivedLogFileRepository archivedFileRepository;
+    private BatteryTimelineService service;
+    private final Map<String, BackfillCursor> cursors = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        batteryRepository = mock(BatteryRepository.class);
+        eventRepository = mock(BatteryEventRepository.class);
+        cursorRepository = mock(BackfillCursorRepository.class);
+        archivedFileRepository = mock(ArchivedLogFileRepository.class);
+        service = new BatteryTimelineService(batteryRepository, eventRepository, cursorRepository, archivedFileRepository,
+                new PageLimits(100, 1000), mock(PlatformTransactionManager.class), false, 2);
+        // backfill_cursors trong bộ nhớ
+        when(cursorRepository.findAllById(any())).thenAnswer(inv -> {
+            List<BackfillCursor> found = new ArrayList<>();
+            for (String name : inv.<Iterable<String>>getArgument(0)) {
+                if (cursors.containsKey(name)) found.add(cursors.get(name));
+            }
+            return found;
+        });
+        when(cursorRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(cursors.get(inv.<String>getArgument(0))));
+        when(cursorRepository.saveAll(any())).thenAnswer(inv -> {
+            inv.<Iterable<BackfillCursor>>getArgument(0).forEach(c -> cursors.put(c.getName(), c));
+            return List.of();
+        });
+    }
+
+    @Test
+    void backfillCopiesBatchesUpToCutoffAndMarksCompletion() {
+        // sự kiện ghi trực tiếp sớm nhất: log sau mốc này không được chép lại
+        when(eventRepository.findFirstEventTime()).thenReturn(T);
+        when(eventRepository.maxSwapLogId(T)).thenReturn(5L);
+        when(eventRepository.backfillSwapLogs(anyLong(), anyLong(), any())).thenReturn(2);
+
+        service.backfill();
+
+        // id do sequence cấp theo khối nên không theo thứ tự thời gian: mỗi lô vẫn lọc theo mốc thời gian
+        InOrder order = inOrder(eventRepository);
+        order.verify(eventRepository).backfillSwapLogs(0, 2, T);
+        order.verify(eventRepository).backfillSwapLogs(2, 4, T);
+        order.verify(eventRepository).backfillSwapLogs(4, 5, T);
+        verify(eventRepository, never()).backfillChargeLogs(anyLong(), anyLong(), any());
+        verify(eventRepository, never()).backfillReturnLogs(anyLong(), anyLong(), any());
+        assertEquals(3, cursors.size());
+        assertTrue(cursors.values().stream().allMatch(c -> T.equals(c.getCutoff())));
+        assertTrue(cursors.values().stream().allMatch(c -> c.getCompletedAt() != null));
+        // mỗi lô (và lần tạo mốc) giữ khóa advisory trong transaction của nó
+        verify(cursorRepository, times(7)).lock(BatteryTimelineService.BACKFILL);
+    }
+
+    @Test
+    void backfillWithoutEventsCutsOffAtCursorCreation() {
+        when(eventRepository.findFirstEventTime()).thenReturn(null);
+        when(eventRepository.maxSwapLogId(any())).thenReturn(1L);
+        LocalDateTime start = LocalDateTime.now();
+
+        service.backfill();
+
+        BackfillCursor cursor = cursors.get("battery_events.swap_logs");
+        assertTrue(!cursor.getCutoff().isBefore(start) && !cursor.getCutoff().isAfter(LocalDateTime.now()));
+        verify(eventRepository).maxSwapLogId(cursor.getCutoff());
+        verify(eventRepository).backfillSwapLogs(0, 1, cursor.getCutoff());
+    }
+
+    @Test
+    void backfillResumesFromCursorAndSkipsWhenCompleted() {
+        cursors.put("battery_events.swap_logs", new BackfillCursor("battery_events.swap_logs", 4, 5, T, null));
+        cursors.put("battery_events.charge_logs", new BackfillCursor("battery_events.charge_logs", 0, 0, T, T));
+        cursors.put("battery_events.return_logs", new BackfillCursor("battery_events.return_logs", 0, 0, T, T));
+
+        service.backfill();
+
+        verify(eventRepository).backfillSwapLogs(4, 5, T);
+        verify(eventRepository, never()).findFirstEventTime();
+
+        service.backfill();
+
+        verify(eventRepository, times(1)).backfillSwapLogs(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void recordWritesOneBatchAndSkipsEventsWithoutBattery() {
+        service.record(List.of(
+                BatteryEvent.builder().batteryId(1L).type(BatteryEventType.SWAP_IN).eventTime(T)
+                        .stationId(7L).vehicleId("VH-1").build(),
+                BatteryEvent.builder().batteryId(null).type(BatteryEventType.SWAP_OUT).eventTime(T).build(),
+                BatteryEvent.builder().batteryId(2L).type(BatteryEventType.CHARGE).eventTime(T.plusHours(1))
+                        .socBefore(20.0).socAfter(100.0).energyConsumed(4000.0).build()));
+
+        verify(eventRepository).appendBatch(
+                argThat(ids -> ids.length == 2 && ids[0] == 1L && ids[1] == 2L),
+                argThat(types -> types[0].equals("SWAP_IN") && types[1].equals("CHARGE")),
+                argThat(times -> times[1].equals(T.plusHours(1))),
+                argThat(stations -> stations[0] == 7L && stations[1] == null),
+                any(), any(), any(),
+                argThat(soc -> soc[1] == 100.0),
+                any(), any(), any());
+    }
+
+    @Test
+    void recordIgnoresEmptyBatch() {
+        service.record(List.of());
+
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void timelineUnknownBatteryThrows() {
+        when(batteryRepository.findIdByBatteryCode("BTR-X")).thenReturn(Optional.empty());
+
+        assertThrows(BusinessException.class, () -> service.getTimeline("BTR-X", null, null, null));
+    }
+
+    @Test
+    void timelineFirstPageUsesDefaultLimit() {
+        when(batteryRepository.findIdByBatteryCode("BTR1")).thenReturn(Optional.of(5L));
+        when(eventRepository.findTimeline(eq(5L), isNull(), eq(Long.MAX_VALUE), any())).thenReturn(List.of());
+
+        service.getTimeline("BTR1", null, null, null);
+
+        verify(eventRepository).findTimeline(eq(5L), isNull(), eq(Long.MAX_VALUE),
+                argThat((Pageable p) -> p.getPageSize() == 100));
+    }
+
+    @Test
+    void timelineNextPagePassesKeyset() {
+        when(batteryRepository.findIdByBatteryCode("BTR1")).thenReturn(Optional.of(5L));
+
+        service.getTimeline("BTR1", T, 42L, 20);
+
+        verify(eventRepository).findTimeline(eq(5L), eq(T), eq(42L), argThat((Pageable p) -> p.getPageSize() == 20));
+    }
+
+    @Test
+    void timelineBeforeIdWithoutTimeIsRejected() {
+        assertThrows(BusinessException.class, () -> service.getTimeline("BTR1", null, 42L, null));
+
+        verify(eventRepository, never()).findTimeline(any(), any(), any(), any());
+    }
+
+    @Test
+    void timelineBeforeBackfillIsIncompleteBeforeFirstEvent() {
+        when(batteryRepository.findIdByBatteryCode("BTR1")).thenReturn(Optional.of(5L));
+        when(eventRepository.findFirstEventTime()).thenReturn(T);
+
+        BatteryTimelineDTO timeline = service.getTimeline("BTR1", null, null, null).getBody().getData();
+
+        assertEquals(T, timeline.getIncompleteBefore());
+    }
+
+    @Test
+    void timelineReportsMonthsArchivedBeforeBackfillCompleted() {
+        completedCursors();
+        when(batteryRepository.findIdByBatteryCode("BTR1")).thenReturn(Optional.of(5L));
+        when(archivedFileRepository.findByTableNameIn(any())).thenReturn(List.of(
+                // chuyển ra file trước khi bảng đổi pin dựng lại xong: không có trong battery_events
+                archived(LogArchiveService.SWAP_LOGS, LocalDate.of(2025, 1, 1), T.minusDays(10)),
+                // chuyển sau khi đã dựng lại: sự kiện đã được chép
+                archived(LogArchiveService.CHARGE_LOGS, LocalDate.of(2025, 2, 1), T.plusDays(1))));
+
+        BatteryTimelineDTO timeline = service.getTimeline("BTR1", null, null, null).getBody().getData();
+        service.getTimeline("BTR1", null, null, null);
+
+        assertEquals(LocalDate.of(2025, 2, 1).atStartOfDay(), timeline.getIncompleteBefore());
+        // đã dựng lại xong: khoảng thiếu không đổi nên chỉ tính một lần
+        verify(archivedFileRepository, times(1)).findByTableNameIn(any());
+    }
+
+    @Test
+    void timelineIsCompleteWhenNothingWasArchivedBeforeBackfill() {
+        completedCursors();
+        when(batteryRepository.findIdByBatteryCode("BTR1")).thenReturn(Optional.of(5L));
+        when(archivedFileRepository.findByTableNameIn(any())).thenReturn(List.of(
+                archived(LogArchiveService.SWAP_LOGS, LocalDate.of(2025, 1, 1), T.plusDays(40))));
+
+        BatteryTimelineDTO timeline = service.getTimeline("BTR1", null, null, null).getBody().getData();
+
+        assertNull(timeline.getIncompleteBefore());
+    }
+
+    private void completedCursors() {
+        for (String table : List.of("swap_logs", "charge_logs", "return_logs")) {
+            String name = BatteryTimelineService.BACKFILL + "." + table;
+            cursors.put(name, new BackfillCursor(name, 5, 5, T, T));
+        }
+    }
+
+    private static ArchivedLogFile archived(String table, LocalDate month, LocalDateTime archivedAt) {
+        return ArchivedLogFile.builder().tableName(table).month(month).part(1).path("/archive/" + table)
+                .archivedAt(archivedAt).build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.BatteryStatus;
+import com.boilerplate.station.model.entity.Battery;
+import com.boilerplate.station.model.entity.BatterySlot;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.repository.BatteryRepository;
+import com.boilerplate.station.repository.BatterySlotRepository;
+import com.boilerplate.station.repository.StationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ChargingEngineTest {
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    private BatteryRepository batteryRepository;
+    private BatterySlotRepository batterySlotRepository;
+    private StationRepository stationRepository;
+    private StationInventoryService inventoryService;
+    private LogAppendWriter logAppendWriter;
+
+    @BeforeEach
+    void setUp() {
+        batteryRepository = mock(BatteryRepository.class);
+        batterySlotRepository = mock(BatterySlotRepository.class);
+        stationRepository = mock(StationRepository.class);
+        inventoryService = mock(StationInventoryService.class);
+        logAppendWriter = mock(LogAppendWriter.class);
+    }
+
+    private ChargingEngine engine(double stationCapW) {
+        return new ChargingEngine(batteryRepository, batterySlotRepository, stationRepository, inventoryService,
+                logAppendWriter, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                true, 1000, stationCapW, 5000, 1, 60_000);
+    }
+
+    private static void charge(ChargingEngine engine, long slotId, long stationId, double capacityWh,
+                               double soh, double soc, boolean held) {
+        Station station = new Station();
+        station.setId(stationId);
+        BatterySlot slot = new BatterySlot();
+        slot.setId(slotId);
+        slot.setStation(station);
+        slot.setChargeStartedAt(LocalDateTime.now().minusHours(1));
+        slot.setChargeStartSoc(soc);
+        Battery battery = new Battery();
+        battery.setId(slotId * 10);
+        battery.setCapacity(capacityWh);
+        battery.setSoh(soh);
+        battery.setSoc(soc);
+        battery.setHold(held);
+        engine.start(slot, battery);
+    }
+
+    @Test
+    void socAdvancesFromPowerCapacityAndSoh() {
+        ChargingEngine engine = engine(0);
+        // 1000 W trong 1 giờ vào pin 10 kWh, SOH 50% (5 kWh dùng được): +20%
+        charge(engine, 1, 1, 10_000, 50, 20, false);
+
+        engine.advance(HOUR_MS);
+
+        assertEquals(40.0, engine.session(1L).getSoc(), 1e-6);
+    }
+
+    @Test
+    void powerCapServesHeldBatteryFirst() {
+        ChargingEngine engine = engine(1000);
+        charge(engine, 1, 1, 10_000, 100, 10, false);
+        charge(engine, 2, 1, 10_000, 100, 10, true);
+
+        engine.advance(HOUR_MS / 2);
+
+        assertEquals(1000.0, engine.session(2L).getPowerW(), 1e-6);
+        assertEquals(0.0, engine.session(1L).getPowerW(), 1e-6);
+        assertEquals(15.0, engine.session(2L).getSoc(), 1e-6);
+        assertEquals(10.0, engine.session(1L).getSoc(), 1e-6);
+    }
+
+    @Test
+    void thousandsOfSlotsAdvanceWithoutDatabaseWrites() {
+        ChargingEngine engine = engine(0);
+        for (long slot = 1; slot <= 5000; slot++) {
+            charge(engine, slot, slot % 50, 5000, 100, 10, false);
+        }
+
+        List<ChargingEngine.ChargingSession> done = engine.advance(60_000);
+
+        assertTrue(done.isEmpty());
+        assertEquals(5000, engine.activeSessions());
+        verifyNoInteractions(batteryRepository, batterySlotRepository, inventoryService, logAppendWriter);
+    }
+
+    @Test
+    void fullBatteriesCompleteInOneUpdateWithChargeLogs() {
+        ChargingEngine engine = engine(0);
+        charge(engine, 1, 7, 1000, 100, 90, false);
+        charge(engine, 2, 7, 1000, 100, 95, true);
+        charge(engine, 3, 7, 100_000, 100, 10, false);
+        BatteryRepository.ChargedBattery first = charged(10L, 7L, false);
+        BatteryRepository.ChargedBattery second = charged(20L, 7L, true);
+        List<BatteryRepository.ChargedBattery> rows = List.of(first, second);
+        when(batteryRepository.markCharged(anyCollection())).thenReturn(rows);
+
+        List<ChargingEngine.ChargingSession> done = engine.advance(10 * HOUR_MS);
+        engine.complete(done);
+
+        assertEquals(2, done.size());
+        assertEquals(1, engine.activeSessions());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(batteryRepository).markCharged(ids.capture());
+        assertEquals(2, ids.getValue().size());
+        verify(inventoryService).trackAll(
+                List.of(new StationInventoryService.BatteryState(7L, BatteryStatus.CHARGING, false),
+                        new StationInventoryService.BatteryState(7L, BatteryStatus.CHARGING, true)),
+                List.of(new StationInventoryService.BatteryState(7L, BatteryStatus.FULL, false),
+                        new StationInventoryService.BatteryState(7L, BatteryStatus.FULL, true)));
+
+        ArgumentCaptor<LogAppendWriter.LogEntry> logs = ArgumentCaptor.forClass(LogAppendWriter.LogEntry.class);
+        verify(logAppendWriter, times(2)).append(logs.capture());
+        LogAppendWriter.ChargeLogEntry log = (LogAppendWriter.ChargeLogEntry) logs.getAllValues().get(0);
+        assertEquals(90.0, log.socBefore(), 1e-6);
+        assertEquals(100.0, log.socAfter(), 1e-6);
+        assertEquals(100.0, log.energyConsumed(), 1e-6);
+        assertTrue(log.startTime().isBefore(log.endTime()));
+    }
+
+    @Test
+    void reportedSocIsCheckpointedInsteadOfEngineSoc() {
+        ChargingEngine engine = engine(0);
+        charge(engine, 1, 1, 10_000, 50, 20, false);
+        engine.advance(HOUR_MS);
+
+        // trạm báo 60% (pin id 10), pin khác không thuộc phiên nào bị bỏ qua
+        engine.reportSoc(Map.of(10L, 60.0, 99L, 5.0));
+        engine.checkpoint();
+
+        ArgumentCaptor<Double[]> socs = ArgumentCaptor.forClass(Double[].class);
+        verify(batteryRepository).checkpointSoc(any(), socs.capture());
+        assertArrayEquals(new Double[]{60.0}, socs.getValue());
+        engine.advance(HOUR_MS);
+        assertEquals(80.0, engine.session(1L).getSoc(), 1e-6);
+    }
+
+    @Test
+    void taperSlowsChargingAboveEightyPercent() {
+        assertEquals(1.0, ChargingEngine.taper(50), 1e-9);
+        assertEquals(0.5, ChargingEngine.taper(90), 1e-9);
+        assertEquals(0.1, ChargingEngine.taper(99.9), 1e-9);
+    }
+
+    private static BatteryRepository.ChargedBattery charged(Long id, Long stationId, boolean hold) {
+        BatteryRepository.ChargedBattery battery = mock(BatteryRepository.ChargedBattery.class);
+        when(battery.getId()).thenReturn(id);
+        when(battery.getStationId()).thenReturn(stationId);
+        when(battery.getHold()).thenReturn(hold);
+        return battery;
+    }
+}
@@ -0,0 +1,96 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.TimeSlot;
+import com.boilerplate.station.model.event.Producer.BatterySwapSummary;
+import com.boilerplate.station.repository.BatterySwapLogRepository;
+import com.boilerplate.station.repository.BatterySwapSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DailySwapSummaryServiceTest {
+
+    private record Row(Long stationId, LocalDate swapDate, Integer slotHour, Long swapCount)
+            implements BatterySwapLogRepository.SlotSwapCount {
+        public Long getStationId() { return stationId; }
+        public LocalDate getSwapDate() { return swapDate; }
+        public Integer getSlotHour() { return slotHour; }
+        public Long getSwapCount() { return swapCount; }
+    }
+
+    private static final LocalDate DAY = LocalDate.of(2025, 10, 1);
+
+    // Bảng rollup giả lập: "stationId/date/slotOrdinal" -> swapCount
+    private final Map<String, Integer> table = new HashMap<>();
+    private BatterySwapLogRepository swapLogRepository;
+    private BatterySwapSummaryRepository summaryRepository;
+    private DailySwapSummaryService service;
+
+    private static String key(Object stationId, Object date, Object slot) {
+        return stationId + "/" + date + "/" + slot;
+    }
+
+    @BeforeEach
+    void setUp() {
+        swapLogRepository = mock(BatterySwapLogRepository.class);
+        summaryRepository = mock(BatterySwapSummaryRepository.class);
+        doAnswer(inv -> {
+            table.merge(key(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2)), inv.<Integer>getArgument(3), Integer::sum);
+            return null;
+        }).when(summaryRepository).increment(any(), any(), anyInt(), anyInt());
+        doAnswer(inv -> {
+            table.put(key(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2)), inv.getArgument(3));
+            return null;
+        }).when(summaryRepository).upsert(any(), any(), anyInt(), anyInt());
+        when(summaryRepository.findByDate(any())).thenAnswer(inv -> table.keySet().stream()
+                .filter(k -> k.contains("/" + inv.getArgument(0) + "/"))
+                .map(k -> BatterySwapSummary.builder().stationId(Long.valueOf(k.split("/")[0])).build())
+                .toList());
+        service = new DailySwapSummaryService(swapLogRepository, summaryRepository);
+    }
+
+    @Test
+    void recordSwapIncrementsMatchingSlot() {
+        service.recordSwap(1L, DAY.atTime(7, 30));
+        service.recordSwap(1L, DAY.atTime(11, 59));
+        service.recordSwap(1L, DAY.atTime(23, 0));
+
+        assertEquals(2, table.get(key(1L, DAY, TimeSlot.SLOT_6_12.ordinal())));
+        assertEquals(1, table.get(key(1L, DAY, TimeSlot.SLOT_18_24.ordinal())));
+    }
+
+    @Test
+    void reconcileIsIdempotentAndCorrectsDrift() {
+        // Rollup lệch: trạm 1 bị đếm thừa, trạm 2 không còn log nào trong ngày
+        service.recordSwap(1L, DAY.atTime(1, 0));
+        service.recordSwap(1L, DAY.atTime(1, 0));
+        service.recordSwap(2L, DAY.atTime(13, 0));
+        when(swapLogRepository.countSwapsByStationDateSlot(isNull(), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(), any(), anyLong(), anyLong()))
+                .thenReturn(List.of(new Row(1L, DAY, 1, 1L), new Row(1L, DAY, 3, 2L), new Row(1L, DAY, 19, 4L)));
+
+        service.reconcile(DAY);
+        Map<String, Integer> afterFirst = new HashMap<>(table);
+        service.reconcile(DAY);
+
+        assertEquals(afterFirst, table);
+        assertEquals(8, table.size());
+        assertEquals(3, table.get(key(1L, DAY, TimeSlot.SLOT_0_6.ordinal())));
+        assertEquals(4, table.get(key(1L, DAY, TimeSlot.SLOT_18_24.ordinal())));
+        assertEquals(0, table.get(key(2L, DAY, TimeSlot.SLOT_12_18.ordinal())));
+    }
+}
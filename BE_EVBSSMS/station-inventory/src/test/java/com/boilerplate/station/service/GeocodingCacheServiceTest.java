@@ -0,0 +1,133 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.model.entity.GeocodingCache;
+import com.boilerplate.station.repository.GeocodingCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GeocodingCacheServiceTest {
+
+    /**
+     * Geocoder giả lập chạy local: "Unknown ..." không có kết quả, "Broken ..." ném lỗi.
+     */
+    private static class StubGeocoder implements Geocoder {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public CompletableFuture<OpenStreetMapService.LocationDTO> geocodeAsync(String normalizedAddress) {
+            calls.incrementAndGet();
+            if (normalizedAddress.startsWith("Unknown")) return CompletableFuture.completedFuture(null);
+            if (normalizedAddress.startsWith("Broken")) {
+                return CompletableFuture.failedFuture(new IllegalStateException("upstream down"));
+            }
+            return CompletableFuture.completedFuture(new OpenStreetMapService.LocationDTO(10.77, 106.70));
+        }
+    }
+
+    private final Map<String, GeocodingCache> table = new HashMap<>();
+    private GeocodingCacheRepository repository;
+    private StubGeocoder geocoder;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(GeocodingCacheRepository.class);
+        when(repository.findByAddressKey(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(table.get(inv.<String>getArgument(0))));
+        when(repository.save(any(GeocodingCache.class))).thenAnswer(inv -> {
+            GeocodingCache row = inv.getArgument(0);
+            table.put(row.getAddressKey(), row);
+            return row;
+        });
+        geocoder = new StubGeocoder();
+        registry = new SimpleMeterRegistry();
+    }
+
+    private GeocodingCacheService newService() {
+        return new GeocodingCacheService(geocoder, repository, registry, 100, 24);
+    }
+
+    private double count(String result) {
+        return registry.get("geocoding.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void secondLookupIsServedFromMemory() {
+        GeocodingCacheService service = newService();
+
+        service.lookup("Nguyễn Huệ, Quận 1");
+        OpenStreetMapService.LocationDTO again = service.lookup("nguyễn huệ,   Quận 1");
+
+        assertEquals(10.77, again.latitude());
+        assertEquals(1, geocoder.calls.get());
+        assertEquals(1, count("memory_hit"));
+        assertEquals(1, count("miss"));
+    }
+
+    @Test
+    void persistedEntrySurvivesRestart() {
+        newService().lookup("Nguyễn Huệ, Quận 1");
+
+        GeocodingCacheService restarted = newService();
+        OpenStreetMapService.LocationDTO location = restarted.lookup("Nguyễn Huệ, Quận 1");
+
+        assertEquals(106.70, location.longitude());
+        assertEquals(1, geocoder.calls.get());
+        assertEquals(1, count("db_hit"));
+    }
+
+    @Test
+    void missingAddressIsNegativelyCached() {
+        GeocodingCacheService service = newService();
+
+        assertNull(service.lookup("Unknown street"));
+        assertNull(service.lookup("Unknown street"));
+
+        assertEquals(1, geocoder.calls.get());
+        assertEquals(1, count("negative_hit"));
+    }
+
+    @Test
+    void geocoderErrorsAreNotCached() {
+        GeocodingCacheService service = newService();
+
+        assertNull(service.lookup("Broken road"));
+        assertNull(service.lookup("Broken road"));
+
+        assertEquals(2, geocoder.calls.get());
+        assertEquals(2, registry.get("geocoding.cache.errors").counter().count());
+    }
+
+    @Test
+    void concurrentMissesShareOneGeocoderCall() {
+        CompletableFuture<OpenStreetMapService.LocationDTO> upstream = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        Geocoder slow = address -> {
+            calls.incrementAndGet();
+            return upstream;
+        };
+        GeocodingCacheService service = new GeocodingCacheService(slow, repository, registry, 100, 24);
+
+        CompletableFuture<OpenStreetMapService.LocationDTO> a = service.lookupAsync("Lê Lợi, Quận 1");
+        CompletableFuture<OpenStreetMapService.LocationDTO> b = service.lookupAsync("Lê Lợi, Quận 1");
+        upstream.complete(new OpenStreetMapService.LocationDTO(10.77, 106.70));
+
+        assertEquals(10.77, a.join().latitude());
+        assertEquals(10.77, b.join().latitude());
+        assertEquals(1, calls.get());
+    }
+}
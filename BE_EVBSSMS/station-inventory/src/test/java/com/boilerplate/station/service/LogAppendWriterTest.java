@@ -0,0 +1,142 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.BatteryEventType;
+import com.boilerplate.station.model.entity.ChargeLog;
+import com.boilerplate.station.repository.BatterySwapLogRepository;
+import com.boilerplate.station.repository.ChargeLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class LogAppendWriterTest {
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final BatteryTimelineService timeline = mock(BatteryTimelineService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LogAppendWriter writer;
+
+    private LogAppendWriter writer(String durability, int capacity) {
+        writer = new LogAppendWriter(entityManager, mock(BatterySwapLogRepository.class), mock(ChargeLogRepository.class),
+                timeline, transactionManager, meterRegistry, durability, capacity, 50, 20, 0);
+        return writer;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writer != null) writer.stop();
+    }
+
+    private static LogAppendWriter.SwapLogEntry swap(long i) {
+        return new LogAppendWriter.SwapLogEntry(i, i + 1, 7L, "VH-" + i, LocalDateTime.now());
+    }
+
+    @Test
+    void sequencesAreAlignedDuringInitialization() {
+        BatterySwapLogRepository swapLogs = mock(BatterySwapLogRepository.class);
+        ChargeLogRepository chargeLogs = mock(ChargeLogRepository.class);
+        writer = new LogAppendWriter(entityManager, swapLogs, chargeLogs,
+                timeline, transactionManager, meterRegistry, "sync", 10, 50, 20, 0);
+
+        writer.afterSingletonsInstantiated();
+
+        verify(swapLogs).alignIdSequence();
+        verify(chargeLogs).alignIdSequence();
+    }
+
+    private double entries(String result) {
+        return meterRegistry.counter("station.log_writer.entries", "result", result).count();
+    }
+
+    @Test
+    void syncPersistsInCallerTransaction() {
+        writer("sync", 10);
+
+        writer.append(new LogAppendWriter.ChargeLogEntry(1L, 2L, 3L, 20, 100, 4000, null, LocalDateTime.now()));
+
+        verify(entityManager).persist(argThat(e -> e instanceof ChargeLog c && c.getSocAfter() == 100));
+        verify(transactionManager, never()).getTransaction(any());
+        assertEquals(0, writer.pending());
+    }
+
+    @Test
+    void recordsBatteryEventsWithLog() {
+        writer("sync", 10);
+
+        writer.append(swap(4));
+
+        verify(timeline).record(argThat(events -> events.size() == 2
+                && events.get(0).getBatteryId() == 4L && events.get(0).getType() == BatteryEventType.SWAP_IN
+                && events.get(1).getBatteryId() == 5L && events.get(1).getType() == BatteryEventType.SWAP_OUT
+                && events.get(1).getStationId() == 7L && "VH-4".equals(events.get(1).getVehicleId())));
+    }
+
+    @Test
+    void asyncWritesInBatches() throws InterruptedException {
+        writer("async", 1000).start();
+
+        for (int i = 0; i < 120; i++) {
+            writer.append(swap(i));
+        }
+
+        verify(entityManager, timeout(5_000).times(120)).persist(any());
+        writer.stop();
+        // 120 dòng trong các batch tối đa 50 dòng: ít nhất 3 lần flush, không phải mỗi dòng một lần
+        verify(entityManager, atLeast(3)).flush();
+        verify(entityManager, atMost(120 - 1)).flush();
+        assertEquals(120, entries("written"));
+    }
+
+    @Test
+    void fullQueueFallsBackToCallerWrite() {
+        // Không start flusher: hàng đợi 2 chỗ đầy sau 2 entry
+        writer("async", 2);
+
+        writer.append(swap(1));
+        writer.append(swap(2));
+        writer.append(swap(3));
+
+        assertEquals(2, writer.pending());
+        verify(entityManager, times(1)).persist(any());
+        assertEquals(1, entries("fallback"));
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRow() throws InterruptedException {
+        AtomicInteger persisted = new AtomicInteger();
+        doAnswer(inv -> {
+            if (persisted.incrementAndGet() == 2) throw new PersistenceException("fk");
+            return null;
+        }).when(entityManager).persist(any());
+        writer("async", 10);
+        writer.append(swap(1));
+        writer.append(swap(2));
+        writer.append(swap(3));
+
+        writer.start();
+
+        // Batch 3 dòng lỗi ở dòng thứ 2, sau đó ghi lại 3 dòng riêng lẻ
+        verify(entityManager, timeout(5_000).times(5)).persist(any());
+        writer.stop();
+        assertEquals(3, entries("written"));
+        assertEquals(0, entries("failed"));
+    }
+}
@@ -0,0 +1,203 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.model.entity.ArchivedLogFile;
+import com.boilerplate.station.repository.ArchivedLogFileRepository;
+import com.boilerplate.station.repository.BatterySwapLogRepository;
+import com.boilerplate.station.repository.ChargeLogRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LogArchiveServiceTest {
+
+    private static final LocalDate JUNE = LocalDate.of(2025, 6, 1);
+    private static final LocalDate TODAY = LocalDate.of(2025, 10, 15);
+
+    @TempDir
+    Path dir;
+
+    private BatterySwapLogRepository swapLogRepository;
+    private ChargeLogRepository chargeLogRepository;
+    private ArchivedLogFileRepository archivedFileRepository;
+    private LogArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        swapLogRepository = mock(BatterySwapLogRepository.class);
+        chargeLogRepository = mock(ChargeLogRepository.class);
+        archivedFileRepository = mock(ArchivedLogFileRepository.class);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        service = new LogArchiveService(swapLogRepository, chargeLogRepository, archivedFileRepository,
+                objectMapper, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), dir.toString(), 3, 5000, true);
+    }
+
+    private static BatterySwapLogRepository.ArchiveRow swap(long id, long stationId, LocalDateTime time) {
+        BatterySwapLogRepository.ArchiveRow row = mock(BatterySwapLogRepository.ArchiveRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getOldBatteryId()).thenReturn(null);
+        when(row.getStationId()).thenReturn(stationId);
+        when(row.getVehicleId()).thenReturn("V" + id);
+        when(row.getSwapTime()).thenReturn(time);
+        return row;
+    }
+
+    @Test
+    void closedMonthIsWrittenCatalogedAndDeleted() {
+        List<BatterySwapLogRepository.ArchiveRow> rows = List.of(
+                swap(7, 1, JUNE.atTime(8, 0)),
+                swap(9, 2, JUNE.plusDays(3).atTime(19, 30)),
+                swap(8, 1, JUNE.plusDays(29).atTime(23, 59)));
+        LocalDateTime cutoff = LocalDate.of(2025, 7, 1).atStartOfDay();
+        when(swapLogRepository.findMonthsBefore(cutoff)).thenReturn(List.of(JUNE));
+        when(chargeLogRepository.findMonthsBefore(cutoff)).thenReturn(List.of());
+        when(archivedFileRepository.findByTableNameAndMonthOrderByPart(LogArchiveService.SWAP_LOGS, JUNE))
+                .thenReturn(List.of());
+        when(swapLogRepository.streamForArchive(JUNE.atStartOfDay(), cutoff)).thenReturn(rows.stream());
+        when(swapLogRepository.deleteArchived(any(), any(), anyLong(), anyInt())).thenReturn(3);
+
+        assertEquals(1, service.archiveClosedMonths(TODAY));
+
+        ArgumentCaptor<ArchivedLogFile> saved = ArgumentCaptor.forClass(ArchivedLogFile.class);
+        verify(archivedFileRepository).save(saved.capture());
+        ArchivedLogFile file = saved.getValue();
+        assertEquals(1, file.getPart());
+        assertEquals(3, file.getRowCount());
+        assertEquals(9L, file.getMaxId());
+        assertTrue(Files.exists(Path.of(file.getPath())));
+        assertTrue(file.getPath().endsWith("battery_swap_logs-2025-06-part1.ndjson.gz"));
+        verify(swapLogRepository).deleteArchived(JUNE.atStartOfDay(), cutoff, 9L, 5000);
+
+        // Đọc lại: lọc theo trạm và khoảng thời gian
+        when(archivedFileRepository.findOverlapping(LogArchiveService.SWAP_LOGS, JUNE, JUNE))
+                .thenReturn(List.of(file));
+        List<LogArchiveService.SwapLogRecord> read = new ArrayList<>();
+        Map<LocalDate, Long> archived = service.forEachArchivedSwap(1L, JUNE.atStartOfDay(), LocalDate.of(2025, 6, 30).atStartOfDay(),
+                read::add);
+
+        assertEquals(Map.of(JUNE, 9L), archived);
+        assertEquals(1, read.size());
+        assertEquals(7L, read.get(0).id());
+        assertEquals("V7", read.get(0).vehicleId());
+        assertEquals(JUNE.atTime(8, 0), read.get(0).swapTime());
+    }
+
+    @Test
+    void stationTransferRowsAreNotArchived() {
+        BatterySwapLogRepository.ArchiveRow transfer = mock(BatterySwapLogRepository.ArchiveRow.class);
+        when(transfer.getId()).thenReturn(12L);
+        when(transfer.getOldBatteryId()).thenReturn(40L);
+        when(transfer.getSwapTime()).thenReturn(JUNE.plusDays(5).atStartOfDay());
+        BatterySwapLogRepository.ArchiveRow swap = swap(7, 1, JUNE.atTime(8, 0));
+        LocalDateTime cutoff = LocalDate.of(2025, 7, 1).atStartOfDay();
+        when(swapLogRepository.findMonthsBefore(cutoff)).thenReturn(List.of(JUNE));
+        when(chargeLogRepository.findMonthsBefore(cutoff)).thenReturn(List.of());
+        when(archivedFileRepository.findByTableNameAndMonthOrderByPart(LogArchiveService.SWAP_LOGS, JUNE))
+                .thenReturn(List.of());
+        when(swapLogRepository.streamForArchive(JUNE.atStartOfDay(), cutoff))
+                .thenReturn(Stream.of(swap, transfer));
+
+        assertEquals(1, service.archiveClosedMonths(TODAY));
+
+        ArgumentCaptor<ArchivedLogFile> saved = ArgumentCaptor.forClass(ArchivedLogFile.class);
+        verify(archivedFileRepository).save(saved.capture());
+        assertEquals(1, saved.getValue().getRowCount());
+        // max_id chỉ tính dòng đổi pin, lệnh xóa (loại trừ old_battery_id) không chạm tới log chuyển trạm
+        assertEquals(7L, saved.getValue().getMaxId());
+        verify(swapLogRepository).deleteArchived(JUNE.atStartOfDay(), cutoff, 7L, 5000);
+
+        when(archivedFileRepository.findOverlapping(LogArchiveService.SWAP_LOGS, null, null))
+                .thenReturn(List.of(saved.getValue()));
+        List<LogArchiveService.SwapLogRecord> read = new ArrayList<>();
+        service.forEachArchivedSwap(null, null, null, read::add);
+        assertEquals(List.of(7L), read.stream().map(LogArchiveService.SwapLogRecord::id).toList());
+    }
+
+    @Test
+    void interruptedDeleteIsFinishedBeforeNextExport() throws IOException {
+        LocalDateTime cutoff = LocalDate.of(2025, 7, 1).atStartOfDay();
+        ArchivedLogFile previous = ArchivedLogFile.builder()
+                .tableName(LogArchiveService.SWAP_LOGS).month(JUNE).part(1).path("old").maxId(50L).build();
+        when(swapLogRepository.findMonthsBefore(cutoff)).thenReturn(List.of(JUNE));
+        when(chargeLogRepository.findMonthsBefore(cutoff)).thenReturn(List.of());
+        when(archivedFileRepository.findByTableNameAndMonthOrderByPart(LogArchiveService.SWAP_LOGS, JUNE))
+                .thenReturn(List.of(previous));
+        when(swapLogRepository.deleteArchived(any(), any(), eq(50L), anyInt())).thenReturn(5000, 120);
+        when(swapLogRepository.streamForArchive(any(), any())).thenReturn(Stream.empty());
+
+        assertEquals(0, service.archiveClosedMonths(TODAY));
+
+        verify(archivedFileRepository, never()).save(any());
+        assertFalse(Files.exists(dir.resolve("battery_swap_logs-2025-06-part2.ndjson.gz")));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertFalse(files.anyMatch(f -> f.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void concurrentRunLosingCatalogRaceDeletesNothing() {
+        LocalDateTime cutoff = LocalDate.of(2025, 7, 1).atStartOfDay();
+        BatterySwapLogRepository.ArchiveRow row = swap(7, 1, JUNE.atTime(8, 0));
+        when(swapLogRepository.findMonthsBefore(cutoff)).thenReturn(List.of(JUNE));
+        when(chargeLogRepository.findMonthsBefore(cutoff)).thenReturn(List.of());
+        when(archivedFileRepository.findByTableNameAndMonthOrderByPart(LogArchiveService.SWAP_LOGS, JUNE))
+                .thenReturn(List.of());
+        when(swapLogRepository.streamForArchive(any(), any())).thenReturn(Stream.of(row));
+        when(archivedFileRepository.save(any())).thenThrow(new DataIntegrityViolationException("uk"));
+
+        assertEquals(0, service.archiveClosedMonths(TODAY));
+
+        verify(swapLogRepository, never()).deleteArchived(any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void missingArchiveFileIsSkipped() {
+        ArchivedLogFile gone = ArchivedLogFile.builder().tableName(LogArchiveService.SWAP_LOGS).month(JUNE).part(1)
+                .path(dir.resolve("other-instance.ndjson.gz").toString()).maxId(50L).build();
+        when(archivedFileRepository.findOverlapping(any(), any(), any())).thenReturn(List.of(gone));
+
+        // Tháng không đọc được không nằm trong kết quả, nên các dòng chưa xóa vẫn được đếm từ bảng
+        assertTrue(service.forEachArchivedSwap(null, JUNE.atStartOfDay(), null, swap -> {
+            throw new AssertionError();
+        }).isEmpty());
+    }
+
+    @Test
+    void rangeWithoutArchivedMonthsReadsNothing() {
+        when(archivedFileRepository.findOverlapping(any(), any(), any())).thenReturn(List.of());
+
+        assertTrue(service.forEachArchivedSwap(null, TODAY.atStartOfDay(), null, swap -> {
+            throw new AssertionError();
+        }).isEmpty());
+        verify(archivedFileRepository).findOverlapping(LogArchiveService.SWAP_LOGS, LocalDate.of(2025, 10, 1), null);
+    }
+}
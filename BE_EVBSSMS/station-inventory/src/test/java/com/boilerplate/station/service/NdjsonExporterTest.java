@@ -0,0 +1,63 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.exception.BusinessException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class NdjsonExporterTest {
+
+    record Row(Long id, String code) {}
+
+    private final NdjsonExporter exporter =
+            new NdjsonExporter(new ObjectMapper(), mock(PlatformTransactionManager.class));
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void writesOneJsonObjectPerLineAndClosesStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        ResponseEntity<StreamingResponseBody> response = exporter.export("rows.ndjson",
+                () -> Stream.of(new Row(1L, "BTR1"), new Row(2L, "BTR2")).onClose(() -> closed.set(true)));
+
+        assertEquals("{\"id\":1,\"code\":\"BTR1\"}\n{\"id\":2,\"code\":\"BTR2\"}\n", write(response));
+        assertEquals(NdjsonExporter.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("rows.ndjson"));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void emptySourceWritesNothing() throws Exception {
+        assertEquals("", write(exporter.export("rows.ndjson", Stream::<Row>empty)));
+    }
+
+    @Test
+    void pageSizeDefaultsAndIsCapped() {
+        PageLimits limits = new PageLimits(100, 1000);
+
+        Pageable byDefault = limits.limit(null);
+        Pageable capped = limits.limit(5000);
+
+        assertEquals(100, byDefault.getPageSize());
+        assertEquals(1000, capped.getPageSize());
+        assertThrows(BusinessException.class, () -> limits.limit(0));
+    }
+}
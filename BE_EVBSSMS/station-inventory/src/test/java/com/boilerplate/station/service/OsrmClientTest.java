@@ -0,0 +1,132 @@
+package com.boilerplate.station.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OsrmClientTest {
+
+    private HttpServer server;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private OsmHttpClient httpClient;
+    private OsrmClient client;
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * OSRM giả lập chạy local: khoảng cách tới đích thứ j = j * 1000m, tọa độ có kinh độ 0 thì không có đường.
+     */
+    @BeforeEach
+    void startStandIn() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/table/v1/driving/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requests.add(path + "?" + exchange.getRequestURI().getQuery());
+            String[] coords = path.substring("/table/v1/driving/".length()).split(";");
+
+            StringBuilder row = new StringBuilder("[0");
+            for (int j = 1; j < coords.length; j++) {
+                row.append(coords[j].startsWith("0.000000,") ? ",null" : "," + (j * 1000.0));
+            }
+            row.append("]");
+            respond(exchange, "{\"code\":\"Ok\",\"distances\":[" + row + "]}");
+        });
+        server.createContext("/route/v1/driving/", exchange -> {
+            requests.add(exchange.getRequestURI().getPath());
+            respond(exchange, "{\"code\":\"Ok\",\"routes\":[{\"distance\":4200.0}]}");
+        });
+        server.createContext("/slow/route/v1/driving/", exchange -> {
+            try {
+                Thread.sleep(2_000);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "{\"code\":\"Ok\",\"routes\":[{\"distance\":1.0}]}");
+        });
+        server.start();
+
+        httpClient = new OsmHttpClient(new ObjectMapper(), 1_000, 500, 4);
+        client = new OsrmClient(httpClient, baseUrl(), new RouteCache(1000, 4));
+    }
+
+    @AfterEach
+    void stopStandIn() {
+        httpClient.shutdown();
+        server.stop(0);
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, String body) throws java.io.IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    void tableIssuesSingleRequestAndCachesPairs() {
+        List<OpenStreetMapService.LocationDTO> destinations = List.of(
+                new OpenStreetMapService.LocationDTO(10.1, 106.1),
+                new OpenStreetMapService.LocationDTO(10.2, 106.2),
+                new OpenStreetMapService.LocationDTO(10.3, 0.0));
+
+        double[] first = client.table(10.0, 106.0, destinations);
+        double[] second = client.table(10.0, 106.0, destinations);
+
+        assertArrayEquals(new double[]{1.0, 2.0, -1}, first);
+        assertEquals(1.0, second[0]);
+        assertEquals(2.0, second[1]);
+        // Đích không có đường không được cache nên lần 2 chỉ hỏi lại đúng đích đó
+        assertEquals(2, requests.size());
+        assertTrue(requests.get(0).contains("sources=0"));
+        assertEquals(1, requests.get(1).split(";").length - 1);
+    }
+
+    @Test
+    void routeUsesCacheForNearbyCoordinates() {
+        assertEquals(4.2, client.route(10.0, 106.0, 10.5, 106.5));
+        assertEquals(4.2, client.route(10.000001, 106.000001, 10.5, 106.5));
+
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void slowUpstreamHitsDeadline() {
+        OsrmClient slow = new OsrmClient(httpClient, baseUrl() + "/slow", new RouteCache(1000, 4));
+
+        long start = System.nanoTime();
+        double distance = slow.route(10.0, 106.0, 10.5, 106.5);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(-1, distance);
+        assertTrue(elapsedMs < 1_500, "deadline 500ms bị vượt: " + elapsedMs + "ms");
+    }
+
+    @Test
+    void asyncRoutesFanOutInParallel() {
+        List<CompletableFuture<Double>> futures = List.of(
+                client.routeAsync(10.0, 106.0, 10.1, 106.1),
+                client.routeAsync(10.0, 106.0, 10.2, 106.2),
+                client.routeAsync(10.0, 106.0, 10.3, 106.3));
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        futures.forEach(f -> assertEquals(4.2, f.join()));
+        assertEquals(3, requests.size());
+    }
+}
@@ -0,0 +1,229 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.SupplyRequestStatus;
+import com.boilerplate.station.model.DTO.SwapForecastDTO;
+import com.boilerplate.station.model.entity.BatterySupplyRequest;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.model.entity.StationInventory;
+import com.boilerplate.station.repository.BatterySupplyRequestRepository;
+import com.boilerplate.station.repository.StationInventoryRepository;
+import com.boilerplate.station.repository.StationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RebalancingServiceTest {
+
+    // ~1.1 km mỗi 0.01 độ vĩ
+    private static final double KM = 0.009;
+
+    private StationInventoryRepository inventoryRepository;
+    private StationRepository stationRepository;
+    private BatterySupplyRequestRepository supplyRequestRepository;
+    private StationGeoIndex geoIndex;
+    private SwapForecastService forecastService;
+    private RebalancingService service;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(StationInventoryRepository.class);
+        stationRepository = mock(StationRepository.class);
+        supplyRequestRepository = mock(BatterySupplyRequestRepository.class);
+        geoIndex = new StationGeoIndex(null, 0.05);
+        forecastService = mock(SwapForecastService.class);
+        service = new RebalancingService(inventoryRepository, stationRepository, supplyRequestRepository, geoIndex,
+                forecastService, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                true, 1.0, 2, 30, 10, "ANY");
+    }
+
+    private static RebalancingService.StationState state(long id, double kmNorth, int available, int target) {
+        return new RebalancingService.StationState(id, 10 + kmNorth * KM, 106, available, target);
+    }
+
+    @Test
+    void coversMoreDeficitThanNearestFirst() {
+        // Trạm 10 chỉ với tới trạm 1; trạm 11 gần trạm 1 hơn nhưng cũng với tới trạm 2
+        List<RebalancingService.StationState> states = List.of(
+                state(1, 0, 5, 2),      // dư 1 (giữ lại 2)
+                state(2, 40, 5, 2),     // dư 1
+                state(10, -25, 0, 1),   // thiếu 1, cách trạm 1 25 km, trạm 2 65 km
+                state(11, 20, 0, 1));   // thiếu 1, cách cả trạm 1 và trạm 2 20 km
+
+        List<RebalancingService.Transfer> transfers = new ArrayList<>(service.plan(states));
+        transfers.sort(Comparator.comparing(RebalancingService.Transfer::toStationId));
+
+        assertEquals(2, transfers.size());
+        assertEquals(new RebalancingService.Transfer(1L, 10L, 1, transfers.get(0).distanceKm()), transfers.get(0));
+        assertEquals(2L, transfers.get(1).fromStationId());
+        assertEquals(11L, transfers.get(1).toStationId());
+    }
+
+    @Test
+    void respectsReserveAndDistanceLimit() {
+        List<RebalancingService.Transfer> transfers = service.plan(List.of(
+                state(1, 0, 10, 3),     // dư 5 sau khi giữ lại 2
+                state(10, 5, 0, 8),     // thiếu 8
+                state(11, 100, 0, 3))); // ngoài 30 km
+
+        assertEquals(List.of(new RebalancingService.Transfer(1L, 10L, 5, transfers.get(0).distanceKm())), transfers);
+        assertEquals(5.0, transfers.get(0).distanceKm(), 0.1);
+    }
+
+    @Test
+    void thousandsOfStationsPlanWithinSeconds() {
+        Random random = new Random(7);
+        List<RebalancingService.StationState> states = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            double lat = 10 + random.nextDouble();
+            double lon = 106 + random.nextDouble();
+            int target = random.nextInt(20);
+            states.add(new RebalancingService.StationState(id, lat, lon, random.nextInt(25), target));
+        }
+
+        long start = System.nanoTime();
+        List<RebalancingService.Transfer> transfers = service.plan(states);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 5000, "plan took " + elapsedMs + " ms");
+        assertTrue(!transfers.isEmpty());
+        // Không trạm nào cho đi quá phần dư, không trạm nào nhận quá phần thiếu
+        for (RebalancingService.StationState s : states) {
+            int out = transfers.stream().filter(t -> t.fromStationId().equals(s.stationId())).mapToInt(RebalancingService.Transfer::quantity).sum();
+            int in = transfers.stream().filter(t -> t.toStationId().equals(s.stationId())).mapToInt(RebalancingService.Transfer::quantity).sum();
+            assertTrue(out <= Math.max(0, s.available() - s.target() - 2));
+            assertTrue(in <= s.deficit());
+            assertTrue(transfers.stream().allMatch(t -> t.distanceKm() <= 30));
+        }
+    }
+
+    @Test
+    void runReplacesDraftRequests() {
+        geoIndex.upsert(station(1, 10.0));
+        geoIndex.upsert(station(2, 10.05));
+        List<StationInventory> inventories = List.of(inventory(1, 8, 2, 0), inventory(2, 1, 0, 1));
+        when(inventoryRepository.findAll()).thenReturn(inventories);
+        SwapForecastDTO quiet = forecast(2);
+        SwapForecastDTO busy = forecast(6);
+        when(forecastService.forecast(eq(1L), any())).thenReturn(quiet);
+        when(forecastService.forecast(eq(2L), any())).thenReturn(busy);
+        when(stationRepository.getReferenceById(anyLong())).thenAnswer(inv -> station(inv.getArgument(0), 0));
+        when(supplyRequestRepository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        service.run();
+
+        InOrder order = inOrder(supplyRequestRepository);
+        order.verify(supplyRequestRepository).deleteByStatus(SupplyRequestStatus.DRAFT);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatterySupplyRequest>> saved = ArgumentCaptor.forClass(List.class);
+        order.verify(supplyRequestRepository).saveAll(saved.capture());
+        BatterySupplyRequest draft = saved.getValue().get(0);
+        assertEquals(SupplyRequestStatus.DRAFT, draft.getStatus());
+        assertEquals(2L, draft.getStation().getId());
+        assertEquals(1L, draft.getSourceStation().getId());
+        // trạm 2 cần 6, có 1 - 1 giữ = 0; trạm 1 dư 10 - 2 - 2 = 6
+        assertEquals(6, draft.getRequestedQuantity());
+    }
+
+    @Test
+    void inFlightRequestsCountTowardsStock() {
+        geoIndex.upsert(station(1, 10.04));
+        geoIndex.upsert(station(2, 10.05));
+        geoIndex.upsert(station(3, 10.0));
+        when(inventoryRepository.findAll()).thenReturn(List.of(
+                inventory(1, 10, 0, 0), inventory(2, 0, 0, 0), inventory(3, 5, 0, 0)));
+        when(forecastService.forecast(eq(1L), any())).thenReturn(forecast(2));
+        when(forecastService.forecast(eq(2L), any())).thenReturn(forecast(6));
+        when(forecastService.forecast(eq(3L), any())).thenReturn(forecast(2));
+        // Trạm 2 đang chờ nhận 4 pin; trạm 1 (gần trạm 2 nhất) đã hứa cho đi 6 pin
+        when(supplyRequestRepository.sumByStation(any())).thenReturn(List.of(quantity(2, 4)));
+        when(supplyRequestRepository.sumBySourceStation(any())).thenReturn(List.of(quantity(1, 6)));
+        when(stationRepository.getReferenceById(anyLong())).thenAnswer(inv -> station(inv.getArgument(0), 0));
+        when(supplyRequestRepository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        service.run();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatterySupplyRequest>> saved = ArgumentCaptor.forClass(List.class);
+        verify(supplyRequestRepository).sumByStation(Set.of(SupplyRequestStatus.PENDING, SupplyRequestStatus.APPROVED));
+        verify(supplyRequestRepository).saveAll(saved.capture());
+        // trạm 2 cần 6, có 0 + 4 đang đến: thiếu 2; trạm 1 còn 10 - 6 - 2 - 2 = 0 để cho; trạm 3 còn 5 - 2 - 2 = 1
+        assertEquals(1, saved.getValue().size());
+        BatterySupplyRequest draft = saved.getValue().get(0);
+        assertEquals(2L, draft.getStation().getId());
+        assertEquals(3L, draft.getSourceStation().getId());
+        assertEquals(1, draft.getRequestedQuantity());
+    }
+
+    @Test
+    void untrainedStationIsNeitherDonorNorReceiver() {
+        geoIndex.upsert(station(1, 10.0));
+        geoIndex.upsert(station(2, 10.05));
+        geoIndex.upsert(station(3, 10.02));
+        when(inventoryRepository.findAll()).thenReturn(List.of(
+                inventory(1, 20, 0, 0), inventory(2, 0, 0, 0), inventory(3, 0, 0, 0)));
+        SwapForecastDTO untrained = SwapForecastDTO.builder()
+                .nextDay(new SwapForecastDTO.DayForecast(null, null, 0)).build();
+        when(forecastService.forecast(eq(1L), any())).thenReturn(untrained);
+        when(forecastService.forecast(eq(2L), any())).thenReturn(forecast(6));
+        when(forecastService.forecast(eq(3L), any())).thenReturn(untrained);
+
+        // Trạm 1 có 20 pin nhưng chưa có dự báo: không bị rút pin cho trạm 2
+        assertTrue(service.run().isEmpty());
+        verify(supplyRequestRepository).saveAll(List.of());
+    }
+
+    private static Station station(long id, double lat) {
+        Station station = new Station();
+        station.setId(id);
+        station.setLatitude(lat);
+        station.setLongitude(106.0);
+        return station;
+    }
+
+    private static BatterySupplyRequestRepository.StationQuantity quantity(long stationId, long quantity) {
+        return new BatterySupplyRequestRepository.StationQuantity() {
+            @Override
+            public Long getStationId() {
+                return stationId;
+            }
+
+            @Override
+            public Long getQuantity() {
+                return quantity;
+            }
+        };
+    }
+
+    private static StationInventory inventory(long stationId, int full, int charging, int held) {
+        StationInventory inventory = new StationInventory();
+        inventory.setStationId(stationId);
+        inventory.setFullCount(full);
+        inventory.setChargingCount(charging);
+        inventory.setHeldCount(held);
+        return inventory;
+    }
+
+    private static SwapForecastDTO forecast(double total) {
+        SwapForecastDTO.DayForecast day = new SwapForecastDTO.DayForecast(null, null, total);
+        return SwapForecastDTO.builder().trained(true).nextDay(day).build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.model.entity.Station;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StationGeoIndexTest {
+
+    private static Station station(long id, double lat, double lon) {
+        Station s = new Station();
+        s.setId(id);
+        s.setStationName("Station " + id);
+        s.setLatitude(lat);
+        s.setLongitude(lon);
+        return s;
+    }
+
+    @Test
+    void nearestMatchesLinearScan() {
+        StationGeoIndex index = new StationGeoIndex(null, 0.05);
+        Random random = new Random(42);
+        List<Station> stations = new ArrayList<>();
+        for (long i = 1; i <= 5_000; i++) {
+            Station s = station(i, 10.0 + random.nextDouble() * 1.5, 106.0 + random.nextDouble() * 1.5);
+            stations.add(s);
+            index.upsert(s);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            double lat = 9.8 + random.nextDouble() * 2.0;
+            double lon = 105.8 + random.nextDouble() * 2.0;
+
+            List<Long> expected = stations.stream()
+                    .sorted(Comparator.comparingDouble(s ->
+                            StationGeoIndex.distance(lat, lon, s.getLatitude(), s.getLongitude())))
+                    .limit(5)
+                    .map(Station::getId)
+                    .toList();
+            List<Long> actual = index.nearest(lat, lon, 5, 0).stream()
+                    .map(h -> h.station().id())
+                    .toList();
+
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void radiusLimitsResults() {
+        StationGeoIndex index = new StationGeoIndex(null, 0.05);
+        index.upsert(station(1, 10.0, 106.0));
+        index.upsert(station(2, 10.5, 106.0));
+
+        List<StationGeoIndex.Hit> hits = index.nearest(10.0, 106.0, 5, 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(1L, hits.get(0).station().id());
+    }
+
+    @Test
+    void upsertMovesAndRemoveDrops() {
+        StationGeoIndex index = new StationGeoIndex(null, 0.05);
+        index.upsert(station(1, 10.0, 106.0));
+        index.upsert(station(1, 21.0, 105.8));
+        assertEquals(1, index.size());
+        assertTrue(index.nearest(10.0, 106.0, 1, 50).isEmpty());
+
+        index.remove(1L);
+        assertEquals(0, index.size());
+        assertTrue(index.nearest(21.0, 105.8, 1, 0).isEmpty());
+    }
+}
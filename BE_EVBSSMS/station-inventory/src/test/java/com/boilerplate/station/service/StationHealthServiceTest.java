@@ -0,0 +1,159 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.HealthResolution;
+import com.boilerplate.station.exception.AppException;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.DTO.HealthPointDTO;
+import com.boilerplate.station.model.createRequest.HealthSampleRequest;
+import com.boilerplate.station.model.entity.StationHealthRollup;
+import com.boilerplate.station.repository.StationHealthLogRepository;
+import com.boilerplate.station.repository.StationHealthRollupRepository;
+import com.boilerplate.station.repository.StationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StationHealthServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private StationHealthLogRepository healthLogRepository;
+    private StationHealthRollupRepository rollupRepository;
+    private StationRepository stationRepository;
+    private StationHealthService service;
+
+    @BeforeEach
+    void setUp() {
+        healthLogRepository = mock(StationHealthLogRepository.class);
+        rollupRepository = mock(StationHealthRollupRepository.class);
+        stationRepository = mock(StationRepository.class);
+        service = new StationHealthService(healthLogRepository, rollupRepository, stationRepository,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                3, 5000, 6, 7, 7, 30, 365, 10_000);
+    }
+
+    @Test
+    void batchIsWrittenWithOneStatement() {
+        when(stationRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+        LocalDateTime t = NOW.minusSeconds(5);
+
+        service.ingest(List.of(
+                new HealthSampleRequest(1L, 97.5, 40.0, t),
+                new HealthSampleRequest(2L, 88.0, 55.0, t),
+                new HealthSampleRequest(1L, 97.4, 41.0, null)));
+
+        ArgumentCaptor<Long[]> ids = ArgumentCaptor.forClass(Long[].class);
+        ArgumentCaptor<Double[]> soh = ArgumentCaptor.forClass(Double[].class);
+        ArgumentCaptor<LocalDateTime[]> times = ArgumentCaptor.forClass(LocalDateTime[].class);
+        verify(healthLogRepository, times(1)).appendBatch(ids.capture(), soh.capture(), any(), times.capture());
+        assertArrayEquals(new Long[]{1L, 2L, 1L}, ids.getValue());
+        assertArrayEquals(new Double[]{97.5, 88.0, 97.4}, soh.getValue());
+        assertEquals(t, times.getValue()[0]);
+        assertEquals(3, times.getValue().length);
+        // recordedAt trống được gán thời điểm nhận
+        assertNotNull(times.getValue()[2]);
+    }
+
+    @Test
+    void invalidBatchIsRejectedWithoutWriting() {
+        List<HealthSampleRequest> tooMany = new ArrayList<>();
+        for (int i = 0; i < 4; i++) tooMany.add(new HealthSampleRequest(1L, 90.0, 40.0, NOW));
+        BusinessException oversized = assertThrows(BusinessException.class, () -> service.ingest(tooMany));
+        assertEquals(AppException.BAD_REQUEST, oversized.getAppException());
+
+        BusinessException missing = assertThrows(BusinessException.class,
+                () -> service.ingest(List.of(new HealthSampleRequest(1L, null, 40.0, NOW))));
+        assertEquals(AppException.VALIDATION_FAILED, missing.getAppException());
+
+        when(stationRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        BusinessException unknown = assertThrows(BusinessException.class, () -> service.ingest(List.of(
+                new HealthSampleRequest(1L, 90.0, 40.0, NOW), new HealthSampleRequest(9L, 90.0, 40.0, NOW))));
+        assertEquals(AppException.STATION_NOT_FOUND, unknown.getAppException());
+
+        verify(healthLogRepository, never()).appendBatch(any(), any(), any(), any());
+    }
+
+    @Test
+    void resolutionFollowsRangeAndRetention() {
+        assertEquals(HealthResolution.RAW, service.resolve(NOW.minusHours(2), NOW, NOW));
+        assertEquals(HealthResolution.MINUTE, service.resolve(NOW.minusDays(1), NOW, NOW));
+        assertEquals(HealthResolution.HOUR, service.resolve(NOW.minusDays(30), NOW, NOW));
+        // khoảng ngắn nhưng dữ liệu gốc đã bị xóa
+        assertEquals(HealthResolution.MINUTE, service.resolve(NOW.minusDays(10), NOW.minusDays(10).plusHours(1), NOW));
+        assertEquals(HealthResolution.HOUR, service.resolve(NOW.minusDays(60), NOW.minusDays(60).plusHours(1), NOW));
+        // 7 ngày khung phút = 10080 điểm > max-points 5000
+        assertEquals(HealthResolution.HOUR, service.resolve(NOW.minusDays(7), NOW, NOW));
+        assertEquals(HealthResolution.MINUTE, service.resolve(NOW.minusDays(3), NOW, NOW));
+    }
+
+    @Test
+    void denseRawRangeFallsBackToMinutesAndFlagsTruncation() {
+        service = new StationHealthService(healthLogRepository, rollupRepository, stationRepository,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                3, 2, 6, 7, 7, 30, 365, 10_000);
+        when(stationRepository.existsById(1L)).thenReturn(true);
+        LocalDateTime to = LocalDateTime.now();
+        List<StationHealthLogRepository.HealthSample> samples = new ArrayList<>();
+        for (int i = 0; i < 3; i++) samples.add(sample(to.minusSeconds(30 - i)));
+        when(healthLogRepository.findRange(eq(1L), any(), any(), any())).thenReturn(samples);
+        List<StationHealthRollup> buckets = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            buckets.add(new StationHealthRollup(1L, 60, to.minusMinutes(3 - i), 1, 95.0, 95.0, 95.0, 50.0, 50.0, 50.0));
+        }
+        when(rollupRepository.findRange(eq(1L), eq(60), any(), any(), any())).thenReturn(buckets);
+
+        var data = service.getSeries(1L, to.minusHours(1), to, null).getBody().getData();
+
+        assertEquals(HealthResolution.MINUTE, data.getResolution());
+        assertEquals(2, data.getPoints().size());
+        assertTrue(data.isTruncated());
+    }
+
+    private static StationHealthLogRepository.HealthSample sample(LocalDateTime at) {
+        StationHealthLogRepository.HealthSample sample = mock(StationHealthLogRepository.HealthSample.class);
+        when(sample.getRecordedAt()).thenReturn(at);
+        when(sample.getAvgSoH()).thenReturn(95.0);
+        when(sample.getHumidity()).thenReturn(50.0);
+        return sample;
+    }
+
+    @Test
+    void monthLongRangeReadsHourlyRollups() {
+        when(stationRepository.existsById(1L)).thenReturn(true);
+        StationHealthRollup bucket = new StationHealthRollup(1L, 3600, NOW.minusHours(1), 4,
+                380.0, 94.0, 96.0, 200.0, 45.0, 55.0);
+        List<StationHealthRollup> buckets = List.of(bucket);
+        when(rollupRepository.findRange(eq(1L), eq(3600), any(), any(), any())).thenReturn(buckets);
+
+        var body = service.getSeries(1L, LocalDateTime.now().minusDays(30), LocalDateTime.now(), null).getBody();
+
+        assertEquals(HealthResolution.HOUR, body.getData().getResolution());
+        HealthPointDTO point = body.getData().getPoints().get(0);
+        assertEquals(95.0, point.getAvgSoH(), 1e-9);
+        assertEquals(50.0, point.getHumidity(), 1e-9);
+        assertEquals(4L, point.getSamples());
+        assertFalse(body.getData().isTruncated());
+        verify(healthLogRepository, never()).findRange(any(), any(), any(), any());
+    }
+}
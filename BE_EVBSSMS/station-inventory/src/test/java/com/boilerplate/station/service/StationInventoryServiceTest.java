@@ -0,0 +1,128 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.BatteryStatus;
+import com.boilerplate.station.model.entity.Battery;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.model.entity.StationInventory;
+import com.boilerplate.station.repository.BatteryRepository;
+import com.boilerplate.station.repository.StationInventoryRepository;
+import com.boilerplate.station.repository.StationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StationInventoryServiceTest {
+
+    private StationInventoryRepository inventoryRepository;
+    private BatteryRepository batteryRepository;
+    private StationInventoryService service;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(StationInventoryRepository.class);
+        batteryRepository = mock(BatteryRepository.class);
+        service = new StationInventoryService(inventoryRepository, batteryRepository,
+                mock(StationRepository.class), mock(AvailabilityStream.class), new SimpleMeterRegistry());
+    }
+
+    private static Station station(long id) {
+        Station station = new Station();
+        station.setId(id);
+        return station;
+    }
+
+    private static Battery battery(Station station, BatteryStatus status) {
+        Battery battery = new Battery();
+        battery.setStation(station);
+        battery.setStatus(status);
+        return battery;
+    }
+
+    @Test
+    void statusChangeMovesOneCounter() {
+        Battery battery = battery(station(1), BatteryStatus.CHARGING);
+        StationInventoryService.BatteryState before = service.snapshot(battery);
+
+        battery.setStatus(BatteryStatus.FULL);
+        service.track(before, battery);
+
+        verify(inventoryRepository).applyDelta(1L, 1, -1, 0, 0, 0);
+    }
+
+    @Test
+    void transferDecrementsSourceAndIncrementsDestination() {
+        Battery battery = battery(station(1), BatteryStatus.FULL);
+        battery.setHold(true);
+        StationInventoryService.BatteryState before = service.snapshot(battery);
+
+        battery.setStation(station(2));
+        service.track(before, battery);
+
+        verify(inventoryRepository).applyDelta(1L, -1, 0, 0, 0, -1);
+        verify(inventoryRepository).applyDelta(2L, 1, 0, 0, 0, 1);
+    }
+
+    @Test
+    void leavingStationAndDeleteOnlyDecrement() {
+        Battery inCar = battery(station(1), BatteryStatus.FULL);
+        StationInventoryService.BatteryState before = service.snapshot(inCar);
+        inCar.setStation(null);
+        inCar.setStatus(BatteryStatus.IN_CAR);
+        service.track(before, inCar);
+
+        Battery deleted = battery(station(3), BatteryStatus.DEFECTIVE);
+        service.track(service.snapshot(deleted), null);
+
+        verify(inventoryRepository).applyDelta(1L, -1, 0, 0, 0, 0);
+        verify(inventoryRepository).applyDelta(3L, 0, 0, 0, -1, 0);
+    }
+
+    @Test
+    void uncountedStatusChangeWritesNothing() {
+        Battery battery = battery(station(1), BatteryStatus.IN_STOCK);
+        StationInventoryService.BatteryState before = service.snapshot(battery);
+
+        battery.setStatus(BatteryStatus.IN_USE);
+        service.track(before, battery);
+
+        verify(inventoryRepository, never()).applyDelta(anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    private static BatteryRepository.StationStatusCount count(long stationId, BatteryStatus status, long total, long held) {
+        return new BatteryRepository.StationStatusCount() {
+            public Long getStationId() { return stationId; }
+            public BatteryStatus getStatus() { return status; }
+            public Long getTotal() { return total; }
+            public Long getHeld() { return held; }
+        };
+    }
+
+    @Test
+    void driftIsCorrectedOnlyWhenSeenTwice() {
+        StationInventory recorded = new StationInventory();
+        recorded.setStationId(1L);
+        recorded.setFullCount(5);
+        when(inventoryRepository.findAll()).thenReturn(List.of(recorded));
+        when(batteryRepository.countByStationAndStatus()).thenReturn(List.of(
+                count(1, BatteryStatus.FULL, 4, 1),
+                count(2, BatteryStatus.CHARGING, 3, 0)));
+
+        service.checkDrift();
+        // Trạm 2 chưa có bộ đếm: khởi tạo ngay; trạm 1 mới nghi lệch lần đầu
+        verify(inventoryRepository).overwrite(2L, 0, 3, 0, 0, 0);
+        verify(inventoryRepository, never()).overwrite(1L, 4, 0, 0, 0, 1);
+
+        service.checkDrift();
+        verify(inventoryRepository, times(1)).overwrite(1L, 4, 0, 0, 0, 1);
+    }
+}
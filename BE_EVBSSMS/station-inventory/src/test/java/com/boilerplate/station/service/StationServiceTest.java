@@ -0,0 +1,73 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.StationStatus;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.DTO.StationDTO;
+import com.boilerplate.station.model.entity.Battery;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.repository.BatteryRepository;
+import com.boilerplate.station.repository.StationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StationServiceTest {
+
+    private StationRepository stationRepository;
+    private StationService service;
+
+    @BeforeEach
+    void setUp() {
+        stationRepository = mock(StationRepository.class);
+        service = new StationService(stationRepository, mock(BatteryRepository.class),
+                mock(OpenStreetMapService.class), mock(StationGeoIndex.class),
+                mock(StationInventoryService.class), mock(BatteryCodeGenerator.class));
+    }
+
+    @Test
+    void listDefaultsToSummaryWithoutBatteries() {
+        StationRepository.StationSummary summary = mock(StationRepository.StationSummary.class);
+        when(summary.getId()).thenReturn(1L);
+        when(summary.getStationCode()).thenReturn("STT1000000");
+        when(summary.getStatus()).thenReturn(StationStatus.ACTIVE);
+        when(summary.getFullBatteries()).thenReturn(7);
+        when(stationRepository.findAllSummaries()).thenReturn(List.of(summary));
+
+        List<StationDTO> stations = service.getAllStations(null).getBody().getData();
+
+        assertEquals(1, stations.size());
+        assertEquals(7, stations.get(0).getFullBatteries());
+        assertNull(stations.get(0).getBatteries());
+        verify(stationRepository, never()).findAll();
+        verify(stationRepository, never()).findAllWithBatteries();
+    }
+
+    @Test
+    void includeBatteriesUsesFetchJoin() {
+        Station station = new Station();
+        station.setId(1L);
+        Battery battery = new Battery();
+        battery.setBatteryCode("BTR1000000");
+        station.setBatteries(List.of(battery));
+        when(stationRepository.findAllWithBatteries()).thenReturn(List.of(station));
+
+        List<StationDTO> stations = service.getAllStations("batteries").getBody().getData();
+
+        assertEquals("BTR1000000", stations.get(0).getBatteries().get(0).getBatteryCode());
+        verify(stationRepository, never()).findAllSummaries();
+    }
+
+    @Test
+    void unknownIncludeIsRejected() {
+        assertThrows(BusinessException.class, () -> service.getAllStations("slots"));
+    }
+}
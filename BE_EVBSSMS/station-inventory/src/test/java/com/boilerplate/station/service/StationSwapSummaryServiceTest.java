@@ -0,0 +1,167 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.TimeSlot;
+import com.boilerplate.station.exception.BusinessException;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.model.event.Producer.StationSwapSummaryDTO;
+import com.boilerplate.station.repository.BatterySwapLogRepository;
+import com.boilerplate.station.repository.StationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StationSwapSummaryServiceTest {
+
+    private record Row(Long stationId, LocalDate swapDate, Integer slotHour, Long swapCount)
+            implements BatterySwapLogRepository.SlotSwapCount {
+        public Long getStationId() { return stationId; }
+        public LocalDate getSwapDate() { return swapDate; }
+        public Integer getSlotHour() { return slotHour; }
+        public Long getSwapCount() { return swapCount; }
+    }
+
+    private BatterySwapLogRepository swapLogRepository;
+    private StationRepository stationRepository;
+    private LogArchiveService logArchiveService;
+    private StationSwapSummaryService service;
+
+    @BeforeEach
+    void setUp() {
+        swapLogRepository = mock(BatterySwapLogRepository.class);
+        stationRepository = mock(StationRepository.class);
+        logArchiveService = mock(LogArchiveService.class);
+        service = new StationSwapSummaryService(swapLogRepository, stationRepository, logArchiveService);
+
+        Station a = new Station();
+        a.setId(1L);
+        a.setStationName("Trạm A");
+        Station b = new Station();
+        b.setId(2L);
+        b.setStationName("Trạm B");
+        when(stationRepository.findAllById(any())).thenReturn(List.of(a, b));
+    }
+
+    @Test
+    void hoursAreFoldedIntoSlots() {
+        LocalDate day = LocalDate.of(2025, 10, 1);
+        when(swapLogRepository.countSwapsByStationDateSlot(isNull(), isNull(), isNull(), any(), any(), eq(0L), anyLong()))
+                .thenReturn(List.of(
+                        new Row(1L, day, 0, 2L),
+                        new Row(1L, day, 5, 1L),
+                        new Row(1L, day, 6, 4L),
+                        new Row(1L, day, 23, 3L),
+                        new Row(1L, day.plusDays(1), 12, 7L),
+                        new Row(2L, day, 17, 1L)));
+
+        List<StationSwapSummaryDTO> result = service.getAllSwapSummary();
+
+        assertEquals(3, result.size());
+        StationSwapSummaryDTO first = result.get(0);
+        assertEquals("Trạm A", first.getStationName());
+        assertEquals("2025-10-01", first.getDate());
+        assertEquals(Map.of(TimeSlot.SLOT_0_6, 3, TimeSlot.SLOT_6_12, 4,
+                TimeSlot.SLOT_12_18, 0, TimeSlot.SLOT_18_24, 3), first.getSwapCountBySlot());
+        assertEquals("2025-10-02", result.get(1).getDate());
+        assertEquals(7, result.get(1).getSwapCountBySlot().get(TimeSlot.SLOT_12_18));
+        assertEquals("Trạm B", result.get(2).getStationName());
+        assertEquals(1, result.get(2).getSwapCountBySlot().get(TimeSlot.SLOT_12_18));
+    }
+
+    @Test
+    void filtersAndPageArePassedToQuery() {
+        when(swapLogRepository.countSwapsByStationDateSlot(any(), any(), any(), any(), any(), anyLong(), anyLong()))
+                .thenReturn(List.of());
+
+        assertTrue(service.getSwapSummary(1L, LocalDate.of(2025, 10, 1), LocalDate.of(2025, 10, 31), 2, 50).isEmpty());
+
+        verify(swapLogRepository).countSwapsByStationDateSlot(1L,
+                LocalDateTime.of(2025, 10, 1, 0, 0), LocalDateTime.of(2025, 11, 1, 0, 0),
+                new LocalDateTime[0], new Long[0], 100L, 50L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void archivedMonthsAreMergedAndPagedInMemory() {
+        LocalDate archivedDay = LocalDate.of(2025, 6, 30);
+        LocalDate hotDay = LocalDate.of(2025, 10, 1);
+        LocalDate from = LocalDate.of(2025, 6, 1);
+        when(logArchiveService.forEachArchivedSwap(isNull(), eq(from.atStartOfDay()), isNull(), any())).thenAnswer(invocation -> {
+            Consumer<LogArchiveService.SwapLogRecord> action = invocation.getArgument(3);
+            action.accept(new LogArchiveService.SwapLogRecord(1L, null, null, 1L, "V1", null,
+                    archivedDay.atTime(7, 0)));
+            action.accept(new LogArchiveService.SwapLogRecord(2L, null, null, 1L, "V2", null,
+                    archivedDay.atTime(8, 30)));
+            action.accept(new LogArchiveService.SwapLogRecord(3L, null, null, 2L, "V3", null,
+                    archivedDay.atTime(20, 0)));
+            return Map.of(LocalDate.of(2025, 6, 1), 3L);
+        });
+        when(swapLogRepository.countSwapsByStationDateSlot(isNull(), eq(from.atStartOfDay()), isNull(), any(), any(),
+                eq(0L), anyLong()))
+                .thenReturn(List.of(new Row(1L, hotDay, 13, 5L), new Row(2L, hotDay, 1, 1L)));
+
+        List<StationSwapSummaryDTO> page = service.getSwapSummary(null, from, null, 0, 3);
+
+        // DB không phân trang khi có dữ liệu lưu trữ, và bỏ các dòng của tháng 6 đã nằm trong file (id <= 3)
+        verify(swapLogRepository).countSwapsByStationDateSlot(null, from.atStartOfDay(), null,
+                new LocalDateTime[]{LocalDate.of(2025, 6, 1).atStartOfDay()}, new Long[]{3L}, 0L, Integer.MAX_VALUE);
+        assertEquals(3, page.size());
+        assertEquals("2025-06-30", page.get(0).getDate());
+        assertEquals(2, page.get(0).getSwapCountBySlot().get(TimeSlot.SLOT_6_12));
+        assertEquals("2025-10-01", page.get(1).getDate());
+        assertEquals(5, page.get(1).getSwapCountBySlot().get(TimeSlot.SLOT_12_18));
+        assertEquals("Trạm B", page.get(2).getStationName());
+        assertEquals(1, page.get(2).getSwapCountBySlot().get(TimeSlot.SLOT_18_24));
+
+        List<StationSwapSummaryDTO> next = service.getSwapSummary(null, from, null, 1, 3);
+        assertEquals(1, next.size());
+        assertEquals("2025-10-01", next.get(0).getDate());
+        assertEquals(2L, next.get(0).getStationId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void toOnlyRangeIncludesArchivedMonths() {
+        LocalDate to = LocalDate.of(2025, 10, 31);
+        LocalDateTime toTime = to.plusDays(1).atStartOfDay();
+        when(logArchiveService.forEachArchivedSwap(isNull(), isNull(), eq(toTime), any())).thenAnswer(invocation -> {
+            Consumer<LogArchiveService.SwapLogRecord> action = invocation.getArgument(3);
+            action.accept(new LogArchiveService.SwapLogRecord(1L, null, null, 1L, "V1", null,
+                    LocalDate.of(2025, 3, 2).atTime(9, 0)));
+            return Map.of(LocalDate.of(2025, 3, 1), 1L);
+        });
+        when(swapLogRepository.countSwapsByStationDateSlot(any(), any(), any(), any(), any(), anyLong(), anyLong()))
+                .thenReturn(List.of(new Row(1L, LocalDate.of(2025, 10, 1), 9, 2L)));
+
+        List<StationSwapSummaryDTO> result = service.getSwapSummary(null, null, to, null, null);
+
+        verify(swapLogRepository).countSwapsByStationDateSlot(null, null, toTime,
+                new LocalDateTime[]{LocalDate.of(2025, 3, 1).atStartOfDay()}, new Long[]{1L}, 0L, Integer.MAX_VALUE);
+        assertEquals(2, result.size());
+        assertEquals("2025-03-02", result.get(0).getDate());
+        assertEquals(1, result.get(0).getSwapCountBySlot().get(TimeSlot.SLOT_6_12));
+        assertEquals("2025-10-01", result.get(1).getDate());
+    }
+
+    @Test
+    void invalidRangeIsRejected() {
+        assertThrows(BusinessException.class, () ->
+                service.getSwapSummary(null, LocalDate.of(2025, 10, 2), LocalDate.of(2025, 10, 1), null, null));
+        assertThrows(BusinessException.class, () -> service.getSwapSummary(null, null, null, 0, 0));
+    }
+}
@@ -0,0 +1,105 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.BatteryStatus;
+import com.boilerplate.station.enums.OwnerType;
+import com.boilerplate.station.enums.SupplyRequestStatus;
+import com.boilerplate.station.enums.TransferOutcome;
+import com.boilerplate.station.model.DTO.BatteryTransferResultDTO;
+import com.boilerplate.station.model.entity.Station;
+import com.boilerplate.station.repository.BatteryRepository;
+import com.boilerplate.station.repository.BatterySupplyRequestRepository;
+import com.boilerplate.station.repository.StationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SupplyRequestServiceTest {
+
+    private BatteryRepository batteryRepository;
+    private BatterySupplyRequestRepository supplyRequestRepository;
+    private StationInventoryService stationInventoryService;
+    private SupplyRequestService service;
+    private Station destination;
+
+    @BeforeEach
+    void setUp() {
+        batteryRepository = mock(BatteryRepository.class);
+        StationRepository stationRepository = mock(StationRepository.class);
+        stationInventoryService = mock(StationInventoryService.class);
+        supplyRequestRepository = mock(BatterySupplyRequestRepository.class);
+        service = new SupplyRequestService(supplyRequestRepository, stationRepository,
+                batteryRepository, stationInventoryService, mock(BatteryTimelineService.class));
+        ReflectionTestUtils.setField(service, "maxTransferBatch", 500);
+        ReflectionTestUtils.setField(service, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(service, "maxPageSize", 200);
+
+        destination = new Station();
+        destination.setId(9L);
+        destination.setStationCode("STT1000009");
+        when(stationRepository.findByStationCode("STT1000009")).thenReturn(Optional.of(destination));
+    }
+
+    private static BatteryRepository.TransferCandidate candidate(long id, String code, boolean hold, Long stationId) {
+        return new BatteryRepository.TransferCandidate() {
+            public Long getId() { return id; }
+            public String getBatteryCode() { return code; }
+            public Boolean getHold() { return hold; }
+            public Long getStationId() { return stationId; }
+            public BatteryStatus getStatus() { return BatteryStatus.FULL; }
+        };
+    }
+
+    @Test
+    void reportsOutcomePerCodeAndMovesValidOnesInOneUpdate() {
+        when(batteryRepository.lockForTransfer(any())).thenReturn(List.of(
+                candidate(1, "BTR1", false, 1L),
+                candidate(2, "BTR2", true, 1L),
+                candidate(3, "BTR3", false, 9L),
+                candidate(4, "BTR4", false, null)));
+
+        BatteryTransferResultDTO result = service.transferBatteries(
+                List.of("BTR1", "BTR2", "BTR3", "BTR4", "BTR5", "BTR1"), "STT1000009").getBody().getData();
+
+        assertEquals(2, result.getTransferred());
+        assertEquals(List.of(TransferOutcome.TRANSFERRED, TransferOutcome.HELD, TransferOutcome.ALREADY_AT_STATION,
+                        TransferOutcome.TRANSFERRED, TransferOutcome.NOT_FOUND, TransferOutcome.DUPLICATE),
+                result.getItems().stream().map(BatteryTransferResultDTO.Item::getOutcome).toList());
+        verify(batteryRepository).moveToStation(List.of(1L, 4L), destination, OwnerType.STATION, "STT1000009");
+        verify(stationInventoryService).trackAll(anyList(), anyList());
+    }
+
+    @Test
+    void nothingToMoveSkipsUpdate() {
+        when(batteryRepository.lockForTransfer(any())).thenReturn(List.of(candidate(2, "BTR2", true, 1L)));
+
+        BatteryTransferResultDTO result = service.transferBatteries(List.of("BTR2"), "STT1000009").getBody().getData();
+
+        assertEquals(0, result.getTransferred());
+        verify(batteryRepository, never()).moveToStation(any(), eq(destination), any(), any());
+    }
+
+    @Test
+    void searchPassesFiltersAndCapsPageSize() {
+        service.getAllRequests(SupplyRequestStatus.PENDING, LocalDate.of(2025, 10, 1), LocalDate.of(2025, 10, 31), 120L, 1_000);
+        service.getByStationCode("STT1000009", null, null, null, null, null);
+
+        verify(supplyRequestRepository).search(null, SupplyRequestStatus.PENDING,
+                LocalDateTime.of(2025, 10, 1, 0, 0), LocalDateTime.of(2025, 11, 1, 0, 0), 120L, PageRequest.of(0, 200));
+        verify(supplyRequestRepository).search("STT1000009", null, null, null, null, PageRequest.of(0, 50));
+    }
+}
@@ -0,0 +1,134 @@
+package com.boilerplate.station.service;
+
+import com.boilerplate.station.enums.TimeSlot;
+import com.boilerplate.station.model.DTO.SwapForecastDTO;
+import com.boilerplate.station.model.event.Producer.BatterySwapSummary;
+import com.boilerplate.station.repository.BatterySwapSummaryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SwapForecastServiceTest {
+
+    // Thứ Hai
+    private static final LocalDate START = LocalDate.of(2025, 9, 1);
+
+    private BatterySwapSummaryRepository summaryRepository;
+    private SwapForecastService service;
+
+    @BeforeEach
+    void setUp() {
+        summaryRepository = mock(BatterySwapSummaryRepository.class);
+        service = new SwapForecastService(summaryRepository, new SimpleMeterRegistry(), 0.3, 0.05, 0.2, 56, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static BatterySwapSummary row(long stationId, LocalDate date, TimeSlot slot, int count) {
+        return BatterySwapSummary.builder().stationId(stationId).date(date).timeSlot(slot).swapCount(count).build();
+    }
+
+    // Cuối tuần đông gấp đôi ngày thường
+    private static int weekly(LocalDate date) {
+        DayOfWeek day = date.getDayOfWeek();
+        return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY ? 40 : 20;
+    }
+
+    @Test
+    void learnsWeeklySeasonality() {
+        List<BatterySwapSummary> rows = new ArrayList<>();
+        for (int i = 0; i < 56; i++) {
+            LocalDate date = START.plusDays(i);
+            rows.add(row(1, date, TimeSlot.SLOT_18_24, weekly(date)));
+        }
+        LocalDate lastDay = START.plusDays(55);
+
+        service.train(rows, lastDay);
+        SwapForecastDTO forecast = service.forecast(1L, lastDay);
+
+        assertTrue(forecast.isTrained());
+        assertEquals(7, forecast.getNextWeek().size());
+        for (SwapForecastDTO.DayForecast day : forecast.getNextWeek()) {
+            assertEquals(weekly(day.getDate()), day.getSlots().get(TimeSlot.SLOT_18_24), 1.0);
+            // Khung giờ chưa từng có swap
+            assertEquals(0.0, day.getSlots().get(TimeSlot.SLOT_0_6));
+        }
+        assertEquals(forecast.getNextWeek().get(0), forecast.getNextDay());
+    }
+
+    @Test
+    void missingDaysCountAsZeroAndReplaysAreIgnored() {
+        SwapForecastService.SeasonalModel model = service.model(1L, TimeSlot.SLOT_6_12);
+        model.observe(START, 10);
+        model.observe(START.plusDays(2), 10);
+        model.observe(START.plusDays(2), 1000);
+        model.observe(START.plusDays(1), 1000);
+
+        // 10, 0, 10 → trung bình khi chưa đủ một tuần
+        assertEquals(20.0 / 3, model.forecast(START.plusDays(3)), 1e-9);
+        assertEquals(START.plusDays(2), model.lastDate());
+    }
+
+    @Test
+    void closedSlotUpdatesEveryStationInOneQuery() {
+        LocalDate day = START.plusDays(7);
+        for (long station = 1; station <= 200; station++) {
+            service.model(station, TimeSlot.SLOT_12_18).observe(day.minusDays(1), 5);
+        }
+        List<BatterySwapSummary> closed = List.of(row(3, day, TimeSlot.SLOT_12_18, 9), row(500, day, TimeSlot.SLOT_12_18, 4));
+        when(summaryRepository.findByDateAndTimeSlot(day, TimeSlot.SLOT_12_18)).thenReturn(closed);
+
+        service.observeSlot(day, TimeSlot.SLOT_12_18);
+
+        for (long station = 1; station <= 200; station++) {
+            assertEquals(day, service.model(station, TimeSlot.SLOT_12_18).lastDate());
+        }
+        assertEquals(7.0, service.model(3L, TimeSlot.SLOT_12_18).forecast(day.plusDays(1)), 1e-9);
+        assertEquals(4.0, service.forecast(500L, day).getNextDay().getSlots().get(TimeSlot.SLOT_12_18));
+    }
+
+    @Test
+    void bootstrapLearnsTodaysClosedSlots() {
+        LocalDate today = START.plusDays(14);
+        List<BatterySwapSummary> rows = new ArrayList<>();
+        for (int i = 0; i <= 14; i++) {
+            rows.add(row(1, START.plusDays(i), TimeSlot.SLOT_6_12, 10));
+            rows.add(row(1, START.plusDays(i), TimeSlot.SLOT_12_18, 10));
+        }
+        // trạm 2 mới có swap lần đầu trong khung đang mở
+        rows.add(row(2, today, TimeSlot.SLOT_12_18, 3));
+        when(summaryRepository.findByDateGreaterThanEqualAndDateLessThan(today.minusDays(56), today.plusDays(1)))
+                .thenReturn(rows);
+
+        service.bootstrap(today.atTime(13, 0));
+
+        // khung 6-12 đã đóng: học cả hôm nay, lần chạy job đóng khung sau đó bị bỏ qua
+        assertEquals(today, service.model(1L, TimeSlot.SLOT_6_12).lastDate());
+        // khung 12-18 còn mở: chỉ học tới hôm qua
+        assertEquals(today.minusDays(1), service.model(1L, TimeSlot.SLOT_12_18).lastDate());
+        assertFalse(service.forecast(2L, today).isTrained());
+    }
+
+    @Test
+    void unknownStationForecastsZero() {
+        SwapForecastDTO forecast = service.forecast(42L, START);
+
+        assertFalse(forecast.isTrained());
+        assertEquals(0.0, forecast.getNextDay().getTotal());
+    }
+}
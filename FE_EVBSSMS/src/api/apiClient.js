@@ -108,4 +108,23 @@ export const apiClient = {
             handleError(error);
         }
     },
-};
\ No newline at end of file
+};
+
+/**
+ * Lấy hết một danh sách phân trang keyset (mới nhất trước, trang sau: beforeId = id cuối của trang trước).
+ * Mỗi request lấy tối đa `size` phần tử (không vượt station.paging.max-size).
+ * @param {string} url - Endpoint nhận beforeId/size, trả ResponseData với data là array
+ * @param {number} [size=1000]
+ * @returns {Promise<Array>} Toàn bộ phần tử của các trang
+ */
+export const getAllPages = async (url, size = 1000) => {
+    const items = [];
+    let beforeId;
+    for (;;) {
+        const res = await apiClient.get(url, { params: beforeId ? { beforeId, size } : { size } });
+        const page = Array.isArray(res?.data) ? res.data : [];
+        items.push(...page);
+        if (page.length < size) return items;
+        beforeId = page[page.length - 1].id;
+    }
+};
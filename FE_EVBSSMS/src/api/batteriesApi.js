@@ -1,4 +1,4 @@
-import { apiClient } from "./apiClient";
+import { apiClient, getAllPages } from "./apiClient";
 
 /**
  * Battery API
@@ -28,12 +28,12 @@ export const BATTERY_OWNER_TYPE = {
 };
 
 /**
- * Lấy tất cả batteries
- * GET /station/api/batteries/getall
- * @returns {Promise<Object>}
+ * Lấy tất cả batteries (đi hết các trang của API phân trang)
+ * GET /station/api/batteries/getall?beforeId=&size=
+ * @returns {Promise<Array>}
  */
 export const getAllBatteries = async () => {
-    return await apiClient.get(`${BASE_URL}/getall`);
+    return await getAllPages(`${BASE_URL}/getall`);
 };
 
 /**
@@ -1,4 +1,7 @@
-import {apiClient} from "@/api/apiClient.js";
+import {apiClient, getAllPages} from "@/api/apiClient.js";
+
+// Tối đa số yêu cầu mỗi trang (station.supply-request.max-page-size)
+const PAGE_SIZE = 200;
 
 /**
  * Battery Transfer API
@@ -30,13 +33,12 @@ export const createBatteryTransferRequest = async (transferData) => {
     return res;
 }
 /**
- * 2. Lấy tất cả yêu cầu chuyển pin
- * GET /api/battery-transfer/request/all
+ * 2. Lấy tất cả yêu cầu chuyển pin (đi hết các trang, mới nhất trước)
+ * GET /api/battery-transfer/request/all?beforeId=&size=
     * @returns {Promise<Array>} Danh sách tất cả yêu cầu chuyển pin
     */
 export const getAllBatteryTransferRequests = async () => {
-    const res = await apiClient.get(`${BASE_URL}/request/all`);
-    return res || [];
+    return await getAllPages(`${BASE_URL}/request/all`, PAGE_SIZE);
 };
 /**
  * 3. Xử lý yêu cầu chuyển pin
@@ -63,14 +65,13 @@ export const getBatteryTransferRequestById = async (id) => {
 };
 
 /**
- * 5. Lay yêu cầu chuyển pin theo mã trạm
- * GET /api/battery-transfer/request/station/{stationCode}
+ * 5. Lay yêu cầu chuyển pin theo mã trạm (đi hết các trang, mới nhất trước)
+ * GET /api/battery-transfer/request/station/{stationCode}?beforeId=&size=
  * @param {string} stationCode - Mã trạm
  * @returns {Promise<Array>} Danh sách yêu cầu chuyển pin của trạm
  */
 export const getBatteryTransferRequestsByStationCode = async (stationCode) => {
-    const res = await apiClient.get(`${BASE_URL}/request/station/${stationCode}`);
-    return res || [];
+    return await getAllPages(`${BASE_URL}/request/station/${stationCode}`, PAGE_SIZE);
 };
 
 export const batteryTransferApi = {
@@ -8,12 +8,13 @@ import { apiClient } from "./apiClient";
 const BASE_URL = "/station/api/stations";
 
 /**
- * Lấy tất cả stations
+ * Lấy tất cả stations (bản tóm tắt, không kèm danh sách pin)
  * GET /api/stations/getAll
+ * @param {string} [include] - "batteries" để lấy kèm danh sách pin của từng trạm
  * @returns {Promise<Object>} Response với data là array của stations
  */
-export const getAllStations = async () => {
-    return await apiClient.get(`${BASE_URL}/getAll`);
+export const getAllStations = async (include) => {
+    return await apiClient.get(`${BASE_URL}/getAll`, { params: include ? { include } : {} });
 };
 
 /**
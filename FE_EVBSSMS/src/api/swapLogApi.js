@@ -1,4 +1,4 @@
-import { apiClient } from "@/api/apiClient.js";
+import { apiClient, getAllPages } from "@/api/apiClient.js";
 
 /**
  * Swap Log API
@@ -32,13 +32,12 @@ export const getSwapLogByStationId = async (StationId) => {
 };
 
 /**
- * GET /api/swaplog/verhicle-station/getall
- * Lấy tất cả bản ghi đổi pin
- * @returns {Promise<Object>} Response với data là array của SwapLogResponse
+ * GET /api/swaplog/verhicle-station/getall?beforeId=&size=
+ * Lấy tất cả bản ghi đổi pin (đi hết các trang của API phân trang)
+ * @returns {Promise<Array>} Array của SwapLogResponse
  */
 export const getAllSwapLogs = async () => {
-    const res = await apiClient.get(`${BASE_URL}/verhicle-station/getall`);
-    return res?.data || res;
+    return await getAllPages(`${BASE_URL}/verhicle-station/getall`);
 }
 
 export const swapLogApi = {
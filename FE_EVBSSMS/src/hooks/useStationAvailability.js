@@ -0,0 +1,61 @@
+import { useEffect, useState } from "react";
+
+const STREAM_URL = `${import.meta.env.VITE_API_BASE_URL}/station/api/stations/availability/stream`;
+const MAX_STATIONS_PER_STREAM = 200; // station.stream.max-stations
+
+/**
+ * Theo dõi tình trạng các trạm qua SSE (/api/stations/availability/stream) thay cho việc gọi lại getAll.
+ * Event "snapshot" khi kết nối, sau đó "delta" chỉ gồm trạm / slot đã đổi; EventSource tự kết nối lại khi mất kết nối.
+ * @param {Array<number|string>} stationIds - Các trạm cần theo dõi (chia thành nhiều kết nối nếu quá 200 trạm)
+ * @returns {Object} stationId -> { full, charging, held, slots }
+ */
+export default function useStationAvailability(stationIds) {
+    const [availability, setAvailability] = useState({});
+    const key = [...new Set((stationIds || []).map(String))].sort().join(",");
+
+    useEffect(() => {
+        if (!key || typeof EventSource === "undefined") return undefined;
+        const ids = key.split(",");
+
+        const merge = (event) => {
+            let items;
+            try {
+                items = JSON.parse(event.data);
+            } catch {
+                return;
+            }
+            if (!Array.isArray(items)) return;
+            setAvailability((prev) => {
+                const next = { ...prev };
+                items.forEach((item) => {
+                    const current = next[item.stationId] || {};
+                    const slots = { ...(current.slots || {}) };
+                    Object.entries(item.slots || {}).forEach(([slotId, status]) => {
+                        // status null = slot bị gỡ khỏi trạm
+                        if (status === null) delete slots[slotId];
+                        else slots[slotId] = status;
+                    });
+                    next[item.stationId] = {
+                        full: item.full ?? current.full,
+                        charging: item.charging ?? current.charging,
+                        held: item.held ?? current.held,
+                        slots,
+                    };
+                });
+                return next;
+            });
+        };
+
+        const sources = [];
+        for (let i = 0; i < ids.length; i += MAX_STATIONS_PER_STREAM) {
+            const chunk = ids.slice(i, i + MAX_STATIONS_PER_STREAM);
+            const source = new EventSource(`${STREAM_URL}?stationIds=${chunk.join(",")}`);
+            source.addEventListener("snapshot", merge);
+            source.addEventListener("delta", merge);
+            sources.push(source);
+        }
+        return () => sources.forEach((source) => source.close());
+    }, [key]);
+
+    return availability;
+}
@@ -41,8 +41,8 @@ export default function BatteryDispatchPage() {
 
     // Fetch tất cả stations
     const { data: stationsWrapper, isLoading } = useCustomQuery(
-        ["all-stations"],
-        () => stationApi.getAllStations()
+        ["all-stations", "batteries"],
+        () => stationApi.getAllStations("batteries")
     );
 
     // Chuẩn hoá danh sách trạm
@@ -75,10 +75,10 @@ export default function StationManagementPage() {
     });
     const [addStaffData, setAddStaffData] = useState({ stationId: null, staffCode: "" });
 
-    // Fetch stations
+    // Fetch stations (kèm pin và nhân viên cho số lượng trên thẻ và StationDetailDialog)
     const { data: stationsWrapper, isLoading, refetch } = useCustomQuery(
-        ["stations"],
-        () => stationApi.getAllStations()
+        ["stations", "batteries"],
+        () => stationApi.getAllStations("batteries")
     );
 
     const stationsData = stationsWrapper?.data || stationsWrapper || [];
@@ -5,6 +5,7 @@ import L from "leaflet";
 import "leaflet/dist/leaflet.css";
 import useCustomQuery from "@/hooks/useCustomQuery";
 import useCustomMutation from "@/hooks/useCustomMutation";
+import useStationAvailability from "@/hooks/useStationAvailability";
 import { stationApi, STATION_STATUS } from "@/api";
 import { Badge } from "@/components/ui/badge";
 import { Button } from "@/components/ui/button";
@@ -42,6 +43,8 @@ export default function StationMapView({ onEditStation }) {
 
     const stationsData = stationsWrapper?.data || stationsWrapper || [];
     const stations = Array.isArray(stationsData) ? stationsData : [];
+    // Số pin đầy / đang sạc / đang giữ cập nhật trực tiếp qua SSE
+    const availability = useStationAvailability(stations.map((station) => station.id));
 
     // Mutation lấy trạm gần nhất
     const nearestMutation = useCustomMutation(
@@ -270,6 +273,9 @@ function MapController({ center }) {
                                                 <span className="px-2 py-0.5 rounded-full text-xs font-semibold bg-emerald-100 text-emerald-700">Gần bạn</span>
                                             )}
                                             <span className={`px-2 py-0.5 rounded-full text-xs font-semibold ${slotColorClass} bg-slate-100`}>Còn trống: {station.availableSlots}/{station.totalSlots}</span>
+                                            {availability[station.id] && (
+                                                <span className="px-2 py-0.5 rounded-full text-xs font-semibold text-blue-700 bg-blue-50">Pin đầy: {availability[station.id].full} · Đang sạc: {availability[station.id].charging}</span>
+                                            )}
                                         </div>
                                         <div className="flex gap-2">
                                             {onEditStation && (
@@ -405,6 +411,17 @@ function MapController({ center }) {
                                                                 </span>
                                                             </div>
 
+                                                            {availability[station.id] && (
+                                                                <div className="flex items-center gap-2 text-sm text-gray-600">
+                                                                    <Battery className="w-4 h-4 flex-shrink-0 text-emerald-500" />
+                                                                    <span>
+                                                                        Pin đầy: <span className="font-semibold text-emerald-600">{availability[station.id].full}</span>
+                                                                        {" · "}Đang sạc: {availability[station.id].charging}
+                                                                        {" · "}Đang giữ: {availability[station.id].held}
+                                                                    </span>
+                                                                </div>
+                                                            )}
+
                                                             {station.distanceKm && (
                                                                 <p className="text-sm text-blue-600 font-semibold">Cách bạn: {station.distanceKm.toFixed(2)} km</p>
                                                             )}
@@ -6,6 +6,7 @@ import { MapContainer, TileLayer, Marker, Popup, useMap } from "react-leaflet";
 import L from "leaflet";
 import "leaflet/dist/leaflet.css";
 import useCustomQuery from "@/hooks/useCustomQuery";
+import useStationAvailability from "@/hooks/useStationAvailability";
 import { stationApi, STATION_STATUS } from "@/api";
 import { Button } from "@/components/ui/button";
 import { Input } from "@/components/ui/input";
@@ -83,13 +84,15 @@ export default function StationListPage() {
         visible: { opacity: 1, y: 0 },
     };
 
-    // Fetch danh sách stations
+    // Fetch danh sách stations (kèm pin: bộ lọc model/dung lượng và pin khả dụng đọc station.batteries)
     const { data: stationsWrapper, isLoading } = useCustomQuery(
-        ["stations"],
-        () => stationApi.getAllStations()
+        ["stations", "batteries"],
+        () => stationApi.getAllStations("batteries")
     );
     const stationsData = stationsWrapper?.data || stationsWrapper || [];
     const stations = Array.isArray(stationsData) ? stationsData : [];
+    // Số pin đầy / đang sạc cập nhật trực tiếp qua SSE
+    const availability = useStationAvailability(stations.map((station) => station.id));
 
     // Lấy tất cả batteries từ stations để extract unique models và capacities
     const allBatteriesFromStations = stations.flatMap(station => station.batteries || []);
@@ -484,6 +487,9 @@ export default function StationListPage() {
                                                             <p className="text-xs text-blue-600 font-semibold mb-1">Cách bạn: {station.distanceKm.toFixed(2)} km</p>
                                                         )}
                                                         <p className="text-xs mb-2"><span className="font-semibold text-emerald-600">Còn trống:</span> {station.availableSlots}/{station.totalSlots}</p>
+                                                        {availability[station.id] && (
+                                                            <p className="text-xs mb-2"><span className="font-semibold text-blue-600">Pin đầy:</span> {availability[station.id].full} · <span className="font-semibold text-slate-600">Đang sạc:</span> {availability[station.id].charging}</p>
+                                                        )}
                                                         <div className="flex gap-2">
                                                             <Button
                                                                 size="sm"